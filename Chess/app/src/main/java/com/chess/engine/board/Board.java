@@ -1,8 +1,1030 @@
 package com.chess.engine.board;
 
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.Bishop;
+import com.chess.engine.pieces.King;
+import com.chess.engine.pieces.Knight;
+import com.chess.engine.pieces.Pawn;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Queen;
+import com.chess.engine.pieces.Rook;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
 public class Board {
 
+    /**
+     * Cached alliances, indexed by ordinal.
+     */
+    private static final Alliance[] ALLIANCES = Alliance.values();
+
+    /**
+     * The start tiles of the kings, e1 and e8. The rooks start 3 tiles to the right and 4 to the left.
+     */
+    private static final int WHITE_KING_START = 60;
+    private static final int BLACK_KING_START = 4;
+
+    /**
+     * One bitboard per piece code. Bit n is set when tile n holds that piece.
+     */
+    private final long[] pieceBitboards;
+
+    /**
+     * All the tiles occupied by each alliance, indexed by alliance ordinal.
+     */
+    private final long[] allianceOccupancy;
+
+    /**
+     * All the occupied tiles.
+     */
+    private long occupancy;
+
+    /**
+     * The piece code on each tile, NO_PIECE if the tile is empty.
+     */
+    private final int[] pieceCodes;
+
+    /**
+     * The alliance to move next.
+     */
+    private Alliance nextMoveMaker;
+
+    /**
+     * The castling rights still available, a combination of the BoardUtils castling bits.
+     */
+    private int castlingRights;
+
+    /**
+     * The tile a pawn skipped over with its last move, NO_EN_PASSANT if the last move was not a pawn jump.
+     */
+    private int enPassantCoordinate;
+
+    /**
+     * The number of moves since the last capture or pawn move.
+     */
+    private int halfMoveClock;
+
+    /**
+     * The number of the full move, starting at 1 and increased after black moves.
+     */
+    private int fullMoveNumber;
+
+    /**
+     * The Zobrist key of the position, kept up to date as pieces are added, removed and moved.
+     */
+    private long zobristKey;
+
+    /**
+     * The pawn key of the position, the Zobrist keys of the pawns only, kept up to date the same way.
+     */
+    private long pawnKey;
+
+    /**
+     * The sums of the material and piece-square values of every piece, for the midgame and for the endgame,
+     * from the point of view of white. They are kept up to date like the key, so the evaluation reads them
+     * instead of going over the tiles.
+     */
+    private int midgameScore;
+    private int endgameScore;
+
+    /**
+     * The game phase, the sum of the phase weights of every piece.
+     */
+    private int gamePhase;
+
+    /**
+     * The tiles each alliance attacks, indexed by alliance ordinal. A map is computed the first time
+     * it is asked for and kept until the position changes.
+     */
+    private final long[] attackMaps;
+
+    /**
+     * Which attack maps are up to date, one bit per alliance ordinal.
+     */
+    private int validAttackMaps;
+
+    /**
+     * The undo stack, one entry per move made: the move itself and the state the move overwrote.
+     * The captured piece is part of the packed move.
+     */
+    private int[] moveHistory;
+    private int[] castlingRightsHistory;
+    private int[] enPassantHistory;
+    private int[] halfMoveClockHistory;
+    private long[] zobristKeyHistory;
+
+    /**
+     * The attack maps of the position before each move, two per move, so taking a move back
+     * restores them instead of computing them again.
+     */
+    private long[] attackMapHistory;
+    private int[] validAttackMapsHistory;
+
+    /**
+     * The number of moves on the undo stack.
+     */
+    private int historySize;
+
+    /**
+     * The undo stack capacity a board starts with, deeper than any search. Longer games grow it.
+     */
+    private static final int INITIAL_HISTORY_CAPACITY = 256;
+
+    /**
+     * The castling rights kept when a piece moves from or to each tile.
+     * Moving a king or a rook, or capturing a rook, loses the matching rights.
+     */
+    private static final int[] CASTLING_RIGHTS_MASKS = initCastlingRightsMasks();
+
+    /**
+     * The constructor of Board class.
+     * @param builder the builder holding the board configuration.
+     */
+    private Board(final Builder builder) {
+        this.pieceBitboards = new long[BoardUtils.NUM_PIECE_CODES];
+        this.allianceOccupancy = new long[ALLIANCES.length];
+        this.pieceCodes = new int[BoardUtils.NUM_TILES];
+        Arrays.fill(this.pieceCodes, BoardUtils.NO_PIECE);
+        this.attackMaps = new long[ALLIANCES.length];
+        this.validAttackMaps = 0;
+        initHistory(INITIAL_HISTORY_CAPACITY);
+        for (final Piece piece : builder.boardConfig.values()) {
+            addPiece(piece.getPieceCode(), piece.getPiecePosition());
+        }
+        this.nextMoveMaker = builder.nextMoveMaker;
+        this.castlingRights = builder.castlingRights;
+        this.enPassantCoordinate = builder.enPassantCoordinate;
+        this.halfMoveClock = builder.halfMoveClock;
+        this.fullMoveNumber = builder.fullMoveNumber;
+        this.zobristKey ^= Zobrist.getCastlingKey(this.castlingRights)
+                ^ Zobrist.getEnPassantKey(this.enPassantCoordinate);
+        if (this.nextMoveMaker.isBlack()) {
+            this.zobristKey ^= Zobrist.getBlackToMoveKey();
+        }
+    }
+
+    /**
+     * The copy constructor of Board class.
+     * @param board the board to copy.
+     */
+    private Board(final Board board) {
+        this.pieceBitboards = board.pieceBitboards.clone();
+        this.allianceOccupancy = board.allianceOccupancy.clone();
+        this.occupancy = board.occupancy;
+        this.pieceCodes = board.pieceCodes.clone();
+        this.nextMoveMaker = board.nextMoveMaker;
+        this.castlingRights = board.castlingRights;
+        this.enPassantCoordinate = board.enPassantCoordinate;
+        this.halfMoveClock = board.halfMoveClock;
+        this.fullMoveNumber = board.fullMoveNumber;
+        this.zobristKey = board.zobristKey;
+        this.pawnKey = board.pawnKey;
+        this.midgameScore = board.midgameScore;
+        this.endgameScore = board.endgameScore;
+        this.gamePhase = board.gamePhase;
+        this.attackMaps = board.attackMaps.clone();
+        this.validAttackMaps = board.validAttackMaps;
+        this.moveHistory = board.moveHistory.clone();
+        this.castlingRightsHistory = board.castlingRightsHistory.clone();
+        this.enPassantHistory = board.enPassantHistory.clone();
+        this.halfMoveClockHistory = board.halfMoveClockHistory.clone();
+        this.zobristKeyHistory = board.zobristKeyHistory.clone();
+        this.attackMapHistory = board.attackMapHistory.clone();
+        this.validAttackMapsHistory = board.validAttackMapsHistory.clone();
+        this.historySize = board.historySize;
+    }
+
+    /**
+     * Create an empty undo stack.
+     * @param capacity the number of moves it holds before growing.
+     */
+    private void initHistory(final int capacity) {
+        this.moveHistory = new int[capacity];
+        this.castlingRightsHistory = new int[capacity];
+        this.enPassantHistory = new int[capacity];
+        this.halfMoveClockHistory = new int[capacity];
+        this.zobristKeyHistory = new long[capacity];
+        this.attackMapHistory = new long[capacity * ALLIANCES.length];
+        this.validAttackMapsHistory = new int[capacity];
+        this.historySize = 0;
+    }
+
+    /**
+     * Double the capacity of the undo stack.
+     */
+    private void growHistory() {
+        final int capacity = this.moveHistory.length * 2;
+        this.moveHistory = Arrays.copyOf(this.moveHistory, capacity);
+        this.castlingRightsHistory = Arrays.copyOf(this.castlingRightsHistory, capacity);
+        this.enPassantHistory = Arrays.copyOf(this.enPassantHistory, capacity);
+        this.halfMoveClockHistory = Arrays.copyOf(this.halfMoveClockHistory, capacity);
+        this.zobristKeyHistory = Arrays.copyOf(this.zobristKeyHistory, capacity);
+        this.attackMapHistory = Arrays.copyOf(this.attackMapHistory, capacity * ALLIANCES.length);
+        this.validAttackMapsHistory = Arrays.copyOf(this.validAttackMapsHistory, capacity);
+    }
+
+    /**
+     * Push a move and the state it is about to overwrite on the undo stack.
+     * The attack maps are out of date once the move is made.
+     * @param move the move, NULL_MOVE for a null move.
+     */
+    private void pushHistory(final int move) {
+        if (this.historySize == this.moveHistory.length) {
+            growHistory();
+        }
+        this.moveHistory[this.historySize] = move;
+        this.castlingRightsHistory[this.historySize] = this.castlingRights;
+        this.enPassantHistory[this.historySize] = this.enPassantCoordinate;
+        this.halfMoveClockHistory[this.historySize] = this.halfMoveClock;
+        this.zobristKeyHistory[this.historySize] = this.zobristKey;
+        this.attackMapHistory[this.historySize * 2] = this.attackMaps[0];
+        this.attackMapHistory[this.historySize * 2 + 1] = this.attackMaps[1];
+        this.validAttackMapsHistory[this.historySize] = this.validAttackMaps;
+        this.validAttackMaps = 0;
+        this.historySize++;
+    }
+
+    /**
+     * Pop the last move off the undo stack and restore the state it overwrote, but the pieces and the key.
+     * Moving the pieces back changes the key, so it is restored once they are back.
+     * @return the move, NULL_MOVE for a null move.
+     */
+    private int popHistory() {
+        this.historySize--;
+        this.castlingRights = this.castlingRightsHistory[this.historySize];
+        this.enPassantCoordinate = this.enPassantHistory[this.historySize];
+        this.halfMoveClock = this.halfMoveClockHistory[this.historySize];
+        this.attackMaps[0] = this.attackMapHistory[this.historySize * 2];
+        this.attackMaps[1] = this.attackMapHistory[this.historySize * 2 + 1];
+        this.validAttackMaps = this.validAttackMapsHistory[this.historySize];
+        this.nextMoveMaker = ALLIANCES[this.nextMoveMaker.ordinal() ^ 1];
+        return this.moveHistory[this.historySize];
+    }
+
+    /**
+     * The castling rights kept when a piece moves from or to each tile.
+     * @return a list of castling rights masks, one per tile.
+     */
+    private static int[] initCastlingRightsMasks() {
+        final int[] masks = new int[BoardUtils.NUM_TILES];
+        Arrays.fill(masks, BoardUtils.ALL_CASTLING);
+        masks[0] &= ~BoardUtils.BLACK_QUEEN_SIDE_CASTLE;
+        masks[4] &= ~(BoardUtils.BLACK_KING_SIDE_CASTLE | BoardUtils.BLACK_QUEEN_SIDE_CASTLE);
+        masks[7] &= ~BoardUtils.BLACK_KING_SIDE_CASTLE;
+        masks[56] &= ~BoardUtils.WHITE_QUEEN_SIDE_CASTLE;
+        masks[60] &= ~(BoardUtils.WHITE_KING_SIDE_CASTLE | BoardUtils.WHITE_QUEEN_SIDE_CASTLE);
+        masks[63] &= ~BoardUtils.WHITE_KING_SIDE_CASTLE;
+        return masks;
+    }
+
+    /**
+     * Put a piece on an empty tile.
+     * @param pieceCode piece code.
+     * @param tileCoordinate tile position.
+     */
+    private void addPiece(final int pieceCode, final int tileCoordinate) {
+        final long tileMask = 1L << tileCoordinate;
+        this.pieceBitboards[pieceCode] |= tileMask;
+        this.allianceOccupancy[BoardUtils.getPieceAlliance(pieceCode)] |= tileMask;
+        this.occupancy |= tileMask;
+        this.pieceCodes[tileCoordinate] = pieceCode;
+        this.zobristKey ^= Zobrist.getPieceKey(pieceCode, tileCoordinate);
+        this.pawnKey ^= Zobrist.getPawnKey(pieceCode, tileCoordinate);
+        this.midgameScore += PieceSquareTables.getMidgameValue(pieceCode, tileCoordinate);
+        this.endgameScore += PieceSquareTables.getEndgameValue(pieceCode, tileCoordinate);
+        this.gamePhase += PieceSquareTables.getPhaseWeight(pieceCode);
+    }
+
+    /**
+     * Take a piece off its tile.
+     * @param pieceCode piece code.
+     * @param tileCoordinate tile position.
+     */
+    private void removePiece(final int pieceCode, final int tileCoordinate) {
+        final long tileMask = 1L << tileCoordinate;
+        this.pieceBitboards[pieceCode] &= ~tileMask;
+        this.allianceOccupancy[BoardUtils.getPieceAlliance(pieceCode)] &= ~tileMask;
+        this.occupancy &= ~tileMask;
+        this.pieceCodes[tileCoordinate] = BoardUtils.NO_PIECE;
+        this.zobristKey ^= Zobrist.getPieceKey(pieceCode, tileCoordinate);
+        this.pawnKey ^= Zobrist.getPawnKey(pieceCode, tileCoordinate);
+        this.midgameScore -= PieceSquareTables.getMidgameValue(pieceCode, tileCoordinate);
+        this.endgameScore -= PieceSquareTables.getEndgameValue(pieceCode, tileCoordinate);
+        this.gamePhase -= PieceSquareTables.getPhaseWeight(pieceCode);
+    }
+
+    /**
+     * Move a piece to an empty tile.
+     * @param pieceCode piece code.
+     * @param sourceCoordinate the tile it leaves.
+     * @param destinationCoordinate the tile it goes to.
+     */
+    private void movePiece(final int pieceCode, final int sourceCoordinate, final int destinationCoordinate) {
+        removePiece(pieceCode, sourceCoordinate);
+        addPiece(pieceCode, destinationCoordinate);
+    }
+
+    /**
+     * Get the tile at the given coordinate.
+     * Kept for compatibility, move generation should read the bitboards instead.
+     * @param tileCoordinate tile position.
+     * @return the tile.
+     */
     public Tile getTile(final int tileCoordinate) {
-        return null;
+        return Tile.creatTile(tileCoordinate, getPiece(tileCoordinate));
+    }
+
+    /**
+     * Get the piece at the given coordinate.
+     * @param tileCoordinate tile position.
+     * @return the piece, or null if the tile is empty.
+     */
+    public Piece getPiece(final int tileCoordinate) {
+        final int pieceCode = this.pieceCodes[tileCoordinate];
+        if (pieceCode == BoardUtils.NO_PIECE) {
+            return null;
+        }
+        return Piece.PieceType.fromPieceCode(pieceCode)
+                .createPiece(tileCoordinate, ALLIANCES[BoardUtils.getPieceAlliance(pieceCode)]);
+    }
+
+    /**
+     * Get the piece code at the given coordinate.
+     * @param tileCoordinate tile position.
+     * @return the piece code, or NO_PIECE if the tile is empty.
+     */
+    public int getPieceCode(final int tileCoordinate) {
+        return this.pieceCodes[tileCoordinate];
+    }
+
+    /**
+     * Tell whether the tile is occupied or not.
+     * @param tileCoordinate tile position.
+     * @return true if it is occupied.
+     */
+    public boolean isTileOccupied(final int tileCoordinate) {
+        return (this.occupancy & (1L << tileCoordinate)) != 0;
+    }
+
+    /**
+     * Get the bitboard of one kind of piece.
+     * @param pieceCode piece code.
+     * @return the bitboard.
+     */
+    public long getPieceBitboard(final int pieceCode) {
+        return this.pieceBitboards[pieceCode];
+    }
+
+    /**
+     * Get all the tiles occupied by an alliance.
+     * @param alliance the alliance.
+     * @return the occupancy bitboard.
+     */
+    public long getAllianceOccupancy(final Alliance alliance) {
+        return this.allianceOccupancy[alliance.ordinal()];
+    }
+
+    /**
+     * Get all the tiles occupied by an alliance.
+     * @param alliance the ordinal of the alliance.
+     * @return the occupancy bitboard.
+     */
+    public long getAllianceOccupancy(final int alliance) {
+        return this.allianceOccupancy[alliance];
+    }
+
+    /**
+     * Get all the occupied tiles.
+     * @return the occupancy bitboard.
+     */
+    public long getOccupancy() {
+        return this.occupancy;
+    }
+
+    /**
+     * Get the alliance to move next.
+     * @return the alliance.
+     */
+    public Alliance getNextMoveMaker() {
+        return this.nextMoveMaker;
+    }
+
+    /**
+     * Get the castling rights still available.
+     * @return a combination of the BoardUtils castling bits.
+     */
+    public int getCastlingRights() {
+        return this.castlingRights;
+    }
+
+    /**
+     * Get the tile a pawn skipped over with the last move.
+     * @return tile position, or NO_EN_PASSANT.
+     */
+    public int getEnPassantCoordinate() {
+        return this.enPassantCoordinate;
+    }
+
+    /**
+     * Get the number of moves since the last capture or pawn move.
+     * @return the half move clock.
+     */
+    public int getHalfMoveClock() {
+        return this.halfMoveClock;
+    }
+
+    /**
+     * Get the number of the full move.
+     * @return the full move number.
+     */
+    public int getFullMoveNumber() {
+        return this.fullMoveNumber;
+    }
+
+    /**
+     * Get the Zobrist key of the position.
+     * Two boards with the same pieces, side to move, castling rights and en passant tile have the same key.
+     * @return the key.
+     */
+    public long getZobristKey() {
+        return this.zobristKey;
+    }
+
+    /**
+     * Get the pawn key of the position.
+     * Two boards with the same pawns of each alliance on the same tiles have the same pawn key.
+     * @return the key, 0 if there is no pawn.
+     */
+    public long getPawnKey() {
+        return this.pawnKey;
+    }
+
+    /**
+     * Get the sum of the midgame material and piece-square values of every piece.
+     * @return the score in centipawns, from the point of view of white.
+     */
+    public int getMidgameScore() {
+        return this.midgameScore;
+    }
+
+    /**
+     * Get the sum of the endgame material and piece-square values of every piece.
+     * @return the score in centipawns, from the point of view of white.
+     */
+    public int getEndgameScore() {
+        return this.endgameScore;
+    }
+
+    /**
+     * Get the game phase, PieceSquareTables.MAX_PHASE with every minor and major piece on the board
+     * and 0 without any. Extra pieces from promotions can take it past the maximum.
+     * @return the phase.
+     */
+    public int getGamePhase() {
+        return this.gamePhase;
+    }
+
+    /**
+     * Get the position of the king of an alliance.
+     * @param alliance the alliance.
+     * @return tile position, or 64 if the alliance has no king.
+     */
+    public int getKingCoordinate(final Alliance alliance) {
+        return Long.numberOfTrailingZeros(
+                this.pieceBitboards[Piece.PieceType.KING.getPieceCode(alliance)]);
+    }
+
+    /**
+     * Tell whether the king of an alliance is attacked.
+     * @param alliance the alliance of the king.
+     * @return true if it is attacked, false if it is not or if there is no king.
+     */
+    public boolean isKingAttacked(final Alliance alliance) {
+        final int kingCoordinate = getKingCoordinate(alliance);
+        return kingCoordinate < BoardUtils.NUM_TILES
+                && MoveGenerator.isTileAttacked(this, kingCoordinate, alliance.ordinal() ^ 1);
+    }
+
+    /**
+     * Tell whether a tile is attacked by any piece of an alliance.
+     * @param tileCoordinate the tile.
+     * @param attackerAlliance the attacking alliance.
+     * @return true if the tile is attacked.
+     */
+    public boolean isSquareAttacked(final int tileCoordinate, final Alliance attackerAlliance) {
+        if ((this.validAttackMaps & (1 << attackerAlliance.ordinal())) != 0) {
+            return (this.attackMaps[attackerAlliance.ordinal()] & (1L << tileCoordinate)) != 0;
+        }
+        return MoveGenerator.isTileAttacked(this, tileCoordinate, attackerAlliance.ordinal());
+    }
+
+    /**
+     * Get the pieces of both alliances that attack a tile.
+     * @param tileCoordinate the tile.
+     * @return the attacking pieces.
+     */
+    public long attackersTo(final int tileCoordinate) {
+        return MoveGenerator.getAttackers(this, tileCoordinate, this.occupancy);
+    }
+
+    /**
+     * Get every tile an alliance attacks. The map is computed once per position, and taking back a move
+     * brings back the map of the position before it.
+     * @param alliance the attacking alliance.
+     * @return the attacked tiles.
+     */
+    public long getAttackMap(final Alliance alliance) {
+        final int allianceBit = 1 << alliance.ordinal();
+        if ((this.validAttackMaps & allianceBit) == 0) {
+            this.attackMaps[alliance.ordinal()] = MoveGenerator.getAttackMap(this, alliance.ordinal());
+            this.validAttackMaps |= allianceBit;
+        }
+        return this.attackMaps[alliance.ordinal()];
+    }
+
+    /**
+     * Tell whether the alliance to move is in check.
+     * @return true if it is in check.
+     */
+    public boolean isInCheck() {
+        return isKingAttacked(this.nextMoveMaker);
+    }
+
+    /**
+     * Execute a move on a copy of this board. This board is not changed.
+     * The move must be one generated for this board. Search should use makeMove and unmakeMove instead.
+     * @param move the move, packed by MoveUtils.
+     * @return the board after the move.
+     */
+    public Board executeMove(final int move) {
+        final Board board = new Board(this);
+        board.makeMove(move);
+        return board;
+    }
+
+    /**
+     * Make a move on this board. The state it overwrites is pushed on the undo stack,
+     * so unmakeMove can take it back without allocating.
+     * The move must be one generated for this board.
+     * @param move the move, packed by MoveUtils.
+     */
+    public void makeMove(final int move) {
+        pushHistory(move);
+
+        final int sourceCoordinate = MoveUtils.getSourceCoordinate(move);
+        final int destinationCoordinate = MoveUtils.getDestinationCoordinate(move);
+        final int movedPiece = MoveUtils.getMovedPiece(move);
+        final int capturedPiece = MoveUtils.getCapturedPiece(move);
+        final int flag = MoveUtils.getFlag(move);
+        if (capturedPiece != BoardUtils.NO_PIECE) {
+            removePiece(capturedPiece, MoveUtils.getCapturedCoordinate(move));
+        }
+        movePiece(movedPiece, sourceCoordinate, destinationCoordinate);
+        if (flag == MoveUtils.FLAG_PROMOTION) {
+            removePiece(movedPiece, destinationCoordinate);
+            addPiece(BoardUtils.getPieceCode(MoveUtils.getPromotionType(move),
+                    BoardUtils.getPieceAlliance(movedPiece)), destinationCoordinate);
+        } else if (flag == MoveUtils.FLAG_KING_SIDE_CASTLE) {
+            movePiece(this.pieceCodes[sourceCoordinate + 3], sourceCoordinate + 3, sourceCoordinate + 1);
+        } else if (flag == MoveUtils.FLAG_QUEEN_SIDE_CASTLE) {
+            movePiece(this.pieceCodes[sourceCoordinate - 4], sourceCoordinate - 4, sourceCoordinate - 1);
+        }
+        this.zobristKey ^= Zobrist.getCastlingKey(this.castlingRights)
+                ^ Zobrist.getEnPassantKey(this.enPassantCoordinate);
+        this.castlingRights &= CASTLING_RIGHTS_MASKS[sourceCoordinate] & CASTLING_RIGHTS_MASKS[destinationCoordinate];
+        this.enPassantCoordinate = flag == MoveUtils.FLAG_PAWN_JUMP
+                ? (sourceCoordinate + destinationCoordinate) / 2
+                : BoardUtils.NO_EN_PASSANT;
+        this.zobristKey ^= Zobrist.getCastlingKey(this.castlingRights)
+                ^ Zobrist.getEnPassantKey(this.enPassantCoordinate)
+                ^ Zobrist.getBlackToMoveKey();
+        if (capturedPiece != BoardUtils.NO_PIECE
+                || BoardUtils.getPieceType(movedPiece) == Piece.PieceType.PAWN.ordinal()) {
+            this.halfMoveClock = 0;
+        } else {
+            this.halfMoveClock++;
+        }
+        if (this.nextMoveMaker.isBlack()) {
+            this.fullMoveNumber++;
+        }
+        this.nextMoveMaker = ALLIANCES[this.nextMoveMaker.ordinal() ^ 1];
+    }
+
+    /**
+     * Take back the last move made with makeMove.
+     * @throws IllegalStateException if no move was made.
+     */
+    public void unmakeMove() {
+        if (this.historySize == 0) {
+            throw new IllegalStateException("No move to take back");
+        }
+        final int move = popHistory();
+        if (this.nextMoveMaker.isBlack()) {
+            this.fullMoveNumber--;
+        }
+
+        final int sourceCoordinate = MoveUtils.getSourceCoordinate(move);
+        final int destinationCoordinate = MoveUtils.getDestinationCoordinate(move);
+        final int movedPiece = MoveUtils.getMovedPiece(move);
+        final int capturedPiece = MoveUtils.getCapturedPiece(move);
+        final int flag = MoveUtils.getFlag(move);
+        if (flag == MoveUtils.FLAG_PROMOTION) {
+            removePiece(this.pieceCodes[destinationCoordinate], destinationCoordinate);
+            addPiece(movedPiece, sourceCoordinate);
+        } else {
+            movePiece(movedPiece, destinationCoordinate, sourceCoordinate);
+            if (flag == MoveUtils.FLAG_KING_SIDE_CASTLE) {
+                movePiece(this.pieceCodes[sourceCoordinate + 1], sourceCoordinate + 1, sourceCoordinate + 3);
+            } else if (flag == MoveUtils.FLAG_QUEEN_SIDE_CASTLE) {
+                movePiece(this.pieceCodes[sourceCoordinate - 1], sourceCoordinate - 1, sourceCoordinate - 4);
+            }
+        }
+        if (capturedPiece != BoardUtils.NO_PIECE) {
+            addPiece(capturedPiece, MoveUtils.getCapturedCoordinate(move));
+        }
+        this.zobristKey = this.zobristKeyHistory[this.historySize];
+    }
+
+    /**
+     * Get the number of moves that can be taken back.
+     * @return the number of moves on the undo stack.
+     */
+    public int getHistorySize() {
+        return this.historySize;
+    }
+
+    /**
+     * Get the last move made.
+     * @return the move, or NULL_MOVE if no move was made.
+     */
+    public int getLastMove() {
+        return this.historySize > 0 ? this.moveHistory[this.historySize - 1] : MoveUtils.NULL_MOVE;
+    }
+
+    /**
+     * Pass the turn to the other alliance without moving a piece, used by null move pruning.
+     * The null move goes on the undo stack like any other move.
+     */
+    public void makeNullMove() {
+        pushHistory(MoveUtils.NULL_MOVE);
+        this.zobristKey ^= Zobrist.getEnPassantKey(this.enPassantCoordinate) ^ Zobrist.getBlackToMoveKey();
+        this.enPassantCoordinate = BoardUtils.NO_EN_PASSANT;
+        this.halfMoveClock++;
+        this.nextMoveMaker = ALLIANCES[this.nextMoveMaker.ordinal() ^ 1];
+    }
+
+    /**
+     * Take back the null move made with makeNullMove.
+     */
+    public void unmakeNullMove() {
+        popHistory();
+        this.zobristKey = this.zobristKeyHistory[this.historySize];
+    }
+
+    /**
+     * Tell whether the current position already happened since the last capture or pawn move.
+     * A null move ends the lookup, since the positions before it were not reached by real moves.
+     * @return true if the position is repeated.
+     */
+    public boolean isRepetition() {
+        final int firstIndex = Math.max(0, this.historySize - this.halfMoveClock);
+        for (int i = this.historySize - 1; i >= firstIndex; i--) {
+            if (this.moveHistory[i] == MoveUtils.NULL_MOVE) {
+                return false;
+            }
+            if (((this.historySize - i) & 1) == 0 && this.zobristKeyHistory[i] == this.zobristKey) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Copy this board with its undo stack, so the copy can make and unmake moves on its own.
+     * @return the copy.
+     */
+    public Board copy() {
+        return new Board(this);
+    }
+
+    /**
+     * Remove every piece and empty the undo stack, so another position can be loaded into this board
+     * with putPiece and setState instead of building a new board.
+     * The board is left with white to move, no castling rights and no en passant tile.
+     */
+    public void clear() {
+        Arrays.fill(this.pieceBitboards, 0L);
+        Arrays.fill(this.allianceOccupancy, 0L);
+        this.occupancy = 0L;
+        Arrays.fill(this.pieceCodes, BoardUtils.NO_PIECE);
+        this.nextMoveMaker = Alliance.WHITE;
+        this.castlingRights = BoardUtils.NO_CASTLING;
+        this.enPassantCoordinate = BoardUtils.NO_EN_PASSANT;
+        this.halfMoveClock = 0;
+        this.fullMoveNumber = 1;
+        this.zobristKey = Zobrist.getCastlingKey(BoardUtils.NO_CASTLING);
+        this.pawnKey = 0L;
+        this.midgameScore = 0;
+        this.endgameScore = 0;
+        this.gamePhase = 0;
+        this.validAttackMaps = 0;
+        this.historySize = 0;
+    }
+
+    /**
+     * Put a piece on an empty tile while loading a position, the key is updated with it.
+     * @param pieceCode piece code.
+     * @param tileCoordinate tile position.
+     * @throws IllegalArgumentException if the piece code or the tile is invalid, or the tile is occupied.
+     */
+    public void putPiece(final int pieceCode, final int tileCoordinate) {
+        if (pieceCode < 0 || pieceCode >= BoardUtils.NUM_PIECE_CODES
+                || !BoardUtils.isValidTileCoordinate(tileCoordinate)
+                || this.pieceCodes[tileCoordinate] != BoardUtils.NO_PIECE) {
+            throw new IllegalArgumentException("Cannot put piece " + pieceCode + " on tile " + tileCoordinate);
+        }
+        addPiece(pieceCode, tileCoordinate);
+        this.validAttackMaps = 0;
+    }
+
+    /**
+     * Set the state of the game that is not on the tiles while loading a position, the key is updated with it.
+     * @param nextMoveMaker the alliance to move next.
+     * @param castlingRights a combination of the BoardUtils castling bits.
+     * @param enPassantCoordinate tile position, or NO_EN_PASSANT.
+     * @param halfMoveClock the number of moves since the last capture or pawn move.
+     * @param fullMoveNumber the number of the full move.
+     */
+    public void setState(final Alliance nextMoveMaker,
+                         final int castlingRights,
+                         final int enPassantCoordinate,
+                         final int halfMoveClock,
+                         final int fullMoveNumber) {
+        this.zobristKey ^= Zobrist.getCastlingKey(this.castlingRights)
+                ^ Zobrist.getEnPassantKey(this.enPassantCoordinate)
+                ^ Zobrist.getCastlingKey(castlingRights)
+                ^ Zobrist.getEnPassantKey(enPassantCoordinate);
+        if (this.nextMoveMaker != nextMoveMaker) {
+            this.zobristKey ^= Zobrist.getBlackToMoveKey();
+        }
+        this.nextMoveMaker = nextMoveMaker;
+        this.castlingRights = castlingRights;
+        this.enPassantCoordinate = enPassantCoordinate;
+        this.halfMoveClock = halfMoveClock;
+        this.fullMoveNumber = fullMoveNumber;
+        this.validAttackMaps = 0;
+    }
+
+    /**
+     * Tell whether the pieces put on the board can be a position of a game, while loading a position:
+     * each alliance must have exactly one king, and no pawn may stand on the first or the last row.
+     * @return true if they can.
+     */
+    public boolean isValidPiecePlacement() {
+        final long pawns = this.pieceBitboards[Piece.PieceType.PAWN.getPieceCode(Alliance.WHITE)]
+                | this.pieceBitboards[Piece.PieceType.PAWN.getPieceCode(Alliance.BLACK)];
+        return Long.bitCount(this.pieceBitboards[Piece.PieceType.KING.getPieceCode(Alliance.WHITE)]) == 1
+                && Long.bitCount(this.pieceBitboards[Piece.PieceType.KING.getPieceCode(Alliance.BLACK)]) == 1
+                && (pawns & (BoardUtils.FIRST_ROW_MASK | BoardUtils.EIGHTH_ROW_MASK)) == 0;
+    }
+
+    /**
+     * Keep the castling rights whose king and rook stand on their start tiles, while loading a position.
+     * @param castlingRights a combination of the BoardUtils castling bits.
+     * @return the rights the pieces put on the board allow.
+     */
+    public int getPlayableCastlingRights(final int castlingRights) {
+        final long whiteRooks = this.pieceBitboards[Piece.PieceType.ROOK.getPieceCode(Alliance.WHITE)];
+        final long blackRooks = this.pieceBitboards[Piece.PieceType.ROOK.getPieceCode(Alliance.BLACK)];
+        int playableRights = castlingRights;
+        if (getKingCoordinate(Alliance.WHITE) != WHITE_KING_START) {
+            playableRights &= ~(BoardUtils.WHITE_KING_SIDE_CASTLE | BoardUtils.WHITE_QUEEN_SIDE_CASTLE);
+        }
+        if (getKingCoordinate(Alliance.BLACK) != BLACK_KING_START) {
+            playableRights &= ~(BoardUtils.BLACK_KING_SIDE_CASTLE | BoardUtils.BLACK_QUEEN_SIDE_CASTLE);
+        }
+        if ((whiteRooks & (1L << (WHITE_KING_START + 3))) == 0) {
+            playableRights &= ~BoardUtils.WHITE_KING_SIDE_CASTLE;
+        }
+        if ((whiteRooks & (1L << (WHITE_KING_START - 4))) == 0) {
+            playableRights &= ~BoardUtils.WHITE_QUEEN_SIDE_CASTLE;
+        }
+        if ((blackRooks & (1L << (BLACK_KING_START + 3))) == 0) {
+            playableRights &= ~BoardUtils.BLACK_KING_SIDE_CASTLE;
+        }
+        if ((blackRooks & (1L << (BLACK_KING_START - 4))) == 0) {
+            playableRights &= ~BoardUtils.BLACK_QUEEN_SIDE_CASTLE;
+        }
+        return playableRights;
+    }
+
+    /**
+     * Tell whether an en passant tile fits the pieces put on the board, while loading a position.
+     * The tile must be empty, on the row a pawn of the alliance not to move has just jumped over,
+     * with the pawn in front of it and the tile it jumped from empty.
+     * @param nextMoveMaker the alliance to move next.
+     * @param enPassantCoordinate tile position, or NO_EN_PASSANT which always fits.
+     * @return true if it fits.
+     */
+    public boolean isValidEnPassantCoordinate(final Alliance nextMoveMaker, final int enPassantCoordinate) {
+        if (enPassantCoordinate == BoardUtils.NO_EN_PASSANT) {
+            return true;
+        }
+        final int row = nextMoveMaker.isWhite() ? 2 : 5;
+        if (!BoardUtils.isValidTileCoordinate(enPassantCoordinate)
+                || enPassantCoordinate / BoardUtils.NUM_TILES_PER_ROW != row) {
+            return false;
+        }
+        // The pawn stands one row further from the alliance to move than the tile.
+        final int step = nextMoveMaker.isWhite() ? BoardUtils.NUM_TILES_PER_ROW : -BoardUtils.NUM_TILES_PER_ROW;
+        final int pawnCode = Piece.PieceType.PAWN.getPieceCode(nextMoveMaker.isWhite() ? Alliance.BLACK
+                : Alliance.WHITE);
+        return this.pieceCodes[enPassantCoordinate + step] == pawnCode
+                && this.pieceCodes[enPassantCoordinate] == BoardUtils.NO_PIECE
+                && this.pieceCodes[enPassantCoordinate - step] == BoardUtils.NO_PIECE;
+    }
+
+    /**
+     * Generate the moves of every piece of the alliance to move, without allocating.
+     * The moves are pseudo-legal: a move may still leave the own king attacked.
+     * @param moves the list the moves are added to.
+     */
+    public void generatePseudoLegalMoves(final MoveList moves) {
+        MoveGenerator.generatePseudoLegalMoves(this, moves);
+    }
+
+    /**
+     * Generate the legal moves of the alliance to move, without allocating and without making any move.
+     * @param moves the list the moves are added to.
+     */
+    public void generateLegalMoves(final MoveList moves) {
+        MoveGenerator.generateLegalMoves(this, moves);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < BoardUtils.NUM_TILES; i++) {
+            final Piece piece = getPiece(i);
+            builder.append(String.format("%3s", piece != null ? piece.toString() : "-"));
+            if ((i + 1) % BoardUtils.NUM_TILES_PER_ROW == 0) {
+                builder.append("\n");
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Create the board of a new game.
+     * @return the standard board.
+     */
+    public static Board createStandardBoard() {
+        final Builder builder = new Builder();
+        // Black layout
+        builder.setPiece(new Rook(0, Alliance.BLACK));
+        builder.setPiece(new Knight(1, Alliance.BLACK));
+        builder.setPiece(new Bishop(2, Alliance.BLACK));
+        builder.setPiece(new Queen(3, Alliance.BLACK));
+        builder.setPiece(new King(4, Alliance.BLACK));
+        builder.setPiece(new Bishop(5, Alliance.BLACK));
+        builder.setPiece(new Knight(6, Alliance.BLACK));
+        builder.setPiece(new Rook(7, Alliance.BLACK));
+        for (int i = 8; i < 16; i++) {
+            builder.setPiece(new Pawn(i, Alliance.BLACK));
+        }
+        // White layout
+        for (int i = 48; i < 56; i++) {
+            builder.setPiece(new Pawn(i, Alliance.WHITE));
+        }
+        builder.setPiece(new Rook(56, Alliance.WHITE));
+        builder.setPiece(new Knight(57, Alliance.WHITE));
+        builder.setPiece(new Bishop(58, Alliance.WHITE));
+        builder.setPiece(new Queen(59, Alliance.WHITE));
+        builder.setPiece(new King(60, Alliance.WHITE));
+        builder.setPiece(new Bishop(61, Alliance.WHITE));
+        builder.setPiece(new Knight(62, Alliance.WHITE));
+        builder.setPiece(new Rook(63, Alliance.WHITE));
+        // White to move
+        builder.setMoveMaker(Alliance.WHITE);
+        builder.setCastlingRights(BoardUtils.ALL_CASTLING);
+        return builder.build();
+    }
+
+    /**
+     * A builder that collects the pieces before the board is created.
+     */
+    public static class Builder {
+
+        /**
+         * The pieces on the board, keyed by their position.
+         */
+        final Map<Integer, Piece> boardConfig;
+
+        /**
+         * The alliance to move next.
+         */
+        Alliance nextMoveMaker;
+
+        /**
+         * The castling rights still available.
+         */
+        int castlingRights;
+
+        /**
+         * The tile a pawn skipped over with the last move.
+         */
+        int enPassantCoordinate;
+
+        /**
+         * The number of moves since the last capture or pawn move.
+         */
+        int halfMoveClock;
+
+        /**
+         * The number of the full move.
+         */
+        int fullMoveNumber;
+
+        /**
+         * The constructor of Builder class.
+         */
+        public Builder() {
+            this.boardConfig = new HashMap<>();
+            this.nextMoveMaker = Alliance.WHITE;
+            this.castlingRights = BoardUtils.NO_CASTLING;
+            this.enPassantCoordinate = BoardUtils.NO_EN_PASSANT;
+            this.halfMoveClock = 0;
+            this.fullMoveNumber = 1;
+        }
+
+        /**
+         * Put a piece on the board, replacing any piece on the same tile.
+         * @param piece the piece.
+         * @return this builder.
+         */
+        public Builder setPiece(final Piece piece) {
+            this.boardConfig.put(piece.getPiecePosition(), piece);
+            return this;
+        }
+
+        /**
+         * Set the alliance to move next.
+         * @param nextMoveMaker the alliance.
+         * @return this builder.
+         */
+        public Builder setMoveMaker(final Alliance nextMoveMaker) {
+            this.nextMoveMaker = nextMoveMaker;
+            return this;
+        }
+
+        /**
+         * Set the castling rights still available.
+         * @param castlingRights a combination of the BoardUtils castling bits.
+         * @return this builder.
+         */
+        public Builder setCastlingRights(final int castlingRights) {
+            this.castlingRights = castlingRights;
+            return this;
+        }
+
+        /**
+         * Set the tile a pawn skipped over with the last move.
+         * @param enPassantCoordinate tile position, or NO_EN_PASSANT.
+         * @return this builder.
+         */
+        public Builder setEnPassantCoordinate(final int enPassantCoordinate) {
+            this.enPassantCoordinate = enPassantCoordinate;
+            return this;
+        }
+
+        /**
+         * Set the number of moves since the last capture or pawn move.
+         * @param halfMoveClock the half move clock.
+         * @return this builder.
+         */
+        public Builder setHalfMoveClock(final int halfMoveClock) {
+            this.halfMoveClock = halfMoveClock;
+            return this;
+        }
+
+        /**
+         * Set the number of the full move.
+         * @param fullMoveNumber the full move number.
+         * @return this builder.
+         */
+        public Builder setFullMoveNumber(final int fullMoveNumber) {
+            this.fullMoveNumber = fullMoveNumber;
+            return this;
+        }
+
+        /**
+         * Create the board.
+         * @return the board.
+         */
+        public Board build() {
+            return new Board(this);
+        }
     }
 }
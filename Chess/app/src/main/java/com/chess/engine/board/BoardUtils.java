@@ -6,6 +6,16 @@ public class BoardUtils {
 
     public static final int NUM_TILES_PER_ROW = 8;
 
+    /**
+     * The number of piece codes, six piece types for each of the two alliances.
+     */
+    public static final int NUM_PIECE_CODES = 12;
+
+    /**
+     * The piece code of an empty tile.
+     */
+    public static final int NO_PIECE = NUM_PIECE_CODES;
+
     /**
      * A list of booleans that only the first column with true value, others are false.
      */
@@ -46,6 +56,68 @@ public class BoardUtils {
      */
     public static final boolean[] EIGHTH_ROW = initRow(7);
 
+    /**
+     * The castling rights, one bit each.
+     */
+    public static final int NO_CASTLING = 0;
+    public static final int WHITE_KING_SIDE_CASTLE = 1;
+    public static final int WHITE_QUEEN_SIDE_CASTLE = 2;
+    public static final int BLACK_KING_SIDE_CASTLE = 4;
+    public static final int BLACK_QUEEN_SIDE_CASTLE = 8;
+    public static final int ALL_CASTLING = 15;
+
+    /**
+     * The tile coordinate used when there is no en passant tile.
+     */
+    public static final int NO_EN_PASSANT = -1;
+
+    /**
+     * The bitboards of the rows, the same tiles as the boolean lists above.
+     */
+    public static final long FIRST_ROW_MASK = toBitboard(FIRST_ROW);
+    public static final long SECOND_ROW_MASK = toBitboard(SECOND_ROW);
+    public static final long SEVENTH_ROW_MASK = toBitboard(SEVENTH_ROW);
+    public static final long EIGHTH_ROW_MASK = toBitboard(EIGHTH_ROW);
+
+    /**
+     * The name of each tile in algebraic notation, "a8" is tile 0 and "h1" is tile 63.
+     */
+    private static final String[] ALGEBRAIC_NOTATION = initAlgebraicNotation();
+
+    /**
+     * All the possible moves a knight could have.
+     */
+    private static final int[] KNIGHT_CANDIDATE_MOVE_COORDINATES = {-17, -15, -10, -6, 6, 10, 15, 17};
+
+    /**
+     * All the possible moves a king could have.
+     */
+    private static final int[] KING_CANDIDATE_MOVE_COORDINATES = {-9, -8, -7, -1, 1, 7, 8, 9};
+
+    /**
+     * All the possible attacks a pawn could have, before applying the alliance direction.
+     */
+    private static final int[] PAWN_CANDIDATE_ATTACK_COORDINATES = {7, 9};
+
+    /**
+     * The tiles a knight attacks from each tile.
+     */
+    public static final long[] KNIGHT_ATTACKS = initLeaperAttacks(KNIGHT_CANDIDATE_MOVE_COORDINATES, 1, 2);
+
+    /**
+     * The tiles a king attacks from each tile.
+     */
+    public static final long[] KING_ATTACKS = initLeaperAttacks(KING_CANDIDATE_MOVE_COORDINATES, 1, 1);
+
+    /**
+     * The tiles a pawn attacks from each tile, indexed by alliance ordinal first.
+     * White pawns attack towards the first row and black pawns towards the eighth row.
+     */
+    public static final long[][] PAWN_ATTACKS = {
+            initLeaperAttacks(PAWN_CANDIDATE_ATTACK_COORDINATES, -1, 1),
+            initLeaperAttacks(PAWN_CANDIDATE_ATTACK_COORDINATES, 1, 1)
+    };
+
     /**
      * The constructor.
      */
@@ -84,6 +156,60 @@ public class BoardUtils {
         return resultColumn;
     }
 
+    /**
+     * Turn a list of booleans into a bitboard.
+     * @param tiles a list of booleans, one per tile.
+     * @return a bitboard with the bits of the true tiles set.
+     */
+    private static long toBitboard(final boolean[] tiles) {
+        long bitboard = 0L;
+        for (int i = 0; i < NUM_TILES; i++) {
+            if (tiles[i]) {
+                bitboard |= 1L << i;
+            }
+        }
+        return bitboard;
+    }
+
+    /**
+     * Name every tile in algebraic notation.
+     * @return a list of tile names.
+     */
+    private static String[] initAlgebraicNotation() {
+        final String[] notation = new String[NUM_TILES];
+        for (int i = 0; i < NUM_TILES; i++) {
+            notation[i] = "" + (char) ('a' + i % NUM_TILES_PER_ROW) + (NUM_TILES_PER_ROW - i / NUM_TILES_PER_ROW);
+        }
+        return notation;
+    }
+
+    /**
+     * The tiles a leaper attacks from each tile.
+     * A candidate is dropped if it is not a valid tile coordinate, or if it jumps more columns than
+     * the piece can, which means it wrapped around to the other side of the board.
+     * This is the same rule as the column exclusions of each piece.
+     * @param candidateOffsets the offsets of the piece.
+     * @param direction the direction the offsets are multiplied by.
+     * @param maxColumnDistance the number of columns the piece can jump.
+     * @return a list of attack bitboards, one per tile.
+     */
+    private static long[] initLeaperAttacks(final int[] candidateOffsets,
+                                            final int direction,
+                                            final int maxColumnDistance) {
+        final long[] attacks = new long[NUM_TILES];
+        for (int tileCoordinate = 0; tileCoordinate < NUM_TILES; tileCoordinate++) {
+            for (final int candidateOffset : candidateOffsets) {
+                final int candidateDestinationCoordinate = tileCoordinate + direction * candidateOffset;
+                if (isValidTileCoordinate(candidateDestinationCoordinate)
+                        && Math.abs(candidateDestinationCoordinate % NUM_TILES_PER_ROW
+                            - tileCoordinate % NUM_TILES_PER_ROW) <= maxColumnDistance) {
+                    attacks[tileCoordinate] |= 1L << candidateDestinationCoordinate;
+                }
+            }
+        }
+        return attacks;
+    }
+
     /**
      * Check if current tileCoordinate is valid or not.
      * @param tileCoordinate tile position.
@@ -92,4 +218,58 @@ public class BoardUtils {
     public static boolean isValidTileCoordinate(final int tileCoordinate) {
         return tileCoordinate >=0 && tileCoordinate < NUM_TILES;
     }
+
+    /**
+     * Get the algebraic name of a tile.
+     * @param tileCoordinate tile position.
+     * @return the name, such as "e4".
+     */
+    public static String getPositionAtCoordinate(final int tileCoordinate) {
+        return ALGEBRAIC_NOTATION[tileCoordinate];
+    }
+
+    /**
+     * Get the tile of an algebraic name.
+     * @param position the name, such as "e4".
+     * @return tile position, or -1 if it is not a tile name.
+     */
+    public static int getCoordinateAtPosition(final String position) {
+        if (position.length() != 2) {
+            return -1;
+        }
+        final int column = position.charAt(0) - 'a';
+        final int row = NUM_TILES_PER_ROW - (position.charAt(1) - '0');
+        if (column < 0 || column >= NUM_TILES_PER_ROW || row < 0 || row >= NUM_TILES_PER_ROW) {
+            return -1;
+        }
+        return row * NUM_TILES_PER_ROW + column;
+    }
+
+    /**
+     * Get the piece code, which is the index of the piece bitboard on a board.
+     * @param pieceType the ordinal of the piece type.
+     * @param pieceAlliance the ordinal of the piece alliance.
+     * @return piece code between 0 and 11.
+     */
+    public static int getPieceCode(final int pieceType, final int pieceAlliance) {
+        return (pieceType << 1) | pieceAlliance;
+    }
+
+    /**
+     * Get the ordinal of the piece type from a piece code.
+     * @param pieceCode piece code.
+     * @return the ordinal of the piece type.
+     */
+    public static int getPieceType(final int pieceCode) {
+        return pieceCode >>> 1;
+    }
+
+    /**
+     * Get the ordinal of the alliance from a piece code.
+     * @param pieceCode piece code.
+     * @return the ordinal of the alliance.
+     */
+    public static int getPieceAlliance(final int pieceCode) {
+        return pieceCode & 1;
+    }
 }
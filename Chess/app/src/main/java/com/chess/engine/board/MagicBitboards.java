@@ -0,0 +1,274 @@
+package com.chess.engine.board;
+
+public final class MagicBitboards {
+
+    /**
+     * All the possible directions a rook could have.
+     */
+    private static final int[] ROOK_DIRECTIONS = {-8, -1, 1, 8};
+
+    /**
+     * All the possible directions a bishop could have.
+     */
+    private static final int[] BISHOP_DIRECTIONS = {-9, -7, 7, 9};
+
+    /**
+     * The relevant occupancy of each tile: the rays without the last tile, which never blocks anything.
+     */
+    private static final long[] ROOK_MASKS = new long[BoardUtils.NUM_TILES];
+    private static final long[] BISHOP_MASKS = new long[BoardUtils.NUM_TILES];
+
+    /**
+     * The magic number of each tile. Multiplying the relevant occupancy by it packs the occupancy bits
+     * into the top bits without destructive collisions.
+     * They were found once by trying sparse random numbers, so the tables are built without any search.
+     */
+    private static final long[] ROOK_MAGICS = {
+            0x1080004008801020L, 0x0840092002C03000L, 0x1900200010400900L, 0x0880100008000480L,
+            0x4200100420080200L, 0x8100020100080400L, 0x0200040110886200L, 0x0200008040220411L,
+            0x0404800084400220L, 0x0000401000402000L, 0x0086001081220440L, 0x0408800800100280L,
+            0x000A001201040820L, 0x8848800200840080L, 0x4001000100040200L, 0x0442000102105084L,
+            0x9080010020804100L, 0x0040404000201009L, 0x0000808010002009L, 0x2200090021D00100L,
+            0x0008008008040080L, 0x0004004002010040L, 0x0011040008015042L, 0x00000A0001768104L,
+            0x0000800080204009L, 0x2010004140002001L, 0x9800200280100080L, 0x1000100080080080L,
+            0x0442000A00049020L, 0x2100040080020080L, 0x0800120400900148L, 0x0010040A00128541L,
+            0x2800804000800030L, 0x1010002000400041L, 0x4000200011004100L, 0x0610008410800800L,
+            0x0400802402800800L, 0xC100020080800400L, 0x0002000802000401L, 0x0182085882000401L,
+            0x0220204000808000L, 0x2860100040024022L, 0x0001002004110040L, 0x99101042000A0020L,
+            0x0004080004008080L, 0x0010040002008080L, 0x2012004881020004L, 0x8300842444820011L,
+            0x0088403882010200L, 0x0820400080210100L, 0x0110910040A00300L, 0x0801100280080480L,
+            0x0242009008200600L, 0x1002000489500200L, 0x0040800200010080L, 0x0091800041000080L,
+            0x0000209300488001L, 0x04C1002414824001L, 0x020020000B001041L, 0x7000100004200901L,
+            0x8002002004100802L, 0x30010002084C0007L, 0x0888221800813004L, 0x4000002840840112L
+    };
+    private static final long[] BISHOP_MAGICS = {
+            0x10102002004A1420L, 0x8020040400584008L, 0x10510800811201C8L, 0x5204042080000088L,
+            0x2204106880000002L, 0x1401042004000000L, 0x0400880410042004L, 0x0028208200A02020L,
+            0x1500241990010E00L, 0x8001200182020A40L, 0x40004101030B0000L, 0x8002041042000100L,
+            0x4010011041020038L, 0x0000010421044000L, 0x1500210808020A00L, 0x8000088400880520L,
+            0x0405004010040100L, 0x1005823210040108L, 0x2708008102040011L, 0x4048200404009100L,
+            0x0018104101400024L, 0x0003000601190101L, 0x8004803108491000L, 0x8014241200820800L,
+            0x0006E080100C3040L, 0x0501044A11041800L, 0x9020300008004045L, 0x0894080000220040L,
+            0x1001010083104000L, 0x5004030040900080L, 0x000400422C012400L, 0x0002128698404812L,
+            0x1010108404900440L, 0x0928021182084100L, 0x2006080409020024L, 0x1010202020180080L,
+            0xA010008200202200L, 0x2098015100019004L, 0x0002041440810811L, 0x802A02020000B098L,
+            0x0009015090004060L, 0x4000821082081001L, 0x0100210040420800L, 0x0800004010488A00L,
+            0x2000081104004040L, 0x4C8E029015000082L, 0x0420340322224842L, 0x1298260043400210L,
+            0x0000822802400008L, 0x00008A0101600000L, 0x3040003412080021L, 0x3040290220884800L,
+            0x4A1500401041004AL, 0x8010200282020781L, 0x0020203142209091L, 0x0070300600902110L,
+            0x0040808800B62048L, 0x0000810400C44420L, 0x00080400440C0441L, 0x8340080020840411L,
+            0x0000000104208200L, 0x0000800810D00080L, 0x0400530411080200L, 0x4040702400932244L
+    };
+
+    /**
+     * The shift of each tile, 64 minus the number of relevant occupancy bits.
+     */
+    private static final int[] ROOK_SHIFTS = new int[BoardUtils.NUM_TILES];
+    private static final int[] BISHOP_SHIFTS = new int[BoardUtils.NUM_TILES];
+
+    /**
+     * Where the attacks of each tile start in the attack table.
+     */
+    private static final int[] ROOK_OFFSETS = new int[BoardUtils.NUM_TILES];
+    private static final int[] BISHOP_OFFSETS = new int[BoardUtils.NUM_TILES];
+
+    /**
+     * The attack tables, one block per tile.
+     */
+    private static final long[] ROOK_ATTACKS = initAttacks(ROOK_DIRECTIONS, ROOK_MASKS, ROOK_MAGICS, ROOK_SHIFTS,
+            ROOK_OFFSETS);
+    private static final long[] BISHOP_ATTACKS = initAttacks(BISHOP_DIRECTIONS, BISHOP_MASKS, BISHOP_MAGICS,
+            BISHOP_SHIFTS, BISHOP_OFFSETS);
+
+    /**
+     * For every pair of tiles on a common row, column or diagonal, the tiles strictly between them,
+     * and the whole line through both of them from edge to edge. Indexed by first tile * 64 + second tile,
+     * 0 when the tiles are not aligned.
+     */
+    private static final long[] TILES_BETWEEN = new long[BoardUtils.NUM_TILES * BoardUtils.NUM_TILES];
+    private static final long[] LINES = new long[BoardUtils.NUM_TILES * BoardUtils.NUM_TILES];
+
+    static {
+        initLines();
+    }
+
+    /**
+     * The constructor.
+     */
+    private MagicBitboards() {
+        throw new RuntimeException("You cannot instantiate me!");
+    }
+
+    /**
+     * Get all the tiles a rook attacks.
+     * @param tileCoordinate the rook position.
+     * @param occupancy all the occupied tiles.
+     * @return the attacked tiles, including the first blocker on each ray.
+     */
+    public static long getRookAttacks(final int tileCoordinate, final long occupancy) {
+        final int index = (int) (((occupancy & ROOK_MASKS[tileCoordinate]) * ROOK_MAGICS[tileCoordinate])
+                >>> ROOK_SHIFTS[tileCoordinate]);
+        return ROOK_ATTACKS[ROOK_OFFSETS[tileCoordinate] + index];
+    }
+
+    /**
+     * Get all the tiles a bishop attacks.
+     * @param tileCoordinate the bishop position.
+     * @param occupancy all the occupied tiles.
+     * @return the attacked tiles, including the first blocker on each ray.
+     */
+    public static long getBishopAttacks(final int tileCoordinate, final long occupancy) {
+        final int index = (int) (((occupancy & BISHOP_MASKS[tileCoordinate]) * BISHOP_MAGICS[tileCoordinate])
+                >>> BISHOP_SHIFTS[tileCoordinate]);
+        return BISHOP_ATTACKS[BISHOP_OFFSETS[tileCoordinate] + index];
+    }
+
+    /**
+     * Get all the tiles a queen attacks.
+     * @param tileCoordinate the queen position.
+     * @param occupancy all the occupied tiles.
+     * @return the attacked tiles, including the first blocker on each ray.
+     */
+    public static long getQueenAttacks(final int tileCoordinate, final long occupancy) {
+        return getRookAttacks(tileCoordinate, occupancy) | getBishopAttacks(tileCoordinate, occupancy);
+    }
+
+    /**
+     * Get the tiles strictly between two tiles, used to block a check or to find a pinned piece.
+     * @param firstTile the first tile.
+     * @param secondTile the second tile.
+     * @return the tiles between them, 0 if they are not on a common row, column or diagonal.
+     */
+    public static long getTilesBetween(final int firstTile, final int secondTile) {
+        return TILES_BETWEEN[firstTile * BoardUtils.NUM_TILES + secondTile];
+    }
+
+    /**
+     * Get the whole line through two tiles, the only tiles a piece pinned between them may move to.
+     * @param firstTile the first tile.
+     * @param secondTile the second tile.
+     * @return the line from edge to edge, both tiles included, 0 if they are not on a common row, column or diagonal.
+     */
+    public static long getLine(final int firstTile, final int secondTile) {
+        return LINES[firstTile * BoardUtils.NUM_TILES + secondTile];
+    }
+
+    /**
+     * Tell whether one step from the current position with the given offset stays on the board.
+     * A step must be a valid tile coordinate and must not wrap around to the other side of the board.
+     * @param currentPosition the current position.
+     * @param offset the offset of one step.
+     * @return true if the step stays on the board.
+     */
+    private static boolean isValidStep(final int currentPosition, final int offset) {
+        final int destination = currentPosition + offset;
+        return BoardUtils.isValidTileCoordinate(destination)
+                && Math.abs((destination & 7) - (currentPosition & 7)) <= 1;
+    }
+
+    /**
+     * Walk the rays one tile at a time. This is slow and only used to build the tables.
+     * @param tileCoordinate the slider position.
+     * @param occupancy all the occupied tiles.
+     * @param directions the ray directions.
+     * @return the attacked tiles, including the first blocker on each ray.
+     */
+    private static long calculateRayAttacks(final int tileCoordinate, final long occupancy, final int[] directions) {
+        long attacks = 0L;
+        for (final int direction : directions) {
+            int candidateCoordinate = tileCoordinate;
+            while (isValidStep(candidateCoordinate, direction)) {
+                candidateCoordinate += direction;
+                attacks |= 1L << candidateCoordinate;
+                if ((occupancy & (1L << candidateCoordinate)) != 0) {
+                    break;
+                }
+            }
+        }
+        return attacks;
+    }
+
+    /**
+     * The tiles that may block a slider: every tile on its rays except the last one.
+     * @param tileCoordinate the slider position.
+     * @param directions the ray directions.
+     * @return the relevant occupancy mask.
+     */
+    private static long calculateRelevantMask(final int tileCoordinate, final int[] directions) {
+        long mask = 0L;
+        for (final int direction : directions) {
+            int candidateCoordinate = tileCoordinate;
+            while (isValidStep(candidateCoordinate, direction)) {
+                candidateCoordinate += direction;
+                if (!isValidStep(candidateCoordinate, direction)) {
+                    break;
+                }
+                mask |= 1L << candidateCoordinate;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Fill the block of the attack table of every tile.
+     * @param directions the ray directions.
+     * @param masks the relevant occupancy masks to fill.
+     * @param magics the magic numbers.
+     * @param shifts the shifts to fill.
+     * @param offsets the table offsets to fill.
+     * @return the attack table.
+     */
+    private static long[] initAttacks(final int[] directions,
+                                      final long[] masks,
+                                      final long[] magics,
+                                      final int[] shifts,
+                                      final int[] offsets) {
+        int tableSize = 0;
+        for (int tile = 0; tile < BoardUtils.NUM_TILES; tile++) {
+            masks[tile] = calculateRelevantMask(tile, directions);
+            shifts[tile] = Long.SIZE - Long.bitCount(masks[tile]);
+            offsets[tile] = tableSize;
+            tableSize += 1 << Long.bitCount(masks[tile]);
+        }
+        final long[] attackTable = new long[tableSize];
+        final boolean[] filled = new boolean[tableSize];
+        for (int tile = 0; tile < BoardUtils.NUM_TILES; tile++) {
+            // Enumerate every subset of the mask with the carry-rippler trick.
+            long subset = 0L;
+            do {
+                final long attacks = calculateRayAttacks(tile, subset, directions);
+                final int index = offsets[tile] + (int) ((subset * magics[tile]) >>> shifts[tile]);
+                if (filled[index] && attackTable[index] != attacks) {
+                    throw new IllegalStateException("Bad magic number for tile " + tile);
+                }
+                filled[index] = true;
+                attackTable[index] = attacks;
+                subset = (subset - masks[tile]) & masks[tile];
+            } while (subset != 0);
+        }
+        return attackTable;
+    }
+
+    /**
+     * Fill the tables of the tiles between two tiles and of the lines through them, from the slider attacks.
+     */
+    private static void initLines() {
+        for (int firstTile = 0; firstTile < BoardUtils.NUM_TILES; firstTile++) {
+            final long firstRook = getRookAttacks(firstTile, 0L);
+            final long firstBishop = getBishopAttacks(firstTile, 0L);
+            for (int secondTile = 0; secondTile < BoardUtils.NUM_TILES; secondTile++) {
+                final long ends = (1L << firstTile) | (1L << secondTile);
+                final int index = firstTile * BoardUtils.NUM_TILES + secondTile;
+                if ((firstRook & (1L << secondTile)) != 0) {
+                    TILES_BETWEEN[index] = getRookAttacks(firstTile, 1L << secondTile)
+                            & getRookAttacks(secondTile, 1L << firstTile);
+                    LINES[index] = (firstRook & getRookAttacks(secondTile, 0L)) | ends;
+                } else if ((firstBishop & (1L << secondTile)) != 0) {
+                    TILES_BETWEEN[index] = getBishopAttacks(firstTile, 1L << secondTile)
+                            & getBishopAttacks(secondTile, 1L << firstTile);
+                    LINES[index] = (firstBishop & getBishopAttacks(secondTile, 0L)) | ends;
+                }
+            }
+        }
+    }
+}
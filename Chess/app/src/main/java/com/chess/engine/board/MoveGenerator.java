@@ -0,0 +1,711 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.metrics.EngineMetrics;
+import com.chess.engine.pieces.Piece;
+
+/**
+ * Generates moves packed by MoveUtils straight from the board bitboards.
+ * Nothing is allocated, the moves are written into a MoveList owned by the caller.
+ *
+ * generateLegalMoves only emits legal moves. It finds the pieces giving check and the pinned pieces once
+ * per position, then limits each piece to the tiles that block or capture the checker and to its pin line,
+ * so no move has to be made to be tested. The captures and promotions can be generated apart from the
+ * other moves, so a search that cuts off on a capture never generates the quiet moves.
+ *
+ * When the engine metrics are enabled, the public methods count the moves they generate by piece type,
+ * and the legal generator counts the moves it drops: king moves to attacked tiles, moves of pinned knights
+ * and sliders off their pin line, and en passant captures uncovering the king.
+ */
+public final class MoveGenerator {
+
+    private static final int PAWN = Piece.PieceType.PAWN.ordinal();
+    private static final int KNIGHT = Piece.PieceType.KNIGHT.ordinal();
+    private static final int BISHOP = Piece.PieceType.BISHOP.ordinal();
+    private static final int ROOK = Piece.PieceType.ROOK.ordinal();
+    private static final int QUEEN = Piece.PieceType.QUEEN.ordinal();
+    private static final int KING = Piece.PieceType.KING.ordinal();
+
+    private static final Alliance[] ALLIANCES = Alliance.values();
+
+    /**
+     * The tiles the kings start on, the only tiles they could castle from.
+     */
+    private static final int WHITE_KING_START = 60;
+    private static final int BLACK_KING_START = 4;
+
+    /**
+     * The kinds of moves to generate: captures and promotions, the other moves, or both.
+     */
+    private static final int TACTICAL_MOVES = 1;
+    private static final int QUIET_MOVES = 2;
+    private static final int ALL_MOVES = TACTICAL_MOVES | QUIET_MOVES;
+
+    /**
+     * The constructor.
+     */
+    private MoveGenerator() {
+        throw new RuntimeException("You cannot instantiate me!");
+    }
+
+    /**
+     * Generate the moves of every piece of the alliance to move.
+     * The moves are pseudo-legal: a move may still leave the own king attacked.
+     * @param board a given board.
+     * @param moves the list the moves are added to.
+     */
+    public static void generatePseudoLegalMoves(final Board board, final MoveList moves) {
+        final int firstIndex = moves.size();
+        addPseudoLegalMoves(board, moves);
+        if (EngineMetrics.ENABLED) {
+            EngineMetrics.get().recordMovesGenerated(moves, firstIndex);
+        }
+    }
+
+    /**
+     * Generate the moves of every piece of the alliance to move, without counting them.
+     * @param board a given board.
+     * @param moves the list the moves are added to.
+     */
+    private static void addPseudoLegalMoves(final Board board, final MoveList moves) {
+        final int alliance = board.getNextMoveMaker().ordinal();
+        for (int pieceType = PAWN; pieceType <= KING; pieceType++) {
+            final int pieceCode = BoardUtils.getPieceCode(pieceType, alliance);
+            long pieces = board.getPieceBitboard(pieceCode);
+            while (pieces != 0) {
+                final int sourceCoordinate = Long.numberOfTrailingZeros(pieces);
+                pieces &= pieces - 1;
+                generatePieceMoves(board, sourceCoordinate, pieceCode, moves);
+            }
+        }
+    }
+
+    /**
+     * Generate the pseudo-legal moves of the given kinds.
+     * @param board a given board.
+     * @param kinds TACTICAL_MOVES, QUIET_MOVES or both.
+     * @param moves the list the moves are added to.
+     */
+    private static void generatePseudoLegalMoves(final Board board, final int kinds, final MoveList moves) {
+        final int firstIndex = moves.size();
+        addPseudoLegalMoves(board, moves);
+        if (kinds == ALL_MOVES) {
+            return;
+        }
+        final int generated = moves.size();
+        moves.truncate(firstIndex);
+        for (int i = firstIndex; i < generated; i++) {
+            final int move = moves.get(i);
+            final boolean tactical = MoveUtils.isCapture(move) || MoveUtils.isPromotion(move);
+            if ((kinds & (tactical ? TACTICAL_MOVES : QUIET_MOVES)) != 0) {
+                moves.add(move);
+            }
+        }
+    }
+
+    /**
+     * Generate the legal moves of the alliance to move.
+     * @param board a given board.
+     * @param moves the list the moves are added to.
+     */
+    public static void generateLegalMoves(final Board board, final MoveList moves) {
+        final int firstIndex = moves.size();
+        generateLegalMoves(board, ALL_MOVES, moves);
+        if (EngineMetrics.ENABLED) {
+            EngineMetrics.get().recordMovesGenerated(moves, firstIndex);
+        }
+    }
+
+    /**
+     * Generate the legal captures and promotions of the alliance to move, en passant included.
+     * @param board a given board.
+     * @param moves the list the moves are added to.
+     */
+    public static void generateLegalCaptures(final Board board, final MoveList moves) {
+        final int firstIndex = moves.size();
+        generateLegalMoves(board, TACTICAL_MOVES, moves);
+        if (EngineMetrics.ENABLED) {
+            EngineMetrics.get().recordMovesGenerated(moves, firstIndex);
+        }
+    }
+
+    /**
+     * Generate the legal moves of the alliance to move that neither capture nor promote, castling included.
+     * @param board a given board.
+     * @param moves the list the moves are added to.
+     */
+    public static void generateLegalQuietMoves(final Board board, final MoveList moves) {
+        final int firstIndex = moves.size();
+        generateLegalMoves(board, QUIET_MOVES, moves);
+        if (EngineMetrics.ENABLED) {
+            EngineMetrics.get().recordMovesGenerated(moves, firstIndex);
+        }
+    }
+
+    /**
+     * Generate the legal moves of the given kinds.
+     * @param board a given board.
+     * @param kinds TACTICAL_MOVES, QUIET_MOVES or both.
+     * @param moves the list the moves are added to.
+     */
+    private static void generateLegalMoves(final Board board, final int kinds, final MoveList moves) {
+        final int alliance = board.getNextMoveMaker().ordinal();
+        final int opponent = alliance ^ 1;
+        final int kingCode = BoardUtils.getPieceCode(KING, alliance);
+        final int kingCoordinate = Long.numberOfTrailingZeros(board.getPieceBitboard(kingCode));
+        if (kingCoordinate == BoardUtils.NUM_TILES) {
+            // Without a king every move is legal.
+            generatePseudoLegalMoves(board, kinds, moves);
+            return;
+        }
+        final long occupancy = board.getOccupancy();
+        final long checkers = getAttackers(board, kingCoordinate, opponent, occupancy);
+        final long kindTargets = ((kinds & TACTICAL_MOVES) != 0 ? board.getAllianceOccupancy(opponent) : 0L)
+                | ((kinds & QUIET_MOVES) != 0 ? ~occupancy : 0L);
+
+        // The king may go to any tile that is not attacked once it has left its own tile.
+        final long occupancyWithoutKing = occupancy ^ (1L << kingCoordinate);
+        long kingTargets = BoardUtils.KING_ATTACKS[kingCoordinate] & kindTargets;
+        while (kingTargets != 0) {
+            final int destinationCoordinate = Long.numberOfTrailingZeros(kingTargets);
+            kingTargets &= kingTargets - 1;
+            if (getAttackers(board, destinationCoordinate, opponent, occupancyWithoutKing) == 0) {
+                moves.add(MoveUtils.createMove(kingCoordinate, destinationCoordinate, kingCode,
+                        board.getPieceCode(destinationCoordinate), MoveUtils.FLAG_NONE));
+            } else if (EngineMetrics.ENABLED) {
+                EngineMetrics.get().recordLegalFilterRejections(1);
+            }
+        }
+        if ((checkers & (checkers - 1)) != 0) {
+            // Only the king can answer a double check.
+            return;
+        }
+
+        // In check, the other pieces must capture the checker or step between it and the king.
+        final long checkMask = checkers == 0
+                ? -1L
+                : checkers | MagicBitboards.getTilesBetween(kingCoordinate, Long.numberOfTrailingZeros(checkers));
+        final long pinned = getPinnedPieces(board, kingCoordinate, alliance, occupancy);
+        final long targets = kindTargets & checkMask;
+
+        final int knightCode = BoardUtils.getPieceCode(KNIGHT, alliance);
+        if (EngineMetrics.ENABLED) {
+            long pinnedKnights = board.getPieceBitboard(knightCode) & pinned;
+            for (; pinnedKnights != 0; pinnedKnights &= pinnedKnights - 1) {
+                EngineMetrics.get().recordLegalFilterRejections(Long.bitCount(
+                        BoardUtils.KNIGHT_ATTACKS[Long.numberOfTrailingZeros(pinnedKnights)] & targets));
+            }
+        }
+        long knights = board.getPieceBitboard(knightCode) & ~pinned;
+        while (knights != 0) {
+            final int sourceCoordinate = Long.numberOfTrailingZeros(knights);
+            knights &= knights - 1;
+            addMoves(board, sourceCoordinate, knightCode, BoardUtils.KNIGHT_ATTACKS[sourceCoordinate] & targets,
+                    moves);
+        }
+        for (int pieceType = BISHOP; pieceType <= QUEEN; pieceType++) {
+            final int pieceCode = BoardUtils.getPieceCode(pieceType, alliance);
+            long pieces = board.getPieceBitboard(pieceCode);
+            while (pieces != 0) {
+                final int sourceCoordinate = Long.numberOfTrailingZeros(pieces);
+                pieces &= pieces - 1;
+                long destinations = getSliderAttacks(pieceType, sourceCoordinate, occupancy) & targets;
+                if ((pinned & (1L << sourceCoordinate)) != 0) {
+                    final long line = MagicBitboards.getLine(kingCoordinate, sourceCoordinate);
+                    if (EngineMetrics.ENABLED) {
+                        EngineMetrics.get().recordLegalFilterRejections(Long.bitCount(destinations & ~line));
+                    }
+                    destinations &= line;
+                }
+                addMoves(board, sourceCoordinate, pieceCode, destinations, moves);
+            }
+        }
+        final int pawnCode = BoardUtils.getPieceCode(PAWN, alliance);
+        long pawns = board.getPieceBitboard(pawnCode);
+        while (pawns != 0) {
+            final int sourceCoordinate = Long.numberOfTrailingZeros(pawns);
+            pawns &= pawns - 1;
+            final long allowedTiles = (pinned & (1L << sourceCoordinate)) != 0
+                    ? checkMask & MagicBitboards.getLine(kingCoordinate, sourceCoordinate)
+                    : checkMask;
+            generatePawnMoves(board, sourceCoordinate, pawnCode, allowedTiles, kinds, false, moves);
+        }
+        if ((kinds & TACTICAL_MOVES) != 0) {
+            generateLegalEnPassant(board, kingCoordinate, alliance, occupancy, moves);
+        }
+        if ((kinds & QUIET_MOVES) != 0 && checkers == 0) {
+            generateCastleMoves(board, kingCoordinate, kingCode, moves);
+        }
+    }
+
+    /**
+     * Generate the legal en passant captures. The captured pawn leaves a tile that is neither the source
+     * nor the destination, which may uncover the king in ways the pin masks miss, so the occupancy
+     * after the capture is tested directly.
+     * @param board a given board.
+     * @param kingCoordinate the position of the king of the alliance to move.
+     * @param alliance the ordinal of the alliance to move.
+     * @param occupancy all the occupied tiles.
+     * @param moves the list the moves are added to.
+     */
+    private static void generateLegalEnPassant(final Board board,
+                                               final int kingCoordinate,
+                                               final int alliance,
+                                               final long occupancy,
+                                               final MoveList moves) {
+        final int enPassantCoordinate = board.getEnPassantCoordinate();
+        if (enPassantCoordinate == BoardUtils.NO_EN_PASSANT) {
+            return;
+        }
+        final int opponent = alliance ^ 1;
+        final int pawnCode = BoardUtils.getPieceCode(PAWN, alliance);
+        final int capturedCoordinate = alliance == Alliance.WHITE.ordinal()
+                ? enPassantCoordinate + BoardUtils.NUM_TILES_PER_ROW
+                : enPassantCoordinate - BoardUtils.NUM_TILES_PER_ROW;
+        long pawns = BoardUtils.PAWN_ATTACKS[opponent][enPassantCoordinate] & board.getPieceBitboard(pawnCode);
+        while (pawns != 0) {
+            final int sourceCoordinate = Long.numberOfTrailingZeros(pawns);
+            pawns &= pawns - 1;
+            final long occupancyAfter = (occupancy ^ (1L << sourceCoordinate) ^ (1L << capturedCoordinate))
+                    | (1L << enPassantCoordinate);
+            if ((getAttackers(board, kingCoordinate, opponent, occupancyAfter) & ~(1L << capturedCoordinate)) == 0) {
+                moves.add(MoveUtils.createMove(sourceCoordinate, enPassantCoordinate, pawnCode,
+                        BoardUtils.getPieceCode(PAWN, opponent), MoveUtils.FLAG_EN_PASSANT));
+            } else if (EngineMetrics.ENABLED) {
+                EngineMetrics.get().recordLegalFilterRejections(1);
+            }
+        }
+    }
+
+    /**
+     * Find the pieces of an alliance pinned to their king: the only piece between the king
+     * and an opposing slider that would attack the king without it.
+     * @param board a given board.
+     * @param kingCoordinate the king position.
+     * @param alliance the ordinal of the alliance of the king.
+     * @param occupancy all the occupied tiles.
+     * @return the pinned pieces.
+     */
+    private static long getPinnedPieces(final Board board,
+                                        final int kingCoordinate,
+                                        final int alliance,
+                                        final long occupancy) {
+        final int opponent = alliance ^ 1;
+        final long opponentPieces = board.getAllianceOccupancy(opponent);
+        final long queens = board.getPieceBitboard(BoardUtils.getPieceCode(QUEEN, opponent));
+        // The sliders that would see the king through the pieces of its own alliance.
+        long snipers = (MagicBitboards.getRookAttacks(kingCoordinate, opponentPieces)
+                    & (board.getPieceBitboard(BoardUtils.getPieceCode(ROOK, opponent)) | queens))
+                | (MagicBitboards.getBishopAttacks(kingCoordinate, opponentPieces)
+                    & (board.getPieceBitboard(BoardUtils.getPieceCode(BISHOP, opponent)) | queens));
+        long pinned = 0L;
+        while (snipers != 0) {
+            final int sniperCoordinate = Long.numberOfTrailingZeros(snipers);
+            snipers &= snipers - 1;
+            final long blockers = MagicBitboards.getTilesBetween(kingCoordinate, sniperCoordinate) & occupancy;
+            if (blockers != 0 && (blockers & (blockers - 1)) == 0) {
+                pinned |= blockers & board.getAllianceOccupancy(alliance);
+            }
+        }
+        return pinned;
+    }
+
+    /**
+     * Get the pieces of both alliances that attack a tile, for a given occupancy.
+     * Pieces outside the occupancy are not removed from the result, mask them out if needed.
+     * @param board a given board.
+     * @param tileCoordinate the tile.
+     * @param occupancy the occupied tiles the sliders are blocked by.
+     * @return the attacking pieces.
+     */
+    public static long getAttackers(final Board board, final int tileCoordinate, final long occupancy) {
+        return getAttackers(board, tileCoordinate, Alliance.WHITE.ordinal(), occupancy)
+                | getAttackers(board, tileCoordinate, Alliance.BLACK.ordinal(), occupancy);
+    }
+
+    /**
+     * Get the pieces of an alliance that attack a tile, for a given occupancy.
+     * @param board a given board.
+     * @param tileCoordinate the tile.
+     * @param attackerAlliance the ordinal of the attacking alliance.
+     * @param occupancy the occupied tiles the sliders are blocked by.
+     * @return the attacking pieces.
+     */
+    public static long getAttackers(final Board board,
+                                     final int tileCoordinate,
+                                     final int attackerAlliance,
+                                     final long occupancy) {
+        final long queens = board.getPieceBitboard(BoardUtils.getPieceCode(QUEEN, attackerAlliance));
+        return (BoardUtils.PAWN_ATTACKS[attackerAlliance ^ 1][tileCoordinate]
+                    & board.getPieceBitboard(BoardUtils.getPieceCode(PAWN, attackerAlliance)))
+                | (BoardUtils.KNIGHT_ATTACKS[tileCoordinate]
+                    & board.getPieceBitboard(BoardUtils.getPieceCode(KNIGHT, attackerAlliance)))
+                | (BoardUtils.KING_ATTACKS[tileCoordinate]
+                    & board.getPieceBitboard(BoardUtils.getPieceCode(KING, attackerAlliance)))
+                | (MagicBitboards.getBishopAttacks(tileCoordinate, occupancy)
+                    & (board.getPieceBitboard(BoardUtils.getPieceCode(BISHOP, attackerAlliance)) | queens))
+                | (MagicBitboards.getRookAttacks(tileCoordinate, occupancy)
+                    & (board.getPieceBitboard(BoardUtils.getPieceCode(ROOK, attackerAlliance)) | queens));
+    }
+
+    /**
+     * Get every tile the pieces of an alliance attack.
+     * @param board a given board.
+     * @param alliance the ordinal of the attacking alliance.
+     * @return the attacked tiles.
+     */
+    public static long getAttackMap(final Board board, final int alliance) {
+        final long occupancy = board.getOccupancy();
+        long attackMap = 0L;
+        long pawns = board.getPieceBitboard(BoardUtils.getPieceCode(PAWN, alliance));
+        while (pawns != 0) {
+            attackMap |= BoardUtils.PAWN_ATTACKS[alliance][Long.numberOfTrailingZeros(pawns)];
+            pawns &= pawns - 1;
+        }
+        long knights = board.getPieceBitboard(BoardUtils.getPieceCode(KNIGHT, alliance));
+        while (knights != 0) {
+            attackMap |= BoardUtils.KNIGHT_ATTACKS[Long.numberOfTrailingZeros(knights)];
+            knights &= knights - 1;
+        }
+        for (int pieceType = BISHOP; pieceType <= QUEEN; pieceType++) {
+            long pieces = board.getPieceBitboard(BoardUtils.getPieceCode(pieceType, alliance));
+            while (pieces != 0) {
+                attackMap |= getSliderAttacks(pieceType, Long.numberOfTrailingZeros(pieces), occupancy);
+                pieces &= pieces - 1;
+            }
+        }
+        final long king = board.getPieceBitboard(BoardUtils.getPieceCode(KING, alliance));
+        if (king != 0) {
+            attackMap |= BoardUtils.KING_ATTACKS[Long.numberOfTrailingZeros(king)];
+        }
+        return attackMap;
+    }
+
+    /**
+     * Get the tiles a slider attacks.
+     * @param pieceType the ordinal of a bishop, rook or queen.
+     * @param tileCoordinate the slider position.
+     * @param occupancy all the occupied tiles.
+     * @return the attacked tiles.
+     */
+    private static long getSliderAttacks(final int pieceType, final int tileCoordinate, final long occupancy) {
+        if (pieceType == BISHOP) {
+            return MagicBitboards.getBishopAttacks(tileCoordinate, occupancy);
+        }
+        if (pieceType == ROOK) {
+            return MagicBitboards.getRookAttacks(tileCoordinate, occupancy);
+        }
+        return MagicBitboards.getQueenAttacks(tileCoordinate, occupancy);
+    }
+
+    /**
+     * Generate the moves of one piece.
+     * @param board a given board.
+     * @param sourceCoordinate the piece position.
+     * @param pieceCode the piece code.
+     * @param moves the list the moves are added to.
+     */
+    public static void generatePieceMoves(final Board board,
+                                          final int sourceCoordinate,
+                                          final int pieceCode,
+                                          final MoveList moves) {
+        final int pieceType = BoardUtils.getPieceType(pieceCode);
+        if (pieceType == PAWN) {
+            generatePawnMoves(board, sourceCoordinate, pieceCode, moves);
+        } else if (pieceType == KNIGHT) {
+            generateKnightMoves(board, sourceCoordinate, pieceCode, moves);
+        } else if (pieceType == BISHOP) {
+            generateBishopMoves(board, sourceCoordinate, pieceCode, moves);
+        } else if (pieceType == ROOK) {
+            generateRookMoves(board, sourceCoordinate, pieceCode, moves);
+        } else if (pieceType == QUEEN) {
+            generateQueenMoves(board, sourceCoordinate, pieceCode, moves);
+        } else {
+            generateKingMoves(board, sourceCoordinate, pieceCode, moves);
+        }
+    }
+
+    /**
+     * Generate the moves of one knight.
+     * @param board a given board.
+     * @param sourceCoordinate the knight position.
+     * @param pieceCode the knight piece code.
+     * @param moves the list the moves are added to.
+     */
+    public static void generateKnightMoves(final Board board,
+                                           final int sourceCoordinate,
+                                           final int pieceCode,
+                                           final MoveList moves) {
+        addMoves(board, sourceCoordinate, pieceCode,
+                BoardUtils.KNIGHT_ATTACKS[sourceCoordinate] & targetsOf(board, pieceCode), moves);
+    }
+
+    /**
+     * Generate the moves of one bishop.
+     * @param board a given board.
+     * @param sourceCoordinate the bishop position.
+     * @param pieceCode the bishop piece code.
+     * @param moves the list the moves are added to.
+     */
+    public static void generateBishopMoves(final Board board,
+                                           final int sourceCoordinate,
+                                           final int pieceCode,
+                                           final MoveList moves) {
+        addMoves(board, sourceCoordinate, pieceCode,
+                MagicBitboards.getBishopAttacks(sourceCoordinate, board.getOccupancy()) & targetsOf(board, pieceCode),
+                moves);
+    }
+
+    /**
+     * Generate the moves of one rook.
+     * @param board a given board.
+     * @param sourceCoordinate the rook position.
+     * @param pieceCode the rook piece code.
+     * @param moves the list the moves are added to.
+     */
+    public static void generateRookMoves(final Board board,
+                                         final int sourceCoordinate,
+                                         final int pieceCode,
+                                         final MoveList moves) {
+        addMoves(board, sourceCoordinate, pieceCode,
+                MagicBitboards.getRookAttacks(sourceCoordinate, board.getOccupancy()) & targetsOf(board, pieceCode),
+                moves);
+    }
+
+    /**
+     * Generate the moves of one queen.
+     * @param board a given board.
+     * @param sourceCoordinate the queen position.
+     * @param pieceCode the queen piece code.
+     * @param moves the list the moves are added to.
+     */
+    public static void generateQueenMoves(final Board board,
+                                          final int sourceCoordinate,
+                                          final int pieceCode,
+                                          final MoveList moves) {
+        addMoves(board, sourceCoordinate, pieceCode,
+                MagicBitboards.getQueenAttacks(sourceCoordinate, board.getOccupancy()) & targetsOf(board, pieceCode),
+                moves);
+    }
+
+    /**
+     * Generate the moves of one king.
+     * @param board a given board.
+     * @param sourceCoordinate the king position.
+     * @param pieceCode the king piece code.
+     * @param moves the list the moves are added to.
+     */
+    public static void generateKingMoves(final Board board,
+                                         final int sourceCoordinate,
+                                         final int pieceCode,
+                                         final MoveList moves) {
+        addMoves(board, sourceCoordinate, pieceCode,
+                BoardUtils.KING_ATTACKS[sourceCoordinate] & targetsOf(board, pieceCode), moves);
+        generateCastleMoves(board, sourceCoordinate, pieceCode, moves);
+    }
+
+    /**
+     * Generate the castling moves of a king.
+     * The king must stand on its start tile and the rook on its corner, whatever the castling rights say.
+     * The king must not be in check, the tiles between the king and the rook must be empty,
+     * and the tiles the king passes and lands on must not be attacked, which the attack map of the opponent tells.
+     * @param board a given board.
+     * @param sourceCoordinate the king position.
+     * @param pieceCode the king piece code.
+     * @param moves the list the moves are added to.
+     */
+    private static void generateCastleMoves(final Board board,
+                                            final int sourceCoordinate,
+                                            final int pieceCode,
+                                            final MoveList moves) {
+        final int alliance = BoardUtils.getPieceAlliance(pieceCode);
+        final boolean isWhite = alliance == Alliance.WHITE.ordinal();
+        final int kingSideRight = isWhite ? BoardUtils.WHITE_KING_SIDE_CASTLE : BoardUtils.BLACK_KING_SIDE_CASTLE;
+        final int queenSideRight = isWhite ? BoardUtils.WHITE_QUEEN_SIDE_CASTLE : BoardUtils.BLACK_QUEEN_SIDE_CASTLE;
+        final int castlingRights = board.getCastlingRights();
+        if ((castlingRights & (kingSideRight | queenSideRight)) == 0
+                || sourceCoordinate != (isWhite ? WHITE_KING_START : BLACK_KING_START)) {
+            return;
+        }
+        final long attacked = board.getAttackMap(ALLIANCES[alliance ^ 1]);
+        if ((attacked & (1L << sourceCoordinate)) != 0) {
+            return;
+        }
+        final long occupancy = board.getOccupancy();
+        final long rooks = board.getPieceBitboard(BoardUtils.getPieceCode(ROOK, alliance));
+        final long kingSidePath = (1L << (sourceCoordinate + 1)) | (1L << (sourceCoordinate + 2));
+        if ((castlingRights & kingSideRight) != 0
+                && (rooks & (1L << (sourceCoordinate + 3))) != 0
+                && (occupancy & kingSidePath) == 0
+                && (attacked & kingSidePath) == 0) {
+            moves.add(MoveUtils.createMove(sourceCoordinate, sourceCoordinate + 2, pieceCode, BoardUtils.NO_PIECE,
+                    MoveUtils.FLAG_KING_SIDE_CASTLE));
+        }
+        final long queenSidePath = (1L << (sourceCoordinate - 1)) | (1L << (sourceCoordinate - 2))
+                | (1L << (sourceCoordinate - 3));
+        final long queenSideKingPath = (1L << (sourceCoordinate - 1)) | (1L << (sourceCoordinate - 2));
+        if ((castlingRights & queenSideRight) != 0
+                && (rooks & (1L << (sourceCoordinate - 4))) != 0
+                && (occupancy & queenSidePath) == 0
+                && (attacked & queenSideKingPath) == 0) {
+            moves.add(MoveUtils.createMove(sourceCoordinate, sourceCoordinate - 2, pieceCode, BoardUtils.NO_PIECE,
+                    MoveUtils.FLAG_QUEEN_SIDE_CASTLE));
+        }
+    }
+
+    /**
+     * Tell whether a tile is attacked by any piece of an alliance.
+     * Each attack table is looked up from the tile itself: a knight on the tile would attack exactly
+     * the tiles a knight could attack it from, and the same goes for the other pieces.
+     * @param board a given board.
+     * @param tileCoordinate the tile.
+     * @param attackerAlliance the ordinal of the attacking alliance.
+     * @return true if the tile is attacked.
+     */
+    public static boolean isTileAttacked(final Board board, final int tileCoordinate, final int attackerAlliance) {
+        final long occupancy = board.getOccupancy();
+        final long queens = board.getPieceBitboard(BoardUtils.getPieceCode(QUEEN, attackerAlliance));
+        return (BoardUtils.PAWN_ATTACKS[attackerAlliance ^ 1][tileCoordinate]
+                    & board.getPieceBitboard(BoardUtils.getPieceCode(PAWN, attackerAlliance))) != 0
+                || (BoardUtils.KNIGHT_ATTACKS[tileCoordinate]
+                    & board.getPieceBitboard(BoardUtils.getPieceCode(KNIGHT, attackerAlliance))) != 0
+                || (BoardUtils.KING_ATTACKS[tileCoordinate]
+                    & board.getPieceBitboard(BoardUtils.getPieceCode(KING, attackerAlliance))) != 0
+                || (MagicBitboards.getBishopAttacks(tileCoordinate, occupancy)
+                    & (board.getPieceBitboard(BoardUtils.getPieceCode(BISHOP, attackerAlliance)) | queens)) != 0
+                || (MagicBitboards.getRookAttacks(tileCoordinate, occupancy)
+                    & (board.getPieceBitboard(BoardUtils.getPieceCode(ROOK, attackerAlliance)) | queens)) != 0;
+    }
+
+    /**
+     * Generate the moves of one pawn: one step forward, the jump from its first row,
+     * the attacks, en passant, and the promotions when it reaches the last row.
+     * @param board a given board.
+     * @param sourceCoordinate the pawn position.
+     * @param pieceCode the pawn piece code.
+     * @param moves the list the moves are added to.
+     */
+    public static void generatePawnMoves(final Board board,
+                                         final int sourceCoordinate,
+                                         final int pieceCode,
+                                         final MoveList moves) {
+        generatePawnMoves(board, sourceCoordinate, pieceCode, -1L, ALL_MOVES, true, moves);
+    }
+
+    /**
+     * Generate the moves of one pawn that land on the allowed tiles.
+     * @param board a given board.
+     * @param sourceCoordinate the pawn position.
+     * @param pieceCode the pawn piece code.
+     * @param allowedTiles the tiles the pawn may move to.
+     * @param kinds TACTICAL_MOVES, QUIET_MOVES or both.
+     * @param withEnPassant whether to add en passant, which the legal generator tests on its own.
+     * @param moves the list the moves are added to.
+     */
+    private static void generatePawnMoves(final Board board,
+                                          final int sourceCoordinate,
+                                          final int pieceCode,
+                                          final long allowedTiles,
+                                          final int kinds,
+                                          final boolean withEnPassant,
+                                          final MoveList moves) {
+        final int alliance = BoardUtils.getPieceAlliance(pieceCode);
+        final boolean isWhite = alliance == Alliance.WHITE.ordinal();
+        final int forward = isWhite ? -BoardUtils.NUM_TILES_PER_ROW : BoardUtils.NUM_TILES_PER_ROW;
+        final long startRow = isWhite ? BoardUtils.SEVENTH_ROW_MASK : BoardUtils.SECOND_ROW_MASK;
+        final long promotionRow = isWhite ? BoardUtils.FIRST_ROW_MASK : BoardUtils.EIGHTH_ROW_MASK;
+        final long occupancy = board.getOccupancy();
+        final int stepCoordinate = sourceCoordinate + forward;
+        if (BoardUtils.isValidTileCoordinate(stepCoordinate) && (occupancy & (1L << stepCoordinate)) == 0) {
+            final boolean stepAllowed = (allowedTiles & (1L << stepCoordinate)) != 0;
+            if ((promotionRow & (1L << stepCoordinate)) != 0) {
+                if (stepAllowed && (kinds & TACTICAL_MOVES) != 0) {
+                    addPromotions(sourceCoordinate, stepCoordinate, pieceCode, BoardUtils.NO_PIECE, moves);
+                }
+            } else if ((kinds & QUIET_MOVES) != 0) {
+                if (stepAllowed) {
+                    moves.add(MoveUtils.createMove(sourceCoordinate, stepCoordinate, pieceCode, BoardUtils.NO_PIECE,
+                            MoveUtils.FLAG_NONE));
+                }
+                final int jumpCoordinate = stepCoordinate + forward;
+                if ((startRow & (1L << sourceCoordinate)) != 0 && (occupancy & (1L << jumpCoordinate)) == 0
+                        && (allowedTiles & (1L << jumpCoordinate)) != 0) {
+                    moves.add(MoveUtils.createMove(sourceCoordinate, jumpCoordinate, pieceCode, BoardUtils.NO_PIECE,
+                            MoveUtils.FLAG_PAWN_JUMP));
+                }
+            }
+        }
+        if ((kinds & TACTICAL_MOVES) == 0) {
+            return;
+        }
+        long attacks = BoardUtils.PAWN_ATTACKS[alliance][sourceCoordinate]
+                & board.getAllianceOccupancy(alliance ^ 1) & allowedTiles;
+        while (attacks != 0) {
+            final int destinationCoordinate = Long.numberOfTrailingZeros(attacks);
+            attacks &= attacks - 1;
+            final int capturedPiece = board.getPieceCode(destinationCoordinate);
+            if ((promotionRow & (1L << destinationCoordinate)) != 0) {
+                addPromotions(sourceCoordinate, destinationCoordinate, pieceCode, capturedPiece, moves);
+            } else {
+                moves.add(MoveUtils.createMove(sourceCoordinate, destinationCoordinate, pieceCode, capturedPiece,
+                        MoveUtils.FLAG_NONE));
+            }
+        }
+        final int enPassantCoordinate = board.getEnPassantCoordinate();
+        if (withEnPassant && enPassantCoordinate != BoardUtils.NO_EN_PASSANT
+                && (BoardUtils.PAWN_ATTACKS[alliance][sourceCoordinate] & (1L << enPassantCoordinate)) != 0) {
+            moves.add(MoveUtils.createMove(sourceCoordinate, enPassantCoordinate, pieceCode,
+                    BoardUtils.getPieceCode(PAWN, alliance ^ 1), MoveUtils.FLAG_EN_PASSANT));
+        }
+    }
+
+    /**
+     * Add one promotion for each piece type a pawn could become.
+     * @param sourceCoordinate the pawn position.
+     * @param destinationCoordinate the tile on the last row.
+     * @param pieceCode the pawn piece code.
+     * @param capturedPiece the captured piece code, NO_PIECE if nothing is captured.
+     * @param moves the list the moves are added to.
+     */
+    private static void addPromotions(final int sourceCoordinate,
+                                      final int destinationCoordinate,
+                                      final int pieceCode,
+                                      final int capturedPiece,
+                                      final MoveList moves) {
+        for (int promotionType = QUEEN; promotionType >= KNIGHT; promotionType--) {
+            moves.add(MoveUtils.createPromotion(sourceCoordinate, destinationCoordinate, pieceCode, capturedPiece,
+                    promotionType));
+        }
+    }
+
+    /**
+     * Add a move to each destination. An occupied destination is an attack move.
+     * @param board a given board.
+     * @param sourceCoordinate the piece position.
+     * @param pieceCode the piece code.
+     * @param destinations the destination tiles, without the tiles of the same alliance.
+     * @param moves the list the moves are added to.
+     */
+    private static void addMoves(final Board board,
+                                 final int sourceCoordinate,
+                                 final int pieceCode,
+                                 long destinations,
+                                 final MoveList moves) {
+        while (destinations != 0) {
+            final int destinationCoordinate = Long.numberOfTrailingZeros(destinations);
+            destinations &= destinations - 1;
+            moves.add(MoveUtils.createMove(sourceCoordinate, destinationCoordinate, pieceCode,
+                    board.getPieceCode(destinationCoordinate), MoveUtils.FLAG_NONE));
+        }
+    }
+
+    /**
+     * The tiles a piece could move to: every tile not occupied by its own alliance.
+     * @param board a given board.
+     * @param pieceCode the piece code.
+     * @return the target tiles.
+     */
+    private static long targetsOf(final Board board, final int pieceCode) {
+        return ~board.getAllianceOccupancy(BoardUtils.getPieceAlliance(pieceCode));
+    }
+}
@@ -0,0 +1,125 @@
+package com.chess.engine.board;
+
+/**
+ * A reusable buffer of moves packed by MoveUtils.
+ * Callers keep one per search ply and clear it instead of allocating a new list.
+ */
+public final class MoveList {
+
+    /**
+     * More than the number of moves any position could have.
+     */
+    public static final int MAX_MOVES = 256;
+
+    /**
+     * The moves.
+     */
+    private final int[] moves;
+
+    /**
+     * The number of moves in the list.
+     */
+    private int size;
+
+    /**
+     * The constructor of MoveList class.
+     */
+    public MoveList() {
+        this.moves = new int[MAX_MOVES];
+        this.size = 0;
+    }
+
+    /**
+     * Add a move at the end of the list.
+     * @param move the move.
+     */
+    public void add(final int move) {
+        this.moves[this.size++] = move;
+    }
+
+    /**
+     * Get the move at the given index.
+     * @param index the index.
+     * @return the move.
+     */
+    public int get(final int index) {
+        return this.moves[index];
+    }
+
+    /**
+     * Replace the move at the given index.
+     * @param index the index.
+     * @param move the move.
+     */
+    public void set(final int index, final int move) {
+        this.moves[index] = move;
+    }
+
+    /**
+     * Swap two moves, used when moves are sorted in place.
+     * @param i the first index.
+     * @param j the second index.
+     */
+    public void swap(final int i, final int j) {
+        final int move = this.moves[i];
+        this.moves[i] = this.moves[j];
+        this.moves[j] = move;
+    }
+
+    /**
+     * Tell whether the list holds the given move.
+     * @param move the move.
+     * @return true if it is in the list.
+     */
+    public boolean contains(final int move) {
+        for (int i = 0; i < this.size; i++) {
+            if (this.moves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the number of moves in the list.
+     * @return the number of moves.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Tell whether the list has no moves.
+     * @return true if it is empty.
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Keep only the first moves of the list. The removed moves stay readable with get until they are overwritten.
+     * @param size the number of moves to keep.
+     */
+    public void truncate(final int size) {
+        this.size = size;
+    }
+
+    /**
+     * Remove all the moves, keeping the buffer.
+     */
+    public void clear() {
+        this.size = 0;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < this.size; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(MoveUtils.toString(this.moves[i]));
+        }
+        return builder.append("]").toString();
+    }
+}
@@ -0,0 +1,211 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.Piece;
+
+/**
+ * Moves packed into a single int, so generating them allocates nothing.
+ *
+ * Bits 0-5 hold the source coordinate, bits 6-11 the destination coordinate,
+ * bits 12-15 the moved piece code, bits 16-19 the captured piece code (NO_PIECE if none),
+ * bits 20-23 the move flag and bits 24-26 the piece type ordinal a pawn is promoted to.
+ */
+public final class MoveUtils {
+
+    /**
+     * An int that is never a real move, since a real move never has the same source and destination.
+     */
+    public static final int NULL_MOVE = 0;
+
+    /**
+     * A piece moves without anything special happening.
+     */
+    public static final int FLAG_NONE = 0;
+
+    /**
+     * A pawn moves two tiles forward from its first row.
+     */
+    public static final int FLAG_PAWN_JUMP = 1;
+
+    /**
+     * A pawn attacks the pawn that just jumped past it.
+     */
+    public static final int FLAG_EN_PASSANT = 2;
+
+    /**
+     * The king castles on the king side.
+     */
+    public static final int FLAG_KING_SIDE_CASTLE = 3;
+
+    /**
+     * The king castles on the queen side.
+     */
+    public static final int FLAG_QUEEN_SIDE_CASTLE = 4;
+
+    /**
+     * A pawn reaches the last row and becomes another piece.
+     */
+    public static final int FLAG_PROMOTION = 5;
+
+    private static final int DESTINATION_SHIFT = 6;
+    private static final int MOVED_PIECE_SHIFT = 12;
+    private static final int CAPTURED_PIECE_SHIFT = 16;
+    private static final int FLAG_SHIFT = 20;
+    private static final int PROMOTION_SHIFT = 24;
+
+    private static final int COORDINATE_MASK = 0x3F;
+    private static final int PIECE_MASK = 0xF;
+    private static final int FLAG_MASK = 0xF;
+    private static final int PROMOTION_MASK = 0x7;
+
+    /**
+     * The constructor.
+     */
+    private MoveUtils() {
+        throw new RuntimeException("You cannot instantiate me!");
+    }
+
+    /**
+     * Pack a move into an int.
+     * @param sourceCoordinate source coordinate.
+     * @param destinationCoordinate destination coordinate.
+     * @param movedPiece moved piece code.
+     * @param capturedPiece captured piece code, NO_PIECE if nothing is captured.
+     * @param flag move flag.
+     * @return the move.
+     */
+    public static int createMove(final int sourceCoordinate,
+                                 final int destinationCoordinate,
+                                 final int movedPiece,
+                                 final int capturedPiece,
+                                 final int flag) {
+        return sourceCoordinate
+                | (destinationCoordinate << DESTINATION_SHIFT)
+                | (movedPiece << MOVED_PIECE_SHIFT)
+                | (capturedPiece << CAPTURED_PIECE_SHIFT)
+                | (flag << FLAG_SHIFT);
+    }
+
+    /**
+     * Pack a pawn promotion into an int.
+     * @param sourceCoordinate source coordinate.
+     * @param destinationCoordinate destination coordinate.
+     * @param movedPiece moved piece code.
+     * @param capturedPiece captured piece code, NO_PIECE if nothing is captured.
+     * @param promotionType the ordinal of the piece type the pawn becomes.
+     * @return the move.
+     */
+    public static int createPromotion(final int sourceCoordinate,
+                                      final int destinationCoordinate,
+                                      final int movedPiece,
+                                      final int capturedPiece,
+                                      final int promotionType) {
+        return createMove(sourceCoordinate, destinationCoordinate, movedPiece, capturedPiece, FLAG_PROMOTION)
+                | (promotionType << PROMOTION_SHIFT);
+    }
+
+    /**
+     * Get the source coordinate of a move.
+     * @param move the move.
+     * @return source coordinate.
+     */
+    public static int getSourceCoordinate(final int move) {
+        return move & COORDINATE_MASK;
+    }
+
+    /**
+     * Get the destination coordinate of a move.
+     * @param move the move.
+     * @return destination coordinate.
+     */
+    public static int getDestinationCoordinate(final int move) {
+        return (move >>> DESTINATION_SHIFT) & COORDINATE_MASK;
+    }
+
+    /**
+     * Get the code of the moved piece.
+     * @param move the move.
+     * @return moved piece code.
+     */
+    public static int getMovedPiece(final int move) {
+        return (move >>> MOVED_PIECE_SHIFT) & PIECE_MASK;
+    }
+
+    /**
+     * Get the code of the captured piece.
+     * @param move the move.
+     * @return captured piece code, NO_PIECE if nothing is captured.
+     */
+    public static int getCapturedPiece(final int move) {
+        return (move >>> CAPTURED_PIECE_SHIFT) & PIECE_MASK;
+    }
+
+    /**
+     * Get the tile of the captured piece. It is the destination, except for en passant
+     * where the captured pawn stands one row behind the destination.
+     * @param move the move.
+     * @return tile position of the captured piece.
+     */
+    public static int getCapturedCoordinate(final int move) {
+        final int destinationCoordinate = getDestinationCoordinate(move);
+        if (getFlag(move) != FLAG_EN_PASSANT) {
+            return destinationCoordinate;
+        }
+        return BoardUtils.getPieceAlliance(getMovedPiece(move)) == Alliance.WHITE.ordinal()
+                ? destinationCoordinate + BoardUtils.NUM_TILES_PER_ROW
+                : destinationCoordinate - BoardUtils.NUM_TILES_PER_ROW;
+    }
+
+    /**
+     * Get the flag of a move.
+     * @param move the move.
+     * @return move flag.
+     */
+    public static int getFlag(final int move) {
+        return (move >>> FLAG_SHIFT) & FLAG_MASK;
+    }
+
+    /**
+     * Get the piece type a pawn is promoted to.
+     * @param move the move.
+     * @return the ordinal of the piece type, only meaningful for a promotion.
+     */
+    public static int getPromotionType(final int move) {
+        return (move >>> PROMOTION_SHIFT) & PROMOTION_MASK;
+    }
+
+    /**
+     * Tell whether a move captures a piece.
+     * @param move the move.
+     * @return true if it captures.
+     */
+    public static boolean isCapture(final int move) {
+        return getCapturedPiece(move) != BoardUtils.NO_PIECE;
+    }
+
+    /**
+     * Tell whether a move promotes a pawn.
+     * @param move the move.
+     * @return true if it promotes.
+     */
+    public static boolean isPromotion(final int move) {
+        return getFlag(move) == FLAG_PROMOTION;
+    }
+
+    /**
+     * Write a move in coordinate notation, such as e2e4 or e7e8q.
+     * @param move the move.
+     * @return the move text.
+     */
+    public static String toString(final int move) {
+        if (move == NULL_MOVE) {
+            return "0000";
+        }
+        final String moveText = BoardUtils.getPositionAtCoordinate(getSourceCoordinate(move))
+                + BoardUtils.getPositionAtCoordinate(getDestinationCoordinate(move));
+        if (isPromotion(move)) {
+            return moveText + Piece.PieceType.values()[getPromotionType(move)].toString().toLowerCase();
+        }
+        return moveText;
+    }
+}
@@ -0,0 +1,179 @@
+package com.chess.engine.board;
+
+import com.chess.engine.pieces.Piece;
+
+/**
+ * The random keys of Zobrist hashing.
+ * The key of a position is the XOR of the keys of every piece on its tile, the side to move,
+ * the castling rights and the en passant column, so a move only has to XOR the parts it changes.
+ */
+public final class Zobrist {
+
+    /**
+     * Seed of the random keys. It is fixed so a key means the same position in every process,
+     * which keeps keys stored on disk valid.
+     */
+    private static final long SEED = 0x1F2E3D4C5B6A7988L;
+
+    private static final long[] RANDOM_STATE = {SEED};
+
+    /**
+     * One key per piece code and tile.
+     */
+    private static final long[][] PIECE_KEYS = initKeys(BoardUtils.NUM_PIECE_CODES, BoardUtils.NUM_TILES);
+
+    /**
+     * The keys of the pawns, the same as their piece keys, and 0 for the other pieces.
+     * The pawn key of a position is the XOR of the keys of its pawns.
+     */
+    private static final long[][] PAWN_KEYS = initPawnKeys();
+
+    /**
+     * The key XORed in when black is to move.
+     */
+    private static final long BLACK_TO_MOVE_KEY = nextRandom();
+
+    /**
+     * One key per combination of castling rights.
+     */
+    private static final long[] CASTLING_KEYS = initKeys(1, BoardUtils.ALL_CASTLING + 1)[0];
+
+    /**
+     * One key per column of the en passant tile.
+     */
+    private static final long[] EN_PASSANT_KEYS = initKeys(1, BoardUtils.NUM_TILES_PER_ROW)[0];
+
+    /**
+     * The constructor.
+     */
+    private Zobrist() {
+        throw new RuntimeException("You cannot instantiate me!");
+    }
+
+    /**
+     * Get the key of a piece on a tile.
+     * @param pieceCode piece code.
+     * @param tileCoordinate tile position.
+     * @return the key.
+     */
+    public static long getPieceKey(final int pieceCode, final int tileCoordinate) {
+        return PIECE_KEYS[pieceCode][tileCoordinate];
+    }
+
+    /**
+     * Get the pawn key of a piece on a tile.
+     * @param pieceCode piece code.
+     * @param tileCoordinate tile position.
+     * @return the key, 0 if the piece is not a pawn.
+     */
+    public static long getPawnKey(final int pieceCode, final int tileCoordinate) {
+        return PAWN_KEYS[pieceCode][tileCoordinate];
+    }
+
+    /**
+     * Get the key XORed in when black is to move.
+     * @return the key.
+     */
+    public static long getBlackToMoveKey() {
+        return BLACK_TO_MOVE_KEY;
+    }
+
+    /**
+     * Get the key of a combination of castling rights.
+     * @param castlingRights a combination of the BoardUtils castling bits.
+     * @return the key.
+     */
+    public static long getCastlingKey(final int castlingRights) {
+        return CASTLING_KEYS[castlingRights];
+    }
+
+    /**
+     * Get the key of an en passant tile.
+     * @param enPassantCoordinate tile position, or NO_EN_PASSANT.
+     * @return the key of its column, 0 if there is no en passant tile.
+     */
+    public static long getEnPassantKey(final int enPassantCoordinate) {
+        return enPassantCoordinate == BoardUtils.NO_EN_PASSANT
+                ? 0L
+                : EN_PASSANT_KEYS[enPassantCoordinate % BoardUtils.NUM_TILES_PER_ROW];
+    }
+
+    /**
+     * Calculate the key of a board from scratch. The board keeps its key up to date by itself,
+     * this is meant to check it.
+     * @param board a given board.
+     * @return the key.
+     */
+    public static long calculateKey(final Board board) {
+        long key = 0L;
+        for (int i = 0; i < BoardUtils.NUM_TILES; i++) {
+            final int pieceCode = board.getPieceCode(i);
+            if (pieceCode != BoardUtils.NO_PIECE) {
+                key ^= PIECE_KEYS[pieceCode][i];
+            }
+        }
+        if (board.getNextMoveMaker().isBlack()) {
+            key ^= BLACK_TO_MOVE_KEY;
+        }
+        return key ^ getCastlingKey(board.getCastlingRights()) ^ getEnPassantKey(board.getEnPassantCoordinate());
+    }
+
+    /**
+     * Calculate the pawn key of a board from scratch, to check the one the board keeps up to date.
+     * @param board a given board.
+     * @return the key.
+     */
+    public static long calculatePawnKey(final Board board) {
+        long key = 0L;
+        for (int i = 0; i < BoardUtils.NUM_TILES; i++) {
+            final int pieceCode = board.getPieceCode(i);
+            if (pieceCode != BoardUtils.NO_PIECE) {
+                key ^= PAWN_KEYS[pieceCode][i];
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Copy the piece keys of the pawns.
+     * @return the pawn keys, one row per piece code.
+     */
+    private static long[][] initPawnKeys() {
+        final long[][] keys = new long[BoardUtils.NUM_PIECE_CODES][];
+        for (int pieceCode = 0; pieceCode < BoardUtils.NUM_PIECE_CODES; pieceCode++) {
+            keys[pieceCode] = BoardUtils.getPieceType(pieceCode) == Piece.PieceType.PAWN.ordinal()
+                    ? PIECE_KEYS[pieceCode].clone()
+                    : new long[BoardUtils.NUM_TILES];
+        }
+        return keys;
+    }
+
+    /**
+     * Create a table of random keys.
+     * @param rows the number of rows.
+     * @param columns the number of columns.
+     * @return the keys.
+     */
+    private static long[][] initKeys(final int rows, final int columns) {
+        final long[][] keys = new long[rows][columns];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                keys[i][j] = nextRandom();
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * A xorshift64* random number generator.
+     * @return the next random number.
+     */
+    private static long nextRandom() {
+        long x = RANDOM_STATE[0];
+        x ^= x >>> 12;
+        x ^= x << 25;
+        x ^= x >>> 27;
+        RANDOM_STATE[0] = x;
+        return x * 0x2545F4914F6CDD1DL;
+    }
+}
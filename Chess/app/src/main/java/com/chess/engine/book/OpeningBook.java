@@ -0,0 +1,254 @@
+package com.chess.engine.book;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.MoveList;
+import com.chess.engine.board.MoveUtils;
+import com.chess.engine.board.Zobrist;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.pgn.FenUtilities;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+/**
+ * Reads the moves of a position from an opening book written by OpeningBookBuilder.
+ *
+ * The book uses the Polyglot layout: records of 16 big endian bytes, the key of the position, the move, its
+ * weight and 4 unused bytes, sorted by key as an unsigned number. A move holds the destination, the source and
+ * the promotion type of Polyglot, with the tiles numbered from a1, and a castle written as the king taking its
+ * own rook. The keys are the Zobrist keys of the board, not the Polyglot keys, so the books of other programs
+ * don't match any position. Like Polyglot, a key only holds the en passant file when a pawn can take
+ * en passant, so a double push that can't be taken reaches the same record as the other move orders.
+ *
+ * The file is memory-mapped read-only and the moves of a position are found by a binary search over its
+ * records, so the book is shared by every thread and every process reading the same file. A book holds
+ * at most 2^27 records.
+ *
+ * Usage:
+ *   OpeningBook book [fen]    print the moves of a position with their weights, and the time of a lookup.
+ */
+public final class OpeningBook implements Closeable {
+
+    /**
+     * The size of a record in bytes.
+     */
+    public static final int RECORD_SIZE = 16;
+
+    static final int MOVE_OFFSET = 8;
+    static final int WEIGHT_OFFSET = 10;
+
+    private static final int MIRROR_ROWS = 56;
+    private static final int KING_SIDE_ROOK_DISTANCE = 3;
+    private static final int QUEEN_SIDE_ROOK_DISTANCE = -4;
+
+    private final FileChannel channel;
+    private final ByteBuffer records;
+    private final int size;
+
+    /**
+     * The constructor of OpeningBook class.
+     * @param path the book.
+     * @throws IOException if the file can't be mapped, or is not a book.
+     */
+    public OpeningBook(final Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            final long fileSize = this.channel.size();
+            if (fileSize % RECORD_SIZE != 0 || fileSize > Integer.MAX_VALUE) {
+                throw new IOException("Not an opening book: " + path);
+            }
+            this.records = this.channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            this.size = (int) (fileSize / RECORD_SIZE);
+        } catch (final IOException | RuntimeException e) {
+            this.channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Get the moves of a position that are legal, with their weights.
+     * @param board a given board.
+     * @param moves the list the packed moves are added to.
+     * @param weights the weight of each move added, in the same order, at least MoveList.MAX_MOVES long.
+     * @return the number of moves added.
+     */
+    public int getMoves(final Board board, final MoveList moves, final int[] weights) {
+        final long key = getKey(board);
+        int record = findFirst(key);
+        if (record == this.size) {
+            return 0;
+        }
+        final MoveList legalMoves = new MoveList();
+        board.generateLegalMoves(legalMoves);
+        int count = 0;
+        for (; record < this.size && this.records.getLong(record * RECORD_SIZE) == key; record++) {
+            final int bookMove = this.records.getShort(record * RECORD_SIZE + MOVE_OFFSET) & 0xFFFF;
+            for (int i = 0; i < legalMoves.size(); i++) {
+                if (encodeMove(legalMoves.get(i)) == bookMove) {
+                    moves.add(legalMoves.get(i));
+                    weights[count++] = this.records.getShort(record * RECORD_SIZE + WEIGHT_OFFSET) & 0xFFFF;
+                    break;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Get the move of a position with the highest weight.
+     * @param board a given board.
+     * @return the packed move, or NULL_MOVE if the book doesn't have the position.
+     */
+    public int getBestMove(final Board board) {
+        final MoveList moves = new MoveList();
+        final int[] weights = new int[MoveList.MAX_MOVES];
+        final int count = getMoves(board, moves, weights);
+        int bestMove = MoveUtils.NULL_MOVE;
+        int bestWeight = -1;
+        for (int i = 0; i < count; i++) {
+            if (weights[i] > bestWeight) {
+                bestWeight = weights[i];
+                bestMove = moves.get(i);
+            }
+        }
+        return bestMove;
+    }
+
+    /**
+     * Draw a move of a position, each with a chance proportional to its weight.
+     * @param board a given board.
+     * @param random the random generator.
+     * @return the packed move, the best one if every weight is 0, or NULL_MOVE if the book doesn't have
+     *         the position.
+     */
+    public int getWeightedMove(final Board board, final Random random) {
+        final MoveList moves = new MoveList();
+        final int[] weights = new int[MoveList.MAX_MOVES];
+        final int count = getMoves(board, moves, weights);
+        int totalWeight = 0;
+        for (int i = 0; i < count; i++) {
+            totalWeight += weights[i];
+        }
+        if (totalWeight == 0) {
+            return count == 0 ? MoveUtils.NULL_MOVE : moves.get(0);
+        }
+        int remaining = random.nextInt(totalWeight);
+        for (int i = 0; i < count; i++) {
+            remaining -= weights[i];
+            if (remaining < 0) {
+                return moves.get(i);
+            }
+        }
+        return moves.get(count - 1);
+    }
+
+    /**
+     * Get the number of records.
+     * @return the record count.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    /**
+     * Get the key of a position in the book: the Zobrist key of the board, without the en passant file
+     * if no pawn of the side to move can take en passant.
+     * @param board a given board.
+     * @return the book key.
+     */
+    static long getKey(final Board board) {
+        final int enPassantCoordinate = board.getEnPassantCoordinate();
+        if (enPassantCoordinate == BoardUtils.NO_EN_PASSANT) {
+            return board.getZobristKey();
+        }
+        final int alliance = board.getNextMoveMaker().ordinal();
+        final long pawns = board.getPieceBitboard(BoardUtils.getPieceCode(Piece.PieceType.PAWN.ordinal(), alliance));
+        if ((BoardUtils.PAWN_ATTACKS[alliance ^ 1][enPassantCoordinate] & pawns) != 0) {
+            return board.getZobristKey();
+        }
+        return board.getZobristKey() ^ Zobrist.getEnPassantKey(enPassantCoordinate);
+    }
+
+    /**
+     * Encode a move the Polyglot way: the destination, the source shifted by 6 and the promotion type shifted
+     * by 12, with the tiles numbered from a1. A castle is written as the king moving to its rook.
+     * @param move the packed move.
+     * @return the book move.
+     */
+    static int encodeMove(final int move) {
+        final int source = MoveUtils.getSourceCoordinate(move);
+        int destination = MoveUtils.getDestinationCoordinate(move);
+        if (MoveUtils.getFlag(move) == MoveUtils.FLAG_KING_SIDE_CASTLE) {
+            destination = source + KING_SIDE_ROOK_DISTANCE;
+        } else if (MoveUtils.getFlag(move) == MoveUtils.FLAG_QUEEN_SIDE_CASTLE) {
+            destination = source + QUEEN_SIDE_ROOK_DISTANCE;
+        }
+        final int promotion = MoveUtils.isPromotion(move) ? MoveUtils.getPromotionType(move) : 0;
+        return (destination ^ MIRROR_ROWS) | (source ^ MIRROR_ROWS) << 6 | promotion << 12;
+    }
+
+    /**
+     * Find the first record of a key, the records being sorted by unsigned key.
+     * @param key the key.
+     * @return the index of the record, or the record count if there is none.
+     */
+    private int findFirst(final long key) {
+        int low = 0;
+        int high = this.size;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (Long.compareUnsigned(this.records.getLong(middle * RECORD_SIZE), key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low < this.size && this.records.getLong(low * RECORD_SIZE) == key ? low : this.size;
+    }
+
+    /**
+     * Look a position up from the command line.
+     * @param args the book, then the FEN of the position if not the standard one.
+     * @throws IOException if the book can't be read.
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: OpeningBook book [fen]");
+            return;
+        }
+        final StringBuilder fen = new StringBuilder();
+        for (int i = 1; i < args.length; i++) {
+            fen.append(args[i]).append(' ');
+        }
+        final Board board = FenUtilities.createGameFromFEN(
+                fen.length() > 0 ? fen.toString() : FenUtilities.STANDARD_FEN);
+        try (final OpeningBook book = new OpeningBook(Paths.get(args[0]))) {
+            final MoveList moves = new MoveList();
+            final int[] weights = new int[MoveList.MAX_MOVES];
+            final int count = book.getMoves(board, moves, weights);
+            for (int i = 0; i < count; i++) {
+                System.out.println(MoveUtils.toString(moves.get(i)) + " " + weights[i]);
+            }
+            final int lookups = 100_000;
+            int found = 0;
+            final long start = System.nanoTime();
+            for (int i = 0; i < lookups; i++) {
+                found += book.getBestMove(board) != MoveUtils.NULL_MOVE ? 1 : 0;
+            }
+            System.out.println("Records: " + book.size() + ", found: " + found);
+            System.out.println("Lookup: " + (System.nanoTime() - start) / lookups + " ns");
+        }
+    }
+}
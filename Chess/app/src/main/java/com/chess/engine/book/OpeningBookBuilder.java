@@ -0,0 +1,382 @@
+package com.chess.engine.book;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.Board;
+import com.chess.engine.pgn.PgnGame;
+import com.chess.engine.pgn.PgnListener;
+import com.chess.engine.pgn.PgnReader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Compiles the games of PGN files into an opening book read by OpeningBook.
+ *
+ * Every move of the first plies of a game is counted for the position it was played in, and scores 2 points
+ * for the alliance that played it when it won the game, 1 for a draw or an unknown result and 0 for a loss.
+ * The moves are kept in an open addressing table by key and move, so a corpus of any size only takes the
+ * memory of its distinct moves. Writing the book sorts the moves by key, the best first within a position,
+ * and scales the points of a position down to the 16 bits of a weight when they don't fit.
+ *
+ * Usage:
+ *   OpeningBookBuilder book maxPly minGames pgn...    compile the games of the PGN files into the book.
+ */
+public final class OpeningBookBuilder implements PgnListener {
+
+    /**
+     * The number of plies of a game read unless another one is given.
+     */
+    public static final int DEFAULT_MAX_PLY = 20;
+
+    private static final int WIN_POINTS = 2;
+    private static final int DRAW_POINTS = 1;
+    private static final int MAX_WEIGHT = 0xFFFF;
+    private static final int EMPTY = -1;
+    private static final int INITIAL_CAPACITY = 1 << 16;
+    private static final int INSERTION_SORT_SIZE = 16;
+    private static final int WRITE_BUFFER_RECORDS = 1 << 12;
+
+    private final int maxPly;
+    private final int minGames;
+
+    /**
+     * The open addressing table of the moves: the key, the book move, or EMPTY for a free slot,
+     * the points and the number of games of each slot. Its capacity is a power of 2, at least twice the moves.
+     */
+    private long[] keys;
+    private int[] moves;
+    private long[] points;
+    private int[] games;
+    private int moveCount;
+
+    private long gameCount;
+
+    /**
+     * The constructor of OpeningBookBuilder class.
+     * @param maxPly the number of plies read from the start of every game.
+     * @param minGames the number of games a move must be played in to be written.
+     */
+    public OpeningBookBuilder(final int maxPly, final int minGames) {
+        if (maxPly < 1 || minGames < 1) {
+            throw new IllegalArgumentException("Invalid book limits: " + maxPly + " plies, " + minGames + " games");
+        }
+        this.maxPly = maxPly;
+        this.minGames = minGames;
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Add the games of a PGN file.
+     * @param path the file.
+     * @return the number of games added.
+     * @throws IOException if the file can't be read.
+     */
+    public long addGames(final Path path) throws IOException {
+        try (final PgnReader reader = new PgnReader(path)) {
+            return reader.read(this);
+        }
+    }
+
+    /**
+     * Add the first plies of a game. The board of the game is taken back to the start and played again.
+     * @param game the game.
+     */
+    @Override
+    public void onGame(final PgnGame game) {
+        final Board board = game.getBoard();
+        for (int i = 0; i < game.getMoveCount(); i++) {
+            board.unmakeMove();
+        }
+        final int plies = Math.min(game.getMoveCount(), this.maxPly);
+        for (int ply = 0; ply < plies; ply++) {
+            final int move = game.getMove(ply);
+            addMove(OpeningBook.getKey(board), OpeningBook.encodeMove(move),
+                    getPoints(game.getResult(), board.getNextMoveMaker()));
+            board.makeMove(move);
+        }
+        this.gameCount++;
+    }
+
+    /**
+     * Get the number of games added.
+     * @return the game count.
+     */
+    public long getGameCount() {
+        return this.gameCount;
+    }
+
+    /**
+     * Get the number of distinct moves added, by position.
+     * @return the move count.
+     */
+    public int getMoveCount() {
+        return this.moveCount;
+    }
+
+    /**
+     * Write the book, with the moves played in enough games.
+     * @param path the file, replaced if it exists.
+     * @return the number of records written.
+     * @throws IOException if the file can't be written.
+     */
+    public int write(final Path path) throws IOException {
+        final Records records = new Records(this.moveCount);
+        for (int slot = 0; slot < this.moves.length; slot++) {
+            if (this.moves[slot] != EMPTY && this.games[slot] >= this.minGames) {
+                records.add(this.keys[slot], this.moves[slot], this.points[slot]);
+            }
+        }
+        records.sort(0, records.size);
+        final ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_RECORDS * OpeningBook.RECORD_SIZE);
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (int first = 0; first < records.size;) {
+                // The moves of a position are sorted by points, the first has the most.
+                final long maxPoints = records.points[first];
+                int record = first;
+                for (; record < records.size && records.keys[record] == records.keys[first]; record++) {
+                    final long weight = maxPoints > MAX_WEIGHT
+                            ? records.points[record] * MAX_WEIGHT / maxPoints
+                            : records.points[record];
+                    buffer.putLong(records.keys[record]).putShort((short) records.moves[record])
+                            .putShort((short) weight).putInt(0);
+                    if (!buffer.hasRemaining()) {
+                        writeBuffer(channel, buffer);
+                    }
+                }
+                first = record;
+            }
+            writeBuffer(channel, buffer);
+        }
+        return records.size;
+    }
+
+    /**
+     * Count a move of a position.
+     * @param key the key of the position.
+     * @param move the book move.
+     * @param movePoints the points of the move in this game.
+     */
+    private void addMove(final long key, final int move, final int movePoints) {
+        if (2 * (this.moveCount + 1) > this.moves.length) {
+            grow();
+        }
+        final int slot = findSlot(key, move);
+        if (this.moves[slot] == EMPTY) {
+            this.keys[slot] = key;
+            this.moves[slot] = move;
+            this.moveCount++;
+        }
+        this.points[slot] += movePoints;
+        this.games[slot]++;
+    }
+
+    /**
+     * Find the slot of a move, or the free slot it goes in.
+     * @param key the key of the position.
+     * @param move the book move.
+     * @return the slot.
+     */
+    private int findSlot(final long key, final int move) {
+        final int mask = this.moves.length - 1;
+        int slot = (int) ((key ^ (move * 0x9E3779B97F4A7C15L)) >>> 32) & mask;
+        while (this.moves[slot] != EMPTY && (this.keys[slot] != key || this.moves[slot] != move)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Double the capacity of the table and put every move back.
+     */
+    private void grow() {
+        final long[] oldKeys = this.keys;
+        final int[] oldMoves = this.moves;
+        final long[] oldPoints = this.points;
+        final int[] oldGames = this.games;
+        allocate(oldMoves.length * 2);
+        for (int oldSlot = 0; oldSlot < oldMoves.length; oldSlot++) {
+            if (oldMoves[oldSlot] != EMPTY) {
+                final int slot = findSlot(oldKeys[oldSlot], oldMoves[oldSlot]);
+                this.keys[slot] = oldKeys[oldSlot];
+                this.moves[slot] = oldMoves[oldSlot];
+                this.points[slot] = oldPoints[oldSlot];
+                this.games[slot] = oldGames[oldSlot];
+            }
+        }
+    }
+
+    /**
+     * Allocate an empty table.
+     * @param capacity the number of slots, a power of 2.
+     */
+    private void allocate(final int capacity) {
+        this.keys = new long[capacity];
+        this.moves = new int[capacity];
+        this.points = new long[capacity];
+        this.games = new int[capacity];
+        Arrays.fill(this.moves, EMPTY);
+    }
+
+    /**
+     * Get the points of a move.
+     * @param result the result of the game, one of the PgnGame RESULT constants.
+     * @param mover the alliance that played the move.
+     * @return the points.
+     */
+    private static int getPoints(final int result, final Alliance mover) {
+        if (result == PgnGame.RESULT_WHITE_WINS) {
+            return mover.isWhite() ? WIN_POINTS : 0;
+        } else if (result == PgnGame.RESULT_BLACK_WINS) {
+            return mover.isBlack() ? WIN_POINTS : 0;
+        }
+        return DRAW_POINTS;
+    }
+
+    /**
+     * Write the records of a buffer and empty it.
+     * @param channel the file.
+     * @param buffer the buffer.
+     * @throws IOException if the file can't be written.
+     */
+    private static void writeBuffer(final FileChannel channel, final ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * The records to write, sorted in place by unsigned key, then by points from the most.
+     */
+    private static final class Records {
+
+        private final long[] keys;
+        private final int[] moves;
+        private final long[] points;
+        private int size;
+
+        /**
+         * The constructor of Records class.
+         * @param capacity the largest number of records.
+         */
+        Records(final int capacity) {
+            this.keys = new long[capacity];
+            this.moves = new int[capacity];
+            this.points = new long[capacity];
+        }
+
+        /**
+         * Add a record.
+         * @param key the key of the position.
+         * @param move the book move.
+         * @param movePoints the points of the move.
+         */
+        void add(final long key, final int move, final long movePoints) {
+            this.keys[this.size] = key;
+            this.moves[this.size] = move;
+            this.points[this.size] = movePoints;
+            this.size++;
+        }
+
+        /**
+         * Sort a range of records with a quicksort, recursing into the smaller part only.
+         * @param from the first record.
+         * @param to the record after the last one.
+         */
+        void sort(final int from, final int to) {
+            int start = from;
+            int end = to;
+            while (end - start > INSERTION_SORT_SIZE) {
+                final int pivot = partition(start, end);
+                if (pivot - start < end - pivot) {
+                    sort(start, pivot);
+                    start = pivot + 1;
+                } else {
+                    sort(pivot + 1, end);
+                    end = pivot;
+                }
+            }
+            for (int i = start + 1; i < end; i++) {
+                for (int j = i; j > start && compare(j - 1, j) > 0; j--) {
+                    swap(j - 1, j);
+                }
+            }
+        }
+
+        /**
+         * Partition a range around its middle record.
+         * @param start the first record.
+         * @param end the record after the last one.
+         * @return the final index of the pivot.
+         */
+        private int partition(final int start, final int end) {
+            swap((start + end) >>> 1, end - 1);
+            int store = start;
+            for (int i = start; i < end - 1; i++) {
+                if (compare(i, end - 1) < 0) {
+                    swap(i, store++);
+                }
+            }
+            swap(store, end - 1);
+            return store;
+        }
+
+        /**
+         * Compare two records.
+         * @param i the first record.
+         * @param j the second record.
+         * @return a negative number if the first one comes first, a positive one if it comes last, else 0.
+         */
+        private int compare(final int i, final int j) {
+            final int keyOrder = Long.compareUnsigned(this.keys[i], this.keys[j]);
+            return keyOrder != 0 ? keyOrder : Long.compare(this.points[j], this.points[i]);
+        }
+
+        /**
+         * Swap two records.
+         * @param i the first record.
+         * @param j the second record.
+         */
+        private void swap(final int i, final int j) {
+            final long key = this.keys[i];
+            this.keys[i] = this.keys[j];
+            this.keys[j] = key;
+            final int move = this.moves[i];
+            this.moves[i] = this.moves[j];
+            this.moves[j] = move;
+            final long movePoints = this.points[i];
+            this.points[i] = this.points[j];
+            this.points[j] = movePoints;
+        }
+    }
+
+    /**
+     * Compile a book from the command line.
+     * @param args the book, the plies read per game, the games per move, then the PGN files.
+     * @throws IOException if a file can't be read or written.
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length < 4) {
+            System.out.println("Usage: OpeningBookBuilder book maxPly minGames pgn...");
+            return;
+        }
+        final long start = System.nanoTime();
+        final OpeningBookBuilder builder = new OpeningBookBuilder(Integer.parseInt(args[1]),
+                Integer.parseInt(args[2]));
+        for (int i = 3; i < args.length; i++) {
+            builder.addGames(Paths.get(args[i]));
+        }
+        final int records = builder.write(Paths.get(args[0]));
+        System.out.println("Games: " + builder.getGameCount());
+        System.out.println("Moves: " + builder.getMoveCount());
+        System.out.println("Records: " + records);
+        System.out.println("Time: " + (System.nanoTime() - start) / 1_000_000L + " ms");
+    }
+}
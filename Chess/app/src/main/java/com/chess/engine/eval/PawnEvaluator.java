@@ -0,0 +1,185 @@
+package com.chess.engine.eval;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.BoardUtils;
+
+/**
+ * Scores the pawn structure: doubled, isolated, backward and passed pawns.
+ * The score only depends on the pawns, so it is computed from the two pawn bitboards and cached
+ * by PawnHashTable under the pawn key of the position.
+ */
+public final class PawnEvaluator {
+
+    private static final int DOUBLED_PAWN = Score.make(-10, -20);
+    private static final int ISOLATED_PAWN = Score.make(-5, -15);
+    private static final int BACKWARD_PAWN = Score.make(-8, -10);
+
+    private static final long FIRST_COLUMN_MASK = 0x0101010101010101L;
+    private static final long EIGHTH_COLUMN_MASK = FIRST_COLUMN_MASK << 7;
+
+    /**
+     * The bonus of a passed pawn by the number of rows it moved forward, 1 for a pawn on its starting row.
+     */
+    private static final int[] PASSED_PAWN = {
+            Score.make(0, 0), Score.make(5, 10), Score.make(10, 15), Score.make(15, 25),
+            Score.make(25, 45), Score.make(40, 75), Score.make(60, 120), Score.make(0, 0)
+    };
+
+    /**
+     * The tiles of each column.
+     */
+    private static final long[] COLUMN_MASKS = initColumnMasks();
+
+    /**
+     * The tiles of the columns next to each column.
+     */
+    private static final long[] ADJACENT_COLUMN_MASKS = initAdjacentColumnMasks();
+
+    /**
+     * The tiles in front of a pawn on its column and the columns next to it, indexed by alliance ordinal first.
+     * A pawn is passed when no enemy pawn is on them.
+     */
+    private static final long[][] PASSED_PAWN_MASKS = {
+            initPassedPawnMasks(Alliance.WHITE), initPassedPawnMasks(Alliance.BLACK)
+    };
+
+    /**
+     * The tiles of the columns next to a pawn, on its row and behind it, indexed by alliance ordinal first.
+     * A pawn without an own pawn on them can't be defended by a pawn as it moves forward.
+     */
+    private static final long[][] SUPPORT_MASKS = {
+            initSupportMasks(Alliance.WHITE), initSupportMasks(Alliance.BLACK)
+    };
+
+    /**
+     * The constructor.
+     */
+    private PawnEvaluator() {
+        throw new RuntimeException("You cannot instantiate me!");
+    }
+
+    /**
+     * Score the pawn structure.
+     * @param whitePawns the white pawns.
+     * @param blackPawns the black pawns.
+     * @return the packed score, from the point of view of white.
+     */
+    public static int evaluate(final long whitePawns, final long blackPawns) {
+        return evaluate(whitePawns, blackPawns, Alliance.WHITE) - evaluate(blackPawns, whitePawns, Alliance.BLACK);
+    }
+
+    /**
+     * Get the tiles the pawns of an alliance attack. White pawns attack towards tile 0, black pawns towards tile 63.
+     * @param pawns the pawns.
+     * @param alliance the alliance of the pawns.
+     * @return the attacked tiles.
+     */
+    static long getPawnAttacks(final long pawns, final Alliance alliance) {
+        return alliance.isWhite()
+                ? ((pawns & ~FIRST_COLUMN_MASK) >>> 9) | ((pawns & ~EIGHTH_COLUMN_MASK) >>> 7)
+                : ((pawns & ~FIRST_COLUMN_MASK) << 7) | ((pawns & ~EIGHTH_COLUMN_MASK) << 9);
+    }
+
+    /**
+     * Score the pawns of one alliance.
+     * @param pawns the pawns of the alliance.
+     * @param enemyPawns the pawns of the other alliance.
+     * @param alliance the alliance.
+     * @return the packed score, from the point of view of the alliance.
+     */
+    private static int evaluate(final long pawns, final long enemyPawns, final Alliance alliance) {
+        int score = 0;
+        for (int column = 0; column < BoardUtils.NUM_TILES_PER_ROW; column++) {
+            final int columnPawns = Long.bitCount(pawns & COLUMN_MASKS[column]);
+            if (columnPawns > 1) {
+                score += DOUBLED_PAWN * (columnPawns - 1);
+            }
+            if (columnPawns > 0 && (pawns & ADJACENT_COLUMN_MASKS[column]) == 0) {
+                score += ISOLATED_PAWN * columnPawns;
+            }
+        }
+        final long enemyPawnAttacks = getPawnAttacks(enemyPawns, alliance.isWhite() ? Alliance.BLACK : Alliance.WHITE);
+        final int forward = alliance.isWhite() ? -BoardUtils.NUM_TILES_PER_ROW : BoardUtils.NUM_TILES_PER_ROW;
+        for (long remaining = pawns; remaining != 0; remaining &= remaining - 1) {
+            final int tileCoordinate = Long.numberOfTrailingZeros(remaining);
+            if ((enemyPawns & PASSED_PAWN_MASKS[alliance.ordinal()][tileCoordinate]) == 0) {
+                final int row = tileCoordinate / BoardUtils.NUM_TILES_PER_ROW;
+                score += PASSED_PAWN[alliance.isWhite() ? BoardUtils.NUM_TILES_PER_ROW - 1 - row : row];
+            } else if ((pawns & ADJACENT_COLUMN_MASKS[tileCoordinate % BoardUtils.NUM_TILES_PER_ROW]) != 0
+                    && (pawns & SUPPORT_MASKS[alliance.ordinal()][tileCoordinate]) == 0
+                    && (enemyPawnAttacks & (1L << (tileCoordinate + forward))) != 0) {
+                score += BACKWARD_PAWN;
+            }
+        }
+        return score;
+    }
+
+    /**
+     * The tiles of each column.
+     * @return a list of bitboards, one per column.
+     */
+    private static long[] initColumnMasks() {
+        final long[] masks = new long[BoardUtils.NUM_TILES_PER_ROW];
+        for (int column = 0; column < BoardUtils.NUM_TILES_PER_ROW; column++) {
+            masks[column] = 0x0101010101010101L << column;
+        }
+        return masks;
+    }
+
+    /**
+     * The tiles of the columns next to each column.
+     * @return a list of bitboards, one per column.
+     */
+    private static long[] initAdjacentColumnMasks() {
+        final long[] masks = new long[BoardUtils.NUM_TILES_PER_ROW];
+        for (int column = 0; column < BoardUtils.NUM_TILES_PER_ROW; column++) {
+            if (column > 0) {
+                masks[column] |= COLUMN_MASKS[column - 1];
+            }
+            if (column < BoardUtils.NUM_TILES_PER_ROW - 1) {
+                masks[column] |= COLUMN_MASKS[column + 1];
+            }
+        }
+        return masks;
+    }
+
+    /**
+     * The tiles in front of a pawn of an alliance, on its column and the columns next to it.
+     * White pawns move towards the eighth row, which holds tiles 0 to 7.
+     * @param alliance the alliance of the pawn.
+     * @return a list of bitboards, one per tile.
+     */
+    private static long[] initPassedPawnMasks(final Alliance alliance) {
+        final long[] masks = new long[BoardUtils.NUM_TILES];
+        for (int tileCoordinate = 0; tileCoordinate < BoardUtils.NUM_TILES; tileCoordinate++) {
+            final int row = tileCoordinate / BoardUtils.NUM_TILES_PER_ROW;
+            final int column = tileCoordinate % BoardUtils.NUM_TILES_PER_ROW;
+            final long columns = COLUMN_MASKS[column] | ADJACENT_COLUMN_MASKS[column];
+            for (int otherRow = 0; otherRow < BoardUtils.NUM_TILES_PER_ROW; otherRow++) {
+                if (alliance.isWhite() ? otherRow < row : otherRow > row) {
+                    masks[tileCoordinate] |= columns & (0xFFL << (otherRow * BoardUtils.NUM_TILES_PER_ROW));
+                }
+            }
+        }
+        return masks;
+    }
+
+    /**
+     * The tiles of the columns next to a pawn of an alliance, on its row and behind it.
+     * @param alliance the alliance of the pawn.
+     * @return a list of bitboards, one per tile.
+     */
+    private static long[] initSupportMasks(final Alliance alliance) {
+        final long[] masks = new long[BoardUtils.NUM_TILES];
+        for (int tileCoordinate = 0; tileCoordinate < BoardUtils.NUM_TILES; tileCoordinate++) {
+            final int row = tileCoordinate / BoardUtils.NUM_TILES_PER_ROW;
+            final long columns = ADJACENT_COLUMN_MASKS[tileCoordinate % BoardUtils.NUM_TILES_PER_ROW];
+            for (int otherRow = 0; otherRow < BoardUtils.NUM_TILES_PER_ROW; otherRow++) {
+                if (alliance.isWhite() ? otherRow >= row : otherRow <= row) {
+                    masks[tileCoordinate] |= columns & (0xFFL << (otherRow * BoardUtils.NUM_TILES_PER_ROW));
+                }
+            }
+        }
+        return masks;
+    }
+}
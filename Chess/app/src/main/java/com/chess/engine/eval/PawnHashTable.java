@@ -0,0 +1,126 @@
+package com.chess.engine.eval;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A small fixed-size cache of pawn structure scores keyed by the pawn key of the position.
+ *
+ * The pawns rarely change between the positions of a search, so almost every evaluation finds its pawn score
+ * here instead of computing it again. Like the transposition table every entry is two longs, the key XORed
+ * with the data and the data, written without any lock: a torn entry looks like a miss. A store always replaces
+ * the entry of its slot.
+ *
+ * The hits and misses are counted, so the hit rate of a search can be checked. Sharing a table between threads
+ * is safe but slow, its entries and counters would bounce between the caches of the cores, so every search
+ * thread should have a table of its own.
+ */
+public final class PawnHashTable {
+
+    /**
+     * The number of entries unless another one is given, 16384 entries take 256 KB.
+     */
+    public static final int DEFAULT_ENTRIES = 1 << 14;
+
+    private static final int LONGS_PER_ENTRY = 2;
+
+    /**
+     * Set in the data of every stored entry, so an empty entry never matches a key.
+     */
+    private static final long VALID = 1L << 32;
+
+    private static final long SCORE_MASK = 0xFFFFFFFFL;
+
+    /**
+     * The entries, LONGS_PER_ENTRY longs each.
+     */
+    private final long[] table;
+
+    /**
+     * The number of entries minus one, the number of entries is a power of two.
+     */
+    private final int entryMask;
+
+    private final LongAdder hits;
+    private final LongAdder misses;
+
+    /**
+     * The constructor of PawnHashTable class.
+     * @param entries the number of entries, rounded down to a power of two.
+     */
+    public PawnHashTable(final int entries) {
+        if (entries <= 0 || entries > (Integer.MAX_VALUE - 8) / LONGS_PER_ENTRY) {
+            throw new IllegalArgumentException("Invalid pawn hash table size: " + entries);
+        }
+        final int size = Integer.highestOneBit(entries);
+        this.table = new long[size * LONGS_PER_ENTRY];
+        this.entryMask = size - 1;
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+    }
+
+    /**
+     * Get the pawn score of a position, computing and storing it if the cache doesn't hold it.
+     * @param pawnKey the pawn key of the position.
+     * @param whitePawns the white pawns.
+     * @param blackPawns the black pawns.
+     * @return the packed score, from the point of view of white.
+     */
+    public int getScore(final long pawnKey, final long whitePawns, final long blackPawns) {
+        final int index = ((int) pawnKey & this.entryMask) * LONGS_PER_ENTRY;
+        final long data = this.table[index + 1];
+        if ((this.table[index] ^ data) == pawnKey && data != 0L) {
+            this.hits.increment();
+            return (int) (data & SCORE_MASK);
+        }
+        this.misses.increment();
+        final int score = PawnEvaluator.evaluate(whitePawns, blackPawns);
+        final long newData = (score & SCORE_MASK) | VALID;
+        this.table[index] = pawnKey ^ newData;
+        this.table[index + 1] = newData;
+        return score;
+    }
+
+    /**
+     * Get the number of lookups that found their score.
+     * @return the hit count.
+     */
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    /**
+     * Get the number of lookups that computed their score.
+     * @return the miss count.
+     */
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    /**
+     * Get the share of the lookups that found their score.
+     * @return the hit rate between 0 and 1, 0 if nothing was looked up.
+     */
+    public double getHitRate() {
+        final long hitCount = getHits();
+        final long lookups = hitCount + getMisses();
+        return lookups == 0 ? 0.0 : (double) hitCount / lookups;
+    }
+
+    /**
+     * Get the number of entries.
+     * @return the entry count.
+     */
+    public int getEntries() {
+        return this.entryMask + 1;
+    }
+
+    /**
+     * Empty the cache and reset the counters. It must not be used by any thread meanwhile.
+     */
+    public void clear() {
+        Arrays.fill(this.table, 0L);
+        this.hits.reset();
+        this.misses.reset();
+    }
+}
@@ -0,0 +1,58 @@
+package com.chess.engine.eval;
+
+import com.chess.engine.board.PieceSquareTables;
+
+/**
+ * A midgame and an endgame score packed in one int, so an evaluation term returns both and the terms are summed
+ * with a single addition. The midgame score is in the low 16 bits and the endgame score in the high 16 bits,
+ * each must stay between -32768 and 32767.
+ */
+public final class Score {
+
+    /**
+     * The constructor.
+     */
+    private Score() {
+        throw new RuntimeException("You cannot instantiate me!");
+    }
+
+    /**
+     * Pack a score.
+     * @param midgame the midgame score.
+     * @param endgame the endgame score.
+     * @return the packed score.
+     */
+    public static int make(final int midgame, final int endgame) {
+        return (endgame << 16) + midgame;
+    }
+
+    /**
+     * Get the midgame part of a packed score.
+     * @param score the packed score.
+     * @return the midgame score.
+     */
+    public static int getMidgame(final int score) {
+        return (short) score;
+    }
+
+    /**
+     * Get the endgame part of a packed score.
+     * @param score the packed score.
+     * @return the endgame score.
+     */
+    public static int getEndgame(final int score) {
+        return (short) ((score + 0x8000) >> 16);
+    }
+
+    /**
+     * Blend the parts of a score by the game phase.
+     * @param midgame the midgame score.
+     * @param endgame the endgame score.
+     * @param gamePhase the phase, capped at PieceSquareTables.MAX_PHASE.
+     * @return the score.
+     */
+    public static int taper(final int midgame, final int endgame, final int gamePhase) {
+        final int phase = Math.min(gamePhase, PieceSquareTables.MAX_PHASE);
+        return (midgame * phase + endgame * (PieceSquareTables.MAX_PHASE - phase)) / PieceSquareTables.MAX_PHASE;
+    }
+}
@@ -0,0 +1,116 @@
+package com.chess.engine.eval;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.MagicBitboards;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.search.BoardEvaluator;
+
+/**
+ * Scores a position by its material, the tiles its pieces stand on, its pawn structure and the mobility
+ * of its pieces, each term with a midgame and an endgame score blended by the game phase.
+ *
+ * The material and piece-square values are summed by the board as moves are made and unmade,
+ * so only the pawn structure and the mobility are computed here, from the bitboards. The pawn structure
+ * is looked up in a pawn hash table first, so every search thread should have an evaluator of its own.
+ */
+public final class StandardBoardEvaluator implements BoardEvaluator {
+
+    /**
+     * The score of each tile a piece can go to, indexed by piece type ordinal.
+     */
+    private static final int[] MOBILITY_WEIGHTS = {
+            0, Score.make(4, 4), Score.make(5, 5), Score.make(2, 4), Score.make(1, 2), 0
+    };
+
+    /**
+     * The number of tiles a piece of each type usually goes to, which scores 0.
+     */
+    private static final int[] MOBILITY_OFFSETS = {0, 4, 7, 7, 14, 0};
+
+    /**
+     * The cached pawn structure scores.
+     */
+    private final PawnHashTable pawnHashTable;
+
+    /**
+     * The constructor of StandardBoardEvaluator class.
+     * @param pawnHashTable the cache of the pawn structure scores.
+     */
+    public StandardBoardEvaluator(final PawnHashTable pawnHashTable) {
+        this.pawnHashTable = pawnHashTable;
+    }
+
+    /**
+     * Create an evaluator with a new pawn hash table of the default size.
+     * @return a new evaluator.
+     */
+    public static StandardBoardEvaluator create() {
+        return new StandardBoardEvaluator(new PawnHashTable(PawnHashTable.DEFAULT_ENTRIES));
+    }
+
+    /**
+     * Get the cache of the pawn structure scores, with its hit and miss counts.
+     * @return the pawn hash table.
+     */
+    public PawnHashTable getPawnHashTable() {
+        return this.pawnHashTable;
+    }
+
+    @Override
+    public int evaluate(final Board board) {
+        final long whitePawns = board.getPieceBitboard(
+                BoardUtils.getPieceCode(Piece.PieceType.PAWN.ordinal(), Alliance.WHITE.ordinal()));
+        final long blackPawns = board.getPieceBitboard(
+                BoardUtils.getPieceCode(Piece.PieceType.PAWN.ordinal(), Alliance.BLACK.ordinal()));
+        final int score = this.pawnHashTable.getScore(board.getPawnKey(), whitePawns, blackPawns)
+                + evaluateMobility(board, Alliance.WHITE, PawnEvaluator.getPawnAttacks(blackPawns, Alliance.BLACK))
+                - evaluateMobility(board, Alliance.BLACK, PawnEvaluator.getPawnAttacks(whitePawns, Alliance.WHITE));
+        final int taperedScore = Score.taper(board.getMidgameScore() + Score.getMidgame(score),
+                board.getEndgameScore() + Score.getEndgame(score),
+                board.getGamePhase());
+        return board.getNextMoveMaker().isWhite() ? taperedScore : -taperedScore;
+    }
+
+    /**
+     * Score the mobility of the knights, bishops, rooks and queens of an alliance: the number of tiles
+     * each one can go to that are neither held by its own pieces nor attacked by an enemy pawn.
+     * @param board a given board.
+     * @param alliance the alliance.
+     * @param enemyPawnAttacks the tiles the enemy pawns attack.
+     * @return the packed score, from the point of view of the alliance.
+     */
+    private static int evaluateMobility(final Board board, final Alliance alliance, final long enemyPawnAttacks) {
+        final long occupancy = board.getOccupancy();
+        final long targets = ~board.getAllianceOccupancy(alliance) & ~enemyPawnAttacks;
+        int score = 0;
+        for (int pieceType = Piece.PieceType.KNIGHT.ordinal(); pieceType <= Piece.PieceType.QUEEN.ordinal();
+             pieceType++) {
+            long pieces = board.getPieceBitboard(BoardUtils.getPieceCode(pieceType, alliance.ordinal()));
+            for (; pieces != 0; pieces &= pieces - 1) {
+                final long attacks = getAttacks(pieceType, Long.numberOfTrailingZeros(pieces), occupancy);
+                score += MOBILITY_WEIGHTS[pieceType] * (Long.bitCount(attacks & targets) - MOBILITY_OFFSETS[pieceType]);
+            }
+        }
+        return score;
+    }
+
+    /**
+     * Get the tiles a knight, bishop, rook or queen attacks.
+     * @param pieceType the piece type ordinal.
+     * @param tileCoordinate tile position.
+     * @param occupancy the occupied tiles.
+     * @return the attacked tiles.
+     */
+    private static long getAttacks(final int pieceType, final int tileCoordinate, final long occupancy) {
+        if (pieceType == Piece.PieceType.KNIGHT.ordinal()) {
+            return BoardUtils.KNIGHT_ATTACKS[tileCoordinate];
+        } else if (pieceType == Piece.PieceType.BISHOP.ordinal()) {
+            return MagicBitboards.getBishopAttacks(tileCoordinate, occupancy);
+        } else if (pieceType == Piece.PieceType.ROOK.ordinal()) {
+            return MagicBitboards.getRookAttacks(tileCoordinate, occupancy);
+        }
+        return MagicBitboards.getQueenAttacks(tileCoordinate, occupancy);
+    }
+}
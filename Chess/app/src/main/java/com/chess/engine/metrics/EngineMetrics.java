@@ -0,0 +1,264 @@
+package com.chess.engine.metrics;
+
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.MoveList;
+import com.chess.engine.board.MoveUtils;
+import com.chess.engine.pieces.Piece;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the hot paths of the engine: move generation, the transposition table, the evaluation
+ * and the search.
+ *
+ * The metrics are off unless the JVM runs with -Dchess.metrics=true. Every call site tests ENABLED first,
+ * and since it is a constant the JIT compiler removes the disabled calls altogether. When enabled the counters
+ * are LongAdders, which give every thread its own cell, so the search threads don't contend on them.
+ *
+ * A snapshot of the counters can be taken as JSON, or read through JMX once registerMBean was called.
+ */
+public final class EngineMetrics implements EngineMetricsMXBean {
+
+    /**
+     * Whether the metrics are recorded.
+     */
+    public static final boolean ENABLED = Boolean.getBoolean("chess.metrics");
+
+    /**
+     * The name the metrics are registered under in the platform MBean server.
+     */
+    public static final String OBJECT_NAME = "com.chess.engine:type=EngineMetrics";
+
+    private static final Piece.PieceType[] PIECE_TYPES = Piece.PieceType.values();
+
+    private static final EngineMetrics INSTANCE = new EngineMetrics();
+
+    /**
+     * The number of moves generated for each piece type, indexed by ordinal.
+     */
+    private final LongAdder[] movesGenerated;
+
+    private final LongAdder legalFilterRejections;
+    private final LongAdder transpositionTableProbes;
+    private final LongAdder transpositionTableHits;
+    private final LongAdder transpositionTableCollisions;
+    private final LongAdder evaluations;
+
+    /**
+     * The index of the move causing each beta cutoff, 0 for the first move.
+     */
+    private final Histogram cutoffIndexes;
+
+    /**
+     * The time of each search iteration in microseconds.
+     */
+    private final Histogram iterationTimes;
+
+    /**
+     * The constructor.
+     */
+    private EngineMetrics() {
+        this.movesGenerated = new LongAdder[PIECE_TYPES.length];
+        for (int i = 0; i < this.movesGenerated.length; i++) {
+            this.movesGenerated[i] = new LongAdder();
+        }
+        this.legalFilterRejections = new LongAdder();
+        this.transpositionTableProbes = new LongAdder();
+        this.transpositionTableHits = new LongAdder();
+        this.transpositionTableCollisions = new LongAdder();
+        this.evaluations = new LongAdder();
+        this.cutoffIndexes = new Histogram(0, 1, 2, 3, 4, 5, 6, 7, 8, 10, 12, 16, 24, 32, 48, 64);
+        this.iterationTimes = Histogram.powersOfTwo(32);
+    }
+
+    /**
+     * Get the metrics of the engine.
+     * @return the only instance.
+     */
+    public static EngineMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Count the moves added to a list since an index, by the type of the moved piece, without allocating.
+     * @param moves the list.
+     * @param firstIndex the index of the first move to count.
+     */
+    public void recordMovesGenerated(final MoveList moves, final int firstIndex) {
+        // The moves of a piece type are generated one after the other, so each run of them is added at once.
+        int runPieceType = -1;
+        int runLength = 0;
+        for (int i = firstIndex; i < moves.size(); i++) {
+            final int pieceType = BoardUtils.getPieceType(MoveUtils.getMovedPiece(moves.get(i)));
+            if (pieceType != runPieceType) {
+                if (runLength != 0) {
+                    this.movesGenerated[runPieceType].add(runLength);
+                }
+                runPieceType = pieceType;
+                runLength = 0;
+            }
+            runLength++;
+        }
+        if (runLength != 0) {
+            this.movesGenerated[runPieceType].add(runLength);
+        }
+    }
+
+    /**
+     * Count the moves the legal move generator dropped because they would leave the king attacked.
+     * @param rejections the number of moves.
+     */
+    public void recordLegalFilterRejections(final int rejections) {
+        if (rejections != 0) {
+            this.legalFilterRejections.add(rejections);
+        }
+    }
+
+    /**
+     * Count a transposition table lookup.
+     * @param hit whether it found its position.
+     */
+    public void recordTranspositionTableProbe(final boolean hit) {
+        this.transpositionTableProbes.increment();
+        if (hit) {
+            this.transpositionTableHits.increment();
+        }
+    }
+
+    /**
+     * Count a transposition table store that replaced another position.
+     */
+    public void recordTranspositionTableCollision() {
+        this.transpositionTableCollisions.increment();
+    }
+
+    /**
+     * Count an evaluation.
+     */
+    public void recordEvaluation() {
+        this.evaluations.increment();
+    }
+
+    /**
+     * Count a beta cutoff.
+     * @param moveIndex the index of the move that caused it among the moves searched, 0 for the first one.
+     */
+    public void recordCutoff(final int moveIndex) {
+        this.cutoffIndexes.record(moveIndex);
+    }
+
+    /**
+     * Count a completed search iteration.
+     * @param nanos the time it took in nanoseconds.
+     */
+    public void recordIteration(final long nanos) {
+        this.iterationTimes.record(nanos / 1_000L);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return ENABLED;
+    }
+
+    @Override
+    public long[] getMovesGenerated() {
+        final long[] counts = new long[this.movesGenerated.length];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = this.movesGenerated[i].sum();
+        }
+        return counts;
+    }
+
+    @Override
+    public long getLegalFilterRejections() {
+        return this.legalFilterRejections.sum();
+    }
+
+    @Override
+    public long getTranspositionTableProbes() {
+        return this.transpositionTableProbes.sum();
+    }
+
+    @Override
+    public long getTranspositionTableHits() {
+        return this.transpositionTableHits.sum();
+    }
+
+    @Override
+    public long getTranspositionTableCollisions() {
+        return this.transpositionTableCollisions.sum();
+    }
+
+    @Override
+    public long getEvaluations() {
+        return this.evaluations.sum();
+    }
+
+    @Override
+    public long[] getCutoffIndexCounts() {
+        return this.cutoffIndexes.getCounts();
+    }
+
+    @Override
+    public long[] getCutoffIndexBounds() {
+        return this.cutoffIndexes.getUpperBounds();
+    }
+
+    @Override
+    public long[] getIterationTimeCounts() {
+        return this.iterationTimes.getCounts();
+    }
+
+    @Override
+    public long[] getIterationTimeBounds() {
+        return this.iterationTimes.getUpperBounds();
+    }
+
+    @Override
+    public String getJson() {
+        return snapshot().toJson();
+    }
+
+    /**
+     * Read every counter. The counters are read one after another while the engine may still be running,
+     * so a snapshot is not taken at a single instant.
+     * @return the snapshot.
+     */
+    public MetricsSnapshot snapshot() {
+        return new MetricsSnapshot(this);
+    }
+
+    @Override
+    public void reset() {
+        for (final LongAdder counter : this.movesGenerated) {
+            counter.reset();
+        }
+        this.legalFilterRejections.reset();
+        this.transpositionTableProbes.reset();
+        this.transpositionTableHits.reset();
+        this.transpositionTableCollisions.reset();
+        this.evaluations.reset();
+        this.cutoffIndexes.reset();
+        this.iterationTimes.reset();
+    }
+
+    /**
+     * Register the metrics in the platform MBean server under OBJECT_NAME, if they are not yet.
+     * @throws IllegalStateException if they can't be registered.
+     */
+    public static synchronized void registerMBean() {
+        try {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            final ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(INSTANCE, name);
+            }
+        } catch (final JMException e) {
+            throw new IllegalStateException("Cannot register the engine metrics", e);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.chess.engine.metrics;
+
+/**
+ * The engine metrics as seen through JMX, registered by EngineMetrics.registerMBean.
+ */
+public interface EngineMetricsMXBean {
+
+    /**
+     * Tell whether the metrics are recorded, they are when the JVM runs with -Dchess.metrics=true.
+     * @return true if they are recorded.
+     */
+    boolean isEnabled();
+
+    /**
+     * Get the number of moves generated for each piece type.
+     * @return the counts, indexed by piece type ordinal.
+     */
+    long[] getMovesGenerated();
+
+    /**
+     * Get the number of moves the legal move generator dropped.
+     * @return the count.
+     */
+    long getLegalFilterRejections();
+
+    /**
+     * Get the number of transposition table lookups.
+     * @return the count.
+     */
+    long getTranspositionTableProbes();
+
+    /**
+     * Get the number of transposition table lookups that found their position.
+     * @return the count.
+     */
+    long getTranspositionTableHits();
+
+    /**
+     * Get the number of transposition table stores that replaced another position.
+     * @return the count.
+     */
+    long getTranspositionTableCollisions();
+
+    /**
+     * Get the number of positions evaluated by the search.
+     * @return the count.
+     */
+    long getEvaluations();
+
+    /**
+     * Get the number of beta cutoffs by the index of the move that caused them, 0 for the first move.
+     * @return the counts of the buckets of getCutoffIndexBounds, and of the larger indexes.
+     */
+    long[] getCutoffIndexCounts();
+
+    /**
+     * Get the upper bounds of the cutoff index buckets.
+     * @return the bounds.
+     */
+    long[] getCutoffIndexBounds();
+
+    /**
+     * Get the number of search iterations by their time in microseconds.
+     * @return the counts of the buckets of getIterationTimeBounds, and of the longer iterations.
+     */
+    long[] getIterationTimeCounts();
+
+    /**
+     * Get the upper bounds of the iteration time buckets, in microseconds.
+     * @return the bounds.
+     */
+    long[] getIterationTimeBounds();
+
+    /**
+     * Get every metric as a JSON object.
+     * @return the JSON text.
+     */
+    String getJson();
+
+    /**
+     * Set every metric back to 0.
+     */
+    void reset();
+}
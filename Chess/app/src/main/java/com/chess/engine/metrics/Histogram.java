@@ -0,0 +1,110 @@
+package com.chess.engine.metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts values in fixed buckets. Every bucket is a LongAdder, so several threads record
+ * without contending on one counter.
+ *
+ * A value goes to the first bucket whose upper bound is at least the value, and to the last bucket,
+ * which has no upper bound, if it is larger than every bound.
+ */
+public final class Histogram {
+
+    /**
+     * The upper bounds of the buckets but the last one, in increasing order.
+     */
+    private final long[] upperBounds;
+
+    /**
+     * One counter per bucket, the last one for the values above every bound.
+     */
+    private final LongAdder[] buckets;
+
+    private final LongAdder sum;
+
+    /**
+     * The constructor of Histogram class.
+     * @param upperBounds the upper bounds of the buckets, in increasing order. A last bucket is added for
+     *                    the larger values.
+     */
+    public Histogram(final long... upperBounds) {
+        for (int i = 1; i < upperBounds.length; i++) {
+            if (upperBounds[i] <= upperBounds[i - 1]) {
+                throw new IllegalArgumentException("The bounds must increase: " + Arrays.toString(upperBounds));
+            }
+        }
+        this.upperBounds = upperBounds.clone();
+        this.buckets = new LongAdder[upperBounds.length + 1];
+        for (int i = 0; i < this.buckets.length; i++) {
+            this.buckets[i] = new LongAdder();
+        }
+        this.sum = new LongAdder();
+    }
+
+    /**
+     * Create a histogram whose bounds are the powers of two from 1 to 2^(bucketCount - 2).
+     * @param bucketCount the number of buckets, the last one included.
+     * @return the histogram.
+     */
+    public static Histogram powersOfTwo(final int bucketCount) {
+        final long[] upperBounds = new long[bucketCount - 1];
+        for (int i = 0; i < upperBounds.length; i++) {
+            upperBounds[i] = 1L << i;
+        }
+        return new Histogram(upperBounds);
+    }
+
+    /**
+     * Count a value.
+     * @param value the value.
+     */
+    public void record(final long value) {
+        int bucket = Arrays.binarySearch(this.upperBounds, value);
+        if (bucket < 0) {
+            bucket = -bucket - 1;
+        }
+        this.buckets[bucket].increment();
+        this.sum.add(value);
+    }
+
+    /**
+     * Get the upper bounds of the buckets, the last bucket has none.
+     * @return a copy of the bounds.
+     */
+    public long[] getUpperBounds() {
+        return this.upperBounds.clone();
+    }
+
+    /**
+     * Get the number of values of each bucket.
+     * The buckets are read one after another, so values recorded meanwhile may be missing.
+     * @return the counts, one more than the bounds.
+     */
+    public long[] getCounts() {
+        final long[] counts = new long[this.buckets.length];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = this.buckets[i].sum();
+        }
+        return counts;
+    }
+
+    /**
+     * Get the sum of the values.
+     * @return the sum.
+     */
+    public long getSum() {
+        return this.sum.sum();
+    }
+
+    /**
+     * Forget every value.
+     */
+    public void reset() {
+        for (final LongAdder bucket : this.buckets) {
+            bucket.reset();
+        }
+        this.sum.reset();
+    }
+}
@@ -0,0 +1,170 @@
+package com.chess.engine.metrics;
+
+import com.chess.engine.pieces.Piece;
+
+import java.util.Locale;
+
+/**
+ * The values of the engine metrics at one time, to be compared with a later snapshot or exported as JSON.
+ */
+public final class MetricsSnapshot {
+
+    private final long timeMillis;
+    private final long[] movesGenerated;
+    private final long legalFilterRejections;
+    private final long transpositionTableProbes;
+    private final long transpositionTableHits;
+    private final long transpositionTableCollisions;
+    private final long evaluations;
+    private final long[] cutoffIndexBounds;
+    private final long[] cutoffIndexCounts;
+    private final long[] iterationTimeBounds;
+    private final long[] iterationTimeCounts;
+
+    /**
+     * The constructor of MetricsSnapshot class.
+     * @param metrics the metrics to read.
+     */
+    MetricsSnapshot(final EngineMetrics metrics) {
+        this.timeMillis = System.currentTimeMillis();
+        this.movesGenerated = metrics.getMovesGenerated();
+        this.legalFilterRejections = metrics.getLegalFilterRejections();
+        this.transpositionTableProbes = metrics.getTranspositionTableProbes();
+        this.transpositionTableHits = metrics.getTranspositionTableHits();
+        this.transpositionTableCollisions = metrics.getTranspositionTableCollisions();
+        this.evaluations = metrics.getEvaluations();
+        this.cutoffIndexBounds = metrics.getCutoffIndexBounds();
+        this.cutoffIndexCounts = metrics.getCutoffIndexCounts();
+        this.iterationTimeBounds = metrics.getIterationTimeBounds();
+        this.iterationTimeCounts = metrics.getIterationTimeCounts();
+    }
+
+    /**
+     * Get the time the snapshot was taken.
+     * @return the time in milliseconds since the epoch.
+     */
+    public long getTimeMillis() {
+        return this.timeMillis;
+    }
+
+    /**
+     * Get the number of moves generated for a piece type.
+     * @param pieceType the piece type.
+     * @return the count.
+     */
+    public long getMovesGenerated(final Piece.PieceType pieceType) {
+        return this.movesGenerated[pieceType.ordinal()];
+    }
+
+    /**
+     * Get the number of moves the legal move generator dropped.
+     * @return the count.
+     */
+    public long getLegalFilterRejections() {
+        return this.legalFilterRejections;
+    }
+
+    /**
+     * Get the number of transposition table lookups.
+     * @return the count.
+     */
+    public long getTranspositionTableProbes() {
+        return this.transpositionTableProbes;
+    }
+
+    /**
+     * Get the number of transposition table lookups that found their position.
+     * @return the count.
+     */
+    public long getTranspositionTableHits() {
+        return this.transpositionTableHits;
+    }
+
+    /**
+     * Get the number of transposition table stores that replaced another position.
+     * @return the count.
+     */
+    public long getTranspositionTableCollisions() {
+        return this.transpositionTableCollisions;
+    }
+
+    /**
+     * Get the number of positions evaluated by the search.
+     * @return the count.
+     */
+    public long getEvaluations() {
+        return this.evaluations;
+    }
+
+    /**
+     * Get the number of beta cutoffs by the index of the move that caused them.
+     * @return a copy of the counts, the last one for the indexes above every bound.
+     */
+    public long[] getCutoffIndexCounts() {
+        return this.cutoffIndexCounts.clone();
+    }
+
+    /**
+     * Get the number of search iterations by their time in microseconds.
+     * @return a copy of the counts, the last one for the times above every bound.
+     */
+    public long[] getIterationTimeCounts() {
+        return this.iterationTimeCounts.clone();
+    }
+
+    /**
+     * Write the snapshot as a JSON object. The histograms are lists of buckets with their upper bound,
+     * "le", and their count, the last bucket having no bound.
+     * @return the JSON text.
+     */
+    public String toJson() {
+        final StringBuilder json = new StringBuilder(1024);
+        json.append("{\"timeMillis\":").append(this.timeMillis);
+        json.append(",\"movesGenerated\":{");
+        for (final Piece.PieceType pieceType : Piece.PieceType.values()) {
+            if (pieceType.ordinal() > 0) {
+                json.append(',');
+            }
+            json.append('"').append(pieceType.name().toLowerCase(Locale.ROOT)).append("\":")
+                    .append(this.movesGenerated[pieceType.ordinal()]);
+        }
+        json.append("},\"legalFilterRejections\":").append(this.legalFilterRejections);
+        json.append(",\"transpositionTable\":{\"probes\":").append(this.transpositionTableProbes)
+                .append(",\"hits\":").append(this.transpositionTableHits)
+                .append(",\"collisions\":").append(this.transpositionTableCollisions).append('}');
+        json.append(",\"evaluations\":").append(this.evaluations);
+        json.append(",\"cutoffIndex\":");
+        appendHistogram(json, this.cutoffIndexBounds, this.cutoffIndexCounts);
+        json.append(",\"iterationMicros\":");
+        appendHistogram(json, this.iterationTimeBounds, this.iterationTimeCounts);
+        return json.append('}').toString();
+    }
+
+    @Override
+    public String toString() {
+        return toJson();
+    }
+
+    /**
+     * Write a histogram as a JSON list, leaving out the empty buckets.
+     * @param json the text written so far.
+     * @param upperBounds the upper bounds of the buckets.
+     * @param counts the counts of the buckets, one more than the bounds.
+     */
+    private static void appendHistogram(final StringBuilder json, final long[] upperBounds, final long[] counts) {
+        json.append('[');
+        boolean first = true;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                continue;
+            }
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            json.append("{\"le\":").append(i < upperBounds.length ? Long.toString(upperBounds[i]) : "null")
+                    .append(",\"count\":").append(counts[i]).append('}');
+        }
+        json.append(']');
+    }
+}
@@ -0,0 +1,365 @@
+package com.chess.engine.perft;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.MoveList;
+import com.chess.engine.board.MoveUtils;
+import com.chess.engine.pgn.FenUtilities;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+/**
+ * Counts the leaf nodes of the move tree on several threads, for the depths the single thread perft is too slow for.
+ *
+ * The tree is split two plies below the root: every reply to every root move is counted by a task of
+ * a work-stealing pool, on its own copy of the board. Every worker thread owns the move lists it counts with.
+ * The counts of the subtrees are shared through a PerftHashTable, so a position reached by several
+ * move orders is only counted once, whichever thread reaches it first.
+ *
+ * Usage:
+ *   ParallelPerft threads depth [fen]      print the node count below each root move, the total, and the nodes
+ *                                          per second and hash hit rate of each thread.
+ *   ParallelPerft threads --suite depth    check the count of every reference position at the given depth.
+ */
+public final class ParallelPerft {
+
+    /**
+     * The size of the hash table unless another one is given.
+     */
+    public static final int DEFAULT_TABLE_SIZE_MB = 256;
+
+    /**
+     * The number of plies below the root where the tree is split into tasks.
+     */
+    private static final int SPLIT_DEPTH = 2;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * The shared counts, null when counting without a table.
+     */
+    private final PerftHashTable hashTable;
+
+    /**
+     * The worker threads the pool created, in the order it created them.
+     */
+    private final List<PerftThread> threads;
+
+    /**
+     * The constructor of ParallelPerft class.
+     * @param parallelism the number of worker threads, at least 1.
+     * @param tableSizeMb the size of the hash table in megabytes, 0 to count without a table.
+     */
+    public ParallelPerft(final int parallelism, final int tableSizeMb) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Invalid thread count: " + parallelism);
+        }
+        this.hashTable = tableSizeMb > 0 ? new PerftHashTable(tableSizeMb) : null;
+        this.threads = new CopyOnWriteArrayList<>();
+        this.pool = new ForkJoinPool(parallelism, forkJoinPool -> {
+            final PerftThread thread = new PerftThread(forkJoinPool, this.hashTable);
+            this.threads.add(thread);
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * Count the leaf nodes of the legal move tree. The given board is left as it was.
+     * @param board a given board.
+     * @param depth the depth.
+     * @return the number of leaf nodes.
+     */
+    public long perft(final Board board, final int depth) {
+        if (depth == 0) {
+            return 1L;
+        }
+        long nodes = 0L;
+        for (final long moveNodes : countRootMoves(board, depth, new MoveList())) {
+            nodes += moveNodes;
+        }
+        return nodes;
+    }
+
+    /**
+     * Count the leaf nodes below each root move and print them.
+     * @param board a given board.
+     * @param depth the depth, at least 1.
+     * @param out where the counts are printed.
+     * @return the total number of leaf nodes.
+     * @throws IllegalArgumentException if the depth is less than 1.
+     */
+    public long divide(final Board board, final int depth, final PrintStream out) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Invalid depth: " + depth);
+        }
+        final MoveList rootMoves = new MoveList();
+        final long[] rootNodes = countRootMoves(board, depth, rootMoves);
+        long nodes = 0L;
+        for (int i = 0; i < rootMoves.size(); i++) {
+            out.println(MoveUtils.toString(rootMoves.get(i)) + ": " + rootNodes[i]);
+            nodes += rootNodes[i];
+        }
+        return nodes;
+    }
+
+    /**
+     * Get the number of leaf nodes each thread counted since the pool started, the subtrees found
+     * in the hash table included.
+     * @return the node counts, one per thread.
+     */
+    public long[] getThreadNodes() {
+        final long[] threadNodes = new long[this.threads.size()];
+        for (int i = 0; i < threadNodes.length; i++) {
+            threadNodes[i] = this.threads.get(i).nodes;
+        }
+        return threadNodes;
+    }
+
+    /**
+     * Get the time each thread spent counting since the pool started.
+     * @return the times in nanoseconds, one per thread.
+     */
+    public long[] getThreadNanos() {
+        final long[] threadNanos = new long[this.threads.size()];
+        for (int i = 0; i < threadNanos.length; i++) {
+            threadNanos[i] = this.threads.get(i).nanos;
+        }
+        return threadNanos;
+    }
+
+    /**
+     * Get the number of hash table lookups of each thread that found their count.
+     * @return the hit counts, one per thread.
+     */
+    public long[] getThreadHashHits() {
+        final long[] threadHits = new long[this.threads.size()];
+        for (int i = 0; i < threadHits.length; i++) {
+            threadHits[i] = this.threads.get(i).hashHits;
+        }
+        return threadHits;
+    }
+
+    /**
+     * Get the number of hash table lookups of each thread that found nothing.
+     * @return the miss counts, one per thread.
+     */
+    public long[] getThreadHashMisses() {
+        final long[] threadMisses = new long[this.threads.size()];
+        for (int i = 0; i < threadMisses.length; i++) {
+            threadMisses[i] = this.threads.get(i).hashMisses;
+        }
+        return threadMisses;
+    }
+
+    /**
+     * Stop the worker threads. The perft can't be used afterwards.
+     */
+    public void shutdown() {
+        this.pool.shutdownNow();
+    }
+
+    /**
+     * Count the leaf nodes below each root move, splitting the tree into tasks two plies below the root.
+     * @param board a given board.
+     * @param depth the depth.
+     * @param rootMoves the list the root moves are added to.
+     * @return the node counts, one per root move.
+     */
+    private long[] countRootMoves(final Board board, final int depth, final MoveList rootMoves) {
+        board.generateLegalMoves(rootMoves);
+        final long[] rootNodes = new long[rootMoves.size()];
+        if (depth <= SPLIT_DEPTH) {
+            final Perft perft = new Perft(depth);
+            for (int i = 0; i < rootMoves.size(); i++) {
+                board.makeMove(rootMoves.get(i));
+                rootNodes[i] = perft.perft(board, depth - 1);
+                board.unmakeMove();
+            }
+            return rootNodes;
+        }
+        final List<ForkJoinTask<Long>> tasks = new ArrayList<>();
+        final List<Integer> taskRootMoves = new ArrayList<>();
+        final MoveList replies = new MoveList();
+        for (int i = 0; i < rootMoves.size(); i++) {
+            board.makeMove(rootMoves.get(i));
+            replies.clear();
+            board.generateLegalMoves(replies);
+            for (int j = 0; j < replies.size(); j++) {
+                final Board taskBoard = board.copy();
+                taskBoard.makeMove(replies.get(j));
+                tasks.add(this.pool.submit(() ->
+                        ((PerftThread) Thread.currentThread()).count(taskBoard, depth - SPLIT_DEPTH)));
+                taskRootMoves.add(i);
+            }
+            board.unmakeMove();
+        }
+        for (int i = 0; i < tasks.size(); i++) {
+            rootNodes[taskRootMoves.get(i)] += tasks.get(i).join();
+        }
+        return rootNodes;
+    }
+
+    /**
+     * A worker thread with the move lists it counts with and its counters.
+     * The counters are only written by the thread, and read once its tasks are joined.
+     */
+    private static final class PerftThread extends ForkJoinWorkerThread {
+
+        private final PerftHashTable hashTable;
+
+        /**
+         * One move list per ply, grown for deeper counts.
+         */
+        private MoveList[] moveLists;
+
+        private long nodes;
+        private long nanos;
+        private long hashHits;
+        private long hashMisses;
+
+        /**
+         * The constructor of PerftThread class.
+         * @param pool the pool of the thread.
+         * @param hashTable the shared counts, or null.
+         */
+        PerftThread(final ForkJoinPool pool, final PerftHashTable hashTable) {
+            super(pool);
+            this.hashTable = hashTable;
+            this.moveLists = new MoveList[0];
+        }
+
+        /**
+         * Count the leaf nodes below a position and add them to the counters of the thread.
+         * @param board the board of the task, owned by the task.
+         * @param depth the depth.
+         * @return the number of leaf nodes.
+         */
+        long count(final Board board, final int depth) {
+            if (this.moveLists.length < depth) {
+                final MoveList[] moveLists = new MoveList[depth];
+                for (int i = 0; i < depth; i++) {
+                    moveLists[i] = i < this.moveLists.length ? this.moveLists[i] : new MoveList();
+                }
+                this.moveLists = moveLists;
+            }
+            final long start = System.nanoTime();
+            final long leafNodes = perft(board, depth);
+            this.nanos += System.nanoTime() - start;
+            this.nodes += leafNodes;
+            return leafNodes;
+        }
+
+        /**
+         * Count the leaf nodes of the legal move tree, looking the subtrees up in the hash table.
+         * The moves of the last ply are counted without being made.
+         * @param board a given board.
+         * @param depth the depth.
+         * @return the number of leaf nodes.
+         */
+        private long perft(final Board board, final int depth) {
+            if (depth == 0) {
+                return 1L;
+            }
+            final MoveList moves = this.moveLists[depth - 1];
+            moves.clear();
+            if (depth == 1) {
+                board.generateLegalMoves(moves);
+                return moves.size();
+            }
+            if (this.hashTable != null) {
+                final long cachedNodes = this.hashTable.probe(board.getZobristKey(), depth);
+                if (cachedNodes != PerftHashTable.MISS) {
+                    this.hashHits++;
+                    return cachedNodes;
+                }
+                this.hashMisses++;
+            }
+            board.generateLegalMoves(moves);
+            long leafNodes = 0L;
+            for (int i = 0; i < moves.size(); i++) {
+                board.makeMove(moves.get(i));
+                leafNodes += perft(board, depth - 1);
+                board.unmakeMove();
+            }
+            if (this.hashTable != null) {
+                this.hashTable.store(board.getZobristKey(), depth, leafNodes);
+            }
+            return leafNodes;
+        }
+    }
+
+    /**
+     * Print the nodes per second and the hash hit rate of each thread.
+     * @param out where the statistics are printed.
+     */
+    private void printThreadStatistics(final PrintStream out) {
+        final long[] threadNodes = getThreadNodes();
+        final long[] threadNanos = getThreadNanos();
+        final long[] threadHits = getThreadHashHits();
+        final long[] threadMisses = getThreadHashMisses();
+        for (int i = 0; i < threadNodes.length; i++) {
+            final long lookups = threadHits[i] + threadMisses[i];
+            out.println(String.format("Thread %d: %d nodes, %d nps, hash hits %d of %d (%.1f%%)",
+                    i, threadNodes[i], Perft.nodesPerSecond(threadNodes[i], threadNanos[i]),
+                    threadHits[i], lookups, lookups > 0 ? 100.0 * threadHits[i] / lookups : 0.0));
+        }
+    }
+
+    /**
+     * Run the parallel perft from the command line.
+     * @param args the thread count, then the depth and an optional FEN, or --suite and the depth.
+     */
+    public static void main(final String[] args) {
+        if (args.length < 2 || ("--suite".equals(args[1]) && args.length < 3)) {
+            System.out.println("Usage: ParallelPerft threads depth [fen] | ParallelPerft threads --suite depth");
+            return;
+        }
+        final ParallelPerft perft = new ParallelPerft(Integer.parseInt(args[0]), DEFAULT_TABLE_SIZE_MB);
+        try {
+            if ("--suite".equals(args[1])) {
+                final int depth = Integer.parseInt(args[2]);
+                boolean passed = true;
+                for (final PerftPosition position : PerftPosition.values()) {
+                    final int positionDepth = Math.min(depth, position.getMaxDepth());
+                    final long start = System.nanoTime();
+                    final long nodes = perft.perft(position.createBoard(), positionDepth);
+                    final long nanos = System.nanoTime() - start;
+                    final boolean correct = nodes == position.getExpectedNodes(positionDepth);
+                    passed &= correct;
+                    System.out.println(String.format("%-16s depth %d: %12d nodes %8d ms %12d nps  %s",
+                            position.getPositionName(), positionDepth, nodes, nanos / 1_000_000L,
+                            Perft.nodesPerSecond(nodes, nanos),
+                            correct ? "OK" : "FAIL, expected " + position.getExpectedNodes(positionDepth)));
+                }
+                perft.printThreadStatistics(System.out);
+                if (!passed) {
+                    perft.shutdown();
+                    System.exit(1);
+                }
+                return;
+            }
+            final int depth = Integer.parseInt(args[1]);
+            final StringBuilder fen = new StringBuilder();
+            for (int i = 2; i < args.length; i++) {
+                fen.append(args[i]).append(' ');
+            }
+            final Board board = FenUtilities.createGameFromFEN(
+                    fen.length() > 0 ? fen.toString() : FenUtilities.STANDARD_FEN);
+            final long start = System.nanoTime();
+            final long nodes = perft.divide(board, depth, System.out);
+            final long nanos = System.nanoTime() - start;
+            System.out.println();
+            System.out.println("Nodes: " + nodes);
+            System.out.println("Time: " + nanos / 1_000_000L + " ms");
+            System.out.println("NPS: " + Perft.nodesPerSecond(nodes, nanos));
+            perft.printThreadStatistics(System.out);
+        } finally {
+            perft.shutdown();
+        }
+    }
+}
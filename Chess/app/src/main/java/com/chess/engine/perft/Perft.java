@@ -0,0 +1,159 @@
+package com.chess.engine.perft;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.MoveList;
+import com.chess.engine.board.MoveUtils;
+import com.chess.engine.pgn.FenUtilities;
+
+import java.io.PrintStream;
+
+/**
+ * Counts the leaf nodes of the move tree to a fixed depth.
+ * The counts of the reference positions are known, so a wrong count means the move generator is wrong,
+ * and the time it takes is the throughput number of the move generator.
+ *
+ * Usage:
+ *   Perft depth [fen]      print the node count below each root move, the total and the nodes per second.
+ *   Perft --suite [depth]  check every reference position up to the given depth.
+ */
+public final class Perft {
+
+    /**
+     * One move list per ply, reused for the whole run.
+     */
+    private final MoveList[] moveLists;
+
+    /**
+     * The constructor of Perft class.
+     * @param maxDepth the deepest depth this perft will be asked for.
+     */
+    public Perft(final int maxDepth) {
+        this.moveLists = new MoveList[Math.max(maxDepth, 1)];
+        for (int i = 0; i < this.moveLists.length; i++) {
+            this.moveLists[i] = new MoveList();
+        }
+    }
+
+    /**
+     * Count the leaf nodes of the legal move tree.
+     * Moves are made and taken back on the given board, which is left as it was.
+     * The moves of the last ply are counted without being made.
+     * @param board a given board.
+     * @param depth the depth.
+     * @return the number of leaf nodes.
+     */
+    public long perft(final Board board, final int depth) {
+        if (depth == 0) {
+            return 1L;
+        }
+        final MoveList moves = this.moveLists[depth - 1];
+        moves.clear();
+        board.generateLegalMoves(moves);
+        if (depth == 1) {
+            return moves.size();
+        }
+        long nodes = 0L;
+        for (int i = 0; i < moves.size(); i++) {
+            board.makeMove(moves.get(i));
+            nodes += perft(board, depth - 1);
+            board.unmakeMove();
+        }
+        return nodes;
+    }
+
+    /**
+     * Count the leaf nodes below each root move and print them.
+     * @param board a given board.
+     * @param depth the depth, at least 1.
+     * @param out where the counts are printed.
+     * @return the total number of leaf nodes.
+     */
+    public long divide(final Board board, final int depth, final PrintStream out) {
+        final MoveList rootMoves = new MoveList();
+        board.generateLegalMoves(rootMoves);
+        long nodes = 0L;
+        for (int i = 0; i < rootMoves.size(); i++) {
+            final int move = rootMoves.get(i);
+            board.makeMove(move);
+            final long moveNodes = perft(board, depth - 1);
+            out.println(MoveUtils.toString(move) + ": " + moveNodes);
+            nodes += moveNodes;
+            board.unmakeMove();
+        }
+        return nodes;
+    }
+
+    /**
+     * Run every reference position from depth 1 up to the given depth.
+     * @param maxDepth the deepest depth, positions with fewer known counts stop earlier.
+     * @param out where the results are printed.
+     * @return true if every count matches.
+     */
+    public static boolean runSuite(final int maxDepth, final PrintStream out) {
+        boolean passed = true;
+        long totalNodes = 0L;
+        long totalNanos = 0L;
+        final Perft perft = new Perft(maxDepth);
+        for (final PerftPosition position : PerftPosition.values()) {
+            final Board board = position.createBoard();
+            for (int depth = 1; depth <= Math.min(maxDepth, position.getMaxDepth()); depth++) {
+                final long start = System.nanoTime();
+                final long nodes = perft.perft(board, depth);
+                final long nanos = System.nanoTime() - start;
+                final boolean correct = nodes == position.getExpectedNodes(depth);
+                passed &= correct;
+                totalNodes += nodes;
+                totalNanos += nanos;
+                out.println(String.format("%-16s depth %d: %12d nodes %8d ms %12d nps  %s",
+                        position.getPositionName(), depth, nodes, nanos / 1_000_000L, nodesPerSecond(nodes, nanos),
+                        correct ? "OK" : "FAIL, expected " + position.getExpectedNodes(depth)));
+            }
+        }
+        out.println(String.format("Total: %d nodes, %d ms, %d nps, %s",
+                totalNodes, totalNanos / 1_000_000L, nodesPerSecond(totalNodes, totalNanos),
+                passed ? "all counts match" : "COUNTS DO NOT MATCH"));
+        return passed;
+    }
+
+    /**
+     * Get the nodes per second.
+     * @param nodes the number of nodes.
+     * @param nanos the time in nanoseconds.
+     * @return the nodes per second.
+     */
+    static long nodesPerSecond(final long nodes, final long nanos) {
+        return nanos > 0 ? nodes * 1_000_000_000L / nanos : 0L;
+    }
+
+    /**
+     * Run perft from the command line.
+     * @param args the depth and an optional FEN, or --suite and an optional depth.
+     */
+    public static void main(final String[] args) {
+        if (args.length == 0) {
+            System.out.println("Usage: Perft depth [fen] | Perft --suite [depth]");
+            return;
+        }
+        if ("--suite".equals(args[0])) {
+            final int maxDepth = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+            if (!runSuite(maxDepth, System.out)) {
+                System.exit(1);
+            }
+            return;
+        }
+        final int depth = Integer.parseInt(args[0]);
+        final StringBuilder fen = new StringBuilder();
+        for (int i = 1; i < args.length; i++) {
+            fen.append(args[i]).append(' ');
+        }
+        final Board board = FenUtilities.createGameFromFEN(
+                fen.length() > 0 ? fen.toString() : FenUtilities.STANDARD_FEN);
+        final long start = System.nanoTime();
+        final long nodes = new Perft(depth).divide(board, depth, System.out);
+        final long nanos = System.nanoTime() - start;
+        System.out.println();
+        System.out.println("Nodes: " + nodes);
+        System.out.println("Time: " + nanos / 1_000_000L + " ms");
+        System.out.println("NPS: " + nodesPerSecond(nodes, nanos));
+    }
+}
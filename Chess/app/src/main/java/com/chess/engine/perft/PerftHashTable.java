@@ -0,0 +1,112 @@
+package com.chess.engine.perft;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size hash table of perft counts keyed by the Zobrist key of the position and the depth,
+ * shared by all the perft threads without any lock.
+ *
+ * Like the transposition table every entry is two longs, the key XORed with the data and the data, so a torn
+ * or overwritten entry looks like a miss instead of a wrong count. The data holds the depth in its low 8 bits
+ * and the node count above them. Entries are grouped in buckets of two: the first entry keeps the deepest
+ * count stored in the bucket, the second one always takes the last count.
+ *
+ * Two positions with the same key share their counts, so a key collision would give a wrong count.
+ * With 64 bit keys this is too rare to matter for a move generator check.
+ */
+public final class PerftHashTable {
+
+    /**
+     * The result of a probe that found nothing.
+     */
+    public static final long MISS = -1L;
+
+    private static final int ENTRIES_PER_BUCKET = 2;
+    private static final int LONGS_PER_ENTRY = 2;
+    private static final int LONGS_PER_BUCKET = ENTRIES_PER_BUCKET * LONGS_PER_ENTRY;
+    private static final int BYTES_PER_BUCKET = LONGS_PER_BUCKET * Long.BYTES;
+
+    private static final int DEPTH_BITS = 8;
+    private static final long DEPTH_MASK = (1L << DEPTH_BITS) - 1;
+
+    /**
+     * The largest count an entry can hold.
+     */
+    private static final long MAX_COUNT = Long.MAX_VALUE >>> DEPTH_BITS;
+
+    /**
+     * The entries, LONGS_PER_ENTRY longs each.
+     */
+    private final long[] table;
+
+    /**
+     * The number of buckets minus one, the number of buckets is a power of two.
+     */
+    private final long bucketMask;
+
+    /**
+     * The constructor of PerftHashTable class.
+     * @param sizeMb the size of the table in megabytes, rounded down to a power of two buckets.
+     */
+    public PerftHashTable(final int sizeMb) {
+        if (sizeMb <= 0) {
+            throw new IllegalArgumentException("Invalid perft hash table size: " + sizeMb);
+        }
+        final long buckets = Long.highestOneBit((long) sizeMb * 1024L * 1024L / BYTES_PER_BUCKET);
+        if (buckets * LONGS_PER_BUCKET > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Perft hash table too large: " + sizeMb + " MB");
+        }
+        this.table = new long[(int) (buckets * LONGS_PER_BUCKET)];
+        this.bucketMask = buckets - 1;
+    }
+
+    /**
+     * Look up the count of a position.
+     * @param zobristKey the Zobrist key of the position.
+     * @param depth the depth, between 1 and 255.
+     * @return the number of leaf nodes, or MISS.
+     */
+    public long probe(final long zobristKey, final int depth) {
+        final int bucket = bucketIndex(zobristKey);
+        for (int i = bucket; i < bucket + LONGS_PER_BUCKET; i += LONGS_PER_ENTRY) {
+            final long data = this.table[i + 1];
+            if ((this.table[i] ^ data) == zobristKey && (data & DEPTH_MASK) == depth) {
+                return data >>> DEPTH_BITS;
+            }
+        }
+        return MISS;
+    }
+
+    /**
+     * Store the count of a position. A count too large for an entry is not stored.
+     * @param zobristKey the Zobrist key of the position.
+     * @param depth the depth, between 1 and 255.
+     * @param count the number of leaf nodes.
+     */
+    public void store(final long zobristKey, final int depth, final long count) {
+        if (count > MAX_COUNT) {
+            return;
+        }
+        final int bucket = bucketIndex(zobristKey);
+        final long data = count << DEPTH_BITS | depth;
+        final int index = (this.table[bucket + 1] & DEPTH_MASK) <= depth ? bucket : bucket + LONGS_PER_ENTRY;
+        this.table[index] = zobristKey ^ data;
+        this.table[index + 1] = data;
+    }
+
+    /**
+     * Empty the table. It must not be used by any thread meanwhile.
+     */
+    public void clear() {
+        Arrays.fill(this.table, 0L);
+    }
+
+    /**
+     * Get the index of the first long of the bucket of a key.
+     * @param zobristKey the key.
+     * @return the index.
+     */
+    private int bucketIndex(final long zobristKey) {
+        return (int) (zobristKey & this.bucketMask) * LONGS_PER_BUCKET;
+    }
+}
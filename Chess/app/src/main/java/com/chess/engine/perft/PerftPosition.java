@@ -0,0 +1,119 @@
+package com.chess.engine.perft;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.pgn.FenUtilities;
+import com.chess.engine.pieces.King;
+import com.chess.engine.pieces.Rook;
+
+/**
+ * The standard perft reference positions and their node counts, from depth 1 upwards.
+ * The last ones are regressions: a castling right without its rook must not give a castle.
+ */
+public enum PerftPosition {
+    START_POSITION("Start position",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            20L, 400L, 8902L, 197281L, 4865609L, 119060324L),
+    KIWIPETE("Kiwipete",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            48L, 2039L, 97862L, 4085603L, 193690690L),
+    POSITION_3("Position 3",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            14L, 191L, 2812L, 43238L, 674624L, 11030083L, 178633661L),
+    POSITION_4("Position 4",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            6L, 264L, 9467L, 422333L, 15833292L),
+    POSITION_5("Position 5",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            44L, 1486L, 62379L, 2103487L, 89941194L),
+    POSITION_6("Position 6",
+            "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+            46L, 2079L, 89890L, 3894594L, 164075551L),
+    MISSING_ROOK("Missing rook",
+            "4k3/8/8/8/8/8/8/R3K3 w K - 0 1",
+            15L, 68L, 1242L, 7374L, 140753L, 822314L) {
+        /**
+         * Build the board piece by piece, so the king side right stays although its rook is missing.
+         * @return the board.
+         */
+        @Override
+        public Board createBoard() {
+            final Board.Builder builder = new Board.Builder();
+            builder.setPiece(new King(4, Alliance.BLACK));
+            builder.setPiece(new Rook(56, Alliance.WHITE));
+            builder.setPiece(new King(60, Alliance.WHITE));
+            builder.setMoveMaker(Alliance.WHITE);
+            builder.setCastlingRights(BoardUtils.WHITE_KING_SIDE_CASTLE);
+            return builder.build();
+        }
+    };
+
+    /**
+     * The name of the position.
+     */
+    private final String positionName;
+
+    /**
+     * The FEN of the position.
+     */
+    private final String fen;
+
+    /**
+     * The expected node counts, index 0 is depth 1.
+     */
+    private final long[] expectedNodes;
+
+    /**
+     * The constructor of PerftPosition.
+     * @param positionName the name of the position.
+     * @param fen the FEN of the position.
+     * @param expectedNodes the expected node counts, from depth 1 upwards.
+     */
+    PerftPosition(final String positionName, final String fen, final long... expectedNodes) {
+        this.positionName = positionName;
+        this.fen = fen;
+        this.expectedNodes = expectedNodes;
+    }
+
+    /**
+     * Get the name of the position.
+     * @return the name.
+     */
+    public String getPositionName() {
+        return this.positionName;
+    }
+
+    /**
+     * Get the FEN of the position.
+     * @return the FEN string.
+     */
+    public String getFen() {
+        return this.fen;
+    }
+
+    /**
+     * Create the board of the position.
+     * @return a new board.
+     */
+    public Board createBoard() {
+        return FenUtilities.createGameFromFEN(this.fen);
+    }
+
+    /**
+     * Get the deepest depth with a known node count.
+     * @return the max depth.
+     */
+    public int getMaxDepth() {
+        return this.expectedNodes.length;
+    }
+
+    /**
+     * Get the expected node count at a depth.
+     * @param depth the depth, starting at 1.
+     * @return the node count.
+     */
+    public long getExpectedNodes(final int depth) {
+        return this.expectedNodes[depth - 1];
+    }
+}
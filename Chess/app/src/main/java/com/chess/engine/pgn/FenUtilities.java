@@ -0,0 +1,492 @@
+package com.chess.engine.pgn;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.pieces.Piece;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads and writes FEN strings.
+ *
+ * A FEN is read straight into an existing board, one character at a time, without splitting it
+ * into substrings, so loading many positions from strings into the same board allocates nothing.
+ * A FEN held by bytes is seen through a small character view, its only allocation.
+ * Writing a board and reading the result back gives the same position, key included.
+ */
+public class FenUtilities {
+
+    /**
+     * The FEN of the standard board.
+     */
+    public static final String STANDARD_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    /**
+     * Room for the longest FEN writeFen can produce.
+     */
+    public static final int MAX_FEN_LENGTH = 128;
+
+    /**
+     * The piece code of each FEN letter, indexed by character, NO_PIECE for the other characters.
+     */
+    private static final int[] PIECE_CODES = initPieceCodes();
+
+    /**
+     * The FEN letter of each piece code.
+     */
+    private static final byte[] PIECE_LETTERS = initPieceLetters();
+
+    /**
+     * The move counters are read up to this value, to keep them away from an overflow.
+     */
+    private static final int MAX_COUNTER = 100_000_000;
+
+    /**
+     * The constructor.
+     */
+    private FenUtilities() {
+        throw new RuntimeException("You cannot instantiate me!");
+    }
+
+    /**
+     * Create a board from a FEN string.
+     * The half move clock and the full move number are optional.
+     * @param fenString the FEN string.
+     * @return the board.
+     * @throws IllegalArgumentException if the FEN string is malformed.
+     */
+    public static Board createGameFromFEN(final String fenString) {
+        final Board board = new Board.Builder().build();
+        parseFen(fenString, 0, fenString.length(), board);
+        return board;
+    }
+
+    /**
+     * Load a FEN into an existing board, replacing its position and emptying its undo stack.
+     * @param fen the FEN.
+     * @param board the board.
+     * @throws IllegalArgumentException if the FEN is malformed, the board is left empty.
+     */
+    public static void parseFen(final CharSequence fen, final Board board) {
+        parseFen(fen, 0, fen.length(), board);
+    }
+
+    /**
+     * Load the FEN held by some ASCII bytes into an existing board, replacing its position
+     * and emptying its undo stack.
+     * The bytes are read through a small character view, allocated once per call.
+     * @param fen the bytes.
+     * @param offset the index of the first byte of the FEN.
+     * @param length the number of bytes of the FEN.
+     * @param board the board.
+     * @throws IllegalArgumentException if the FEN is malformed, the board is left empty.
+     */
+    public static void parseFen(final byte[] fen, final int offset, final int length, final Board board) {
+        if (offset < 0 || length < 0 || offset + length > fen.length) {
+            throw new IndexOutOfBoundsException("Invalid FEN slice: " + offset + ", " + length);
+        }
+        parseFen(new AsciiSequence(fen, offset, length), 0, length, board);
+    }
+
+    /**
+     * Load the FEN held by part of a character sequence into an existing board, replacing its position
+     * and emptying its undo stack.
+     * The fields may be separated by several spaces, and the half move clock and the full move number
+     * are optional. A castling right whose king or rook is not on its start tile is dropped.
+     * @param fen the character sequence.
+     * @param start the index of the first character of the FEN.
+     * @param end the index after the last character of the FEN.
+     * @param board the board.
+     * @throws IllegalArgumentException if the FEN is malformed, if an alliance has not exactly one king
+     *         or a pawn stands on the first or the last row, or if its en passant tile has no pawn that just
+     *         jumped over it, the board is left empty.
+     */
+    public static void parseFen(final CharSequence fen, final int start, final int end, final Board board) {
+        board.clear();
+        try {
+            int i = skipWhitespace(fen, start, end);
+            i = parsePiecePlacement(fen, i, end, board);
+            if (!board.isValidPiecePlacement()) {
+                throw invalidFen(fen, start, end);
+            }
+            i = skipWhitespace(fen, i, end);
+            // The side to move.
+            if (i >= end || !isFieldEnd(fen, i + 1, end)) {
+                throw invalidFen(fen, start, end);
+            }
+            final Alliance moveMaker;
+            if (fen.charAt(i) == 'w') {
+                moveMaker = Alliance.WHITE;
+            } else if (fen.charAt(i) == 'b') {
+                moveMaker = Alliance.BLACK;
+            } else {
+                throw invalidFen(fen, start, end);
+            }
+            i = skipWhitespace(fen, i + 1, end);
+            // The castling rights.
+            int castlingRights = BoardUtils.NO_CASTLING;
+            if (i < end && fen.charAt(i) == '-') {
+                i++;
+            } else {
+                final int castlingStart = i;
+                for (; !isFieldEnd(fen, i, end); i++) {
+                    final int castlingRight = castlingRightOf(fen.charAt(i));
+                    if (castlingRight == BoardUtils.NO_CASTLING) {
+                        throw invalidFen(fen, start, end);
+                    }
+                    castlingRights |= castlingRight;
+                }
+                if (i == castlingStart) {
+                    throw invalidFen(fen, start, end);
+                }
+            }
+            if (!isFieldEnd(fen, i, end)) {
+                throw invalidFen(fen, start, end);
+            }
+            i = skipWhitespace(fen, i, end);
+            // The en passant tile.
+            int enPassantCoordinate = BoardUtils.NO_EN_PASSANT;
+            if (i < end && fen.charAt(i) == '-') {
+                i++;
+            } else if (i + 1 < end) {
+                final int column = fen.charAt(i) - 'a';
+                final int row = BoardUtils.NUM_TILES_PER_ROW - (fen.charAt(i + 1) - '0');
+                if (column < 0 || column >= BoardUtils.NUM_TILES_PER_ROW
+                        || row < 0 || row >= BoardUtils.NUM_TILES_PER_ROW) {
+                    throw invalidFen(fen, start, end);
+                }
+                enPassantCoordinate = row * BoardUtils.NUM_TILES_PER_ROW + column;
+                i += 2;
+            } else {
+                throw invalidFen(fen, start, end);
+            }
+            if (!isFieldEnd(fen, i, end)) {
+                throw invalidFen(fen, start, end);
+            }
+            i = skipWhitespace(fen, i, end);
+            // The optional move counters.
+            int halfMoveClock = 0;
+            int fullMoveNumber = 1;
+            if (i < end) {
+                for (; !isFieldEnd(fen, i, end); i++) {
+                    halfMoveClock = addDigit(halfMoveClock, fen.charAt(i), fen, start, end);
+                }
+                i = skipWhitespace(fen, i, end);
+                if (i < end) {
+                    for (fullMoveNumber = 0; !isFieldEnd(fen, i, end); i++) {
+                        fullMoveNumber = addDigit(fullMoveNumber, fen.charAt(i), fen, start, end);
+                    }
+                    if (skipWhitespace(fen, i, end) != end) {
+                        throw invalidFen(fen, start, end);
+                    }
+                }
+            }
+            // Like most FEN readers, drop the castling rights the pieces don't allow. A wrong en passant tile
+            // is rejected, it tells the FEN is not a position of a game.
+            if (!board.isValidEnPassantCoordinate(moveMaker, enPassantCoordinate)) {
+                throw invalidFen(fen, start, end);
+            }
+            board.setState(moveMaker, board.getPlayableCastlingRights(castlingRights), enPassantCoordinate,
+                    halfMoveClock, fullMoveNumber);
+        } catch (final IllegalArgumentException e) {
+            board.clear();
+            throw e;
+        }
+    }
+
+    /**
+     * Put the pieces of the first FEN field on the board, starting from tile 0 (a8).
+     * @param fen the character sequence.
+     * @param start the index of the field.
+     * @param end the index after the last character of the FEN.
+     * @param board the board, empty.
+     * @return the index after the field.
+     */
+    private static int parsePiecePlacement(final CharSequence fen, final int start, final int end, final Board board) {
+        int tileCoordinate = 0;
+        int rowEnd = BoardUtils.NUM_TILES_PER_ROW;
+        int i = start;
+        for (; !isFieldEnd(fen, i, end); i++) {
+            final char c = fen.charAt(i);
+            if (c == '/') {
+                if (tileCoordinate != rowEnd || rowEnd == BoardUtils.NUM_TILES) {
+                    throw invalidFen(fen, start, end);
+                }
+                rowEnd += BoardUtils.NUM_TILES_PER_ROW;
+                continue;
+            }
+            if (c >= '1' && c <= '8') {
+                if (tileCoordinate + c - '0' > rowEnd) {
+                    throw invalidFen(fen, start, end);
+                }
+                tileCoordinate += c - '0';
+                continue;
+            }
+            final int pieceCode = c < PIECE_CODES.length ? PIECE_CODES[c] : BoardUtils.NO_PIECE;
+            if (pieceCode == BoardUtils.NO_PIECE || tileCoordinate >= rowEnd) {
+                throw invalidFen(fen, start, end);
+            }
+            board.putPiece(pieceCode, tileCoordinate++);
+        }
+        if (tileCoordinate != BoardUtils.NUM_TILES) {
+            throw invalidFen(fen, start, end);
+        }
+        return i;
+    }
+
+    /**
+     * Get the castling right of a FEN letter.
+     * @param c the letter.
+     * @return the BoardUtils castling bit, NO_CASTLING if it is not a castling letter.
+     */
+    private static int castlingRightOf(final char c) {
+        switch (c) {
+            case 'K':
+                return BoardUtils.WHITE_KING_SIDE_CASTLE;
+            case 'Q':
+                return BoardUtils.WHITE_QUEEN_SIDE_CASTLE;
+            case 'k':
+                return BoardUtils.BLACK_KING_SIDE_CASTLE;
+            case 'q':
+                return BoardUtils.BLACK_QUEEN_SIDE_CASTLE;
+            default:
+                return BoardUtils.NO_CASTLING;
+        }
+    }
+
+    /**
+     * Add a decimal digit to a move counter.
+     * @param value the counter so far.
+     * @param c the digit.
+     * @param fen the character sequence, for error messages.
+     * @param start the index of the first character of the FEN, for error messages.
+     * @param end the index after the last character of the FEN, for error messages.
+     * @return the counter.
+     */
+    private static int addDigit(final int value,
+                                final char c,
+                                final CharSequence fen,
+                                final int start,
+                                final int end) {
+        if (c < '0' || c > '9' || value >= MAX_COUNTER) {
+            throw invalidFen(fen, start, end);
+        }
+        return value * 10 + c - '0';
+    }
+
+    /**
+     * Skip the spaces from an index.
+     * @param fen the character sequence.
+     * @param start the index.
+     * @param end the index after the last character of the FEN.
+     * @return the index of the next character which is not a space, or end.
+     */
+    private static int skipWhitespace(final CharSequence fen, final int start, final int end) {
+        int i = start;
+        while (i < end && isWhitespace(fen.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Tell whether a field ends at an index.
+     * @param fen the character sequence.
+     * @param i the index.
+     * @param end the index after the last character of the FEN.
+     * @return true if the index is the end of the FEN or a space.
+     */
+    private static boolean isFieldEnd(final CharSequence fen, final int i, final int end) {
+        return i >= end || isWhitespace(fen.charAt(i));
+    }
+
+    /**
+     * Tell whether a character separates the FEN fields.
+     * @param c the character.
+     * @return true if it is a space, a tab or a line break.
+     */
+    private static boolean isWhitespace(final char c) {
+        return c == ' ' || c == '\t' || c == '\r' || c == '\n';
+    }
+
+    /**
+     * Create the exception of a malformed FEN.
+     * @param fen the character sequence.
+     * @param start the index of the first character of the FEN.
+     * @param end the index after the last character of the FEN.
+     * @return the exception.
+     */
+    private static IllegalArgumentException invalidFen(final CharSequence fen, final int start, final int end) {
+        return new IllegalArgumentException("Invalid FEN: " + fen.subSequence(start, end));
+    }
+
+    /**
+     * Create the FEN string of a board.
+     * @param board a given board.
+     * @return the FEN string.
+     */
+    public static String createFENFromGame(final Board board) {
+        final byte[] buffer = new byte[MAX_FEN_LENGTH];
+        final int length = writeFen(board, buffer, 0);
+        return new String(buffer, 0, length, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Write the FEN of a board as ASCII bytes.
+     * @param board a given board.
+     * @param buffer the bytes, with room for MAX_FEN_LENGTH bytes from the offset.
+     * @param offset the index of the first byte to write.
+     * @return the number of bytes written.
+     */
+    public static int writeFen(final Board board, final byte[] buffer, final int offset) {
+        int i = offset;
+        for (int row = 0; row < BoardUtils.NUM_TILES_PER_ROW; row++) {
+            if (row > 0) {
+                buffer[i++] = '/';
+            }
+            int emptyTiles = 0;
+            for (int column = 0; column < BoardUtils.NUM_TILES_PER_ROW; column++) {
+                final int pieceCode = board.getPieceCode(row * BoardUtils.NUM_TILES_PER_ROW + column);
+                if (pieceCode == BoardUtils.NO_PIECE) {
+                    emptyTiles++;
+                    continue;
+                }
+                if (emptyTiles > 0) {
+                    buffer[i++] = (byte) ('0' + emptyTiles);
+                    emptyTiles = 0;
+                }
+                buffer[i++] = PIECE_LETTERS[pieceCode];
+            }
+            if (emptyTiles > 0) {
+                buffer[i++] = (byte) ('0' + emptyTiles);
+            }
+        }
+        buffer[i++] = ' ';
+        buffer[i++] = (byte) (board.getNextMoveMaker().isWhite() ? 'w' : 'b');
+        buffer[i++] = ' ';
+        final int castlingRights = board.getCastlingRights();
+        if (castlingRights == BoardUtils.NO_CASTLING) {
+            buffer[i++] = '-';
+        } else {
+            if ((castlingRights & BoardUtils.WHITE_KING_SIDE_CASTLE) != 0) {
+                buffer[i++] = 'K';
+            }
+            if ((castlingRights & BoardUtils.WHITE_QUEEN_SIDE_CASTLE) != 0) {
+                buffer[i++] = 'Q';
+            }
+            if ((castlingRights & BoardUtils.BLACK_KING_SIDE_CASTLE) != 0) {
+                buffer[i++] = 'k';
+            }
+            if ((castlingRights & BoardUtils.BLACK_QUEEN_SIDE_CASTLE) != 0) {
+                buffer[i++] = 'q';
+            }
+        }
+        buffer[i++] = ' ';
+        final int enPassantCoordinate = board.getEnPassantCoordinate();
+        if (enPassantCoordinate == BoardUtils.NO_EN_PASSANT) {
+            buffer[i++] = '-';
+        } else {
+            buffer[i++] = (byte) ('a' + enPassantCoordinate % BoardUtils.NUM_TILES_PER_ROW);
+            buffer[i++] = (byte) ('0' + BoardUtils.NUM_TILES_PER_ROW
+                    - enPassantCoordinate / BoardUtils.NUM_TILES_PER_ROW);
+        }
+        buffer[i++] = ' ';
+        i = writeNumber(board.getHalfMoveClock(), buffer, i);
+        buffer[i++] = ' ';
+        i = writeNumber(board.getFullMoveNumber(), buffer, i);
+        return i - offset;
+    }
+
+    /**
+     * Write the decimal digits of a non negative number.
+     * @param value the number.
+     * @param buffer the bytes.
+     * @param offset the index of the first digit.
+     * @return the index after the last digit.
+     */
+    private static int writeNumber(final int value, final byte[] buffer, final int offset) {
+        int digits = 1;
+        for (int rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        int rest = value;
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            buffer[i] = (byte) ('0' + rest % 10);
+            rest /= 10;
+        }
+        return offset + digits;
+    }
+
+    /**
+     * Map the FEN letters to their piece codes.
+     * @return the piece codes, indexed by character.
+     */
+    private static int[] initPieceCodes() {
+        final int[] pieceCodes = new int[128];
+        Arrays.fill(pieceCodes, BoardUtils.NO_PIECE);
+        for (final Piece.PieceType pieceType : Piece.PieceType.values()) {
+            final char letter = pieceType.toString().charAt(0);
+            pieceCodes[letter] = pieceType.getPieceCode(Alliance.WHITE);
+            pieceCodes[Character.toLowerCase(letter)] = pieceType.getPieceCode(Alliance.BLACK);
+        }
+        return pieceCodes;
+    }
+
+    /**
+     * Map the piece codes to their FEN letters.
+     * @return the letters, indexed by piece code.
+     */
+    private static byte[] initPieceLetters() {
+        final byte[] pieceLetters = new byte[BoardUtils.NUM_PIECE_CODES];
+        for (final Piece.PieceType pieceType : Piece.PieceType.values()) {
+            final char letter = pieceType.toString().charAt(0);
+            pieceLetters[pieceType.getPieceCode(Alliance.WHITE)] = (byte) letter;
+            pieceLetters[pieceType.getPieceCode(Alliance.BLACK)] = (byte) Character.toLowerCase(letter);
+        }
+        return pieceLetters;
+    }
+
+    /**
+     * Some ASCII bytes seen as characters, so they are read by the same parser as strings.
+     */
+    private static final class AsciiSequence implements CharSequence {
+
+        private final byte[] bytes;
+        private final int offset;
+        private final int length;
+
+        /**
+         * The constructor of AsciiSequence class.
+         * @param bytes the bytes.
+         * @param offset the index of the first byte.
+         * @param length the number of bytes.
+         */
+        AsciiSequence(final byte[] bytes, final int offset, final int length) {
+            this.bytes = bytes;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return this.length;
+        }
+
+        @Override
+        public char charAt(final int index) {
+            return (char) (this.bytes[this.offset + index] & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(final int start, final int end) {
+            return new String(this.bytes, this.offset + start, end - start, StandardCharsets.US_ASCII);
+        }
+
+        @Override
+        public String toString() {
+            return new String(this.bytes, this.offset, this.length, StandardCharsets.US_ASCII);
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.chess.engine.pgn;
+
+import com.chess.engine.board.Board;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A game read by PgnReader: its tags, its moves and its result.
+ *
+ * The reader reuses one game for the whole file. The tags stay ranges of the mapped file and are only decoded
+ * when asked for, and the moves are packed moves played on a board kept with the game.
+ */
+public final class PgnGame {
+
+    public static final int RESULT_UNKNOWN = 0;
+    public static final int RESULT_WHITE_WINS = 1;
+    public static final int RESULT_BLACK_WINS = 2;
+    public static final int RESULT_DRAW = 3;
+
+    /**
+     * The board the moves are played on, it holds the position after the last move.
+     */
+    private final Board board;
+
+    /**
+     * The moves of the game, in order.
+     */
+    private int[] moves;
+    private int moveCount;
+
+    /**
+     * The bytes the tags are read from.
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * Four indexes of the buffer per tag: the start and the end of the name, then of the value.
+     * The value still holds its escape characters.
+     */
+    private int[] tagRanges;
+    private int tagCount;
+
+    private int result;
+
+    /**
+     * The offset of the game in the file.
+     */
+    private long offset;
+
+    /**
+     * The constructor of PgnGame class.
+     */
+    PgnGame() {
+        this.board = new Board.Builder().build();
+        this.moves = new int[256];
+        this.tagRanges = new int[4 * 16];
+    }
+
+    /**
+     * Forget the previous game before reading the next one.
+     * @param buffer the bytes the tags are read from.
+     * @param offset the offset of the game in the file.
+     */
+    void reset(final ByteBuffer buffer, final long offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.moveCount = 0;
+        this.tagCount = 0;
+        this.result = RESULT_UNKNOWN;
+    }
+
+    /**
+     * Add a tag.
+     * @param nameStart the index of the first byte of the name.
+     * @param nameEnd the index after the name.
+     * @param valueStart the index of the first byte of the value, after the opening quote.
+     * @param valueEnd the index of the closing quote.
+     */
+    void addTag(final int nameStart, final int nameEnd, final int valueStart, final int valueEnd) {
+        if (this.tagCount * 4 == this.tagRanges.length) {
+            this.tagRanges = Arrays.copyOf(this.tagRanges, this.tagRanges.length * 2);
+        }
+        final int index = this.tagCount * 4;
+        this.tagRanges[index] = nameStart;
+        this.tagRanges[index + 1] = nameEnd;
+        this.tagRanges[index + 2] = valueStart;
+        this.tagRanges[index + 3] = valueEnd;
+        this.tagCount++;
+    }
+
+    /**
+     * Add a move, once it is made on the board.
+     * @param move the move.
+     */
+    void addMove(final int move) {
+        if (this.moveCount == this.moves.length) {
+            this.moves = Arrays.copyOf(this.moves, this.moves.length * 2);
+        }
+        this.moves[this.moveCount++] = move;
+    }
+
+    /**
+     * Set the result.
+     * @param result one of the RESULT constants.
+     */
+    void setResult(final int result) {
+        this.result = result;
+    }
+
+    /**
+     * Get the board the moves were played on.
+     * It holds the position after the last move, and every move of the game is on its undo stack.
+     * @return the board, reused for the next game.
+     */
+    public Board getBoard() {
+        return this.board;
+    }
+
+    /**
+     * Get the number of moves, counting the moves of both alliances.
+     * @return the number of half moves.
+     */
+    public int getMoveCount() {
+        return this.moveCount;
+    }
+
+    /**
+     * Get a move.
+     * @param index the index of the move, 0 for the first one.
+     * @return the packed move.
+     */
+    public int getMove(final int index) {
+        if (index < 0 || index >= this.moveCount) {
+            throw new IndexOutOfBoundsException("Invalid move index: " + index);
+        }
+        return this.moves[index];
+    }
+
+    /**
+     * Get the result written after the moves.
+     * @return one of the RESULT constants.
+     */
+    public int getResult() {
+        return this.result;
+    }
+
+    /**
+     * Get the offset of the game in the file.
+     * @return the offset in bytes.
+     */
+    public long getOffset() {
+        return this.offset;
+    }
+
+    /**
+     * Get the number of tags.
+     * @return the tag count.
+     */
+    public int getTagCount() {
+        return this.tagCount;
+    }
+
+    /**
+     * Get the name of a tag.
+     * @param index the index of the tag, in the order of the file.
+     * @return the name.
+     */
+    public String getTagName(final int index) {
+        checkTagIndex(index);
+        return decode(this.tagRanges[index * 4], this.tagRanges[index * 4 + 1]);
+    }
+
+    /**
+     * Get the value of a tag.
+     * @param index the index of the tag, in the order of the file.
+     * @return the value, without the quotes and the escape characters.
+     */
+    public String getTagValue(final int index) {
+        checkTagIndex(index);
+        return decode(this.tagRanges[index * 4 + 2], this.tagRanges[index * 4 + 3]);
+    }
+
+    /**
+     * Get the value of a tag by its name.
+     * @param name the name, such as "White".
+     * @return the value, or null if the game has no such tag.
+     */
+    public String getTag(final String name) {
+        final int index = findTag(name);
+        return index >= 0 ? getTagValue(index) : null;
+    }
+
+    /**
+     * Find a tag by its name without allocating.
+     * @param name the name.
+     * @return the index of the first tag with that name, or -1.
+     */
+    int findTag(final CharSequence name) {
+        for (int i = 0; i < this.tagCount; i++) {
+            final int nameStart = this.tagRanges[i * 4];
+            if (this.tagRanges[i * 4 + 1] - nameStart != name.length()) {
+                continue;
+            }
+            int j = 0;
+            while (j < name.length() && (this.buffer.get(nameStart + j) & 0xFF) == name.charAt(j)) {
+                j++;
+            }
+            if (j == name.length()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Get the index of the first byte of a tag value.
+     * @param index the index of the tag.
+     * @return the buffer index.
+     */
+    int getTagValueStart(final int index) {
+        return this.tagRanges[index * 4 + 2];
+    }
+
+    /**
+     * Get the index after a tag value.
+     * @param index the index of the tag.
+     * @return the buffer index.
+     */
+    int getTagValueEnd(final int index) {
+        return this.tagRanges[index * 4 + 3];
+    }
+
+    /**
+     * Check a tag index.
+     * @param index the index.
+     */
+    private void checkTagIndex(final int index) {
+        if (index < 0 || index >= this.tagCount) {
+            throw new IndexOutOfBoundsException("Invalid tag index: " + index);
+        }
+    }
+
+    /**
+     * Decode some bytes of the buffer, PGN files are in ISO 8859-1. A backslash escapes the next byte.
+     * @param start the index of the first byte.
+     * @param end the index after the last byte.
+     * @return the string.
+     */
+    private String decode(final int start, final int end) {
+        final StringBuilder builder = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            int c = this.buffer.get(i) & 0xFF;
+            if (c == '\\' && i + 1 < end) {
+                c = this.buffer.get(++i) & 0xFF;
+            }
+            builder.append((char) c);
+        }
+        return builder.toString();
+    }
+}
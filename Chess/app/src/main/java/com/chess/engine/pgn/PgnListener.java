@@ -0,0 +1,14 @@
+package com.chess.engine.pgn;
+
+/**
+ * Receives the games of a PGN file as they are read.
+ */
+public interface PgnListener {
+
+    /**
+     * Called by the reader for every game whose moves are all legal.
+     * The game is reused for the next one, it is only valid during the call.
+     * @param game the game.
+     */
+    void onGame(PgnGame game);
+}
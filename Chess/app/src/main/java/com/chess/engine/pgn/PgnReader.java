@@ -0,0 +1,529 @@
+package com.chess.engine.pgn;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.MoveList;
+import com.chess.engine.board.MoveUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streams the games of a PGN file to a listener.
+ *
+ * The file is memory-mapped one window at a time and read in place. The tags stay ranges of the window and the
+ * moves are resolved against the legal moves as they are read, so no string is built per game and the memory
+ * used doesn't depend on the size of the file. A game running past the end of a window is read again from a new
+ * window starting at the game, so a single game must fit in a window.
+ *
+ * Comments, variations and annotation glyphs are skipped. A game with a move that is not legal is skipped
+ * and counted. A reader is not thread-safe.
+ *
+ * Usage:
+ *   PgnReader file    read every game of the file and print the counts and the throughput.
+ */
+public final class PgnReader implements Closeable {
+
+    /**
+     * The size of the mapped windows, unless another one is given.
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 1 << 28;
+
+    private static final int GAME_NONE = 0;
+    private static final int GAME_VALID = 1;
+    private static final int GAME_INVALID = 2;
+
+    private static final String FEN_TAG = "FEN";
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private final int windowSize;
+
+    /**
+     * The mapped part of the file, its offset in the file and its size.
+     */
+    private MappedByteBuffer window;
+    private long windowStart;
+    private int windowLimit;
+
+    /**
+     * Whether the window reaches the end of the file.
+     */
+    private boolean lastWindow;
+
+    /**
+     * The game being read, reused for every game.
+     */
+    private final PgnGame game;
+
+    /**
+     * The window seen as characters, so the moves are resolved in place.
+     */
+    private final ByteBufferSequence characters;
+
+    /**
+     * The legal moves of the position, used to resolve the moves.
+     */
+    private final MoveList legalMoves;
+
+    /**
+     * The FEN tag of a game, copied out of the window to be parsed.
+     */
+    private final byte[] fenBuffer;
+
+    /**
+     * Whether the last game read was empty, valid or invalid.
+     */
+    private int gameStatus;
+
+    private long invalidGames;
+
+    /**
+     * The constructor of PgnReader class.
+     * @param path the PGN file.
+     * @throws IOException if the file can't be opened.
+     */
+    public PgnReader(final Path path) throws IOException {
+        this(path, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * The constructor of PgnReader class.
+     * @param path the PGN file.
+     * @param windowSize the size of the mapped windows in bytes, more than the longest game.
+     * @throws IOException if the file can't be opened.
+     */
+    public PgnReader(final Path path, final int windowSize) throws IOException {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("Invalid window size: " + windowSize);
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.fileSize = this.channel.size();
+        this.windowSize = windowSize;
+        this.game = new PgnGame();
+        this.characters = new ByteBufferSequence();
+        this.legalMoves = new MoveList();
+        this.fenBuffer = new byte[FenUtilities.MAX_FEN_LENGTH];
+    }
+
+    /**
+     * Read every game of the file, from the start.
+     * @param listener told about every game whose moves are all legal.
+     * @return the number of games given to the listener.
+     * @throws IOException if the file can't be read, or a game is longer than the window.
+     */
+    public long read(final PgnListener listener) throws IOException {
+        long games = 0L;
+        long position = 0L;
+        this.invalidGames = 0L;
+        while (position < this.fileSize) {
+            if (this.window == null || position < this.windowStart
+                    || position >= this.windowStart + this.windowLimit) {
+                mapWindow(position);
+            }
+            final int end = readGame((int) (position - this.windowStart));
+            if (end < 0) {
+                if (this.windowStart == position) {
+                    throw new IOException("The game at offset " + position + " is longer than the window");
+                }
+                mapWindow(position);
+                continue;
+            }
+            position = this.windowStart + end;
+            if (this.gameStatus == GAME_VALID) {
+                games++;
+                listener.onGame(this.game);
+            } else if (this.gameStatus == GAME_INVALID) {
+                this.invalidGames++;
+            }
+        }
+        return games;
+    }
+
+    /**
+     * Get the number of games skipped by the last read because of a move that is not legal,
+     * or a malformed FEN tag.
+     * @return the number of games.
+     */
+    public long getInvalidGames() {
+        return this.invalidGames;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.window = null;
+        this.channel.close();
+    }
+
+    /**
+     * Map the window starting at a file offset.
+     * @param position the file offset.
+     * @throws IOException if the file can't be mapped.
+     */
+    private void mapWindow(final long position) throws IOException {
+        final int size = (int) Math.min(this.windowSize, this.fileSize - position);
+        this.window = this.channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+        this.windowStart = position;
+        this.windowLimit = size;
+        this.lastWindow = position + size == this.fileSize;
+        this.characters.setBuffer(this.window);
+    }
+
+    /**
+     * Read the game starting at an index of the window: its tags, its moves and its result.
+     * @param start the index.
+     * @return the index after the game, or -1 if the game runs past the end of the window.
+     */
+    private int readGame(final int start) {
+        final ByteBuffer buffer = this.window;
+        final int limit = this.windowLimit;
+        final Board board = this.game.getBoard();
+        this.game.reset(buffer, this.windowStart + start);
+        boolean hasContent = false;
+        boolean hasMoveText = false;
+        boolean boardReady = false;
+        boolean valid = true;
+        int i = start;
+        while (true) {
+            i = skipWhitespace(buffer, i, limit);
+            if (i >= limit) {
+                if (!this.lastWindow) {
+                    return -1;
+                }
+                break;
+            }
+            final byte c = buffer.get(i);
+            if (c == '[') {
+                if (hasMoveText) {
+                    // The next game starts without a result for this one.
+                    break;
+                }
+                hasContent = true;
+                i = readTag(buffer, i, limit);
+                continue;
+            }
+            if (c == '{') {
+                i = skipPast(buffer, i + 1, limit, '}');
+                continue;
+            }
+            if (c == ';' || c == '%') {
+                i = skipPast(buffer, i + 1, limit, '\n');
+                continue;
+            }
+            if (c == '(') {
+                i = skipVariation(buffer, i, limit);
+                continue;
+            }
+            if (c == ')' || c == '}' || c == ']') {
+                i++;
+                continue;
+            }
+            hasContent = true;
+            hasMoveText = true;
+            if (c == '*') {
+                i++;
+                break;
+            }
+            final int tokenEnd = findTokenEnd(buffer, c == '$' ? i + 1 : i, limit);
+            if (tokenEnd >= limit && !this.lastWindow) {
+                return -1;
+            }
+            if (c == '$' || c == '!' || c == '?') {
+                // An annotation glyph, or an annotation left apart from its move.
+                i = tokenEnd;
+                continue;
+            }
+            final int result = resultOf(buffer, i, tokenEnd);
+            if (result != PgnGame.RESULT_UNKNOWN) {
+                this.game.setResult(result);
+                i = tokenEnd;
+                break;
+            }
+            // A move number, "12." or "12...", may be glued to the move.
+            int moveStart = i;
+            if (c >= '1' && c <= '9') {
+                while (moveStart < tokenEnd && isDigit(buffer.get(moveStart))) {
+                    moveStart++;
+                }
+            }
+            while (moveStart < tokenEnd && buffer.get(moveStart) == '.') {
+                moveStart++;
+            }
+            if (moveStart < tokenEnd && valid) {
+                if (!boardReady) {
+                    valid = setUpBoard(board);
+                    boardReady = true;
+                }
+                if (valid) {
+                    final int move = SanUtilities.parseSan(board, this.characters, moveStart, tokenEnd,
+                            this.legalMoves);
+                    if (move == MoveUtils.NULL_MOVE) {
+                        valid = false;
+                    } else {
+                        board.makeMove(move);
+                        this.game.addMove(move);
+                    }
+                }
+            }
+            i = tokenEnd;
+        }
+        if (hasContent && valid && !boardReady) {
+            valid = setUpBoard(board);
+        }
+        this.gameStatus = !hasContent ? GAME_NONE : valid ? GAME_VALID : GAME_INVALID;
+        return i;
+    }
+
+    /**
+     * Read a tag, such as [White "Kasparov, Garry"], and add it to the game.
+     * @param buffer the window.
+     * @param start the index of the opening bracket.
+     * @param limit the end of the window.
+     * @return the index after the closing bracket, or the limit.
+     */
+    private int readTag(final ByteBuffer buffer, final int start, final int limit) {
+        final int nameStart = skipWhitespace(buffer, start + 1, limit);
+        int i = nameStart;
+        while (i < limit && !isWhitespace(buffer.get(i)) && buffer.get(i) != '"' && buffer.get(i) != ']') {
+            i++;
+        }
+        final int nameEnd = i;
+        i = skipWhitespace(buffer, i, limit);
+        if (i >= limit || buffer.get(i) != '"') {
+            return skipPast(buffer, i, limit, ']');
+        }
+        final int valueStart = ++i;
+        while (i < limit && buffer.get(i) != '"') {
+            i += buffer.get(i) == '\\' ? 2 : 1;
+        }
+        if (i >= limit) {
+            return limit;
+        }
+        this.game.addTag(nameStart, nameEnd, valueStart, i);
+        return skipPast(buffer, i + 1, limit, ']');
+    }
+
+    /**
+     * Load the starting position of the game into the board: the FEN tag if there is one, else the standard board.
+     * @param board the board.
+     * @return false if the FEN tag is malformed.
+     */
+    private boolean setUpBoard(final Board board) {
+        final int fenTag = this.game.findTag(FEN_TAG);
+        if (fenTag < 0) {
+            FenUtilities.parseFen(FenUtilities.STANDARD_FEN, board);
+            return true;
+        }
+        final int valueStart = this.game.getTagValueStart(fenTag);
+        final int length = this.game.getTagValueEnd(fenTag) - valueStart;
+        if (length > this.fenBuffer.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            this.fenBuffer[i] = this.window.get(valueStart + i);
+        }
+        try {
+            FenUtilities.parseFen(this.fenBuffer, 0, length, board);
+            return true;
+        } catch (final IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Get the result of a token.
+     * @param buffer the window.
+     * @param start the index of the token.
+     * @param end the index after the token.
+     * @return the result, RESULT_UNKNOWN if the token is not a result.
+     */
+    private static int resultOf(final ByteBuffer buffer, final int start, final int end) {
+        final int length = end - start;
+        if (length == 3 && buffer.get(start + 1) == '-') {
+            if (buffer.get(start) == '1' && buffer.get(start + 2) == '0') {
+                return PgnGame.RESULT_WHITE_WINS;
+            }
+            if (buffer.get(start) == '0' && buffer.get(start + 2) == '1') {
+                return PgnGame.RESULT_BLACK_WINS;
+            }
+        }
+        if (length == 7 && buffer.get(start) == '1' && buffer.get(start + 1) == '/' && buffer.get(start + 2) == '2'
+                && buffer.get(start + 3) == '-' && buffer.get(start + 4) == '1' && buffer.get(start + 5) == '/'
+                && buffer.get(start + 6) == '2') {
+            return PgnGame.RESULT_DRAW;
+        }
+        return PgnGame.RESULT_UNKNOWN;
+    }
+
+    /**
+     * Skip a variation, with the variations and comments inside it.
+     * @param buffer the window.
+     * @param start the index of the opening parenthesis.
+     * @param limit the end of the window.
+     * @return the index after the closing parenthesis, or the limit.
+     */
+    private static int skipVariation(final ByteBuffer buffer, final int start, final int limit) {
+        int depth = 0;
+        int i = start;
+        while (i < limit) {
+            final byte c = buffer.get(i++);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                if (--depth == 0) {
+                    return i;
+                }
+            } else if (c == '{') {
+                i = skipPast(buffer, i, limit, '}');
+            } else if (c == ';') {
+                i = skipPast(buffer, i, limit, '\n');
+            }
+        }
+        return limit;
+    }
+
+    /**
+     * Skip to the next occurrence of a byte.
+     * @param buffer the window.
+     * @param start the index to start from.
+     * @param limit the end of the window.
+     * @param terminator the byte.
+     * @return the index after the byte, or the limit.
+     */
+    private static int skipPast(final ByteBuffer buffer, final int start, final int limit, final int terminator) {
+        for (int i = start; i < limit; i++) {
+            if (buffer.get(i) == terminator) {
+                return i + 1;
+            }
+        }
+        return limit;
+    }
+
+    /**
+     * Skip the spaces and line breaks.
+     * @param buffer the window.
+     * @param start the index to start from.
+     * @param limit the end of the window.
+     * @return the index of the next other byte, or the limit.
+     */
+    private static int skipWhitespace(final ByteBuffer buffer, final int start, final int limit) {
+        int i = start;
+        while (i < limit && isWhitespace(buffer.get(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Find the end of a move text token.
+     * @param buffer the window.
+     * @param start the index of the token.
+     * @param limit the end of the window.
+     * @return the index of the first byte after the token, or the limit.
+     */
+    private static int findTokenEnd(final ByteBuffer buffer, final int start, final int limit) {
+        int i = start;
+        while (i < limit && !isDelimiter(buffer.get(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Tell whether a byte ends a move text token.
+     * @param c the byte.
+     * @return true if it is a space or starts something else.
+     */
+    private static boolean isDelimiter(final byte c) {
+        return isWhitespace(c) || c == '{' || c == '}' || c == '(' || c == ')' || c == '[' || c == ']'
+                || c == ';' || c == '$';
+    }
+
+    /**
+     * Tell whether a byte is a space or a line break.
+     * @param c the byte.
+     * @return true if it separates tokens.
+     */
+    private static boolean isWhitespace(final byte c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t';
+    }
+
+    /**
+     * Tell whether a byte is a decimal digit.
+     * @param c the byte.
+     * @return true if it is between '0' and '9'.
+     */
+    private static boolean isDigit(final byte c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * A window seen as ISO 8859-1 characters, indexed like the window.
+     */
+    private static final class ByteBufferSequence implements CharSequence {
+
+        private ByteBuffer buffer;
+
+        /**
+         * Set the window.
+         * @param buffer the window.
+         */
+        void setBuffer(final ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int length() {
+            return this.buffer.limit();
+        }
+
+        @Override
+        public char charAt(final int index) {
+            return (char) (this.buffer.get(index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(final int start, final int end) {
+            final byte[] bytes = new byte[end - start];
+            for (int i = start; i < end; i++) {
+                bytes[i - start] = this.buffer.get(i);
+            }
+            return new String(bytes, StandardCharsets.ISO_8859_1);
+        }
+
+        @Override
+        public String toString() {
+            return subSequence(0, length()).toString();
+        }
+    }
+
+    /**
+     * Read a PGN file from the command line.
+     * @param args the file.
+     * @throws IOException if the file can't be read.
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: PgnReader file");
+            return;
+        }
+        final long[] moves = new long[1];
+        final long start = System.nanoTime();
+        try (final PgnReader reader = new PgnReader(Paths.get(args[0]))) {
+            final long games = reader.read(game -> moves[0] += game.getMoveCount());
+            final long nanos = Math.max(System.nanoTime() - start, 1L);
+            System.out.println("Games: " + games);
+            System.out.println("Invalid games: " + reader.getInvalidGames());
+            System.out.println("Moves: " + moves[0]);
+            System.out.println("Time: " + nanos / 1_000_000L + " ms");
+            System.out.println("MB/s: " + reader.fileSize * 1_000L / nanos);
+            System.out.println("Moves/s: " + moves[0] * 1_000_000_000L / nanos);
+        }
+    }
+}
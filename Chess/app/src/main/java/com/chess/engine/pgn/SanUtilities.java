@@ -0,0 +1,345 @@
+package com.chess.engine.pgn;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.MagicBitboards;
+import com.chess.engine.board.MoveGenerator;
+import com.chess.engine.board.MoveList;
+import com.chess.engine.board.MoveUtils;
+import com.chess.engine.pieces.Piece;
+
+import java.util.Arrays;
+
+/**
+ * Reads and writes moves in standard algebraic notation (SAN), such as "Nbd7", "exd5", "e8=Q+" or "O-O".
+ * A SAN move is resolved against the legal moves of the board, so it is only valid for that position.
+ */
+public final class SanUtilities {
+
+    private static final int PAWN = Piece.PieceType.PAWN.ordinal();
+    private static final int KING = Piece.PieceType.KING.ordinal();
+
+    /**
+     * The tiles of the first column and of the first row.
+     */
+    private static final long COLUMN_MASK = 0x0101010101010101L;
+    private static final long ROW_MASK = 0xFFL;
+
+    /**
+     * The piece type ordinal of each upper case SAN letter, indexed by character, -1 for the other characters.
+     */
+    private static final int[] PIECE_TYPES = initPieceTypes();
+
+    /**
+     * The constructor.
+     */
+    private SanUtilities() {
+        throw new RuntimeException("You cannot instantiate me!");
+    }
+
+    /**
+     * Find the legal move of a SAN string.
+     * @param board a given board.
+     * @param san the SAN string.
+     * @return the move, or NULL_MOVE if it is not a legal move of the board.
+     */
+    public static int parseSan(final Board board, final String san) {
+        return parseSan(board, san, 0, san.length(), new MoveList());
+    }
+
+    /**
+     * Find the legal move of a SAN token held by part of a character sequence, without allocating.
+     * Check marks and annotations after the move, such as "+", "#" or "!?", are ignored.
+     * @param board a given board.
+     * @param san the character sequence.
+     * @param start the index of the first character of the token.
+     * @param end the index after the last character of the token.
+     * @param moves a list the candidate moves are generated into, cleared first.
+     * @return the move, or NULL_MOVE if the token is malformed, ambiguous or not a legal move of the board.
+     */
+    public static int parseSan(final Board board,
+                               final CharSequence san,
+                               final int start,
+                               final int end,
+                               final MoveList moves) {
+        int last = end;
+        while (last > start && isSuffix(san.charAt(last - 1))) {
+            last--;
+        }
+        if (last - start < 2) {
+            return MoveUtils.NULL_MOVE;
+        }
+        final char first = san.charAt(start);
+        if (first == 'O' || first == '0') {
+            final int flag;
+            if (isCastle(san, start, last, first, 2)) {
+                flag = MoveUtils.FLAG_KING_SIDE_CASTLE;
+            } else if (isCastle(san, start, last, first, 3)) {
+                flag = MoveUtils.FLAG_QUEEN_SIDE_CASTLE;
+            } else {
+                return MoveUtils.NULL_MOVE;
+            }
+            moves.clear();
+            board.generateLegalMoves(moves);
+            for (int i = 0; i < moves.size(); i++) {
+                if (MoveUtils.getFlag(moves.get(i)) == flag) {
+                    return moves.get(i);
+                }
+            }
+            return MoveUtils.NULL_MOVE;
+        }
+        int i = start;
+        int pieceType = PAWN;
+        if (first < PIECE_TYPES.length && PIECE_TYPES[first] >= 0) {
+            pieceType = PIECE_TYPES[first];
+            i++;
+        }
+        // The promotion comes last, with or without "=".
+        int promotionType = -1;
+        final char lastChar = san.charAt(last - 1);
+        if (pieceType == PAWN && lastChar < PIECE_TYPES.length && PIECE_TYPES[lastChar] > PAWN
+                && PIECE_TYPES[lastChar] < KING) {
+            promotionType = PIECE_TYPES[lastChar];
+            last--;
+            if (last > i && san.charAt(last - 1) == '=') {
+                last--;
+            }
+        }
+        if (last - i < 2) {
+            return MoveUtils.NULL_MOVE;
+        }
+        final int destinationColumn = san.charAt(last - 2) - 'a';
+        final int destinationRow = BoardUtils.NUM_TILES_PER_ROW - (san.charAt(last - 1) - '0');
+        if (!isOnBoard(destinationColumn) || !isOnBoard(destinationRow)) {
+            return MoveUtils.NULL_MOVE;
+        }
+        final int destinationCoordinate = destinationRow * BoardUtils.NUM_TILES_PER_ROW + destinationColumn;
+        // What is left between the piece and the destination: the source column or row, and the capture mark.
+        int sourceColumn = -1;
+        int sourceRow = -1;
+        for (; i < last - 2; i++) {
+            final char c = san.charAt(i);
+            if (c >= 'a' && c <= 'h') {
+                sourceColumn = c - 'a';
+            } else if (c >= '1' && c <= '8') {
+                sourceRow = BoardUtils.NUM_TILES_PER_ROW - (c - '0');
+            } else if (c != 'x' && c != ':' && c != '-') {
+                return MoveUtils.NULL_MOVE;
+            }
+        }
+        // Only the pieces of the type that can reach the destination are asked for their moves.
+        final Alliance moveMaker = board.getNextMoveMaker();
+        final int pieceCode = BoardUtils.getPieceCode(pieceType, moveMaker.ordinal());
+        long sources = board.getPieceBitboard(pieceCode) & reachingTiles(board, pieceType, destinationCoordinate);
+        if (pieceType == PAWN) {
+            sources &= COLUMN_MASK << (sourceColumn >= 0 ? sourceColumn : destinationColumn);
+        } else if (sourceColumn >= 0) {
+            sources &= COLUMN_MASK << sourceColumn;
+        }
+        if (sourceRow >= 0) {
+            sources &= ROW_MASK << (sourceRow * BoardUtils.NUM_TILES_PER_ROW);
+        }
+        moves.clear();
+        while (sources != 0) {
+            MoveGenerator.generatePieceMoves(board, Long.numberOfTrailingZeros(sources), pieceCode, moves);
+            sources &= sources - 1;
+        }
+        int found = MoveUtils.NULL_MOVE;
+        for (int j = 0; j < moves.size(); j++) {
+            final int move = moves.get(j);
+            final int flag = MoveUtils.getFlag(move);
+            if (MoveUtils.getDestinationCoordinate(move) != destinationCoordinate
+                    || flag == MoveUtils.FLAG_KING_SIDE_CASTLE || flag == MoveUtils.FLAG_QUEEN_SIDE_CASTLE
+                    || (MoveUtils.isPromotion(move)
+                        ? MoveUtils.getPromotionType(move) != promotionType
+                        : promotionType >= 0)) {
+                continue;
+            }
+            if (!isLegal(board, move, moveMaker)) {
+                continue;
+            }
+            if (found != MoveUtils.NULL_MOVE) {
+                return MoveUtils.NULL_MOVE;
+            }
+            found = move;
+        }
+        return found;
+    }
+
+    /**
+     * Tell whether a move that is not castling leaves the own king safe, without making it:
+     * nothing of the opponent attacks the king once the piece has moved, but the piece it captured.
+     * @param board a given board.
+     * @param move the move.
+     * @param moveMaker the alliance making the move.
+     * @return true if the move is legal.
+     */
+    private static boolean isLegal(final Board board, final int move, final Alliance moveMaker) {
+        final int destinationCoordinate = MoveUtils.getDestinationCoordinate(move);
+        long captured = 1L << destinationCoordinate;
+        long occupancy = board.getOccupancy() ^ (1L << MoveUtils.getSourceCoordinate(move)) | captured;
+        if (MoveUtils.getFlag(move) == MoveUtils.FLAG_EN_PASSANT) {
+            captured |= 1L << MoveUtils.getCapturedCoordinate(move);
+            occupancy ^= 1L << MoveUtils.getCapturedCoordinate(move);
+        }
+        final int kingCoordinate = BoardUtils.getPieceType(MoveUtils.getMovedPiece(move)) == KING
+                ? destinationCoordinate
+                : board.getKingCoordinate(moveMaker);
+        if (kingCoordinate >= BoardUtils.NUM_TILES) {
+            return true;
+        }
+        return (MoveGenerator.getAttackers(board, kingCoordinate, moveMaker.ordinal() ^ 1, occupancy)
+                & ~captured) == 0;
+    }
+
+    /**
+     * Get the tiles a piece of the given type could move to the destination from, every tile for a pawn.
+     * @param board a given board.
+     * @param pieceType the piece type ordinal.
+     * @param destinationCoordinate the destination.
+     * @return the tiles.
+     */
+    private static long reachingTiles(final Board board, final int pieceType, final int destinationCoordinate) {
+        if (pieceType == PAWN) {
+            return ~0L;
+        }
+        if (pieceType == Piece.PieceType.KNIGHT.ordinal()) {
+            return BoardUtils.KNIGHT_ATTACKS[destinationCoordinate];
+        }
+        if (pieceType == Piece.PieceType.BISHOP.ordinal()) {
+            return MagicBitboards.getBishopAttacks(destinationCoordinate, board.getOccupancy());
+        }
+        if (pieceType == Piece.PieceType.ROOK.ordinal()) {
+            return MagicBitboards.getRookAttacks(destinationCoordinate, board.getOccupancy());
+        }
+        if (pieceType == Piece.PieceType.QUEEN.ordinal()) {
+            return MagicBitboards.getQueenAttacks(destinationCoordinate, board.getOccupancy());
+        }
+        return BoardUtils.KING_ATTACKS[destinationCoordinate];
+    }
+
+    /**
+     * Write a legal move of a board in SAN, with the check or mate mark.
+     * @param board a given board, left as it was.
+     * @param move the move.
+     * @return the SAN string.
+     */
+    public static String toSan(final Board board, final int move) {
+        final StringBuilder builder = new StringBuilder(8);
+        final int flag = MoveUtils.getFlag(move);
+        final MoveList moves = new MoveList();
+        if (flag == MoveUtils.FLAG_KING_SIDE_CASTLE) {
+            builder.append("O-O");
+        } else if (flag == MoveUtils.FLAG_QUEEN_SIDE_CASTLE) {
+            builder.append("O-O-O");
+        } else {
+            final int pieceType = BoardUtils.getPieceType(MoveUtils.getMovedPiece(move));
+            final int sourceCoordinate = MoveUtils.getSourceCoordinate(move);
+            final int destinationCoordinate = MoveUtils.getDestinationCoordinate(move);
+            final String source = BoardUtils.getPositionAtCoordinate(sourceCoordinate);
+            if (pieceType == PAWN) {
+                if (MoveUtils.isCapture(move)) {
+                    builder.append(source.charAt(0));
+                }
+            } else {
+                builder.append(Piece.PieceType.values()[pieceType]);
+                // Name the source column, or the row, or both, when another piece of the type could move there.
+                board.generateLegalMoves(moves);
+                boolean ambiguous = false;
+                boolean sameColumn = false;
+                boolean sameRow = false;
+                for (int i = 0; i < moves.size(); i++) {
+                    final int other = moves.get(i);
+                    final int otherSource = MoveUtils.getSourceCoordinate(other);
+                    if (other != move && otherSource != sourceCoordinate
+                            && MoveUtils.getMovedPiece(other) == MoveUtils.getMovedPiece(move)
+                            && MoveUtils.getDestinationCoordinate(other) == destinationCoordinate) {
+                        ambiguous = true;
+                        sameColumn |= otherSource % BoardUtils.NUM_TILES_PER_ROW
+                                == sourceCoordinate % BoardUtils.NUM_TILES_PER_ROW;
+                        sameRow |= otherSource / BoardUtils.NUM_TILES_PER_ROW
+                                == sourceCoordinate / BoardUtils.NUM_TILES_PER_ROW;
+                    }
+                }
+                if (ambiguous && (!sameColumn || sameRow)) {
+                    builder.append(source.charAt(0));
+                }
+                if (ambiguous && sameColumn) {
+                    builder.append(source.charAt(1));
+                }
+            }
+            if (MoveUtils.isCapture(move)) {
+                builder.append('x');
+            }
+            builder.append(BoardUtils.getPositionAtCoordinate(destinationCoordinate));
+            if (MoveUtils.isPromotion(move)) {
+                builder.append('=').append(Piece.PieceType.values()[MoveUtils.getPromotionType(move)]);
+            }
+        }
+        board.makeMove(move);
+        if (board.isInCheck()) {
+            moves.clear();
+            board.generateLegalMoves(moves);
+            builder.append(moves.isEmpty() ? '#' : '+');
+        }
+        board.unmakeMove();
+        return builder.toString();
+    }
+
+    /**
+     * Tell whether a SAN token is a castling move with the given number of letters.
+     * @param san the character sequence.
+     * @param start the index of the first character of the token.
+     * @param end the index after the last character of the token, without the check marks.
+     * @param letter the castling letter of the token, 'O' or '0'.
+     * @param letters 2 for king side, 3 for queen side.
+     * @return true if the token is "O-O" or "O-O-O" written with the letter.
+     */
+    private static boolean isCastle(final CharSequence san,
+                                    final int start,
+                                    final int end,
+                                    final char letter,
+                                    final int letters) {
+        if (end - start != letters * 2 - 1) {
+            return false;
+        }
+        for (int i = 0; i < letters * 2 - 1; i++) {
+            if (san.charAt(start + i) != ((i & 1) == 0 ? letter : '-')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tell whether a character may follow a SAN move, such as a check mark or an annotation.
+     * @param c the character.
+     * @return true if it is ignored.
+     */
+    private static boolean isSuffix(final char c) {
+        return c == '+' || c == '#' || c == '!' || c == '?';
+    }
+
+    /**
+     * Tell whether a column or row index is on the board.
+     * @param index the index.
+     * @return true if it is between 0 and 7.
+     */
+    private static boolean isOnBoard(final int index) {
+        return index >= 0 && index < BoardUtils.NUM_TILES_PER_ROW;
+    }
+
+    /**
+     * Map the SAN piece letters to their piece types.
+     * @return the piece type ordinals, indexed by character.
+     */
+    private static int[] initPieceTypes() {
+        final int[] pieceTypes = new int[128];
+        Arrays.fill(pieceTypes, -1);
+        for (final Piece.PieceType pieceType : Piece.PieceType.values()) {
+            pieceTypes[pieceType.toString().charAt(0)] = pieceType.ordinal();
+        }
+        return pieceTypes;
+    }
+}
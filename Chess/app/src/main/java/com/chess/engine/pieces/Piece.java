@@ -2,9 +2,15 @@ package com.chess.engine.pieces;
 
 import com.chess.engine.Alliance;
 import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
 import com.chess.engine.board.Move;
+import com.chess.engine.board.MoveList;
+import com.chess.engine.board.MoveUtils;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 
 public abstract class Piece {
 
@@ -23,12 +29,19 @@ public abstract class Piece {
      */
     protected final boolean isFirstMove;
 
+    /**
+     * The type of the piece.
+     */
+    protected final PieceType pieceType;
+
     /**
      * The constructor of Piece class.
+     * @param pieceType the piece type.
      * @param piecePosition the piece position.
      * @param pieceAlliance the piece color.
      */
-    Piece(final int piecePosition, final Alliance pieceAlliance) {
+    Piece(final PieceType pieceType, final int piecePosition, final Alliance pieceAlliance) {
+        this.pieceType = pieceType;
         this.pieceAlliance = pieceAlliance;
         this.piecePosition = piecePosition;
         // TODO more work to do!!!
@@ -51,6 +64,22 @@ public abstract class Piece {
         return this.isFirstMove;
     }
 
+    /**
+     * Get piece type.
+     * @return piece type.
+     */
+    public PieceType getPieceType() {
+        return this.pieceType;
+    }
+
+    /**
+     * Get the code of this piece, which is the index of its bitboard on the board.
+     * @return piece code.
+     */
+    public int getPieceCode() {
+        return this.pieceType.getPieceCode(this.pieceAlliance);
+    }
+
     /**
      * Get piece position.
      * @return piece position.
@@ -60,9 +89,144 @@ public abstract class Piece {
     }
     /**
      * Take a given board and for the given piece, it will calculate the piece legal moves.
+     * The moves are packed by MoveUtils and added to the list, so nothing is allocated.
+     * @param board a given board
+     * @param moves the list the moves are added to.
+     */
+    public abstract void calculateLegalMoves(final Board board, final MoveList moves);
+
+    /**
+     * Take a given board and for the given piece, it will calculate the piece legal moves.
+     * This wraps every packed move into a Move object, search should use the MoveList version instead.
      * @param board a given board
      * @return a unspecified list of moves that a piece could possibly reach.
      */
-    public abstract Collection<Move> calculateLegalMoves(final Board board);
+    public Collection<Move> calculateLegalMoves(final Board board) {
+        final MoveList moves = new MoveList();
+        calculateLegalMoves(board, moves);
+        final List<Move> legalMoves = new ArrayList<>(moves.size());
+        for (int i = 0; i < moves.size(); i++) {
+            final int move = moves.get(i);
+            final int destinationCoordinate = MoveUtils.getDestinationCoordinate(move);
+            if (MoveUtils.isCapture(move)) {
+                final Piece attackedPiece = board.getPiece(MoveUtils.getCapturedCoordinate(move));
+                legalMoves.add(new Move.AttackMove(board, this, destinationCoordinate, attackedPiece));
+            } else {
+                legalMoves.add(new Move.MajorMove(board, this, destinationCoordinate));
+            }
+        }
+        return Collections.unmodifiableList(legalMoves);
+    }
+
+    @Override
+    public String toString() {
+        return this.pieceAlliance.isWhite() ? this.pieceType.toString() : this.pieceType.toString().toLowerCase();
+    }
+
+    /**
+     * All the kinds of pieces.
+     * The ordinal of a piece type is used together with the alliance to index the board bitboards.
+     */
+    public enum PieceType {
+        PAWN("P", 100) {
+            @Override
+            public Piece createPiece(final int piecePosition, final Alliance pieceAlliance) {
+                return new Pawn(piecePosition, pieceAlliance);
+            }
+        },
+        KNIGHT("N", 320) {
+            @Override
+            public Piece createPiece(final int piecePosition, final Alliance pieceAlliance) {
+                return new Knight(piecePosition, pieceAlliance);
+            }
+        },
+        BISHOP("B", 330) {
+            @Override
+            public Piece createPiece(final int piecePosition, final Alliance pieceAlliance) {
+                return new Bishop(piecePosition, pieceAlliance);
+            }
+        },
+        ROOK("R", 500) {
+            @Override
+            public Piece createPiece(final int piecePosition, final Alliance pieceAlliance) {
+                return new Rook(piecePosition, pieceAlliance);
+            }
+        },
+        QUEEN("Q", 900) {
+            @Override
+            public Piece createPiece(final int piecePosition, final Alliance pieceAlliance) {
+                return new Queen(piecePosition, pieceAlliance);
+            }
+        },
+        KING("K", 10000) {
+            @Override
+            public Piece createPiece(final int piecePosition, final Alliance pieceAlliance) {
+                return new King(piecePosition, pieceAlliance);
+            }
+        };
+
+        /**
+         * Cached values, so looking a type up by its code doesn't copy the array.
+         */
+        private static final PieceType[] PIECE_TYPES = values();
+
+        /**
+         * The letter of the piece.
+         */
+        private final String pieceName;
 
+        /**
+         * The material value of the piece in centipawns.
+         */
+        private final int pieceValue;
+
+        /**
+         * The constructor of PieceType.
+         * @param pieceName the letter of the piece.
+         * @param pieceValue the material value of the piece.
+         */
+        PieceType(final String pieceName, final int pieceValue) {
+            this.pieceName = pieceName;
+            this.pieceValue = pieceValue;
+        }
+
+        /**
+         * Create a piece of this type.
+         * @param piecePosition the piece position.
+         * @param pieceAlliance the piece color.
+         * @return a new piece.
+         */
+        public abstract Piece createPiece(final int piecePosition, final Alliance pieceAlliance);
+
+        /**
+         * Get the piece code of this type for the given alliance.
+         * @param pieceAlliance the piece color.
+         * @return piece code between 0 and 11.
+         */
+        public int getPieceCode(final Alliance pieceAlliance) {
+            return BoardUtils.getPieceCode(this.ordinal(), pieceAlliance.ordinal());
+        }
+
+        /**
+         * Get the material value of the piece.
+         * @return value in centipawns.
+         */
+        public int getPieceValue() {
+            return this.pieceValue;
+        }
+
+        /**
+         * Get the piece type from a piece code.
+         * @param pieceCode piece code.
+         * @return the piece type.
+         */
+        public static PieceType fromPieceCode(final int pieceCode) {
+            return PIECE_TYPES[BoardUtils.getPieceType(pieceCode)];
+        }
+
+        @Override
+        public String toString() {
+            return this.pieceName;
+        }
+    }
 }
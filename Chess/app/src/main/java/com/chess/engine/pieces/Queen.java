@@ -2,85 +2,28 @@ package com.chess.engine.pieces;
 
 import com.chess.engine.Alliance;
 import com.chess.engine.board.Board;
-import com.chess.engine.board.BoardUtils;
-import com.chess.engine.board.Move;
-import com.chess.engine.board.Tile;
-
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.List;
+import com.chess.engine.board.MoveGenerator;
+import com.chess.engine.board.MoveList;
 
 public class Queen extends Piece {
 
-    /**
-     * All the possible directions that a queen could be.
-     */
-    private static final int[] CANDIDATE_MOVE_VECTOR_COORDINATE = {-9, -8, -7, -1, 1, 7, 8, 9};
-
     /**
      * The constructor of Piece class.
      *
      * @param piecePosition the piece position.
      * @param pieceAlliance the piece color.
      */
-    Queen(int piecePosition, Alliance pieceAlliance) {
-        super(piecePosition, pieceAlliance);
+    public Queen(final int piecePosition, final Alliance pieceAlliance) {
+        super(PieceType.QUEEN, piecePosition, pieceAlliance);
     }
 
     /**
      * Get a list of legal moves of queen.
      * @param board a given board.
-     * @return an unspecified list of moves that a queen could possibly reach.
+     * @param moves the list the moves are added to.
      */
     @Override
-    public Collection<Move> calculateLegalMoves(Board board) {
-        final List<Move> legalMoves = new ArrayList<>();
-        for (final int candidateOffset : CANDIDATE_MOVE_VECTOR_COORDINATE) {
-            int candidateDestinationCoordinate = this.piecePosition;
-            while(BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate)) {
-                if (isEighthColumnExclusion(candidateDestinationCoordinate, candidateOffset)
-                        || isFirstColumnExclusion(candidateDestinationCoordinate, candidateOffset)) {
-                    break;
-                }
-                candidateDestinationCoordinate += candidateOffset;
-                if (BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate)) {
-                    Tile candidateDestinationTile = board.getTile(candidateDestinationCoordinate);
-                    if (!candidateDestinationTile.isTileOccupied()) {
-                        legalMoves.add(new Move.MajorMove(board, this, candidateDestinationCoordinate));
-                    } else {
-                        Piece pieceAtDestination = candidateDestinationTile.getPiece();
-                        Alliance pieceAtDestinationAlliance = pieceAtDestination.getPieceAlliance();
-                        if (this.pieceAlliance != pieceAtDestinationAlliance) {
-                            legalMoves.add(new Move.AttackMove(board, this, candidateDestinationCoordinate, pieceAtDestination));
-                        }
-                        break;
-                    }
-                }
-            }
-        }
-        return Collections.unmodifiableList(legalMoves);
-    }
-
-    /**
-     * Including all the exceptional cases in the first column.
-     * @param currentPosition the current position.
-     * @param candidateOffset the candidate offset.
-     * @return true if the destination coordinate is not a valid move.
-     */
-    private static boolean isFirstColumnExclusion(final int currentPosition, final int candidateOffset) {
-        return BoardUtils.FIRST_COLUMN[currentPosition] && (candidateOffset == -9 || candidateOffset == -1
-                || candidateOffset == 7);
-    }
-
-    /**
-     * Including all the exceptional cases in the eighth column.
-     * @param currentPosition the current position.
-     * @param candidateOffset the candidate offset.
-     * @return true if the destination coordinate is not a valid move.
-     */
-    private static boolean isEighthColumnExclusion(final int currentPosition, final int candidateOffset) {
-        return BoardUtils.EIGHTH_COLUMN[currentPosition] && (candidateOffset == -7 || candidateOffset == 1
-                || candidateOffset == 9);
+    public void calculateLegalMoves(final Board board, final MoveList moves) {
+        MoveGenerator.generateQueenMoves(board, this.piecePosition, getPieceCode(), moves);
     }
 }
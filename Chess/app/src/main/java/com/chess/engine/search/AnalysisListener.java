@@ -0,0 +1,13 @@
+package com.chess.engine.search;
+
+/**
+ * Receives the results of a batch analysis as the positions are done.
+ */
+public interface AnalysisListener {
+
+    /**
+     * Called by the worker thread that analysed the position, so it must be safe to call from several threads.
+     * @param result the result of the position.
+     */
+    void onResult(AnalysisResult result);
+}
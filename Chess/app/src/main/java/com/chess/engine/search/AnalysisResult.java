@@ -0,0 +1,86 @@
+package com.chess.engine.search;
+
+/**
+ * The result of one position of a batch analysis.
+ */
+public final class AnalysisResult {
+
+    /**
+     * The index of the position in the input.
+     */
+    private final int index;
+
+    /**
+     * The FEN of the position.
+     */
+    private final String fen;
+
+    /**
+     * The result of the search, null if the FEN is malformed.
+     */
+    private final SearchResult searchResult;
+
+    /**
+     * Why the position was not searched, null if it was.
+     */
+    private final String error;
+
+    /**
+     * The constructor of AnalysisResult class.
+     * @param index the index of the position in the input.
+     * @param fen the FEN of the position.
+     * @param searchResult the result of the search, null if the position was not searched.
+     * @param error why the position was not searched, null if it was.
+     */
+    AnalysisResult(final int index, final String fen, final SearchResult searchResult, final String error) {
+        this.index = index;
+        this.fen = fen;
+        this.searchResult = searchResult;
+        this.error = error;
+    }
+
+    /**
+     * Get the index of the position in the input.
+     * @return the index, 0 for the first position.
+     */
+    public int getIndex() {
+        return this.index;
+    }
+
+    /**
+     * Get the FEN of the position.
+     * @return the FEN.
+     */
+    public String getFen() {
+        return this.fen;
+    }
+
+    /**
+     * Get the result of the search.
+     * @return the result, null if the position was not searched.
+     */
+    public SearchResult getSearchResult() {
+        return this.searchResult;
+    }
+
+    /**
+     * Get why the position was not searched.
+     * @return the error message, null if it was searched.
+     */
+    public String getError() {
+        return this.error;
+    }
+
+    /**
+     * Tell whether the position was searched.
+     * @return true if there is a search result.
+     */
+    public boolean isValid() {
+        return this.searchResult != null;
+    }
+
+    @Override
+    public String toString() {
+        return this.index + " " + (isValid() ? this.searchResult.toString() : "error " + this.error);
+    }
+}
@@ -0,0 +1,338 @@
+package com.chess.engine.search;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.book.OpeningBook;
+import com.chess.engine.eval.StandardBoardEvaluator;
+import com.chess.engine.pgn.FenUtilities;
+import com.chess.engine.tablebase.Tablebase;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Analyses many independent positions in parallel, each with its own search.
+ *
+ * The positions are spread over a work-stealing pool. Every worker thread owns a board the positions are loaded
+ * into and a search with its move buffers and its evaluator, so the workers share nothing while they search,
+ * unless a shared transposition table is given. Without one each worker gets its own table.
+ * Only a bounded number of positions wait in the pool, so the input may be much larger than the memory.
+ * The tables keep the entries of the earlier positions, so a result may depend on the order the positions
+ * were searched in, like the moves of a game do. A table of its own is aged before every position,
+ * a shared table once per batch, so the workers don't age it under each other's entries.
+ * A position that can't be loaded or searched gives an error result and the other positions go on.
+ *
+ * Usage:
+ *   BatchAnalyzer threads depth file    search every FEN of the file, one per line, and print the positions per second.
+ */
+public final class BatchAnalyzer {
+
+    /**
+     * The number of positions waiting in the pool per worker thread.
+     */
+    private static final int QUEUED_POSITIONS_PER_THREAD = 4;
+
+    private final ForkJoinPool pool;
+    private final int parallelism;
+    private final TranspositionTable sharedTable;
+
+    /**
+     * The constructor of BatchAnalyzer class.
+     * @param builder a given builder.
+     */
+    private BatchAnalyzer(final Builder builder) {
+        final Supplier<? extends BoardEvaluator> evaluatorFactory = builder.evaluatorFactory;
+        final TranspositionTable sharedTable = builder.sharedTable;
+        final Tablebase tablebase = builder.tablebase;
+        final OpeningBook openingBook = builder.openingBook;
+        final int tableSizeMb = builder.tableSizeMb;
+        this.parallelism = builder.parallelism;
+        this.sharedTable = sharedTable;
+        this.pool = new ForkJoinPool(this.parallelism,
+                forkJoinPool -> sharedTable != null
+                        ? new AnalysisThread(forkJoinPool, sharedTable, false, evaluatorFactory.get(), tablebase,
+                                openingBook)
+                        : new AnalysisThread(forkJoinPool, new TranspositionTable(tableSizeMb), true,
+                                evaluatorFactory.get(), tablebase, openingBook),
+                null, false);
+    }
+
+    /**
+     * Analyse every position and return the results in the order of the input.
+     * @param fens the FEN of each position.
+     * @param limits when to stop the search of each position.
+     * @return the results, one per position.
+     */
+    public List<AnalysisResult> analyzeAll(final Iterable<String> fens, final SearchLimits limits) {
+        final List<String> fenList = new ArrayList<>();
+        for (final String fen : fens) {
+            fenList.add(fen);
+        }
+        final AnalysisResult[] results = new AnalysisResult[fenList.size()];
+        analyzeAll(fenList, limits, result -> results[result.getIndex()] = result);
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Analyse every position and give each result to the listener as soon as it is done.
+     * The input is read as the workers become free, and the method returns once every result was given.
+     * @param fens the FEN of each position.
+     * @param limits when to stop the search of each position.
+     * @param listener told about every result, from the worker threads.
+     */
+    public void analyzeAll(final Iterable<String> fens, final SearchLimits limits, final AnalysisListener listener) {
+        final int maxQueuedPositions = this.parallelism * QUEUED_POSITIONS_PER_THREAD;
+        final Semaphore queuedPositions = new Semaphore(maxQueuedPositions);
+        final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        if (this.sharedTable != null) {
+            this.sharedTable.newSearch();
+        }
+        int index = 0;
+        for (final String fen : fens) {
+            if (failure.get() != null) {
+                break;
+            }
+            final int positionIndex = index++;
+            queuedPositions.acquireUninterruptibly();
+            this.pool.execute(() -> {
+                try {
+                    listener.onResult(((AnalysisThread) Thread.currentThread()).analyze(positionIndex, fen, limits));
+                } catch (final RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    queuedPositions.release();
+                }
+            });
+        }
+        // Every permit is back once the last position is done.
+        queuedPositions.acquireUninterruptibly(maxQueuedPositions);
+        queuedPositions.release(maxQueuedPositions);
+        if (failure.get() != null) {
+            throw new IllegalStateException("The analysis failed", failure.get());
+        }
+    }
+
+    /**
+     * Get the number of worker threads.
+     * @return the thread count.
+     */
+    public int getParallelism() {
+        return this.parallelism;
+    }
+
+    /**
+     * Stop the worker threads. The analyzer can't be used afterwards.
+     */
+    public void shutdown() {
+        this.pool.shutdownNow();
+    }
+
+    /**
+     * A worker thread with the board and the search it analyses its positions with.
+     */
+    private static final class AnalysisThread extends ForkJoinWorkerThread {
+
+        private final Board board;
+        private final Search search;
+        private final boolean agesTable;
+
+        /**
+         * The constructor of AnalysisThread class.
+         * @param pool the pool of the thread.
+         * @param transpositionTable the table of the search.
+         * @param agesTable true if the thread owns the table and ages it before every position.
+         * @param evaluator the evaluation of the leaves.
+         * @param tablebase the endgame tables, may be null.
+         * @param openingBook the opening book, may be null.
+         */
+        AnalysisThread(final ForkJoinPool pool,
+                       final TranspositionTable transpositionTable,
+                       final boolean agesTable,
+                       final BoardEvaluator evaluator,
+                       final Tablebase tablebase,
+                       final OpeningBook openingBook) {
+            super(pool);
+            this.board = Board.createStandardBoard();
+            this.search = new Search(transpositionTable, evaluator);
+            this.search.setTablebase(tablebase);
+            this.search.setOpeningBook(openingBook);
+            this.agesTable = agesTable;
+        }
+
+        /**
+         * Load a position into the board of the thread and search it.
+         * A malformed FEN or a failed search gives an error result, and the thread stays usable.
+         * @param index the index of the position in the input.
+         * @param fen the FEN of the position.
+         * @param limits when to stop the search.
+         * @return the result.
+         */
+        AnalysisResult analyze(final int index, final String fen, final SearchLimits limits) {
+            try {
+                FenUtilities.parseFen(fen, this.board);
+            } catch (final IllegalArgumentException e) {
+                return new AnalysisResult(index, fen, null, e.getMessage());
+            }
+            try {
+                final SearchResult searchResult = this.agesTable
+                        ? this.search.search(this.board, limits, null)
+                        : this.search.searchAtCurrentAge(this.board, limits, null);
+                return new AnalysisResult(index, fen, searchResult, null);
+            } catch (final RuntimeException e) {
+                // The search resets its own state when it starts, only the board is left to reset.
+                this.board.clear();
+                return new AnalysisResult(index, fen, null, e.toString());
+            }
+        }
+    }
+
+    public static class Builder {
+
+        private Supplier<? extends BoardEvaluator> evaluatorFactory;
+        private int parallelism;
+        private int tableSizeMb;
+        private TranspositionTable sharedTable;
+        private Tablebase tablebase;
+        private OpeningBook openingBook;
+
+        /**
+         * The constructor of Builder class: the standard evaluation, one thread per processor
+         * and a 16 MB table and a pawn hash table per thread.
+         */
+        public Builder() {
+            this.evaluatorFactory = StandardBoardEvaluator::create;
+            this.parallelism = Runtime.getRuntime().availableProcessors();
+            this.tableSizeMb = 16;
+            this.sharedTable = null;
+            this.tablebase = null;
+            this.openingBook = null;
+        }
+
+        /**
+         * Set the evaluation of the leaves.
+         * @param evaluatorFactory creates the evaluator of each worker thread.
+         * @return the builder.
+         */
+        public Builder setEvaluatorFactory(final Supplier<? extends BoardEvaluator> evaluatorFactory) {
+            this.evaluatorFactory = evaluatorFactory;
+            return this;
+        }
+
+        /**
+         * Set the number of worker threads.
+         * @param parallelism the thread count, at least 1.
+         * @return the builder.
+         */
+        public Builder setParallelism(final int parallelism) {
+            if (parallelism < 1) {
+                throw new IllegalArgumentException("Invalid thread count: " + parallelism);
+            }
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * Set the size of the table of each worker thread, when there is no shared table.
+         * @param tableSizeMb the size in megabytes, at least 1.
+         * @return the builder.
+         */
+        public Builder setTableSizeMb(final int tableSizeMb) {
+            if (tableSizeMb < 1) {
+                throw new IllegalArgumentException("Invalid table size: " + tableSizeMb);
+            }
+            this.tableSizeMb = tableSizeMb;
+            return this;
+        }
+
+        /**
+         * Share one table between all the worker threads instead of giving each its own.
+         * @param sharedTable the table, null to give each thread its own.
+         * @return the builder.
+         */
+        public Builder setSharedTable(final TranspositionTable sharedTable) {
+            this.sharedTable = sharedTable;
+            return this;
+        }
+
+        /**
+         * Set the endgame tables probed by every worker thread.
+         * @param tablebase the tables, null to probe none.
+         * @return the builder.
+         */
+        public Builder setTablebase(final Tablebase tablebase) {
+            this.tablebase = tablebase;
+            return this;
+        }
+
+        /**
+         * Set the opening book every worker thread looks its positions up in.
+         * @param openingBook the book, null to look up none.
+         * @return the builder.
+         */
+        public Builder setOpeningBook(final OpeningBook openingBook) {
+            this.openingBook = openingBook;
+            return this;
+        }
+
+        /**
+         * Create the analyzer and its worker threads.
+         * @return the analyzer.
+         */
+        public BatchAnalyzer build() {
+            return new BatchAnalyzer(this);
+        }
+    }
+
+    /**
+     * Analyse the positions of a file from the command line.
+     * @param args the thread count, the depth and the file.
+     * @throws IOException if the file can't be read.
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length < 3) {
+            System.out.println("Usage: BatchAnalyzer threads depth file");
+            return;
+        }
+        final List<String> fens = new ArrayList<>();
+        try (final BufferedReader reader = Files.newBufferedReader(Paths.get(args[2]), StandardCharsets.US_ASCII)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.trim().isEmpty()) {
+                    fens.add(line);
+                }
+            }
+        }
+        final BatchAnalyzer analyzer = new Builder().setParallelism(Integer.parseInt(args[0])).build();
+        try {
+            final long start = System.nanoTime();
+            final List<AnalysisResult> results = analyzer.analyzeAll(fens,
+                    new SearchLimits.Builder().setMaxDepth(Integer.parseInt(args[1])).build());
+            final long nanos = Math.max(System.nanoTime() - start, 1L);
+            long nodes = 0L;
+            int errors = 0;
+            for (final AnalysisResult result : results) {
+                if (result.isValid()) {
+                    nodes += result.getSearchResult().getNodes();
+                } else {
+                    errors++;
+                }
+            }
+            System.out.println("Positions: " + results.size() + ", errors: " + errors);
+            System.out.println("Time: " + nanos / 1_000_000L + " ms");
+            System.out.println("Positions/s: " + results.size() * 1_000_000_000L / nanos);
+            System.out.println("NPS: " + nodes * 1_000_000_000L / nanos);
+        } finally {
+            analyzer.shutdown();
+        }
+    }
+}
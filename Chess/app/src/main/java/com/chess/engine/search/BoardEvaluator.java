@@ -0,0 +1,16 @@
+package com.chess.engine.search;
+
+import com.chess.engine.board.Board;
+
+/**
+ * Scores a position without searching it.
+ */
+public interface BoardEvaluator {
+
+    /**
+     * Score a position.
+     * @param board a given board.
+     * @return the score in centipawns, from the point of view of the alliance to move.
+     */
+    int evaluate(Board board);
+}
@@ -0,0 +1,228 @@
+package com.chess.engine.search;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.MoveUtils;
+import com.chess.engine.book.OpeningBook;
+import com.chess.engine.eval.StandardBoardEvaluator;
+import com.chess.engine.pgn.FenUtilities;
+import com.chess.engine.tablebase.Tablebase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Searches one position with several threads that share a transposition table (Lazy SMP).
+ *
+ * Every thread runs its own iterative deepening search of the root. The helpers skip some depths so they are
+ * spread over the next iterations, and the entries they store in the table cut the tree of the main thread.
+ * The main thread checks the limits, reports the iterations and gives the result. Once it is done it stops
+ * the helpers. The node counts of all the threads are added up.
+ *
+ * Usage:
+ *   LazySmpSearch threads millis [fen]    search a position with the given number of threads and print every iteration.
+ */
+public final class LazySmpSearch {
+
+    /**
+     * The table shared by all the threads.
+     */
+    private final TranspositionTable transpositionTable;
+
+    /**
+     * The stop flag and node count shared by all the threads.
+     */
+    private final SharedSearchState sharedState;
+
+    /**
+     * One search per thread, the main search first.
+     */
+    private final Search[] searches;
+
+    /**
+     * Runs the helper searches, null if there is only the main thread.
+     */
+    private final ExecutorService helperExecutor;
+
+    /**
+     * The constructor of LazySmpSearch class.
+     * @param transpositionTable the transposition table shared by the threads.
+     * @param evaluatorFactory creates the evaluation of the leaves of each thread.
+     * @param threadCount the number of threads, the calling thread included.
+     */
+    public LazySmpSearch(final TranspositionTable transpositionTable,
+                         final Supplier<? extends BoardEvaluator> evaluatorFactory,
+                         final int threadCount) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("Invalid thread count: " + threadCount);
+        }
+        this.transpositionTable = transpositionTable;
+        this.sharedState = new SharedSearchState();
+        this.searches = new Search[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            this.searches[i] = new Search(transpositionTable, evaluatorFactory.get(), this.sharedState, i);
+        }
+        this.helperExecutor = threadCount > 1
+                ? Executors.newFixedThreadPool(threadCount - 1, runnable -> {
+                    final Thread thread = new Thread(runnable, "search-helper");
+                    thread.setDaemon(true);
+                    return thread;
+                })
+                : null;
+    }
+
+    /**
+     * Search a position until one of the limits is reached or stop is called.
+     * The search runs on the calling thread and on the helper threads.
+     * @param rootBoard the position, it is not changed.
+     * @param limits when to stop, the node limit counts the nodes of all the threads.
+     * @param listener told about every completed iteration of the main thread, may be null.
+     * @return the result of the deepest iteration completed by the main thread, with the nodes of all the threads.
+     */
+    public SearchResult search(final Board rootBoard, final SearchLimits limits, final SearchListener listener) {
+        this.sharedState.reset();
+        this.transpositionTable.newSearch();
+        final long startTime = System.nanoTime();
+        final List<Future<SearchResult>> helpers = new ArrayList<>(this.searches.length - 1);
+        for (int i = 1; i < this.searches.length; i++) {
+            final Search helper = this.searches[i];
+            helpers.add(this.helperExecutor.submit(() -> helper.iterate(rootBoard, limits, null, startTime)));
+        }
+        final SearchResult result;
+        try {
+            result = this.searches[0].iterate(rootBoard, limits, listener, startTime);
+        } finally {
+            this.sharedState.stop();
+            for (final Future<SearchResult> helperResult : helpers) {
+                waitFor(helperResult);
+            }
+        }
+        return new SearchResult(result.getDepth(), result.getScore(), getNodes(),
+                (System.nanoTime() - startTime) / 1_000_000L, result.getPrincipalVariation());
+    }
+
+    /**
+     * Set the endgame tables probed by every thread, between searches.
+     * @param tablebase the tables, null to probe none.
+     */
+    public void setTablebase(final Tablebase tablebase) {
+        for (final Search search : this.searches) {
+            search.setTablebase(tablebase);
+        }
+    }
+
+    /**
+     * Set the opening book the main thread looks the roots up in, between searches.
+     * @param openingBook the book, null to look up none.
+     */
+    public void setOpeningBook(final OpeningBook openingBook) {
+        this.searches[0].setOpeningBook(openingBook);
+    }
+
+    /**
+     * Stop the search as soon as possible.
+     */
+    public void stop() {
+        this.sharedState.stop();
+    }
+
+    /**
+     * Get the number of nodes all the threads searched in the last search.
+     * @return the node count.
+     */
+    public long getNodes() {
+        long nodes = 0L;
+        for (final Search search : this.searches) {
+            nodes += search.getNodes();
+        }
+        return nodes;
+    }
+
+    /**
+     * Get the number of nodes each thread searched in the last search.
+     * @return the node counts, the main thread first.
+     */
+    public long[] getThreadNodes() {
+        final long[] threadNodes = new long[this.searches.length];
+        for (int i = 0; i < this.searches.length; i++) {
+            threadNodes[i] = this.searches[i].getNodes();
+        }
+        return threadNodes;
+    }
+
+    /**
+     * Get the number of threads.
+     * @return the thread count, the calling thread included.
+     */
+    public int getThreadCount() {
+        return this.searches.length;
+    }
+
+    /**
+     * Stop the helper threads. The search can't be used afterwards.
+     */
+    public void shutdown() {
+        if (this.helperExecutor != null) {
+            this.helperExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Wait for a helper to stop.
+     * @param helperResult the result of the helper.
+     */
+    private static void waitFor(final Future<SearchResult> helperResult) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                helperResult.get();
+                break;
+            } catch (final InterruptedException e) {
+                interrupted = true;
+            } catch (final ExecutionException e) {
+                throw new IllegalStateException("A search helper failed", e.getCause());
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Search a position with several threads from the command line.
+     * @param args the thread count, the time in milliseconds, then the FEN of the position if not the standard one.
+     */
+    public static void main(final String[] args) {
+        if (args.length < 2) {
+            System.out.println("Usage: LazySmpSearch threads millis [fen]");
+            return;
+        }
+        final int threadCount = Integer.parseInt(args[0]);
+        final long timeLimitMillis = Long.parseLong(args[1]);
+        final StringBuilder fen = new StringBuilder();
+        for (int i = 2; i < args.length; i++) {
+            fen.append(args[i]).append(' ');
+        }
+        final Board board = FenUtilities.createGameFromFEN(
+                fen.length() > 0 ? fen.toString() : FenUtilities.STANDARD_FEN);
+        final LazySmpSearch search = new LazySmpSearch(new TranspositionTable(256), StandardBoardEvaluator::create,
+                threadCount);
+        try {
+            final SearchResult result = search.search(board,
+                    new SearchLimits.Builder().setTimeLimitMillis(timeLimitMillis).build(),
+                    iteration -> System.out.println("info " + iteration));
+            final long[] threadNodes = search.getThreadNodes();
+            for (int i = 0; i < threadNodes.length; i++) {
+                System.out.println("thread " + i + " nodes " + threadNodes[i]);
+            }
+            System.out.println("info " + result);
+            System.out.println("bestmove " + MoveUtils.toString(result.getBestMove()));
+        } finally {
+            search.shutdown();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.chess.engine.search;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.pieces.Piece;
+
+/**
+ * Scores a position by counting the material of each side.
+ */
+public final class MaterialBoardEvaluator implements BoardEvaluator {
+
+    private static final MaterialBoardEvaluator INSTANCE = new MaterialBoardEvaluator();
+
+    /**
+     * The value of each piece type but the king, indexed by ordinal.
+     */
+    private static final int[] PIECE_VALUES = initPieceValues();
+
+    /**
+     * The constructor.
+     */
+    private MaterialBoardEvaluator() {
+    }
+
+    /**
+     * Get the evaluator.
+     * @return the only instance.
+     */
+    public static MaterialBoardEvaluator get() {
+        return INSTANCE;
+    }
+
+    @Override
+    public int evaluate(final Board board) {
+        int score = 0;
+        for (int pieceType = 0; pieceType < PIECE_VALUES.length; pieceType++) {
+            final int whitePieces = Long.bitCount(board.getPieceBitboard(
+                    BoardUtils.getPieceCode(pieceType, Alliance.WHITE.ordinal())));
+            final int blackPieces = Long.bitCount(board.getPieceBitboard(
+                    BoardUtils.getPieceCode(pieceType, Alliance.BLACK.ordinal())));
+            score += PIECE_VALUES[pieceType] * (whitePieces - blackPieces);
+        }
+        return board.getNextMoveMaker().isWhite() ? score : -score;
+    }
+
+    /**
+     * Read the piece values, leaving out the king which is never captured.
+     * @return the values.
+     */
+    private static int[] initPieceValues() {
+        final int[] pieceValues = new int[Piece.PieceType.KING.ordinal()];
+        for (int pieceType = 0; pieceType < pieceValues.length; pieceType++) {
+            pieceValues[pieceType] = Piece.PieceType.values()[pieceType].getPieceValue();
+        }
+        return pieceValues;
+    }
+}
@@ -0,0 +1,260 @@
+package com.chess.engine.search;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.MoveGenerator;
+import com.chess.engine.board.MoveList;
+import com.chess.engine.board.MoveUtils;
+import com.chess.engine.pieces.Piece;
+
+/**
+ * Hands out the legal moves of a node one at a time, best first, generating each stage only when the
+ * previous one is used up: the hash move, the captures and promotions by most valuable victim and least
+ * valuable attacker, the killer moves, the quiet moves by their history score, and last the captures
+ * that lose material according to the static exchange evaluation.
+ * Most nodes cut off on one of the first moves, so their quiet moves are never generated.
+ * For quiescence only the captures and promotions that don't lose material are handed out.
+ *
+ * The hash move and the killer moves come from other positions, they are checked before they are handed out.
+ * One picker is kept per ply and reused.
+ */
+final class MovePicker {
+
+    private static final int STAGE_HASH_MOVE = 0;
+    private static final int STAGE_GENERATE_CAPTURES = 1;
+    private static final int STAGE_CAPTURES = 2;
+    private static final int STAGE_KILLERS = 3;
+    private static final int STAGE_GENERATE_QUIETS = 4;
+    private static final int STAGE_QUIETS = 5;
+    private static final int STAGE_BAD_CAPTURES = 6;
+    private static final int STAGE_DONE = 7;
+
+    /**
+     * The ordering score of any capture or promotion, above every history score.
+     */
+    private static final int CAPTURE_SCORE = 1 << 24;
+
+    /**
+     * The history scores of the search, read when the quiet moves are ordered.
+     */
+    private final int[][] historyScores;
+
+    /**
+     * The moves of the current stage and their ordering scores.
+     */
+    private final MoveList moves;
+    private final int[] scores;
+
+    /**
+     * The captures put aside because they lose material, in the order they were picked.
+     */
+    private final MoveList badCaptures;
+
+    /**
+     * Used to check that a move from another position can be played here.
+     */
+    private final MoveList pieceMoves;
+
+    private Board board;
+    private int hashMove;
+    private int firstKiller;
+    private int secondKiller;
+
+    /**
+     * Whether only the captures and promotions are handed out, for quiescence.
+     */
+    private boolean capturesOnly;
+
+    private int stage;
+    private int index;
+
+    /**
+     * The constructor of MovePicker class.
+     * @param historyScores the history scores of the search, by moved piece and destination.
+     */
+    MovePicker(final int[][] historyScores) {
+        this.historyScores = historyScores;
+        this.moves = new MoveList();
+        this.scores = new int[MoveList.MAX_MOVES];
+        this.badCaptures = new MoveList();
+        this.pieceMoves = new MoveList();
+    }
+
+    /**
+     * Start handing out every legal move of a position.
+     * @param board a given board, it must not change while the picker is used except to make and take back moves.
+     * @param hashMove the move of the transposition table, NULL_MOVE if there is none.
+     * @param firstKiller the first killer move of the ply.
+     * @param secondKiller the second killer move of the ply.
+     */
+    void init(final Board board, final int hashMove, final int firstKiller, final int secondKiller) {
+        this.board = board;
+        this.hashMove = hashMove;
+        this.firstKiller = firstKiller;
+        this.secondKiller = secondKiller;
+        this.capturesOnly = false;
+        this.stage = STAGE_HASH_MOVE;
+    }
+
+    /**
+     * Start handing out the legal captures and promotions of a position.
+     * @param board a given board, it must not change while the picker is used except to make and take back moves.
+     */
+    void initCaptures(final Board board) {
+        this.board = board;
+        this.hashMove = MoveUtils.NULL_MOVE;
+        this.firstKiller = MoveUtils.NULL_MOVE;
+        this.secondKiller = MoveUtils.NULL_MOVE;
+        this.capturesOnly = true;
+        this.stage = STAGE_GENERATE_CAPTURES;
+    }
+
+    /**
+     * Get the next move.
+     * Each stage falls through into the next one once it has no move left, the captures that lose material
+     * coming last.
+     * @return the move, NULL_MOVE once every move was handed out.
+     */
+    @SuppressWarnings("fallthrough")
+    int nextMove() {
+        switch (this.stage) {
+            case STAGE_HASH_MOVE:
+                this.stage = STAGE_GENERATE_CAPTURES;
+                if (this.hashMove != MoveUtils.NULL_MOVE && isLegal(this.hashMove)) {
+                    return this.hashMove;
+                }
+                this.hashMove = MoveUtils.NULL_MOVE;
+                // Falls through to the generation of the captures.
+            case STAGE_GENERATE_CAPTURES:
+                this.moves.clear();
+                this.badCaptures.clear();
+                MoveGenerator.generateLegalCaptures(this.board, this.moves);
+                for (int i = 0; i < this.moves.size(); i++) {
+                    this.scores[i] = captureScore(this.moves.get(i));
+                }
+                this.index = 0;
+                this.stage = STAGE_CAPTURES;
+                // Falls through to the captures.
+            case STAGE_CAPTURES:
+                while (this.index < this.moves.size()) {
+                    final int move = pickBest(this.index++);
+                    if (move == this.hashMove) {
+                        continue;
+                    }
+                    if (StaticExchangeEvaluator.isAtLeast(this.board, move, 0)) {
+                        return move;
+                    }
+                    this.badCaptures.add(move);
+                }
+                if (this.capturesOnly) {
+                    this.stage = STAGE_DONE;
+                    return MoveUtils.NULL_MOVE;
+                }
+                this.index = 0;
+                this.stage = STAGE_KILLERS;
+                // Falls through to the killer moves.
+            case STAGE_KILLERS:
+                while (this.index < 2) {
+                    final int killer = this.index++ == 0 ? this.firstKiller : this.secondKiller;
+                    if (killer != MoveUtils.NULL_MOVE && killer != this.hashMove && isLegal(killer)) {
+                        return killer;
+                    }
+                }
+                this.stage = STAGE_GENERATE_QUIETS;
+                // Falls through to the generation of the quiet moves.
+            case STAGE_GENERATE_QUIETS:
+                this.moves.clear();
+                MoveGenerator.generateLegalQuietMoves(this.board, this.moves);
+                for (int i = 0; i < this.moves.size(); i++) {
+                    final int move = this.moves.get(i);
+                    this.scores[i] = this.historyScores[MoveUtils.getMovedPiece(move)]
+                            [MoveUtils.getDestinationCoordinate(move)];
+                }
+                this.index = 0;
+                this.stage = STAGE_QUIETS;
+                // Falls through to the quiet moves.
+            case STAGE_QUIETS:
+                while (this.index < this.moves.size()) {
+                    final int move = pickBest(this.index++);
+                    if (move != this.hashMove && move != this.firstKiller && move != this.secondKiller) {
+                        return move;
+                    }
+                }
+                this.index = 0;
+                this.stage = STAGE_BAD_CAPTURES;
+                // Falls through to the captures that lose material.
+            case STAGE_BAD_CAPTURES:
+                if (this.index < this.badCaptures.size()) {
+                    return this.badCaptures.get(this.index++);
+                }
+                this.stage = STAGE_DONE;
+                return MoveUtils.NULL_MOVE;
+            default:
+                return MoveUtils.NULL_MOVE;
+        }
+    }
+
+    /**
+     * Score a capture or a promotion: the most valuable victim first, then the least valuable attacker.
+     * @param move the move.
+     * @return the ordering score.
+     */
+    private static int captureScore(final int move) {
+        int score = CAPTURE_SCORE;
+        if (MoveUtils.isCapture(move)) {
+            score += 8 * BoardUtils.getPieceType(MoveUtils.getCapturedPiece(move))
+                    + Piece.PieceType.KING.ordinal() - BoardUtils.getPieceType(MoveUtils.getMovedPiece(move));
+        }
+        if (MoveUtils.isPromotion(move)) {
+            score += 8 * MoveUtils.getPromotionType(move);
+        }
+        return score;
+    }
+
+    /**
+     * Bring the best scored move of the rest of the stage to the given index.
+     * @param index the index to fill.
+     * @return the move now at the index.
+     */
+    private int pickBest(final int index) {
+        int bestIndex = index;
+        for (int i = index + 1; i < this.moves.size(); i++) {
+            if (this.scores[i] > this.scores[bestIndex]) {
+                bestIndex = i;
+            }
+        }
+        if (bestIndex != index) {
+            this.moves.swap(index, bestIndex);
+            final int score = this.scores[index];
+            this.scores[index] = this.scores[bestIndex];
+            this.scores[bestIndex] = score;
+        }
+        return this.moves.get(index);
+    }
+
+    /**
+     * Tell whether a move found in another position is legal here: the moved piece stands on the source,
+     * its generated moves contain the move, and it doesn't leave the king attacked.
+     * @param move the move.
+     * @return true if it is legal.
+     */
+    private boolean isLegal(final int move) {
+        final int sourceCoordinate = MoveUtils.getSourceCoordinate(move);
+        final int movedPiece = MoveUtils.getMovedPiece(move);
+        final Alliance moveMaker = this.board.getNextMoveMaker();
+        if (this.board.getPieceCode(sourceCoordinate) != movedPiece
+                || BoardUtils.getPieceAlliance(movedPiece) != moveMaker.ordinal()) {
+            return false;
+        }
+        this.pieceMoves.clear();
+        MoveGenerator.generatePieceMoves(this.board, sourceCoordinate, movedPiece, this.pieceMoves);
+        if (!this.pieceMoves.contains(move)) {
+            return false;
+        }
+        this.board.makeMove(move);
+        final boolean legal = !this.board.isKingAttacked(moveMaker);
+        this.board.unmakeMove();
+        return legal;
+    }
+}
@@ -0,0 +1,836 @@
+package com.chess.engine.search;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.MoveList;
+import com.chess.engine.board.MoveUtils;
+import com.chess.engine.book.OpeningBook;
+import com.chess.engine.eval.PawnHashTable;
+import com.chess.engine.eval.StandardBoardEvaluator;
+import com.chess.engine.metrics.EngineMetrics;
+import com.chess.engine.pgn.FenUtilities;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.tablebase.Tablebase;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Finds the best move of a position with an iterative deepening principal variation search.
+ *
+ * Each iteration searches one ply deeper than the last one, inside an aspiration window around the
+ * previous score. The first move of a node is searched with the full window and the others with a null
+ * window, re-searched only when they beat alpha. The tree is cut with the transposition table, null move
+ * pruning and late move reductions, and the leaves are resolved with a quiescence search of captures.
+ * Moves come from a MovePicker per ply: hash move first, then captures by most valuable victim and least
+ * valuable attacker, then the killer moves of the ply, then the quiet moves by their history score,
+ * then the captures that lose material.
+ * With a tablebase, the positions it has are scored from it instead of searched, and a root it has is
+ * answered at once with the move keeping the best value, the fastest mate when winning.
+ * With an opening book, a root it has is answered at once with its best move, without a score.
+ *
+ * A Search is used by one thread at a time and reuses its buffers between searches.
+ * Several of them can search the same position together, see LazySmpSearch.
+ *
+ * Usage:
+ *   Search millis [fen]    search a position for the given time and print every iteration.
+ *                          With -Dchess.metrics=true the engine metrics are printed as JSON at the end
+ *                          and published through JMX meanwhile.
+ *                          With -Dchess.tablebase=directory the endgame tables of the directory are probed,
+ *                          and with -Dchess.book=file the moves of the opening book are played.
+ */
+public final class Search {
+
+    /**
+     * The deepest ply a search reaches, quiescence included.
+     */
+    public static final int MAX_PLY = 128;
+
+    /**
+     * A score beyond any real score.
+     */
+    public static final int INFINITE = 32000;
+
+    /**
+     * The score of mating right now. A mate in n plies scores MATE - n.
+     */
+    public static final int MATE = 31000;
+
+    /**
+     * Scores beyond this bound are mates.
+     */
+    public static final int MATE_BOUND = MATE - MAX_PLY;
+
+    /**
+     * The score of a draw.
+     */
+    public static final int DRAW = 0;
+
+    private static final int ASPIRATION_MIN_DEPTH = 5;
+    private static final int ASPIRATION_WINDOW = 25;
+    private static final int NULL_MOVE_MIN_DEPTH = 3;
+    private static final int LMR_MIN_DEPTH = 3;
+    private static final int LMR_MIN_MOVES = 3;
+
+    /**
+     * The clock is read once every this many nodes, it must be a power of two.
+     */
+    private static final int TIME_CHECK_INTERVAL = 1024;
+
+    /**
+     * History scores are halved when one reaches this, so they stay below the capture scores of MovePicker.
+     */
+    private static final int HISTORY_MAX = 1 << 20;
+
+    /**
+     * The depths the helper threads skip, so they don't all search the same iteration.
+     * Helper i skips a depth when (depth + DEPTH_SKIP_PHASES[j]) / DEPTH_SKIP_SIZES[j] is odd,
+     * with j = (i - 1) % 20.
+     */
+    private static final int[] DEPTH_SKIP_SIZES = {1, 1, 2, 2, 2, 2, 3, 3, 3, 3, 3, 3, 4, 4, 4, 4, 4, 4, 4, 4};
+    private static final int[] DEPTH_SKIP_PHASES = {0, 1, 0, 1, 2, 3, 0, 1, 2, 3, 4, 5, 0, 1, 2, 3, 4, 5, 6, 7};
+
+    /**
+     * The reduction of a late move, indexed by depth and move number.
+     */
+    private static final int[][] LMR_REDUCTIONS = initReductions();
+
+    /**
+     * The table shared with the other searches.
+     */
+    private final TranspositionTable transpositionTable;
+
+    /**
+     * The evaluation of the leaves.
+     */
+    private final BoardEvaluator evaluator;
+
+    /**
+     * The stop flag and node count shared with the other threads of the search.
+     */
+    private final SharedSearchState sharedState;
+
+    /**
+     * 0 for the main thread, which checks the limits and reports the iterations, more for the helpers.
+     */
+    private final int threadIndex;
+
+    /**
+     * One move picker per ply.
+     */
+    private final MovePicker[] movePickers;
+
+    /**
+     * Two quiet moves per ply that caused a beta cutoff at the same ply elsewhere in the tree.
+     */
+    private final int[][] killerMoves;
+
+    /**
+     * How often each quiet move, by moved piece and destination, caused a beta cutoff.
+     */
+    private final int[][] historyScores;
+
+    /**
+     * The triangular principal variation table: the variation of each ply starts at index ply of its row.
+     */
+    private final int[][] principalVariations;
+    private final int[] principalVariationLengths;
+
+    /**
+     * The endgame tables, null if there are none.
+     */
+    private Tablebase tablebase;
+
+    /**
+     * The opening book, null if there is none.
+     */
+    private OpeningBook openingBook;
+
+    /**
+     * The board the search makes its moves on, a copy of the root board.
+     */
+    private Board board;
+
+    /**
+     * The number of nodes searched so far by this thread, quiescence nodes included,
+     * and how many of them were added to the shared count.
+     */
+    private long nodes;
+    private long sharedNodes;
+
+    /**
+     * The node count of all the threads and the System.nanoTime at which the search stops.
+     * The node count is checked every TIME_CHECK_INTERVAL nodes, so the search may go slightly past it.
+     */
+    private long maxNodes;
+    private long deadline;
+
+    /**
+     * Whether the search may stop. It may not before the first iteration is complete.
+     */
+    private boolean canStop;
+
+    /**
+     * The constructor of Search class.
+     * @param transpositionTable the transposition table.
+     * @param evaluator the evaluation of the leaves.
+     */
+    public Search(final TranspositionTable transpositionTable, final BoardEvaluator evaluator) {
+        this(transpositionTable, evaluator, new SharedSearchState(), 0);
+    }
+
+    /**
+     * The constructor of Search class, for one thread of a parallel search.
+     * @param transpositionTable the transposition table shared by the threads.
+     * @param evaluator the evaluation of the leaves.
+     * @param sharedState the state shared by the threads.
+     * @param threadIndex 0 for the main thread, more for the helpers.
+     */
+    Search(final TranspositionTable transpositionTable,
+           final BoardEvaluator evaluator,
+           final SharedSearchState sharedState,
+           final int threadIndex) {
+        this.transpositionTable = transpositionTable;
+        this.evaluator = evaluator;
+        this.sharedState = sharedState;
+        this.threadIndex = threadIndex;
+        this.killerMoves = new int[MAX_PLY][2];
+        this.historyScores = new int[BoardUtils.NUM_PIECE_CODES][BoardUtils.NUM_TILES];
+        this.movePickers = new MovePicker[MAX_PLY];
+        for (int i = 0; i < MAX_PLY; i++) {
+            this.movePickers[i] = new MovePicker(this.historyScores);
+        }
+        this.principalVariations = new int[MAX_PLY][MAX_PLY];
+        this.principalVariationLengths = new int[MAX_PLY];
+    }
+
+    /**
+     * Search a position until one of the limits is reached or stop is called.
+     * @param rootBoard the position, it is not changed.
+     * @param limits when to stop.
+     * @param listener told about every completed iteration, may be null.
+     * @return the result of the deepest completed iteration, or of depth 0 if stop was called during the first one.
+     */
+    public SearchResult search(final Board rootBoard, final SearchLimits limits, final SearchListener listener) {
+        this.transpositionTable.newSearch();
+        return searchAtCurrentAge(rootBoard, limits, listener);
+    }
+
+    /**
+     * Search a position like search does, without aging the table, for searches that share a table
+     * their caller ages once for all of them.
+     * @param rootBoard the position, it is not changed.
+     * @param limits when to stop.
+     * @param listener told about every completed iteration, may be null.
+     * @return the result of the deepest completed iteration, or of depth 0 if stop was called during the first one.
+     */
+    SearchResult searchAtCurrentAge(final Board rootBoard, final SearchLimits limits, final SearchListener listener) {
+        this.sharedState.reset();
+        return iterate(rootBoard, limits, listener, System.nanoTime());
+    }
+
+    /**
+     * Run the iterations of one thread. The caller resets the shared state and ages the table first.
+     * Only the main thread checks the limits, the helpers run until it stops them.
+     * @param rootBoard the position, it is not changed.
+     * @param limits when to stop.
+     * @param listener told about every completed iteration, may be null.
+     * @param startTime the System.nanoTime at which the search started.
+     * @return the result of the deepest completed iteration, or of depth 0 if stopped during the first one.
+     */
+    SearchResult iterate(final Board rootBoard,
+                         final SearchLimits limits,
+                         final SearchListener listener,
+                         final long startTime) {
+        this.board = rootBoard.copy();
+        this.nodes = 0L;
+        this.sharedNodes = 0L;
+        this.maxNodes = limits.getMaxNodes();
+        this.deadline = limits.getTimeLimitMillis() > 0
+                ? startTime + limits.getTimeLimitMillis() * 1_000_000L
+                : Long.MAX_VALUE;
+        this.canStop = false;
+        for (final int[] killers : this.killerMoves) {
+            Arrays.fill(killers, MoveUtils.NULL_MOVE);
+        }
+        for (final int[] history : this.historyScores) {
+            Arrays.fill(history, 0);
+        }
+        SearchResult knownResult = probeOpeningBook(startTime);
+        if (knownResult == null) {
+            knownResult = probeTablebase(startTime);
+        }
+        if (knownResult != null) {
+            if (listener != null) {
+                listener.onIteration(knownResult);
+            }
+            return knownResult;
+        }
+
+        SearchResult result = null;
+        int score = 0;
+        for (int depth = 1; depth <= limits.getMaxDepth(); depth++) {
+            if (skipsDepth(depth)) {
+                continue;
+            }
+            final long iterationStart = System.nanoTime();
+            score = searchRoot(depth, score);
+            if (this.sharedState.isStopped()) {
+                break;
+            }
+            if (EngineMetrics.ENABLED) {
+                EngineMetrics.get().recordIteration(System.nanoTime() - iterationStart);
+            }
+            result = new SearchResult(depth, score, flushNodes(), (System.nanoTime() - startTime) / 1_000_000L,
+                    Arrays.copyOf(this.principalVariations[0], this.principalVariationLengths[0]));
+            if (listener != null) {
+                listener.onIteration(result);
+            }
+            this.canStop = this.threadIndex == 0;
+            // A mate found at this depth can't get any shorter.
+            if (Math.abs(score) >= MATE_BOUND && MATE - Math.abs(score) <= depth) {
+                break;
+            }
+        }
+        if (result == null) {
+            // Stopped from outside during the first iteration.
+            result = new SearchResult(0, score, flushNodes(), (System.nanoTime() - startTime) / 1_000_000L,
+                    Arrays.copyOf(this.principalVariations[0], this.principalVariationLengths[0]));
+        }
+        return result;
+    }
+
+    /**
+     * Set the endgame tables probed by the search, between searches.
+     * @param tablebase the tables, null to probe none.
+     */
+    public void setTablebase(final Tablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    /**
+     * Set the opening book the roots are looked up in, between searches.
+     * @param openingBook the book, null to look up none.
+     */
+    public void setOpeningBook(final OpeningBook openingBook) {
+        this.openingBook = openingBook;
+    }
+
+    /**
+     * Stop the search as soon as possible. It returns the result of the deepest completed iteration.
+     */
+    public void stop() {
+        this.sharedState.stop();
+    }
+
+    /**
+     * Get the number of nodes this thread searched in the last search.
+     * Read it from another thread only once the search returned.
+     * @return the node count.
+     */
+    public long getNodes() {
+        return this.nodes;
+    }
+
+    /**
+     * Tell whether a helper thread skips an iteration.
+     * @param depth the depth of the iteration.
+     * @return true if it is skipped, never for the main thread.
+     */
+    private boolean skipsDepth(final int depth) {
+        if (this.threadIndex == 0) {
+            return false;
+        }
+        final int helper = (this.threadIndex - 1) % DEPTH_SKIP_SIZES.length;
+        return ((depth + DEPTH_SKIP_PHASES[helper]) / DEPTH_SKIP_SIZES[helper]) % 2 != 0;
+    }
+
+    /**
+     * Add the nodes of this thread not counted yet to the shared count.
+     * @return the nodes of all the threads.
+     */
+    private long flushNodes() {
+        this.sharedState.addNodes(this.nodes - this.sharedNodes);
+        this.sharedNodes = this.nodes;
+        return this.sharedState.getNodes();
+    }
+
+    /**
+     * Look the root up in the opening book. The result has depth 0 and score 0, as the move is not searched.
+     * @param startTime the System.nanoTime at which the search started.
+     * @return the result with the move of the highest weight, or null if the book doesn't have the root.
+     */
+    private SearchResult probeOpeningBook(final long startTime) {
+        if (this.openingBook == null) {
+            return null;
+        }
+        final int bookMove = this.openingBook.getBestMove(this.board);
+        if (bookMove == MoveUtils.NULL_MOVE) {
+            return null;
+        }
+        return new SearchResult(0, DRAW, flushNodes(), (System.nanoTime() - startTime) / 1_000_000L,
+                new int[] {bookMove});
+    }
+
+    /**
+     * Choose the move of a root the tablebase has: the fastest win, else a draw, else the slowest loss.
+     * @param startTime the System.nanoTime at which the search started.
+     * @return the result, or null if the tablebase doesn't have the root or one of its successors.
+     */
+    private SearchResult probeTablebase(final long startTime) {
+        if (this.tablebase == null || this.tablebase.probe(this.board) == Tablebase.NOT_FOUND) {
+            return null;
+        }
+        final MoveList moves = new MoveList();
+        this.board.generateLegalMoves(moves);
+        int bestScore = -INFINITE;
+        int bestMove = MoveUtils.NULL_MOVE;
+        for (int i = 0; i < moves.size(); i++) {
+            this.board.makeMove(moves.get(i));
+            final int value = this.tablebase.probe(this.board);
+            this.board.unmakeMove();
+            if (value == Tablebase.NOT_FOUND) {
+                return null;
+            }
+            final int score = -getTablebaseScore(value, 1);
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = moves.get(i);
+            }
+        }
+        if (bestMove == MoveUtils.NULL_MOVE) {
+            return null;
+        }
+        return new SearchResult(1, bestScore, flushNodes(), (System.nanoTime() - startTime) / 1_000_000L,
+                new int[] {bestMove});
+    }
+
+    /**
+     * Search the root inside an aspiration window, widened until the score falls inside it.
+     * @param depth the depth of the iteration.
+     * @param previousScore the score of the previous iteration.
+     * @return the score.
+     */
+    private int searchRoot(final int depth, final int previousScore) {
+        if (depth < ASPIRATION_MIN_DEPTH) {
+            return principalVariationSearch(depth, -INFINITE, INFINITE, 0, true);
+        }
+        int window = ASPIRATION_WINDOW;
+        int alpha = Math.max(previousScore - window, -INFINITE);
+        int beta = Math.min(previousScore + window, INFINITE);
+        while (true) {
+            final int score = principalVariationSearch(depth, alpha, beta, 0, true);
+            if (this.sharedState.isStopped()) {
+                return score;
+            }
+            if (score <= alpha) {
+                alpha = Math.max(score - window, -INFINITE);
+            } else if (score >= beta) {
+                beta = Math.min(score + window, INFINITE);
+            } else {
+                return score;
+            }
+            window *= 2;
+        }
+    }
+
+    /**
+     * Search a node with the principal variation search.
+     * @param depth the remaining depth.
+     * @param alpha the lower bound.
+     * @param beta the upper bound.
+     * @param ply the distance from the root.
+     * @param nullMoveAllowed whether null move pruning may be tried, false right after a null move.
+     * @return the score, from the point of view of the alliance to move.
+     */
+    private int principalVariationSearch(final int depth,
+                                         final int alpha,
+                                         final int beta,
+                                         final int ply,
+                                         final boolean nullMoveAllowed) {
+        this.principalVariationLengths[ply] = ply;
+        final boolean pvNode = beta - alpha > 1;
+        int lowerBound = alpha;
+        int upperBound = beta;
+        if (ply > 0) {
+            if (this.board.getHalfMoveClock() >= 100 || this.board.isRepetition()) {
+                return DRAW;
+            }
+            // No line from here can mate faster than a mate already found.
+            lowerBound = Math.max(lowerBound, -MATE + ply);
+            upperBound = Math.min(upperBound, MATE - ply - 1);
+            if (lowerBound >= upperBound) {
+                return lowerBound;
+            }
+            if (this.tablebase != null) {
+                final int value = this.tablebase.probe(this.board);
+                if (value != Tablebase.NOT_FOUND) {
+                    return getTablebaseScore(value, ply);
+                }
+            }
+        }
+        final boolean inCheck = this.board.isInCheck();
+        final int searchDepth = inCheck ? depth + 1 : depth;
+        if (searchDepth <= 0) {
+            return quiescence(lowerBound, upperBound, ply);
+        }
+        if (ply >= MAX_PLY - 1) {
+            return evaluate();
+        }
+        countNode();
+        if (this.sharedState.isStopped()) {
+            return 0;
+        }
+
+        final long zobristKey = this.board.getZobristKey();
+        final long entry = this.transpositionTable.probe(zobristKey);
+        int hashMove = MoveUtils.NULL_MOVE;
+        if (entry != TranspositionTable.MISS) {
+            hashMove = TranspositionTable.getMove(entry);
+            if (!pvNode && TranspositionTable.getDepth(entry) >= searchDepth) {
+                final int entryScore = scoreFromTable(TranspositionTable.getScore(entry), ply);
+                final int bound = TranspositionTable.getBound(entry);
+                if (bound == TranspositionTable.BOUND_EXACT
+                        || (bound == TranspositionTable.BOUND_LOWER && entryScore >= upperBound)
+                        || (bound == TranspositionTable.BOUND_UPPER && entryScore <= lowerBound)) {
+                    return entryScore;
+                }
+            }
+        }
+
+        if (nullMoveAllowed && !pvNode && !inCheck && searchDepth >= NULL_MOVE_MIN_DEPTH
+                && hasNonPawnMaterial() && evaluate() >= upperBound) {
+            final int reduction = 2 + searchDepth / 4;
+            this.board.makeNullMove();
+            final int score = -principalVariationSearch(searchDepth - 1 - reduction, -upperBound,
+                    -upperBound + 1, ply + 1, false);
+            this.board.unmakeNullMove();
+            if (this.sharedState.isStopped()) {
+                return 0;
+            }
+            if (score >= upperBound) {
+                return score >= MATE_BOUND ? upperBound : score;
+            }
+        }
+
+        final MovePicker movePicker = this.movePickers[ply];
+        movePicker.init(this.board, hashMove, this.killerMoves[ply][0], this.killerMoves[ply][1]);
+        final int originalLowerBound = lowerBound;
+        int bestScore = -INFINITE;
+        int bestMove = MoveUtils.NULL_MOVE;
+        int legalMoves = 0;
+        int move;
+        while ((move = movePicker.nextMove()) != MoveUtils.NULL_MOVE) {
+            this.board.makeMove(move);
+            legalMoves++;
+            final boolean quiet = !MoveUtils.isCapture(move) && !MoveUtils.isPromotion(move);
+            int score;
+            if (legalMoves == 1) {
+                score = -principalVariationSearch(searchDepth - 1, -upperBound, -lowerBound, ply + 1, true);
+            } else {
+                int reduction = 0;
+                if (searchDepth >= LMR_MIN_DEPTH && legalMoves > LMR_MIN_MOVES && quiet && !inCheck
+                        && !isKiller(move, ply) && !this.board.isInCheck()) {
+                    reduction = Math.min(LMR_REDUCTIONS[Math.min(searchDepth, MAX_PLY - 1)][Math.min(legalMoves,
+                            MoveList.MAX_MOVES - 1)], searchDepth - 2);
+                }
+                score = -principalVariationSearch(searchDepth - 1 - reduction, -lowerBound - 1, -lowerBound,
+                        ply + 1, true);
+                if (score > lowerBound && reduction > 0) {
+                    score = -principalVariationSearch(searchDepth - 1, -lowerBound - 1, -lowerBound, ply + 1, true);
+                }
+                if (score > lowerBound && score < upperBound) {
+                    score = -principalVariationSearch(searchDepth - 1, -upperBound, -lowerBound, ply + 1, true);
+                }
+            }
+            this.board.unmakeMove();
+            if (this.sharedState.isStopped()) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > lowerBound) {
+                    bestMove = move;
+                    lowerBound = score;
+                    updatePrincipalVariation(move, ply);
+                    if (score >= upperBound) {
+                        if (quiet) {
+                            updateQuietMoveScores(move, searchDepth, ply);
+                        }
+                        if (EngineMetrics.ENABLED) {
+                            EngineMetrics.get().recordCutoff(legalMoves - 1);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+        if (legalMoves == 0) {
+            return inCheck ? -MATE + ply : DRAW;
+        }
+
+        final int bound;
+        if (bestScore >= upperBound) {
+            bound = TranspositionTable.BOUND_LOWER;
+        } else if (bestScore > originalLowerBound) {
+            bound = TranspositionTable.BOUND_EXACT;
+        } else {
+            bound = TranspositionTable.BOUND_UPPER;
+        }
+        this.transpositionTable.store(zobristKey, bestMove, scoreToTable(bestScore, ply), searchDepth, bound);
+        return bestScore;
+    }
+
+    /**
+     * Search the captures and promotions of a leaf until the position is quiet.
+     * The alliance to move may also stand pat on the evaluation, unless it is in check: then every move
+     * is searched, and it is mated if none is legal. Otherwise captures that lose material by static exchange
+     * evaluation are not searched.
+     * @param alpha the lower bound.
+     * @param beta the upper bound.
+     * @param ply the distance from the root.
+     * @return the score, from the point of view of the alliance to move.
+     */
+    private int quiescence(final int alpha, final int beta, final int ply) {
+        this.principalVariationLengths[ply] = ply;
+        countNode();
+        if (this.sharedState.isStopped()) {
+            return 0;
+        }
+        if (ply >= MAX_PLY - 1) {
+            return evaluate();
+        }
+        final boolean inCheck = this.board.isInCheck();
+        int lowerBound = alpha;
+        int bestScore = -INFINITE;
+        if (!inCheck) {
+            final int standPat = evaluate();
+            if (standPat >= beta) {
+                return standPat;
+            }
+            lowerBound = Math.max(alpha, standPat);
+            bestScore = standPat;
+        }
+
+        final MovePicker movePicker = this.movePickers[ply];
+        if (inCheck) {
+            movePicker.init(this.board, MoveUtils.NULL_MOVE, MoveUtils.NULL_MOVE, MoveUtils.NULL_MOVE);
+        } else {
+            movePicker.initCaptures(this.board);
+        }
+        int legalMoves = 0;
+        int move;
+        while ((move = movePicker.nextMove()) != MoveUtils.NULL_MOVE) {
+            this.board.makeMove(move);
+            legalMoves++;
+            final int score = -quiescence(-beta, -lowerBound, ply + 1);
+            this.board.unmakeMove();
+            if (this.sharedState.isStopped()) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > lowerBound) {
+                    lowerBound = score;
+                    if (score >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        if (inCheck && legalMoves == 0) {
+            return -MATE + ply;
+        }
+        return bestScore;
+    }
+
+    /**
+     * Evaluate the current position, counting the call when the engine metrics are enabled.
+     * @return the score, from the point of view of the alliance to move.
+     */
+    private int evaluate() {
+        if (EngineMetrics.ENABLED) {
+            EngineMetrics.get().recordEvaluation();
+        }
+        return this.evaluator.evaluate(this.board);
+    }
+
+    /**
+     * Count a node. Once every TIME_CHECK_INTERVAL nodes, add them to the shared count
+     * and stop every thread if a limit is reached.
+     */
+    private void countNode() {
+        this.nodes++;
+        if ((this.nodes & (TIME_CHECK_INTERVAL - 1)) == 0) {
+            final long totalNodes = flushNodes();
+            if (this.canStop && (totalNodes >= this.maxNodes || System.nanoTime() >= this.deadline)) {
+                this.sharedState.stop();
+            }
+        }
+    }
+
+    /**
+     * Tell whether a move is a killer move of the ply.
+     * @param move the move.
+     * @param ply the distance from the root.
+     * @return true if it is a killer move.
+     */
+    private boolean isKiller(final int move, final int ply) {
+        return move == this.killerMoves[ply][0] || move == this.killerMoves[ply][1];
+    }
+
+    /**
+     * Remember a quiet move that caused a beta cutoff as a killer move and in the history.
+     * @param move the move.
+     * @param depth the remaining depth, deeper cutoffs count more.
+     * @param ply the distance from the root.
+     */
+    private void updateQuietMoveScores(final int move, final int depth, final int ply) {
+        if (move != this.killerMoves[ply][0]) {
+            this.killerMoves[ply][1] = this.killerMoves[ply][0];
+            this.killerMoves[ply][0] = move;
+        }
+        final int[] history = this.historyScores[MoveUtils.getMovedPiece(move)];
+        final int destinationCoordinate = MoveUtils.getDestinationCoordinate(move);
+        history[destinationCoordinate] += depth * depth;
+        if (history[destinationCoordinate] >= HISTORY_MAX) {
+            for (final int[] pieceHistory : this.historyScores) {
+                for (int i = 0; i < pieceHistory.length; i++) {
+                    pieceHistory[i] /= 2;
+                }
+            }
+        }
+    }
+
+    /**
+     * Make a move the first move of the principal variation of the ply, followed by the variation of the next ply.
+     * It is never called at the last ply, which is evaluated without searching its moves.
+     * @param move the move.
+     * @param ply the distance from the root.
+     */
+    private void updatePrincipalVariation(final int move, final int ply) {
+        final int[] variation = this.principalVariations[ply];
+        variation[ply] = move;
+        final int childLength = this.principalVariationLengths[ply + 1];
+        System.arraycopy(this.principalVariations[ply + 1], ply + 1, variation, ply + 1, childLength - ply - 1);
+        this.principalVariationLengths[ply] = childLength;
+    }
+
+    /**
+     * Tell whether the alliance to move has a piece other than pawns and the king.
+     * Null move pruning is unsafe without one, since zugzwang is likely.
+     * @return true if it has one.
+     */
+    private boolean hasNonPawnMaterial() {
+        final int alliance = this.board.getNextMoveMaker().ordinal();
+        final long pawnsAndKing = this.board.getPieceBitboard(BoardUtils.getPieceCode(Piece.PieceType.PAWN.ordinal(),
+                alliance)) | this.board.getPieceBitboard(BoardUtils.getPieceCode(Piece.PieceType.KING.ordinal(),
+                alliance));
+        return (this.board.getAllianceOccupancy(alliance) & ~pawnsAndKing) != 0;
+    }
+
+    /**
+     * Store mate scores as a distance from the node instead of from the root.
+     * @param score the score.
+     * @param ply the distance from the root.
+     * @return the score to store.
+     */
+    private static int scoreToTable(final int score, final int ply) {
+        if (score >= MATE_BOUND) {
+            return score + ply;
+        }
+        if (score <= -MATE_BOUND) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    /**
+     * Turn a stored mate score back into a distance from the root.
+     * @param score the stored score.
+     * @param ply the distance from the root.
+     * @return the score.
+     */
+    private static int scoreFromTable(final int score, final int ply) {
+        if (score >= MATE_BOUND) {
+            return score - ply;
+        }
+        if (score <= -MATE_BOUND) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    /**
+     * Turn a tablebase value into a score. A mate too far for the mate scores still beats every evaluation.
+     * @param value the value probed, not NOT_FOUND.
+     * @param ply the distance from the root.
+     * @return the score, from the point of view of the alliance to move.
+     */
+    private static int getTablebaseScore(final int value, final int ply) {
+        if (value == Tablebase.DRAW) {
+            return DRAW;
+        }
+        final int distance = ply + Tablebase.getDistance(value);
+        final int score = distance < MAX_PLY ? MATE - distance : MATE_BOUND - 1;
+        return Tablebase.isWin(value) ? score : -score;
+    }
+
+    /**
+     * Compute the reductions: deep nodes and late moves are reduced the most.
+     * @return the reductions.
+     */
+    private static int[][] initReductions() {
+        final int[][] reductions = new int[MAX_PLY][MoveList.MAX_MOVES];
+        for (int depth = 1; depth < MAX_PLY; depth++) {
+            for (int moveNumber = 1; moveNumber < MoveList.MAX_MOVES; moveNumber++) {
+                reductions[depth][moveNumber] = (int) (0.75 + Math.log(depth) * Math.log(moveNumber) / 2.25);
+            }
+        }
+        return reductions;
+    }
+
+    /**
+     * Search a position from the command line, with the tablebases of the chess.tablebase directory
+     * and the opening book of the chess.book file if they are set.
+     * @param args the time in milliseconds, then the FEN of the position if not the standard one.
+     * @throws IOException if the tablebases or the opening book can't be read.
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: Search millis [fen]");
+            return;
+        }
+        final long timeLimitMillis = Long.parseLong(args[0]);
+        final StringBuilder fen = new StringBuilder();
+        for (int i = 1; i < args.length; i++) {
+            fen.append(args[i]).append(' ');
+        }
+        final Board board = FenUtilities.createGameFromFEN(
+                fen.length() > 0 ? fen.toString() : FenUtilities.STANDARD_FEN);
+        if (EngineMetrics.ENABLED) {
+            EngineMetrics.registerMBean();
+        }
+        final StandardBoardEvaluator evaluator = StandardBoardEvaluator.create();
+        final Search search = new Search(new TranspositionTable(64), evaluator);
+        final String tablebaseDirectory = System.getProperty("chess.tablebase");
+        if (tablebaseDirectory != null) {
+            search.setTablebase(new Tablebase(Paths.get(tablebaseDirectory)));
+        }
+        final String openingBookFile = System.getProperty("chess.book");
+        if (openingBookFile != null) {
+            search.setOpeningBook(new OpeningBook(Paths.get(openingBookFile)));
+        }
+        final SearchResult result = search.search(board,
+                new SearchLimits.Builder().setTimeLimitMillis(timeLimitMillis).build(),
+                iteration -> System.out.println("info " + iteration));
+        final PawnHashTable pawnHashTable = evaluator.getPawnHashTable();
+        System.out.println("info pawn hash hits " + pawnHashTable.getHits() + " misses " + pawnHashTable.getMisses()
+                + String.format(" rate %.3f", pawnHashTable.getHitRate()));
+        if (EngineMetrics.ENABLED) {
+            System.out.println("info metrics " + EngineMetrics.get().snapshot().toJson());
+        }
+        System.out.println("bestmove " + MoveUtils.toString(result.getBestMove()));
+    }
+}
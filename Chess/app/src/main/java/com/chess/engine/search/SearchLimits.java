@@ -0,0 +1,128 @@
+package com.chess.engine.search;
+
+/**
+ * When a search stops: at a depth, after a number of nodes or after some time, whichever comes first.
+ * A search always completes its first iteration, so it always has a move to return.
+ */
+public final class SearchLimits {
+
+    /**
+     * The deepest iteration.
+     */
+    private final int maxDepth;
+
+    /**
+     * The number of nodes after which the search stops.
+     */
+    private final long maxNodes;
+
+    /**
+     * The time after which the search stops, in milliseconds, 0 for no limit.
+     */
+    private final long timeLimitMillis;
+
+    /**
+     * The constructor of SearchLimits class.
+     * @param builder a given builder.
+     */
+    private SearchLimits(final Builder builder) {
+        this.maxDepth = builder.maxDepth;
+        this.maxNodes = builder.maxNodes;
+        this.timeLimitMillis = builder.timeLimitMillis;
+    }
+
+    /**
+     * Get the deepest iteration.
+     * @return the depth.
+     */
+    public int getMaxDepth() {
+        return this.maxDepth;
+    }
+
+    /**
+     * Get the number of nodes after which the search stops.
+     * @return the node count, Long.MAX_VALUE for no limit.
+     */
+    public long getMaxNodes() {
+        return this.maxNodes;
+    }
+
+    /**
+     * Get the time after which the search stops.
+     * @return milliseconds, 0 for no limit.
+     */
+    public long getTimeLimitMillis() {
+        return this.timeLimitMillis;
+    }
+
+    /**
+     * Limits that only stop at the deepest depth the search supports.
+     * @return the limits.
+     */
+    public static SearchLimits infinite() {
+        return new Builder().build();
+    }
+
+    public static class Builder {
+
+        private int maxDepth;
+        private long maxNodes;
+        private long timeLimitMillis;
+
+        /**
+         * The constructor of Builder class, with no limit set.
+         */
+        public Builder() {
+            this.maxDepth = Search.MAX_PLY - 1;
+            this.maxNodes = Long.MAX_VALUE;
+            this.timeLimitMillis = 0L;
+        }
+
+        /**
+         * Set the deepest iteration.
+         * @param maxDepth the depth, at least 1.
+         * @return the builder.
+         */
+        public Builder setMaxDepth(final int maxDepth) {
+            if (maxDepth < 1) {
+                throw new IllegalArgumentException("Invalid depth: " + maxDepth);
+            }
+            this.maxDepth = Math.min(maxDepth, Search.MAX_PLY - 1);
+            return this;
+        }
+
+        /**
+         * Set the number of nodes after which the search stops.
+         * @param maxNodes the node count, at least 1.
+         * @return the builder.
+         */
+        public Builder setMaxNodes(final long maxNodes) {
+            if (maxNodes < 1) {
+                throw new IllegalArgumentException("Invalid node count: " + maxNodes);
+            }
+            this.maxNodes = maxNodes;
+            return this;
+        }
+
+        /**
+         * Set the time after which the search stops.
+         * @param timeLimitMillis milliseconds from the start of the search, at least 1.
+         * @return the builder.
+         */
+        public Builder setTimeLimitMillis(final long timeLimitMillis) {
+            if (timeLimitMillis < 1) {
+                throw new IllegalArgumentException("Invalid time limit: " + timeLimitMillis);
+            }
+            this.timeLimitMillis = timeLimitMillis;
+            return this;
+        }
+
+        /**
+         * Create the limits.
+         * @return the limits.
+         */
+        public SearchLimits build() {
+            return new SearchLimits(this);
+        }
+    }
+}
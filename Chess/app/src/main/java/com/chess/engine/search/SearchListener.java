@@ -0,0 +1,13 @@
+package com.chess.engine.search;
+
+/**
+ * Receives the result of every completed iteration of a search.
+ */
+public interface SearchListener {
+
+    /**
+     * Called by the search thread after each iteration.
+     * @param result the result of the iteration.
+     */
+    void onIteration(SearchResult result);
+}
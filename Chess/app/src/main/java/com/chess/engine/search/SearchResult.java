@@ -0,0 +1,149 @@
+package com.chess.engine.search;
+
+import com.chess.engine.board.MoveUtils;
+
+/**
+ * The result of one iteration of a search.
+ */
+public final class SearchResult {
+
+    /**
+     * The depth of the iteration.
+     */
+    private final int depth;
+
+    /**
+     * The score of the position in centipawns, from the point of view of the alliance to move.
+     * Scores beyond Search.MATE_BOUND are mates.
+     */
+    private final int score;
+
+    /**
+     * The number of nodes searched since the start of the search.
+     */
+    private final long nodes;
+
+    /**
+     * The time since the start of the search, in milliseconds.
+     */
+    private final long elapsedMillis;
+
+    /**
+     * The principal variation, best move first.
+     */
+    private final int[] principalVariation;
+
+    /**
+     * The constructor of SearchResult class.
+     * @param depth the depth of the iteration.
+     * @param score the score.
+     * @param nodes the number of nodes searched.
+     * @param elapsedMillis the time since the start of the search.
+     * @param principalVariation the principal variation, not copied.
+     */
+    SearchResult(final int depth,
+                 final int score,
+                 final long nodes,
+                 final long elapsedMillis,
+                 final int[] principalVariation) {
+        this.depth = depth;
+        this.score = score;
+        this.nodes = nodes;
+        this.elapsedMillis = elapsedMillis;
+        this.principalVariation = principalVariation;
+    }
+
+    /**
+     * Get the depth of the iteration.
+     * @return the depth.
+     */
+    public int getDepth() {
+        return this.depth;
+    }
+
+    /**
+     * Get the score of the position.
+     * @return the score in centipawns, from the point of view of the alliance to move.
+     */
+    public int getScore() {
+        return this.score;
+    }
+
+    /**
+     * Get the number of nodes searched since the start of the search.
+     * @return the node count.
+     */
+    public long getNodes() {
+        return this.nodes;
+    }
+
+    /**
+     * Get the time since the start of the search.
+     * @return milliseconds.
+     */
+    public long getElapsedMillis() {
+        return this.elapsedMillis;
+    }
+
+    /**
+     * Get the number of nodes searched per second.
+     * @return nodes per second.
+     */
+    public long getNodesPerSecond() {
+        return this.nodes * 1000L / Math.max(this.elapsedMillis, 1L);
+    }
+
+    /**
+     * Get the principal variation.
+     * @return the moves, best move first.
+     */
+    public int[] getPrincipalVariation() {
+        return this.principalVariation.clone();
+    }
+
+    /**
+     * Get the best move.
+     * @return the move, NULL_MOVE if the position has no legal move.
+     */
+    public int getBestMove() {
+        return this.principalVariation.length > 0 ? this.principalVariation[0] : MoveUtils.NULL_MOVE;
+    }
+
+    /**
+     * Tell whether the score is a forced mate, for either side.
+     * @return true if it is a mate score.
+     */
+    public boolean isMate() {
+        return Math.abs(this.score) >= Search.MATE_BOUND;
+    }
+
+    /**
+     * Get the number of moves to the mate.
+     * @return moves to mate, negative if the alliance to move is mated, 0 if the score is not a mate.
+     */
+    public int getMateInMoves() {
+        if (!isMate()) {
+            return 0;
+        }
+        return this.score > 0 ? (Search.MATE - this.score + 1) / 2 : -(Search.MATE + this.score) / 2;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        builder.append("depth ").append(this.depth);
+        if (isMate()) {
+            builder.append(" score mate ").append(getMateInMoves());
+        } else {
+            builder.append(" score cp ").append(this.score);
+        }
+        builder.append(" nodes ").append(this.nodes)
+                .append(" nps ").append(getNodesPerSecond())
+                .append(" time ").append(this.elapsedMillis)
+                .append(" pv");
+        for (final int move : this.principalVariation) {
+            builder.append(' ').append(MoveUtils.toString(move));
+        }
+        return builder.toString();
+    }
+}
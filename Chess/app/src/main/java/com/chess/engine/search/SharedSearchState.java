@@ -0,0 +1,67 @@
+package com.chess.engine.search;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The state the threads of one search share: whether to stop, and the number of nodes all of them searched.
+ * Each thread adds its nodes in batches, so the total lags each thread by less than one batch.
+ */
+final class SharedSearchState {
+
+    /**
+     * Set when every thread must stop.
+     */
+    private volatile boolean stopped;
+
+    /**
+     * The nodes added by all the threads.
+     */
+    private final AtomicLong nodes;
+
+    /**
+     * The constructor of SharedSearchState class.
+     */
+    SharedSearchState() {
+        this.stopped = false;
+        this.nodes = new AtomicLong();
+    }
+
+    /**
+     * Get ready for a new search.
+     */
+    void reset() {
+        this.stopped = false;
+        this.nodes.set(0L);
+    }
+
+    /**
+     * Tell every thread to stop.
+     */
+    void stop() {
+        this.stopped = true;
+    }
+
+    /**
+     * Tell whether the threads must stop.
+     * @return true if they must.
+     */
+    boolean isStopped() {
+        return this.stopped;
+    }
+
+    /**
+     * Add the nodes a thread searched since its last call.
+     * @param count the number of nodes.
+     */
+    void addNodes(final long count) {
+        this.nodes.addAndGet(count);
+    }
+
+    /**
+     * Get the nodes added by all the threads.
+     * @return the node count.
+     */
+    long getNodes() {
+        return this.nodes.get();
+    }
+}
@@ -0,0 +1,264 @@
+package com.chess.engine.search;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.MagicBitboards;
+import com.chess.engine.board.MoveGenerator;
+import com.chess.engine.board.MoveUtils;
+import com.chess.engine.pieces.Piece;
+
+/**
+ * Static exchange evaluation: the material a move wins once both sides have captured back on its destination
+ * with their least valuable attacker, each side free to stop when going on would lose more.
+ *
+ * The exchange is played on the occupancy only, so a slider hidden behind a piece that captured joins in
+ * (an x-ray). Pins and checks are ignored, and a king only captures when nothing defends the tile any more.
+ */
+public final class StaticExchangeEvaluator {
+
+    private static final int PAWN = Piece.PieceType.PAWN.ordinal();
+    private static final int KNIGHT = Piece.PieceType.KNIGHT.ordinal();
+    private static final int BISHOP = Piece.PieceType.BISHOP.ordinal();
+    private static final int ROOK = Piece.PieceType.ROOK.ordinal();
+    private static final int QUEEN = Piece.PieceType.QUEEN.ordinal();
+    private static final int KING = Piece.PieceType.KING.ordinal();
+
+    /**
+     * The value of each piece type, indexed by ordinal.
+     */
+    private static final int[] PIECE_VALUES = initPieceValues();
+
+    /**
+     * More captures than a single tile can ever see.
+     */
+    private static final int MAX_EXCHANGES = 32;
+
+    /**
+     * The constructor.
+     */
+    private StaticExchangeEvaluator() {
+        throw new RuntimeException("You cannot instantiate me!");
+    }
+
+    /**
+     * Tell whether a move wins at least the given material once the exchange on its destination is over.
+     * This is faster than evaluate, since it stops as soon as the answer is known.
+     * @param board the board before the move.
+     * @param move the move.
+     * @param threshold the material, in centipawns.
+     * @return true if the move wins at least the threshold.
+     */
+    public static boolean isAtLeast(final Board board, final int move, final int threshold) {
+        final int flag = MoveUtils.getFlag(move);
+        if (flag == MoveUtils.FLAG_KING_SIDE_CASTLE || flag == MoveUtils.FLAG_QUEEN_SIDE_CASTLE) {
+            return threshold <= 0;
+        }
+        final int destinationCoordinate = MoveUtils.getDestinationCoordinate(move);
+        // What the move wins if nothing captures back, then what it loses if the moved piece is captured.
+        int swap = moveGain(move) - threshold;
+        if (swap < 0) {
+            return false;
+        }
+        swap = PIECE_VALUES[movedType(move)] - swap;
+        if (swap <= 0) {
+            return true;
+        }
+        long occupancy = occupancyAfter(board, move);
+        long attackers = MoveGenerator.getAttackers(board, destinationCoordinate, occupancy);
+        int alliance = BoardUtils.getPieceAlliance(MoveUtils.getMovedPiece(move));
+        final long diagonalSliders = diagonalSliders(board);
+        final long straightSliders = straightSliders(board);
+        // 1 while the side that made the move is ahead of the threshold, flipped at every capture.
+        int result = 1;
+        while (true) {
+            alliance ^= 1;
+            attackers &= occupancy;
+            final long allianceAttackers = attackers & board.getAllianceOccupancy(alliance);
+            if (allianceAttackers == 0) {
+                break;
+            }
+            result ^= 1;
+            final int attackerType = leastValuableType(board, allianceAttackers, alliance);
+            if (attackerType == KING) {
+                // The king may only capture when the other side has nothing left to capture it with.
+                return ((attackers & ~board.getAllianceOccupancy(alliance)) != 0 ? result ^ 1 : result) != 0;
+            }
+            swap = PIECE_VALUES[attackerType] - swap;
+            if (swap < result) {
+                break;
+            }
+            final long attacker = board.getPieceBitboard(BoardUtils.getPieceCode(attackerType, alliance))
+                    & allianceAttackers;
+            occupancy ^= attacker & -attacker;
+            attackers |= xRayAttackers(attackerType, destinationCoordinate, occupancy, diagonalSliders,
+                    straightSliders);
+        }
+        return result != 0;
+    }
+
+    /**
+     * Get the material a move wins once the exchange on its destination is over.
+     * @param board the board before the move.
+     * @param move the move.
+     * @return the material in centipawns, negative if the move loses material.
+     */
+    public static int evaluate(final Board board, final int move) {
+        final int flag = MoveUtils.getFlag(move);
+        if (flag == MoveUtils.FLAG_KING_SIDE_CASTLE || flag == MoveUtils.FLAG_QUEEN_SIDE_CASTLE) {
+            return 0;
+        }
+        final int destinationCoordinate = MoveUtils.getDestinationCoordinate(move);
+        final int[] gains = new int[MAX_EXCHANGES];
+        gains[0] = moveGain(move);
+        int pieceOnTileValue = PIECE_VALUES[movedType(move)];
+        long occupancy = occupancyAfter(board, move);
+        long attackers = MoveGenerator.getAttackers(board, destinationCoordinate, occupancy);
+        int alliance = BoardUtils.getPieceAlliance(MoveUtils.getMovedPiece(move));
+        final long diagonalSliders = diagonalSliders(board);
+        final long straightSliders = straightSliders(board);
+        int exchanges = 1;
+        while (exchanges < MAX_EXCHANGES) {
+            alliance ^= 1;
+            attackers &= occupancy;
+            final long allianceAttackers = attackers & board.getAllianceOccupancy(alliance);
+            if (allianceAttackers == 0) {
+                break;
+            }
+            final int attackerType = leastValuableType(board, allianceAttackers, alliance);
+            if (attackerType == KING && (attackers & ~board.getAllianceOccupancy(alliance)) != 0) {
+                break;
+            }
+            gains[exchanges] = pieceOnTileValue - gains[exchanges - 1];
+            exchanges++;
+            pieceOnTileValue = PIECE_VALUES[attackerType];
+            final long attacker = board.getPieceBitboard(BoardUtils.getPieceCode(attackerType, alliance))
+                    & allianceAttackers;
+            occupancy ^= attacker & -attacker;
+            attackers |= xRayAttackers(attackerType, destinationCoordinate, occupancy, diagonalSliders,
+                    straightSliders);
+        }
+        // Each side captures only when it doesn't lose by doing so.
+        for (int i = exchanges - 1; i > 0; i--) {
+            gains[i - 1] = -Math.max(-gains[i - 1], gains[i]);
+        }
+        return gains[0];
+    }
+
+    /**
+     * The material a move wins on its own: the captured piece, plus the promotion.
+     * @param move the move.
+     * @return the material in centipawns.
+     */
+    private static int moveGain(final int move) {
+        int gain = MoveUtils.isCapture(move)
+                ? PIECE_VALUES[BoardUtils.getPieceType(MoveUtils.getCapturedPiece(move))]
+                : 0;
+        if (MoveUtils.isPromotion(move)) {
+            gain += PIECE_VALUES[MoveUtils.getPromotionType(move)] - PIECE_VALUES[PAWN];
+        }
+        return gain;
+    }
+
+    /**
+     * The type of the piece standing on the destination after a move.
+     * @param move the move.
+     * @return the piece type ordinal, the promotion type for a promotion.
+     */
+    private static int movedType(final int move) {
+        return MoveUtils.isPromotion(move)
+                ? MoveUtils.getPromotionType(move)
+                : BoardUtils.getPieceType(MoveUtils.getMovedPiece(move));
+    }
+
+    /**
+     * The occupancy once the moved piece left its source, and the pawn captured en passant is gone.
+     * The destination stays occupied, it never blocks an attack on itself.
+     * @param board the board before the move.
+     * @param move the move.
+     * @return the occupancy.
+     */
+    private static long occupancyAfter(final Board board, final int move) {
+        long occupancy = board.getOccupancy() ^ (1L << MoveUtils.getSourceCoordinate(move));
+        if (MoveUtils.getFlag(move) == MoveUtils.FLAG_EN_PASSANT) {
+            occupancy ^= 1L << MoveUtils.getCapturedCoordinate(move);
+        }
+        return occupancy | (1L << MoveUtils.getDestinationCoordinate(move));
+    }
+
+    /**
+     * Find the type of the least valuable piece among some attackers.
+     * @param board a given board.
+     * @param attackers the attackers, all of the given alliance.
+     * @param alliance the alliance ordinal.
+     * @return the piece type ordinal.
+     */
+    private static int leastValuableType(final Board board, final long attackers, final int alliance) {
+        for (int pieceType = PAWN; pieceType < KING; pieceType++) {
+            if ((attackers & board.getPieceBitboard(BoardUtils.getPieceCode(pieceType, alliance))) != 0) {
+                return pieceType;
+            }
+        }
+        return KING;
+    }
+
+    /**
+     * The sliders uncovered when a piece of the given type leaves the line to the destination.
+     * @param attackerType the type of the piece that captured.
+     * @param destinationCoordinate the tile of the exchange.
+     * @param occupancy the occupancy without the piece.
+     * @param diagonalSliders the bishops and queens of both alliances.
+     * @param straightSliders the rooks and queens of both alliances.
+     * @return the new attackers, some may be pieces already captured, the caller masks them with the occupancy.
+     */
+    private static long xRayAttackers(final int attackerType,
+                                      final int destinationCoordinate,
+                                      final long occupancy,
+                                      final long diagonalSliders,
+                                      final long straightSliders) {
+        long attackers = 0L;
+        if (attackerType == PAWN || attackerType == BISHOP || attackerType == QUEEN) {
+            attackers |= MagicBitboards.getBishopAttacks(destinationCoordinate, occupancy) & diagonalSliders;
+        }
+        if (attackerType == ROOK || attackerType == QUEEN) {
+            attackers |= MagicBitboards.getRookAttacks(destinationCoordinate, occupancy) & straightSliders;
+        }
+        return attackers;
+    }
+
+    /**
+     * Get the bishops and queens of both alliances.
+     * @param board a given board.
+     * @return the pieces.
+     */
+    private static long diagonalSliders(final Board board) {
+        return board.getPieceBitboard(BoardUtils.getPieceCode(BISHOP, 0))
+                | board.getPieceBitboard(BoardUtils.getPieceCode(BISHOP, 1))
+                | board.getPieceBitboard(BoardUtils.getPieceCode(QUEEN, 0))
+                | board.getPieceBitboard(BoardUtils.getPieceCode(QUEEN, 1));
+    }
+
+    /**
+     * Get the rooks and queens of both alliances.
+     * @param board a given board.
+     * @return the pieces.
+     */
+    private static long straightSliders(final Board board) {
+        return board.getPieceBitboard(BoardUtils.getPieceCode(ROOK, 0))
+                | board.getPieceBitboard(BoardUtils.getPieceCode(ROOK, 1))
+                | board.getPieceBitboard(BoardUtils.getPieceCode(QUEEN, 0))
+                | board.getPieceBitboard(BoardUtils.getPieceCode(QUEEN, 1));
+    }
+
+    /**
+     * Read the piece values.
+     * @return the values, indexed by piece type ordinal.
+     */
+    private static int[] initPieceValues() {
+        final Piece.PieceType[] pieceTypes = Piece.PieceType.values();
+        final int[] pieceValues = new int[pieceTypes.length];
+        for (int i = 0; i < pieceTypes.length; i++) {
+            pieceValues[i] = pieceTypes[i].getPieceValue();
+        }
+        return pieceValues;
+    }
+}
@@ -0,0 +1,265 @@
+package com.chess.engine.search;
+
+import com.chess.engine.board.MoveUtils;
+import com.chess.engine.metrics.EngineMetrics;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size hash table of search results keyed by the Zobrist key of the position, shared by
+ * all the search threads without any lock.
+ *
+ * Every entry is two longs in one long[]: the key XORed with the data, and the data.
+ * Writers store both words with plain writes, so a reader may see the words of two different writes.
+ * The reader XORs the words back together and only trusts the data when the result is its own key,
+ * so a torn or overwritten entry looks like a miss instead of a wrong result.
+ *
+ * Entries are grouped in buckets of four that share a cache line. A store replaces the entry of the same
+ * position, an empty entry, or else the entry whose depth is worth the least once its age is counted.
+ *
+ * The data word holds the best move (bits 0-26), the score (bits 27-42, signed), the depth (bits 43-50),
+ * the bound type (bits 51-52) and the age of the search that stored it (bits 53-60).
+ */
+public final class TranspositionTable {
+
+    /**
+     * The bound types. The data of an entry is never 0, since its bound is never BOUND_NONE.
+     */
+    public static final int BOUND_NONE = 0;
+    public static final int BOUND_UPPER = 1;
+    public static final int BOUND_LOWER = 2;
+    public static final int BOUND_EXACT = 3;
+
+    /**
+     * The result of a probe that found nothing.
+     */
+    public static final long MISS = 0L;
+
+    private static final int ENTRIES_PER_BUCKET = 4;
+    private static final int LONGS_PER_ENTRY = 2;
+    private static final int LONGS_PER_BUCKET = ENTRIES_PER_BUCKET * LONGS_PER_ENTRY;
+    private static final int BYTES_PER_ENTRY = LONGS_PER_ENTRY * Long.BYTES;
+
+    private static final int MOVE_BITS = 27;
+    private static final int SCORE_SHIFT = 27;
+    private static final int DEPTH_SHIFT = 43;
+    private static final int BOUND_SHIFT = 51;
+    private static final int AGE_SHIFT = 53;
+
+    private static final long MOVE_MASK = (1L << MOVE_BITS) - 1;
+    private static final long SCORE_MASK = 0xFFFFL;
+    private static final long DEPTH_MASK = 0xFFL;
+    private static final long BOUND_MASK = 0x3L;
+    private static final long AGE_MASK = 0xFFL;
+
+    /**
+     * The largest depth an entry can hold.
+     */
+    public static final int MAX_DEPTH = (int) DEPTH_MASK;
+
+    /**
+     * The entries, LONGS_PER_ENTRY longs each.
+     */
+    private final long[] table;
+
+    /**
+     * The number of buckets minus one, the number of buckets is a power of two.
+     */
+    private final long bucketMask;
+
+    /**
+     * The age of the current search. Entries of older searches are replaced first.
+     */
+    private volatile int age;
+
+    /**
+     * The constructor of TranspositionTable class.
+     * @param sizeMb the size of the table in megabytes, rounded down to a power of two buckets.
+     */
+    public TranspositionTable(final int sizeMb) {
+        if (sizeMb <= 0) {
+            throw new IllegalArgumentException("Invalid transposition table size: " + sizeMb);
+        }
+        final long bytes = (long) sizeMb * 1024L * 1024L;
+        final long buckets = Long.highestOneBit(bytes / (BYTES_PER_ENTRY * ENTRIES_PER_BUCKET));
+        if (buckets * LONGS_PER_BUCKET > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Transposition table too large: " + sizeMb + " MB");
+        }
+        this.table = new long[(int) (buckets * LONGS_PER_BUCKET)];
+        this.bucketMask = buckets - 1;
+        this.age = 0;
+    }
+
+    /**
+     * Look up a position.
+     * @param zobristKey the Zobrist key of the position.
+     * @return the data word of the entry, or MISS. Read it with the static getters.
+     */
+    public long probe(final long zobristKey) {
+        final int bucket = bucketIndex(zobristKey);
+        for (int i = bucket; i < bucket + LONGS_PER_BUCKET; i += LONGS_PER_ENTRY) {
+            final long data = this.table[i + 1];
+            if ((this.table[i] ^ data) == zobristKey && data != MISS) {
+                if (EngineMetrics.ENABLED) {
+                    EngineMetrics.get().recordTranspositionTableProbe(true);
+                }
+                return data;
+            }
+        }
+        if (EngineMetrics.ENABLED) {
+            EngineMetrics.get().recordTranspositionTableProbe(false);
+        }
+        return MISS;
+    }
+
+    /**
+     * Store the result of a search.
+     * @param zobristKey the Zobrist key of the position.
+     * @param move the best move, NULL_MOVE if there is none. A null move keeps the move already stored.
+     * @param score the score, it must fit in a short.
+     * @param depth the depth searched, clamped between 0 and MAX_DEPTH.
+     * @param bound the bound type, not BOUND_NONE.
+     */
+    public void store(final long zobristKey, final int move, final int score, final int depth, final int bound) {
+        final int bucket = bucketIndex(zobristKey);
+        final int currentAge = this.age;
+        int replaceIndex = bucket;
+        int replaceWorth = Integer.MAX_VALUE;
+        int storedMove = move;
+        for (int i = bucket; i < bucket + LONGS_PER_BUCKET; i += LONGS_PER_ENTRY) {
+            final long data = this.table[i + 1];
+            if (data == MISS) {
+                if (replaceWorth > Integer.MIN_VALUE) {
+                    replaceIndex = i;
+                    replaceWorth = Integer.MIN_VALUE;
+                }
+                continue;
+            }
+            if ((this.table[i] ^ data) == zobristKey) {
+                if (move == MoveUtils.NULL_MOVE) {
+                    storedMove = getMove(data);
+                }
+                replaceIndex = i;
+                break;
+            }
+            // An entry is worth its depth, minus eight plies for every search since it was stored.
+            final int entryAge = (int) ((data >>> AGE_SHIFT) & AGE_MASK);
+            final int worth = getDepth(data) - 8 * ((currentAge - entryAge) & (int) AGE_MASK);
+            if (worth < replaceWorth) {
+                replaceIndex = i;
+                replaceWorth = worth;
+            }
+        }
+        if (EngineMetrics.ENABLED) {
+            final long replacedData = this.table[replaceIndex + 1];
+            if (replacedData != MISS && (this.table[replaceIndex] ^ replacedData) != zobristKey) {
+                EngineMetrics.get().recordTranspositionTableCollision();
+            }
+        }
+        final long data = pack(storedMove, score, depth, bound, currentAge);
+        this.table[replaceIndex] = zobristKey ^ data;
+        this.table[replaceIndex + 1] = data;
+    }
+
+    /**
+     * Start a new search, so entries of earlier searches age.
+     */
+    public void newSearch() {
+        this.age = (this.age + 1) & (int) AGE_MASK;
+    }
+
+    /**
+     * Remove every entry.
+     */
+    public void clear() {
+        Arrays.fill(this.table, 0L);
+        this.age = 0;
+    }
+
+    /**
+     * Get how full the table is with entries of the current search, sampled from the first buckets.
+     * @return the number of used entries per thousand.
+     */
+    public int getHashFull() {
+        final int sampledEntries = Math.min(1000, this.table.length / LONGS_PER_ENTRY);
+        int used = 0;
+        for (int i = 0; i < sampledEntries; i++) {
+            final long data = this.table[i * LONGS_PER_ENTRY + 1];
+            if (data != MISS && ((data >>> AGE_SHIFT) & AGE_MASK) == this.age) {
+                used++;
+            }
+        }
+        return used * 1000 / sampledEntries;
+    }
+
+    /**
+     * Get the number of entries of the table.
+     * @return the number of entries.
+     */
+    public int getCapacity() {
+        return this.table.length / LONGS_PER_ENTRY;
+    }
+
+    /**
+     * Get the best move of an entry.
+     * @param data the data word returned by probe.
+     * @return the move, NULL_MOVE if there is none.
+     */
+    public static int getMove(final long data) {
+        return (int) (data & MOVE_MASK);
+    }
+
+    /**
+     * Get the score of an entry.
+     * @param data the data word returned by probe.
+     * @return the score.
+     */
+    public static int getScore(final long data) {
+        return (short) ((data >>> SCORE_SHIFT) & SCORE_MASK);
+    }
+
+    /**
+     * Get the depth of an entry.
+     * @param data the data word returned by probe.
+     * @return the depth.
+     */
+    public static int getDepth(final long data) {
+        return (int) ((data >>> DEPTH_SHIFT) & DEPTH_MASK);
+    }
+
+    /**
+     * Get the bound type of an entry.
+     * @param data the data word returned by probe.
+     * @return the bound type.
+     */
+    public static int getBound(final long data) {
+        return (int) ((data >>> BOUND_SHIFT) & BOUND_MASK);
+    }
+
+    /**
+     * Pack the fields of an entry into a data word.
+     * @param move the best move.
+     * @param score the score.
+     * @param depth the depth.
+     * @param bound the bound type.
+     * @param age the age of the search.
+     * @return the data word.
+     */
+    private static long pack(final int move, final int score, final int depth, final int bound, final int age) {
+        final int clampedDepth = Math.max(0, Math.min(MAX_DEPTH, depth));
+        return (move & MOVE_MASK)
+                | ((score & SCORE_MASK) << SCORE_SHIFT)
+                | ((long) clampedDepth << DEPTH_SHIFT)
+                | (((long) bound & BOUND_MASK) << BOUND_SHIFT)
+                | (((long) age & AGE_MASK) << AGE_SHIFT);
+    }
+
+    /**
+     * Get the index of the first long of the bucket of a key.
+     * @param zobristKey the Zobrist key.
+     * @return the index in the table.
+     */
+    private int bucketIndex(final long zobristKey) {
+        return (int) ((zobristKey ^ (zobristKey >>> 32)) & this.bucketMask) * LONGS_PER_BUCKET;
+    }
+}
@@ -0,0 +1,208 @@
+package com.chess.engine.store;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Packs a position into a fixed record of 32 bytes, and loads it back into a board.
+ *
+ * Layout, multi-byte numbers in little endian order:
+ *   bytes 0-7     the occupancy bitboard.
+ *   bytes 8-23    the piece code of each occupied tile, 4 bits each, in the order of the tiles,
+ *                 the first tile in the low bits of byte 8.
+ *   byte 24       bit 0 set when black is to move, bits 1-4 the castling rights.
+ *   byte 25       the en passant tile, 0xFF if there is none.
+ *   bytes 26-27   the half move clock.
+ *   bytes 28-29   the full move number.
+ *   bytes 30-31   reserved, 0.
+ * A position has at most 32 pieces, so the piece codes always fit.
+ */
+public final class PositionCodec {
+
+    /**
+     * The size of a record in bytes.
+     */
+    public static final int RECORD_SIZE = 32;
+
+    /**
+     * The most pieces a record holds.
+     */
+    public static final int MAX_PIECES = 32;
+
+    private static final int PIECES_OFFSET = 8;
+    private static final int STATE_OFFSET = 24;
+    private static final int EN_PASSANT_OFFSET = 25;
+    private static final int HALF_MOVE_CLOCK_OFFSET = 26;
+    private static final int FULL_MOVE_NUMBER_OFFSET = 28;
+    private static final int RESERVED_OFFSET = 30;
+
+    private static final int NO_EN_PASSANT = 0xFF;
+    private static final int MAX_COUNTER = 0xFFFF;
+
+    private static final Alliance[] ALLIANCES = Alliance.values();
+
+    /**
+     * The constructor.
+     */
+    private PositionCodec() {
+        throw new RuntimeException("You cannot instantiate me!");
+    }
+
+    /**
+     * Pack a position.
+     * The move counters are capped at 65535.
+     * @param board a given board.
+     * @param buffer the bytes, written with absolute puts so its position doesn't change.
+     * @param offset the index of the first byte of the record.
+     * @throws IllegalArgumentException if the board has more than 32 pieces.
+     */
+    public static void encode(final Board board, final ByteBuffer buffer, final int offset) {
+        final long occupancy = board.getOccupancy();
+        if (Long.bitCount(occupancy) > MAX_PIECES) {
+            throw new IllegalArgumentException("Too many pieces: " + Long.bitCount(occupancy));
+        }
+        putLong(buffer, offset, occupancy);
+        int piece = 0;
+        int packedPieces = 0;
+        for (long tiles = occupancy; tiles != 0; tiles &= tiles - 1) {
+            final int pieceCode = board.getPieceCode(Long.numberOfTrailingZeros(tiles));
+            packedPieces |= pieceCode << ((piece & 1) * 4);
+            if ((piece & 1) == 1) {
+                buffer.put(offset + PIECES_OFFSET + piece / 2, (byte) packedPieces);
+                packedPieces = 0;
+            }
+            piece++;
+        }
+        if ((piece & 1) == 1) {
+            buffer.put(offset + PIECES_OFFSET + piece / 2, (byte) packedPieces);
+            piece++;
+        }
+        for (; piece < MAX_PIECES; piece += 2) {
+            buffer.put(offset + PIECES_OFFSET + piece / 2, (byte) 0);
+        }
+        buffer.put(offset + STATE_OFFSET,
+                (byte) (board.getNextMoveMaker().ordinal() | board.getCastlingRights() << 1));
+        final int enPassantCoordinate = board.getEnPassantCoordinate();
+        buffer.put(offset + EN_PASSANT_OFFSET,
+                (byte) (enPassantCoordinate == BoardUtils.NO_EN_PASSANT ? NO_EN_PASSANT : enPassantCoordinate));
+        putShort(buffer, offset + HALF_MOVE_CLOCK_OFFSET, Math.min(board.getHalfMoveClock(), MAX_COUNTER));
+        putShort(buffer, offset + FULL_MOVE_NUMBER_OFFSET, Math.min(board.getFullMoveNumber(), MAX_COUNTER));
+        putShort(buffer, offset + RESERVED_OFFSET, 0);
+    }
+
+    /**
+     * Pack a position into a new array.
+     * @param board a given board.
+     * @return the record.
+     */
+    public static byte[] encode(final Board board) {
+        final byte[] record = new byte[RECORD_SIZE];
+        encode(board, ByteBuffer.wrap(record), 0);
+        return record;
+    }
+
+    /**
+     * Load a record into an existing board, replacing its position and emptying its undo stack.
+     * Pieces no game can reach, a castling right without its king and rook, or an en passant tile without
+     * the pawn that jumped over it, make a corrupted record.
+     * @param buffer the bytes, read with absolute gets so its position doesn't change.
+     * @param offset the index of the first byte of the record.
+     * @param board the board.
+     * @throws IllegalArgumentException if the record is corrupted, the board is left empty.
+     */
+    public static void decode(final ByteBuffer buffer, final int offset, final Board board) {
+        board.clear();
+        final long occupancy = getLong(buffer, offset);
+        final int state = buffer.get(offset + STATE_OFFSET) & 0xFF;
+        final int enPassant = buffer.get(offset + EN_PASSANT_OFFSET) & 0xFF;
+        if (Long.bitCount(occupancy) > MAX_PIECES || state >> 5 != 0
+                || (enPassant != NO_EN_PASSANT && enPassant >= BoardUtils.NUM_TILES)) {
+            throw new IllegalArgumentException("Corrupted position record at " + offset);
+        }
+        int piece = 0;
+        for (long tiles = occupancy; tiles != 0; tiles &= tiles - 1) {
+            final int pieceCode = (buffer.get(offset + PIECES_OFFSET + piece / 2) >> ((piece & 1) * 4)) & 0xF;
+            if (pieceCode >= BoardUtils.NUM_PIECE_CODES) {
+                board.clear();
+                throw new IllegalArgumentException("Corrupted position record at " + offset);
+            }
+            board.putPiece(pieceCode, Long.numberOfTrailingZeros(tiles));
+            piece++;
+        }
+        final int castlingRights = state >> 1;
+        final int enPassantCoordinate = enPassant == NO_EN_PASSANT ? BoardUtils.NO_EN_PASSANT : enPassant;
+        // The same checks as a FEN: a board whose state doesn't fit its pieces would break makeMove.
+        if (!board.isValidPiecePlacement()
+                || board.getPlayableCastlingRights(castlingRights) != castlingRights
+                || !board.isValidEnPassantCoordinate(ALLIANCES[state & 1], enPassantCoordinate)) {
+            board.clear();
+            throw new IllegalArgumentException("Corrupted position record at " + offset);
+        }
+        board.setState(ALLIANCES[state & 1],
+                castlingRights,
+                enPassantCoordinate,
+                getShort(buffer, offset + HALF_MOVE_CLOCK_OFFSET),
+                getShort(buffer, offset + FULL_MOVE_NUMBER_OFFSET));
+    }
+
+    /**
+     * Load a record held by an array into an existing board.
+     * @param record the bytes.
+     * @param offset the index of the first byte of the record.
+     * @param board the board.
+     * @throws IllegalArgumentException if the record is corrupted, the board is left empty.
+     */
+    public static void decode(final byte[] record, final int offset, final Board board) {
+        decode(ByteBuffer.wrap(record), offset, board);
+    }
+
+    /**
+     * Write a long in little endian order, whatever the order of the buffer.
+     * @param buffer the bytes.
+     * @param offset the index of the first byte.
+     * @param value the value.
+     */
+    static void putLong(final ByteBuffer buffer, final int offset, final long value) {
+        for (int i = 0; i < Long.BYTES; i++) {
+            buffer.put(offset + i, (byte) (value >>> (8 * i)));
+        }
+    }
+
+    /**
+     * Read a long in little endian order, whatever the order of the buffer.
+     * @param buffer the bytes.
+     * @param offset the index of the first byte.
+     * @return the value.
+     */
+    static long getLong(final ByteBuffer buffer, final int offset) {
+        long value = 0L;
+        for (int i = 0; i < Long.BYTES; i++) {
+            value |= (buffer.get(offset + i) & 0xFFL) << (8 * i);
+        }
+        return value;
+    }
+
+    /**
+     * Write the low 16 bits of a number in little endian order.
+     * @param buffer the bytes.
+     * @param offset the index of the first byte.
+     * @param value the value.
+     */
+    private static void putShort(final ByteBuffer buffer, final int offset, final int value) {
+        buffer.put(offset, (byte) value);
+        buffer.put(offset + 1, (byte) (value >>> 8));
+    }
+
+    /**
+     * Read an unsigned 16 bit number in little endian order.
+     * @param buffer the bytes.
+     * @param offset the index of the first byte.
+     * @return the value.
+     */
+    private static int getShort(final ByteBuffer buffer, final int offset) {
+        return (buffer.get(offset) & 0xFF) | (buffer.get(offset + 1) & 0xFF) << 8;
+    }
+}
@@ -0,0 +1,245 @@
+package com.chess.engine.store;
+
+import com.chess.engine.board.Board;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * An append-only file of positions packed by PositionCodec, read back by index.
+ *
+ * The file starts with a header of 32 bytes: the magic "CHSPOS01", the record count as a little endian long
+ * and the record size as a little endian int. The records follow it and are memory-mapped in chunks of 64 MB,
+ * a new chunk being mapped, and the file grown, when an append reaches the end of the last one.
+ * The count is written after the record, so a store whose writer stopped halfway holds every record it counted.
+ * Closing a writable store cuts the file after the last record.
+ *
+ * A store has a single writer. Reads may run from several threads as long as nothing is appended.
+ */
+public final class PositionStore implements Closeable {
+
+    /**
+     * The size of the header in bytes.
+     */
+    public static final int HEADER_SIZE = 32;
+
+    private static final byte[] MAGIC = {'C', 'H', 'S', 'P', 'O', 'S', '0', '1'};
+    private static final int COUNT_OFFSET = 8;
+    private static final int RECORD_SIZE_OFFSET = 16;
+
+    /**
+     * The records of a chunk, 2^21 records of 32 bytes make 64 MB.
+     */
+    private static final int CHUNK_SHIFT = 21;
+    private static final int CHUNK_RECORDS = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_SIZE = CHUNK_RECORDS * PositionCodec.RECORD_SIZE;
+
+    private final FileChannel channel;
+    private final boolean readOnly;
+    private final MappedByteBuffer header;
+
+    /**
+     * The mapped chunks of records, only the first ones are used.
+     */
+    private MappedByteBuffer[] chunks;
+    private int chunkCount;
+
+    private long size;
+
+    /**
+     * The constructor of PositionStore class.
+     * A writable store is created if the file doesn't exist or is empty.
+     * @param path the file.
+     * @param readOnly whether the store is only read.
+     * @throws IOException if the file can't be opened, or is not a store.
+     */
+    public PositionStore(final Path path, final boolean readOnly) throws IOException {
+        this.readOnly = readOnly;
+        this.channel = readOnly
+                ? FileChannel.open(path, StandardOpenOption.READ)
+                : FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                        StandardOpenOption.CREATE);
+        try {
+            final long fileSize = this.channel.size();
+            final boolean created = fileSize == 0 && !readOnly;
+            if (!created && fileSize < HEADER_SIZE) {
+                throw new IOException("Not a position store: " + path);
+            }
+            this.header = this.channel.map(mapMode(), 0, HEADER_SIZE);
+            if (created) {
+                for (int i = 0; i < MAGIC.length; i++) {
+                    this.header.put(i, MAGIC[i]);
+                }
+                PositionCodec.putLong(this.header, COUNT_OFFSET, 0L);
+                putInt(this.header, RECORD_SIZE_OFFSET, PositionCodec.RECORD_SIZE);
+            }
+            readHeader(path, Math.max(fileSize, HEADER_SIZE));
+            final int usedChunks = this.size == 0 ? 0 : chunkIndex(this.size - 1) + 1;
+            this.chunks = new MappedByteBuffer[Math.max(usedChunks, 4)];
+            while (this.chunkCount < usedChunks) {
+                mapChunk();
+            }
+        } catch (final IOException | RuntimeException e) {
+            this.channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Append a position.
+     * @param board a given board.
+     * @return the index of the record.
+     * @throws IOException if the file can't be grown.
+     */
+    public long append(final Board board) throws IOException {
+        if (this.readOnly) {
+            throw new IllegalStateException("The store is read-only");
+        }
+        final long index = this.size;
+        final int chunk = chunkIndex(index);
+        while (chunk >= this.chunkCount) {
+            mapChunk();
+        }
+        PositionCodec.encode(board, this.chunks[chunk], chunkOffset(index));
+        this.size = index + 1;
+        PositionCodec.putLong(this.header, COUNT_OFFSET, this.size);
+        return index;
+    }
+
+    /**
+     * Load a record into an existing board.
+     * @param index the index of the record.
+     * @param board the board.
+     * @throws IllegalArgumentException if the record is corrupted.
+     */
+    public void read(final long index, final Board board) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("Invalid record index: " + index);
+        }
+        PositionCodec.decode(this.chunks[chunkIndex(index)], chunkOffset(index), board);
+    }
+
+    /**
+     * Get the number of records.
+     * @return the record count.
+     */
+    public long size() {
+        return this.size;
+    }
+
+    /**
+     * Write the appended records and the count to the disk.
+     */
+    public void force() {
+        for (int i = 0; i < this.chunkCount; i++) {
+            this.chunks[i].force();
+        }
+        this.header.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (!this.readOnly) {
+                force();
+                Arrays.fill(this.chunks, null);
+                this.chunkCount = 0;
+                this.channel.truncate(HEADER_SIZE + this.size * PositionCodec.RECORD_SIZE);
+            }
+        } finally {
+            this.chunks = null;
+            this.channel.close();
+        }
+    }
+
+    /**
+     * Check the header and read the record count.
+     * @param path the file, for the messages.
+     * @param fileSize the size of the file when it was opened, at least the size of the header.
+     * @throws IOException if the file is not a store.
+     */
+    private void readHeader(final Path path, final long fileSize) throws IOException {
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (this.header.get(i) != MAGIC[i]) {
+                throw new IOException("Not a position store: " + path);
+            }
+        }
+        if (getInt(this.header, RECORD_SIZE_OFFSET) != PositionCodec.RECORD_SIZE) {
+            throw new IOException("Unsupported record size in " + path);
+        }
+        this.size = PositionCodec.getLong(this.header, COUNT_OFFSET);
+        if (this.size < 0 || this.size > (fileSize - HEADER_SIZE) / PositionCodec.RECORD_SIZE) {
+            throw new IOException("Truncated position store: " + path);
+        }
+    }
+
+    /**
+     * Map the chunk after the last mapped one, growing the file if the store is writable.
+     * @throws IOException if the file can't be mapped.
+     */
+    private void mapChunk() throws IOException {
+        if (this.chunkCount == this.chunks.length) {
+            this.chunks = Arrays.copyOf(this.chunks, this.chunks.length * 2);
+        }
+        final long start = HEADER_SIZE + (long) this.chunkCount * CHUNK_SIZE;
+        final long size = this.readOnly ? Math.min(CHUNK_SIZE, this.channel.size() - start) : CHUNK_SIZE;
+        this.chunks[this.chunkCount++] = this.channel.map(mapMode(), start, size);
+    }
+
+    /**
+     * Get the mode the file is mapped with.
+     * @return the mode.
+     */
+    private FileChannel.MapMode mapMode() {
+        return this.readOnly ? FileChannel.MapMode.READ_ONLY : FileChannel.MapMode.READ_WRITE;
+    }
+
+    /**
+     * Write an int in little endian order.
+     * @param buffer the bytes.
+     * @param offset the index of the first byte.
+     * @param value the value.
+     */
+    private static void putInt(final MappedByteBuffer buffer, final int offset, final int value) {
+        for (int i = 0; i < Integer.BYTES; i++) {
+            buffer.put(offset + i, (byte) (value >>> (8 * i)));
+        }
+    }
+
+    /**
+     * Read an int in little endian order.
+     * @param buffer the bytes.
+     * @param offset the index of the first byte.
+     * @return the value.
+     */
+    private static int getInt(final MappedByteBuffer buffer, final int offset) {
+        int value = 0;
+        for (int i = 0; i < Integer.BYTES; i++) {
+            value |= (buffer.get(offset + i) & 0xFF) << (8 * i);
+        }
+        return value;
+    }
+
+    /**
+     * Get the chunk holding a record.
+     * @param index the index of the record.
+     * @return the index of the chunk.
+     */
+    private static int chunkIndex(final long index) {
+        return (int) (index >>> CHUNK_SHIFT);
+    }
+
+    /**
+     * Get the offset of a record in its chunk.
+     * @param index the index of the record.
+     * @return the offset in bytes.
+     */
+    private static int chunkOffset(final long index) {
+        return (int) (index & (CHUNK_RECORDS - 1)) * PositionCodec.RECORD_SIZE;
+    }
+}
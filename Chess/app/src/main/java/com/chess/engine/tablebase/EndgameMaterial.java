@@ -0,0 +1,364 @@
+package com.chess.engine.tablebase;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.pieces.Piece;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The pieces of an ending, such as KQKR, and the index of its positions in a table.
+ *
+ * The white pieces of a table are the stronger side: the side with more pieces, or with the more valuable piece
+ * when both have as many. A position where black is the stronger side is probed with the colours swapped.
+ *
+ * The tiles of a position are listed in the table order: the white king, the black king, the other white pieces
+ * from the most valuable down, then the other black pieces. The board is mirrored so the white king stands on the
+ * a to d columns, and without pawns also on the first four rows, so the positions that only differ by a symmetry
+ * share an entry. No other symmetry is used, so two different positions never share a mirrored image and every
+ * move of a position matches exactly one move back from its successor. The pieces of the same type are sorted by
+ * tile, the other orders are never used. The index is then the side to move, the slot of the white king and the
+ * six bit tile of every other piece.
+ */
+public final class EndgameMaterial {
+
+    private static final int PAWN = Piece.PieceType.PAWN.ordinal();
+    private static final int KING = Piece.PieceType.KING.ordinal();
+
+    private static final int PAWNLESS_KING_SLOTS = 16;
+    private static final int PAWN_KING_SLOTS = 32;
+
+    private static final int MIRROR_COLUMNS = 7;
+    private static final int MIRROR_ROWS = 56;
+
+    /**
+     * The piece types but the kings, from the most valuable down, of each side.
+     */
+    private final int[] whitePieceTypes;
+    private final int[] blackPieceTypes;
+
+    /**
+     * The piece code of each tile of a position, in the table order.
+     */
+    private final int[] pieceCodes;
+
+    private final String name;
+    private final boolean pawns;
+    private final int kingSlots;
+    private final long size;
+
+    /**
+     * The constructor of EndgameMaterial class.
+     * @param whitePieceTypes the piece type ordinals of the white pieces but the king, in any order.
+     * @param blackPieceTypes the piece type ordinals of the black pieces but the king, in any order.
+     */
+    public EndgameMaterial(final int[] whitePieceTypes, final int[] blackPieceTypes) {
+        this.whitePieceTypes = sortDescending(whitePieceTypes);
+        this.blackPieceTypes = sortDescending(blackPieceTypes);
+        this.pieceCodes = new int[2 + whitePieceTypes.length + blackPieceTypes.length];
+        this.pieceCodes[0] = BoardUtils.getPieceCode(KING, Alliance.WHITE.ordinal());
+        this.pieceCodes[1] = BoardUtils.getPieceCode(KING, Alliance.BLACK.ordinal());
+        boolean hasPawns = false;
+        final StringBuilder builder = new StringBuilder("K");
+        for (int i = 0; i < this.whitePieceTypes.length; i++) {
+            this.pieceCodes[2 + i] = BoardUtils.getPieceCode(this.whitePieceTypes[i], Alliance.WHITE.ordinal());
+            builder.append(Piece.PieceType.values()[this.whitePieceTypes[i]]);
+            hasPawns |= this.whitePieceTypes[i] == PAWN;
+        }
+        builder.append('K');
+        for (int i = 0; i < this.blackPieceTypes.length; i++) {
+            this.pieceCodes[2 + this.whitePieceTypes.length + i] =
+                    BoardUtils.getPieceCode(this.blackPieceTypes[i], Alliance.BLACK.ordinal());
+            builder.append(Piece.PieceType.values()[this.blackPieceTypes[i]]);
+            hasPawns |= this.blackPieceTypes[i] == PAWN;
+        }
+        this.name = builder.toString();
+        this.pawns = hasPawns;
+        this.kingSlots = hasPawns ? PAWN_KING_SLOTS : PAWNLESS_KING_SLOTS;
+        long entries = 2L * this.kingSlots;
+        for (int i = 1; i < this.pieceCodes.length; i++) {
+            entries *= BoardUtils.NUM_TILES;
+        }
+        this.size = entries;
+    }
+
+    /**
+     * Read an ending from its name.
+     * @param name the name, such as "KQKR".
+     * @return the ending.
+     * @throws IllegalArgumentException if the name is not an ending with one king per side.
+     */
+    public static EndgameMaterial parse(final String name) {
+        final int secondKing = name.indexOf('K', 1);
+        if (!name.startsWith("K") || secondKing < 0) {
+            throw new IllegalArgumentException("Invalid ending: " + name);
+        }
+        return new EndgameMaterial(parsePieceTypes(name, 1, secondKing),
+                parsePieceTypes(name, secondKing + 1, name.length()));
+    }
+
+    /**
+     * List the endings with the stronger side as white, up to a number of pieces, kings included.
+     * The endings come in the order they can be generated in: every ending a capture or a promotion leads to
+     * comes before it. Pawns on both sides are left out, see TablebaseGenerator.
+     * @param maxPieces the largest number of pieces, 3 or 4.
+     * @return the endings.
+     */
+    public static List<EndgameMaterial> list(final int maxPieces) {
+        final List<EndgameMaterial> endings = new ArrayList<>();
+        for (int pawnCount = 0; pawnCount <= maxPieces - 2; pawnCount++) {
+            for (int pieceCount = 3; pieceCount <= maxPieces; pieceCount++) {
+                for (int whiteCount = pieceCount - 2; whiteCount >= (pieceCount - 1) / 2; whiteCount--) {
+                    addEndings(endings, whiteCount, pieceCount - 2 - whiteCount, pawnCount);
+                }
+            }
+        }
+        return endings;
+    }
+
+    /**
+     * Add the endings with the given numbers of pieces.
+     * @param endings the list the endings are added to.
+     * @param whiteCount the number of white pieces but the king.
+     * @param blackCount the number of black pieces but the king.
+     * @param pawnCount the number of pawns.
+     */
+    private static void addEndings(final List<EndgameMaterial> endings,
+                                   final int whiteCount,
+                                   final int blackCount,
+                                   final int pawnCount) {
+        final int[] types = new int[whiteCount + blackCount];
+        final int combinations = (int) Math.pow(KING, types.length);
+        for (int combination = 0; combination < combinations; combination++) {
+            int remaining = combination;
+            for (int i = 0; i < types.length; i++) {
+                types[i] = remaining % KING;
+                remaining /= KING;
+            }
+            final int[] whiteTypes = Arrays.copyOfRange(types, 0, whiteCount);
+            final int[] blackTypes = Arrays.copyOfRange(types, whiteCount, types.length);
+            final EndgameMaterial material = new EndgameMaterial(whiteTypes, blackTypes);
+            if (Arrays.equals(material.whitePieceTypes, whiteTypes)
+                    && Arrays.equals(material.blackPieceTypes, blackTypes)
+                    && material.isCanonical() && countPawns(types) == pawnCount
+                    && !(material.hasPawns(Alliance.WHITE) && material.hasPawns(Alliance.BLACK))) {
+                endings.add(material);
+            }
+        }
+    }
+
+    /**
+     * Get the name of the ending.
+     * @return the name, such as "KQKR".
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Get the number of pieces, kings included.
+     * @return the piece count.
+     */
+    public int getPieceCount() {
+        return this.pieceCodes.length;
+    }
+
+    /**
+     * Get the piece code of a tile of a position.
+     * @param index the index of the tile in the table order.
+     * @return the piece code.
+     */
+    public int getPieceCode(final int index) {
+        return this.pieceCodes[index];
+    }
+
+    /**
+     * Get the number of entries of the table.
+     * @return the entry count.
+     */
+    public long getSize() {
+        return this.size;
+    }
+
+    /**
+     * Tell whether the ending has pawns.
+     * @return true if it has.
+     */
+    public boolean hasPawns() {
+        return this.pawns;
+    }
+
+    /**
+     * Tell whether an alliance has pawns.
+     * @param alliance the alliance.
+     * @return true if it has.
+     */
+    public boolean hasPawns(final Alliance alliance) {
+        for (final int pieceType : alliance.isWhite() ? this.whitePieceTypes : this.blackPieceTypes) {
+            if (pieceType == PAWN) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tell whether white is the stronger side, or both sides are as strong.
+     * @return true if the ending is probed without swapping the colours.
+     */
+    public boolean isCanonical() {
+        if (this.whitePieceTypes.length != this.blackPieceTypes.length) {
+            return this.whitePieceTypes.length > this.blackPieceTypes.length;
+        }
+        for (int i = 0; i < this.whitePieceTypes.length; i++) {
+            if (this.whitePieceTypes[i] != this.blackPieceTypes[i]) {
+                return this.whitePieceTypes[i] > this.blackPieceTypes[i];
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the ending with the colours swapped.
+     * @return the ending.
+     */
+    public EndgameMaterial swapColours() {
+        return new EndgameMaterial(this.blackPieceTypes, this.whitePieceTypes);
+    }
+
+    /**
+     * Get the index of a position.
+     * @param sideToMove the alliance ordinal to move.
+     * @param tiles the tile of every piece in the table order, mirrored and sorted in place.
+     * @return the index.
+     */
+    public long getIndex(final int sideToMove, final int[] tiles) {
+        final int whiteKing = tiles[0];
+        int mirror = (whiteKing & MIRROR_COLUMNS) >= 4 ? MIRROR_COLUMNS : 0;
+        if (!this.pawns && whiteKing < BoardUtils.NUM_TILES / 2) {
+            mirror |= MIRROR_ROWS;
+        }
+        for (int i = 0; i < this.pieceCodes.length; i++) {
+            tiles[i] ^= mirror;
+        }
+        for (int i = 3; i < this.pieceCodes.length; i++) {
+            // Insertion sort of the runs of the same piece, they are at most two pieces long.
+            for (int j = i; j > 2 && this.pieceCodes[j - 1] == this.pieceCodes[j] && tiles[j - 1] > tiles[j]; j--) {
+                final int tile = tiles[j];
+                tiles[j] = tiles[j - 1];
+                tiles[j - 1] = tile;
+            }
+        }
+        long index = sideToMove * this.kingSlots + getKingSlot(tiles[0]);
+        for (int i = 1; i < this.pieceCodes.length; i++) {
+            index = index * BoardUtils.NUM_TILES + tiles[i];
+        }
+        return index;
+    }
+
+    /**
+     * Read the position of an index, if the index is used by a position.
+     * The kings may still attack each other or the side not to move may be in check, the board tells.
+     * @param index the index.
+     * @param tiles the list the tile of every piece is written to, in the table order.
+     * @return the alliance ordinal to move, or -1 if no position has this index.
+     */
+    public int getPosition(final long index, final int[] tiles) {
+        long remaining = index;
+        long occupancy = 0L;
+        for (int i = this.pieceCodes.length - 1; i > 0; i--) {
+            tiles[i] = (int) (remaining % BoardUtils.NUM_TILES);
+            remaining /= BoardUtils.NUM_TILES;
+        }
+        final int kingSlot = (int) (remaining % this.kingSlots);
+        tiles[0] = this.pawns
+                ? (kingSlot / 4) * BoardUtils.NUM_TILES_PER_ROW + kingSlot % 4
+                : (kingSlot / 4 + 4) * BoardUtils.NUM_TILES_PER_ROW + kingSlot % 4;
+        for (int i = 0; i < this.pieceCodes.length; i++) {
+            final long tileMask = 1L << tiles[i];
+            if ((occupancy & tileMask) != 0) {
+                return -1;
+            }
+            occupancy |= tileMask;
+            if (i > 2 && this.pieceCodes[i - 1] == this.pieceCodes[i] && tiles[i - 1] > tiles[i]) {
+                return -1;
+            }
+            if (BoardUtils.getPieceType(this.pieceCodes[i]) == PAWN
+                    && ((tiles[i] / BoardUtils.NUM_TILES_PER_ROW) % (BoardUtils.NUM_TILES_PER_ROW - 1)) == 0) {
+                return -1;
+            }
+        }
+        return (int) (remaining / this.kingSlots);
+    }
+
+    @Override
+    public String toString() {
+        return this.name;
+    }
+
+    /**
+     * Get the slot of the white king once the board is mirrored.
+     * @param whiteKing the tile of the white king.
+     * @return the slot.
+     */
+    private int getKingSlot(final int whiteKing) {
+        final int row = whiteKing / BoardUtils.NUM_TILES_PER_ROW;
+        return (this.pawns ? row : row - 4) * 4 + whiteKing % BoardUtils.NUM_TILES_PER_ROW;
+    }
+
+    /**
+     * Read the piece types of one side of a name.
+     * @param name the name.
+     * @param start the index of the first piece letter.
+     * @param end the index after the last piece letter.
+     * @return the piece type ordinals.
+     */
+    private static int[] parsePieceTypes(final String name, final int start, final int end) {
+        final int[] pieceTypes = new int[end - start];
+        for (int i = start; i < end; i++) {
+            pieceTypes[i - start] = -1;
+            for (final Piece.PieceType pieceType : Piece.PieceType.values()) {
+                if (pieceType != Piece.PieceType.KING && pieceType.toString().charAt(0) == name.charAt(i)) {
+                    pieceTypes[i - start] = pieceType.ordinal();
+                }
+            }
+            if (pieceTypes[i - start] < 0) {
+                throw new IllegalArgumentException("Invalid ending: " + name);
+            }
+        }
+        return pieceTypes;
+    }
+
+    /**
+     * Sort piece types from the most valuable down.
+     * @param pieceTypes the piece type ordinals.
+     * @return a sorted copy.
+     */
+    private static int[] sortDescending(final int[] pieceTypes) {
+        final int[] sorted = pieceTypes.clone();
+        Arrays.sort(sorted);
+        for (int i = 0; i < sorted.length / 2; i++) {
+            final int pieceType = sorted[i];
+            sorted[i] = sorted[sorted.length - 1 - i];
+            sorted[sorted.length - 1 - i] = pieceType;
+        }
+        return sorted;
+    }
+
+    /**
+     * Count the pawns of a list of piece types.
+     * @param pieceTypes the piece type ordinals.
+     * @return the pawn count.
+     */
+    private static int countPawns(final int[] pieceTypes) {
+        int pawnCount = 0;
+        for (final int pieceType : pieceTypes) {
+            if (pieceType == PAWN) {
+                pawnCount++;
+            }
+        }
+        return pawnCount;
+    }
+}
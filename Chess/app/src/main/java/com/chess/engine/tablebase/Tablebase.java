@@ -0,0 +1,303 @@
+package com.chess.engine.tablebase;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.pieces.Piece;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Probes the endgame tables of a directory, written by TablebaseGenerator.
+ *
+ * A table holds one byte per index of its EndgameMaterial: NOT_FOUND when no position has the index, DRAW,
+ * or the distance to mate in plies plus 2. An odd distance is a win of the side to move and an even one a loss,
+ * 0 being checkmate. The fifty-move rule is not part of the tables.
+ *
+ * Every table file of the directory is memory-mapped read-only when the tablebase is opened, so the pages are
+ * only read when probed and are shared by every thread and every process using the same files. Probing takes
+ * no lock and allocates nothing but a few tiles, so a tablebase can be shared by every search thread.
+ * A position with castling rights is never found. The en passant tile is ignored: pawns of both alliances
+ * are needed for an en passant capture, and no table has them.
+ *
+ * A table file starts with a header of 16 bytes: the magic "CHSTB001" and the entry count as a little endian
+ * long. The entries follow it, in the order of their index.
+ */
+public final class Tablebase {
+
+    public static final int NOT_FOUND = 0;
+    public static final int DRAW = 1;
+
+    /**
+     * The longest distance to mate an entry can hold.
+     */
+    public static final int MAX_DISTANCE = 253;
+
+    /**
+     * The file extension of a table.
+     */
+    public static final String FILE_EXTENSION = ".ctb";
+
+    static final int HEADER_SIZE = 16;
+
+    private static final byte[] MAGIC = {'C', 'H', 'S', 'T', 'B', '0', '0', '1'};
+    private static final int DISTANCE_OFFSET = 2;
+
+    /**
+     * The pieces but the kings are counted per piece code, a code being found at most twice in a table.
+     * The table of a material is found at the sum of the counts times a power of 3 per code.
+     */
+    private static final int MAX_PIECE_COUNT = 3;
+    private static final int KING_CODE_START = BoardUtils.getPieceCode(Piece.PieceType.KING.ordinal(), 0);
+    private static final int[] MATERIAL_WEIGHTS = initMaterialWeights();
+
+    /**
+     * The table of each material, null if the directory doesn't have it.
+     */
+    private final Table[] tables;
+    private int maxPieces;
+
+    /**
+     * The constructor of Tablebase class.
+     * @param directory the directory of the tables, every file with the table extension is mapped.
+     * @throws IOException if a table can't be read or is not a table.
+     */
+    public Tablebase(final Path directory) throws IOException {
+        this.tables = new Table[MATERIAL_WEIGHTS[KING_CODE_START - 1] * MAX_PIECE_COUNT];
+        this.maxPieces = 2;
+        if (Files.isDirectory(directory)) {
+            try (final DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + FILE_EXTENSION)) {
+                for (final Path file : files) {
+                    final String fileName = file.getFileName().toString();
+                    final EndgameMaterial material = EndgameMaterial.parse(
+                            fileName.substring(0, fileName.length() - FILE_EXTENSION.length()));
+                    addTable(material, mapTable(file, material));
+                }
+            }
+        }
+    }
+
+    /**
+     * Probe a position.
+     * @param board a given board.
+     * @return NOT_FOUND if no table has the position, else DRAW or the distance to mate plus 2.
+     */
+    public int probe(final Board board) {
+        final int pieceCount = Long.bitCount(board.getOccupancy());
+        if (pieceCount > this.maxPieces || board.getCastlingRights() != 0) {
+            return NOT_FOUND;
+        }
+        if (board.getKingCoordinate(Alliance.WHITE) == BoardUtils.NUM_TILES
+                || board.getKingCoordinate(Alliance.BLACK) == BoardUtils.NUM_TILES) {
+            return NOT_FOUND;
+        }
+        if (pieceCount == 2) {
+            return DRAW;
+        }
+        int materialKey = 0;
+        for (int pieceCode = 0; pieceCode < KING_CODE_START; pieceCode++) {
+            materialKey += Long.bitCount(board.getPieceBitboard(pieceCode)) * MATERIAL_WEIGHTS[pieceCode];
+        }
+        final Table table = this.tables[materialKey];
+        if (table == null) {
+            return NOT_FOUND;
+        }
+        final EndgameMaterial material = table.material;
+        final int colourSwap = table.swapped ? 1 : 0;
+        final int mirror = table.swapped ? BoardUtils.NUM_TILES - BoardUtils.NUM_TILES_PER_ROW : 0;
+        final int[] tiles = new int[pieceCount];
+        long pieces = 0L;
+        for (int i = 0; i < pieceCount; i++) {
+            if (i == 0 || material.getPieceCode(i) != material.getPieceCode(i - 1)) {
+                pieces = board.getPieceBitboard(material.getPieceCode(i) ^ colourSwap);
+            }
+            tiles[i] = Long.numberOfTrailingZeros(pieces) ^ mirror;
+            pieces &= pieces - 1;
+        }
+        final long index = material.getIndex(board.getNextMoveMaker().ordinal() ^ colourSwap, tiles);
+        return table.entries.get(HEADER_SIZE + (int) index) & 0xFF;
+    }
+
+    /**
+     * Get the largest number of pieces of a table, kings included.
+     * @return the piece count, 2 if there is no table.
+     */
+    public int getMaxPieces() {
+        return this.maxPieces;
+    }
+
+    /**
+     * Tell whether a table is loaded.
+     * @param material the material of the table, with either alliance as the stronger one.
+     * @return true if it is.
+     */
+    public boolean hasTable(final EndgameMaterial material) {
+        return this.tables[getMaterialKey(material)] != null;
+    }
+
+    /**
+     * Tell whether a probed value is a win of the side to move.
+     * @param value the value.
+     * @return true if it is.
+     */
+    public static boolean isWin(final int value) {
+        return value >= DISTANCE_OFFSET && (getDistance(value) & 1) == 1;
+    }
+
+    /**
+     * Tell whether a probed value is a loss of the side to move.
+     * @param value the value.
+     * @return true if it is.
+     */
+    public static boolean isLoss(final int value) {
+        return value >= DISTANCE_OFFSET && (getDistance(value) & 1) == 0;
+    }
+
+    /**
+     * Get the distance to mate of a win or a loss.
+     * @param value the value.
+     * @return the distance in plies.
+     */
+    public static int getDistance(final int value) {
+        return value - DISTANCE_OFFSET;
+    }
+
+    /**
+     * Get the value of a distance to mate.
+     * @param distance the distance in plies, at most MAX_DISTANCE.
+     * @return the value.
+     */
+    static int getValue(final int distance) {
+        return distance + DISTANCE_OFFSET;
+    }
+
+    /**
+     * Add a table, before the tablebase is shared with other threads.
+     * @param material the material of the table.
+     * @param entries the header and the entries of the table.
+     */
+    void addTable(final EndgameMaterial material, final ByteBuffer entries) {
+        final boolean swapped = !material.isCanonical();
+        final EndgameMaterial canonical = swapped ? material.swapColours() : material;
+        final EndgameMaterial mirror = canonical.swapColours();
+        this.tables[getMaterialKey(canonical)] = new Table(canonical, entries, false);
+        if (!mirror.getName().equals(canonical.getName())) {
+            this.tables[getMaterialKey(mirror)] = new Table(canonical, entries, true);
+        }
+        this.maxPieces = Math.max(this.maxPieces, canonical.getPieceCount());
+    }
+
+    /**
+     * Write a table file.
+     * @param directory the directory of the tables.
+     * @param material the material of the table, with white as the stronger alliance.
+     * @param entries the entries.
+     * @return the file.
+     * @throws IOException if the file can't be written.
+     */
+    static Path writeTable(final Path directory,
+                           final EndgameMaterial material,
+                           final byte[] entries) throws IOException {
+        final Path file = directory.resolve(material.getName() + FILE_EXTENSION);
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(MAGIC).putLong(entries.length).flip();
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(header);
+            final ByteBuffer body = ByteBuffer.wrap(entries);
+            while (body.hasRemaining()) {
+                channel.write(body);
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Map a table file and check its header.
+     * @param file the file.
+     * @param material the material of the table.
+     * @return the mapped header and entries.
+     * @throws IOException if the file can't be mapped, or is not the table of the material.
+     */
+    static ByteBuffer mapTable(final Path file, final EndgameMaterial material) throws IOException {
+        if (!material.isCanonical()) {
+            throw new IOException("Not a table of the stronger alliance as white: " + file);
+        }
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() != HEADER_SIZE + material.getSize()) {
+                throw new IOException("Invalid table size: " + file);
+            }
+            final ByteBuffer entries = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < MAGIC.length; i++) {
+                if (entries.get(i) != MAGIC[i]) {
+                    throw new IOException("Not a table: " + file);
+                }
+            }
+            if (entries.getLong(MAGIC.length) != material.getSize()) {
+                throw new IOException("Invalid table size: " + file);
+            }
+            return entries;
+        }
+    }
+
+    /**
+     * Get the key of a material.
+     * @param material the material.
+     * @return the index of its table.
+     */
+    private static int getMaterialKey(final EndgameMaterial material) {
+        int materialKey = 0;
+        for (int i = 2; i < material.getPieceCount(); i++) {
+            materialKey += MATERIAL_WEIGHTS[material.getPieceCode(i)];
+        }
+        return materialKey;
+    }
+
+    /**
+     * Compute the power of 3 of every piece code but the kings.
+     * @return the weights.
+     */
+    private static int[] initMaterialWeights() {
+        final int[] weights = new int[KING_CODE_START];
+        int weight = 1;
+        for (int pieceCode = 0; pieceCode < weights.length; pieceCode++) {
+            weights[pieceCode] = weight;
+            weight *= MAX_PIECE_COUNT;
+        }
+        return weights;
+    }
+
+    /**
+     * The mapped table of a material.
+     */
+    private static final class Table {
+
+        private final EndgameMaterial material;
+        private final ByteBuffer entries;
+
+        /**
+         * Whether the stronger alliance is black, so the colours are swapped and the board mirrored to probe.
+         */
+        private final boolean swapped;
+
+        /**
+         * The constructor of Table class.
+         * @param material the material of the table, with white as the stronger alliance.
+         * @param entries the header and the entries.
+         * @param swapped whether the probed positions have black as the stronger alliance.
+         */
+        Table(final EndgameMaterial material, final ByteBuffer entries, final boolean swapped) {
+            this.material = material;
+            this.entries = entries;
+            this.swapped = swapped;
+        }
+    }
+}
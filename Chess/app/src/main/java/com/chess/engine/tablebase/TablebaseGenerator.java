@@ -0,0 +1,330 @@
+package com.chess.engine.tablebase;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.MagicBitboards;
+import com.chess.engine.board.MoveList;
+import com.chess.engine.board.MoveUtils;
+import com.chess.engine.pieces.Piece;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates the endgame tables by retrograde analysis.
+ *
+ * A first pass goes over every position of the table. It counts the moves that stay in the table, and scores the
+ * captures and the promotions by probing the smaller tables they lead to, so these must be generated first.
+ * Checkmates and stalemates are known at once. Then the positions are taken by increasing distance to mate:
+ * every move back from a lost position gives a won one, one ply further, and every move back from a won position
+ * takes one move from the count of its predecessor. A predecessor with no move left, and no capture or promotion
+ * that wins or draws, is lost, one ply after its slowest way to lose. What is never reached is a draw.
+ *
+ * Endings with pawns of both alliances are not generated: their tables would need the en passant tile.
+ *
+ * Usage:
+ *   TablebaseGenerator directory              generate every table of up to four pieces missing from the directory.
+ *   TablebaseGenerator directory name...      generate the given tables, such as KQKR, in the given order.
+ */
+public final class TablebaseGenerator {
+
+    /**
+     * The move count of an index no position has.
+     */
+    private static final byte INVALID = (byte) 0xFF;
+
+    /**
+     * The best capture or promotion of a position whose moves are not all known, when it draws.
+     * Else it holds the slowest loss through a capture or a promotion, 0 if there is none.
+     */
+    private static final byte CONVERSION_DRAW = (byte) 0xFF;
+
+    private static final int PAWN = Piece.PieceType.PAWN.ordinal();
+    private static final int KNIGHT = Piece.PieceType.KNIGHT.ordinal();
+    private static final int BISHOP = Piece.PieceType.BISHOP.ordinal();
+    private static final int ROOK = Piece.PieceType.ROOK.ordinal();
+    private static final int QUEEN = Piece.PieceType.QUEEN.ordinal();
+
+    private final Tablebase tablebase;
+    private final Board board;
+    private final MoveList moves;
+    private final int[] tiles;
+    private final int[] predecessorTiles;
+
+    /**
+     * The constructor of TablebaseGenerator class.
+     * @param tablebase the tables the captures and the promotions are probed in, the new tables are added to it.
+     */
+    public TablebaseGenerator(final Tablebase tablebase) {
+        this.tablebase = tablebase;
+        this.board = new Board.Builder().build();
+        this.moves = new MoveList();
+        this.tiles = new int[BoardUtils.NUM_TILES];
+        this.predecessorTiles = new int[BoardUtils.NUM_TILES];
+    }
+
+    /**
+     * Generate a table and add it to the tablebase.
+     * @param material the material of the table, with white as the stronger alliance.
+     * @return the entries of the table.
+     * @throws IllegalArgumentException if the material can't have a table.
+     * @throws IllegalStateException if the table of a capture or a promotion is missing.
+     */
+    public byte[] generate(final EndgameMaterial material) {
+        if (!material.isCanonical() || material.hasPawns(Alliance.WHITE) && material.hasPawns(Alliance.BLACK)
+                || material.getSize() > Integer.MAX_VALUE - Tablebase.HEADER_SIZE) {
+            throw new IllegalArgumentException("Unsupported ending: " + material);
+        }
+        final int size = (int) material.getSize();
+        final byte[] values = new byte[size];
+        final byte[] moveCounts = new byte[size];
+        final byte[] conversions = new byte[size];
+        int maxDistance = initialize(material, values, moveCounts, conversions);
+        for (int distance = 0; distance <= maxDistance; distance++) {
+            final byte value = (byte) Tablebase.getValue(distance);
+            for (int index = 0; index < size; index++) {
+                if (values[index] == value) {
+                    maxDistance = Math.max(maxDistance,
+                            retract(material, index, distance, values, moveCounts, conversions));
+                }
+            }
+        }
+        for (int index = 0; index < size; index++) {
+            if (moveCounts[index] == INVALID) {
+                values[index] = Tablebase.NOT_FOUND;
+            } else if (values[index] == 0) {
+                values[index] = Tablebase.DRAW;
+            }
+        }
+        final ByteBuffer entries = ByteBuffer.allocate(Tablebase.HEADER_SIZE + size);
+        entries.position(Tablebase.HEADER_SIZE);
+        entries.put(values);
+        this.tablebase.addTable(material, entries);
+        return values;
+    }
+
+    /**
+     * Score the positions that don't need the other positions of the table, and count the moves of the others.
+     * @param material the material of the table.
+     * @param values the values found, 0 while unknown.
+     * @param moveCounts the moves staying in the table and not yet known to lose, INVALID for unused indexes.
+     * @param conversions the best capture or promotion of the positions not yet known.
+     * @return the longest distance to mate found.
+     */
+    private int initialize(final EndgameMaterial material,
+                           final byte[] values,
+                           final byte[] moveCounts,
+                           final byte[] conversions) {
+        int maxDistance = 0;
+        for (int index = 0; index < values.length; index++) {
+            final int sideToMove = material.getPosition(index, this.tiles);
+            if (sideToMove < 0 || !setPosition(material, sideToMove)) {
+                moveCounts[index] = INVALID;
+                continue;
+            }
+            this.moves.clear();
+            this.board.generateLegalMoves(this.moves);
+            int moveCount = 0;
+            int fastestWin = Integer.MAX_VALUE;
+            int slowestLoss = 0;
+            boolean draw = false;
+            for (int i = 0; i < this.moves.size(); i++) {
+                final int move = this.moves.get(i);
+                if (!MoveUtils.isCapture(move) && !MoveUtils.isPromotion(move)) {
+                    moveCount++;
+                    continue;
+                }
+                this.board.makeMove(move);
+                final int value = this.tablebase.probe(this.board);
+                this.board.unmakeMove();
+                if (value == Tablebase.NOT_FOUND) {
+                    throw new IllegalStateException("Missing table after " + MoveUtils.toString(move)
+                            + " in " + material);
+                } else if (Tablebase.isLoss(value)) {
+                    fastestWin = Math.min(fastestWin, Tablebase.getDistance(value) + 1);
+                } else if (Tablebase.isWin(value)) {
+                    slowestLoss = Math.max(slowestLoss, Tablebase.getDistance(value) + 1);
+                } else {
+                    draw = true;
+                }
+            }
+            moveCounts[index] = (byte) moveCount;
+            if (this.moves.isEmpty()) {
+                if (this.board.isInCheck()) {
+                    values[index] = (byte) Tablebase.getValue(0);
+                }
+            } else if (fastestWin != Integer.MAX_VALUE) {
+                // The fastest win is only known once the moves staying in the table are.
+                values[index] = (byte) Tablebase.getValue(fastestWin);
+                maxDistance = Math.max(maxDistance, fastestWin);
+            } else if (moveCount == 0) {
+                if (!draw) {
+                    values[index] = (byte) Tablebase.getValue(slowestLoss);
+                    maxDistance = Math.max(maxDistance, slowestLoss);
+                }
+            } else {
+                conversions[index] = draw ? CONVERSION_DRAW : (byte) slowestLoss;
+            }
+        }
+        return maxDistance;
+    }
+
+    /**
+     * Score the predecessors of a position whose distance to mate is known.
+     * @param material the material of the table.
+     * @param index the index of the position.
+     * @param distance the distance to mate of the position.
+     * @param values the values found, 0 while unknown.
+     * @param moveCounts the moves staying in the table and not yet known to lose.
+     * @param conversions the best capture or promotion of the positions not yet known.
+     * @return the longest distance to mate given to a predecessor, 0 if none.
+     */
+    private int retract(final EndgameMaterial material,
+                        final int index,
+                        final int distance,
+                        final byte[] values,
+                        final byte[] moveCounts,
+                        final byte[] conversions) {
+        final int mover = material.getPosition(index, this.tiles) ^ 1;
+        final int pieceCount = material.getPieceCount();
+        final boolean lost = (distance & 1) == 0;
+        if (distance + 1 > Tablebase.MAX_DISTANCE) {
+            throw new IllegalStateException("The distance to mate is too long in " + material);
+        }
+        long occupancy = 0L;
+        for (int i = 0; i < pieceCount; i++) {
+            occupancy |= 1L << this.tiles[i];
+        }
+        int maxDistance = 0;
+        for (int i = 0; i < pieceCount; i++) {
+            final int pieceCode = material.getPieceCode(i);
+            if ((pieceCode & 1) != mover) {
+                continue;
+            }
+            long origins = getOrigins(pieceCode, this.tiles[i], occupancy);
+            while (origins != 0) {
+                System.arraycopy(this.tiles, 0, this.predecessorTiles, 0, pieceCount);
+                this.predecessorTiles[i] = Long.numberOfTrailingZeros(origins);
+                origins &= origins - 1;
+                final int predecessor = (int) material.getIndex(mover, this.predecessorTiles);
+                if (moveCounts[predecessor] == INVALID) {
+                    continue;
+                }
+                final int value = values[predecessor] & 0xFF;
+                if (lost) {
+                    if (value == 0 || value > Tablebase.getValue(distance + 1)) {
+                        values[predecessor] = (byte) Tablebase.getValue(distance + 1);
+                        maxDistance = distance + 1;
+                    }
+                } else if (value == 0 && --moveCounts[predecessor] == 0
+                        && conversions[predecessor] != CONVERSION_DRAW) {
+                    // The last move found is the slowest loss staying in the table.
+                    final int lossDistance = Math.max(distance + 1, conversions[predecessor] & 0xFF);
+                    values[predecessor] = (byte) Tablebase.getValue(lossDistance);
+                    maxDistance = Math.max(maxDistance, lossDistance);
+                }
+            }
+        }
+        return maxDistance;
+    }
+
+    /**
+     * Get the tiles a piece may have come from without capturing or promoting.
+     * @param pieceCode the piece code.
+     * @param tileCoordinate the tile of the piece.
+     * @param occupancy the tiles occupied by any piece.
+     * @return the origins.
+     */
+    private static long getOrigins(final int pieceCode, final int tileCoordinate, final long occupancy) {
+        final int pieceType = BoardUtils.getPieceType(pieceCode);
+        final long empty = ~occupancy;
+        if (pieceType == PAWN) {
+            // A pawn moves back against its direction, and never from the row it promotes on or the row behind.
+            final int step = (pieceCode & 1) == Alliance.WHITE.ordinal()
+                    ? BoardUtils.NUM_TILES_PER_ROW
+                    : -BoardUtils.NUM_TILES_PER_ROW;
+            final int origin = tileCoordinate + step;
+            final int originRow = origin / BoardUtils.NUM_TILES_PER_ROW;
+            if (originRow < 1 || originRow > BoardUtils.NUM_TILES_PER_ROW - 2 || (empty & (1L << origin)) == 0) {
+                return 0L;
+            }
+            final int jumpOrigin = origin + step;
+            final int jumpOriginRow = step > 0 ? BoardUtils.NUM_TILES_PER_ROW - 2 : 1;
+            if (jumpOrigin / BoardUtils.NUM_TILES_PER_ROW == jumpOriginRow && (empty & (1L << jumpOrigin)) != 0) {
+                return (1L << origin) | (1L << jumpOrigin);
+            }
+            return 1L << origin;
+        } else if (pieceType == KNIGHT) {
+            return BoardUtils.KNIGHT_ATTACKS[tileCoordinate] & empty;
+        } else if (pieceType == BISHOP) {
+            return MagicBitboards.getBishopAttacks(tileCoordinate, occupancy) & empty;
+        } else if (pieceType == ROOK) {
+            return MagicBitboards.getRookAttacks(tileCoordinate, occupancy) & empty;
+        } else if (pieceType == QUEEN) {
+            return MagicBitboards.getQueenAttacks(tileCoordinate, occupancy) & empty;
+        }
+        return BoardUtils.KING_ATTACKS[tileCoordinate] & empty;
+    }
+
+    /**
+     * Put the position read from an index on the board.
+     * @param material the material of the table.
+     * @param sideToMove the alliance ordinal to move.
+     * @return false if the alliance not to move is in check, the kings touching included.
+     */
+    private boolean setPosition(final EndgameMaterial material, final int sideToMove) {
+        this.board.clear();
+        for (int i = 0; i < material.getPieceCount(); i++) {
+            this.board.putPiece(material.getPieceCode(i), this.tiles[i]);
+        }
+        final Alliance alliance = sideToMove == Alliance.WHITE.ordinal() ? Alliance.WHITE : Alliance.BLACK;
+        this.board.setState(alliance, 0, BoardUtils.NO_EN_PASSANT, 0, 1);
+        return !this.board.isKingAttacked(alliance.isWhite() ? Alliance.BLACK : Alliance.WHITE);
+    }
+
+    /**
+     * Generate tables from the command line.
+     * @param args the directory, then the names of the tables if not all of them.
+     * @throws IOException if a table can't be read or written.
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: TablebaseGenerator directory [name...]");
+            return;
+        }
+        final Path directory = Paths.get(args[0]);
+        Files.createDirectories(directory);
+        final Tablebase tablebase = new Tablebase(directory);
+        final TablebaseGenerator generator = new TablebaseGenerator(tablebase);
+        final List<EndgameMaterial> endings = new ArrayList<>();
+        if (args.length == 1) {
+            endings.addAll(EndgameMaterial.list(4));
+        }
+        for (int i = 1; i < args.length; i++) {
+            final EndgameMaterial material = EndgameMaterial.parse(args[i]);
+            endings.add(material.isCanonical() ? material : material.swapColours());
+        }
+        for (final EndgameMaterial material : endings) {
+            if (args.length == 1 && tablebase.hasTable(material)) {
+                continue;
+            }
+            final long start = System.nanoTime();
+            final byte[] entries = generator.generate(material);
+            final Path file = Tablebase.writeTable(directory, material, entries);
+            int longestWin = 0;
+            for (final byte entry : entries) {
+                if (Tablebase.isWin(entry & 0xFF)) {
+                    longestWin = Math.max(longestWin, Tablebase.getDistance(entry & 0xFF));
+                }
+            }
+            System.out.println(file.getFileName() + ": " + entries.length + " entries, longest win "
+                    + longestWin + " plies, " + (System.nanoTime() - start) / 1_000_000L + " ms");
+        }
+    }
+}
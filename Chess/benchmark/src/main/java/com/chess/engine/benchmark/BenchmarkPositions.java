@@ -0,0 +1,57 @@
+package com.chess.engine.benchmark;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.pgn.FenUtilities;
+import com.chess.engine.perft.PerftPosition;
+
+/**
+ * The fixed corpus of positions every benchmark runs over, so numbers from different runs compare.
+ * It holds the perft reference positions plus a few quiet middlegames and endgames.
+ */
+final class BenchmarkPositions {
+
+    /**
+     * Positions that are not in the perft suite.
+     */
+    private static final String[] EXTRA_FENS = {
+            "r1bq1rk1/pp2bppp/2n1pn2/3p4/2PP4/2N1PN2/PP1B1PPP/R2QKB1R w KQ - 0 8",
+            "r2q1rk1/1b2bppp/p2ppn2/1p6/3NP3/1BN1B3/PPP1QPPP/2KR3R w - - 0 12",
+            "2r2rk1/pp1bqppp/2n1p3/3pP3/3P4/P1PB1N2/5PPP/R2Q1RK1 w - - 0 16",
+            "8/5pk1/6p1/3R4/5P2/6P1/r6P/6K1 w - - 0 40",
+            "8/8/4k3/3p4/3P4/4K3/8/8 w - - 0 60"
+    };
+
+    /**
+     * The constructor.
+     */
+    private BenchmarkPositions() {
+        throw new RuntimeException("You cannot instantiate me!");
+    }
+
+    /**
+     * Get the FEN strings of the corpus.
+     * @return a new array of FEN strings.
+     */
+    static String[] getFens() {
+        final PerftPosition[] perftPositions = PerftPosition.values();
+        final String[] fens = new String[perftPositions.length + EXTRA_FENS.length];
+        for (int i = 0; i < perftPositions.length; i++) {
+            fens[i] = perftPositions[i].getFen();
+        }
+        System.arraycopy(EXTRA_FENS, 0, fens, perftPositions.length, EXTRA_FENS.length);
+        return fens;
+    }
+
+    /**
+     * Create the boards of the corpus.
+     * @return a new array of boards.
+     */
+    static Board[] createBoards() {
+        final String[] fens = getFens();
+        final Board[] boards = new Board[fens.length];
+        for (int i = 0; i < fens.length; i++) {
+            boards[i] = FenUtilities.createGameFromFEN(fens[i]);
+        }
+        return boards;
+    }
+}
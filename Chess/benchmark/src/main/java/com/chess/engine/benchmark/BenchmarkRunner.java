@@ -0,0 +1,37 @@
+package com.chess.engine.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the gc profiler, so every result comes with its allocation rate
+ * (gc.alloc.rate.norm is the number of bytes allocated per operation).
+ *
+ * Usage:
+ *   BenchmarkRunner [regex]  run the benchmarks whose name matches, all of them by default.
+ */
+public final class BenchmarkRunner {
+
+    /**
+     * The constructor.
+     */
+    private BenchmarkRunner() {
+        throw new RuntimeException("You cannot instantiate me!");
+    }
+
+    /**
+     * Run the benchmarks.
+     * @param args an optional regular expression selecting the benchmarks.
+     * @throws RunnerException if a benchmark fails.
+     */
+    public static void main(final String[] args) throws RunnerException {
+        final Options options = new OptionsBuilder()
+                .include(args.length > 0 ? args[0] : BenchmarkRunner.class.getPackage().getName() + ".*")
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,102 @@
+package com.chess.engine.benchmark;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.pgn.FenUtilities;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Board construction, from the builder and from FEN strings, and writing FEN strings back.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BoardBenchmark {
+
+    /**
+     * The FEN strings of the corpus.
+     */
+    private String[] fens;
+
+    /**
+     * The boards of the corpus.
+     */
+    private Board[] boards;
+
+    /**
+     * The board the corpus is loaded into.
+     */
+    private Board board;
+
+    /**
+     * The buffer the FEN strings are written to.
+     */
+    private byte[] buffer;
+
+    /**
+     * Load the corpus.
+     */
+    @Setup
+    public void setUp() {
+        this.fens = BenchmarkPositions.getFens();
+        this.boards = BenchmarkPositions.createBoards();
+        this.board = Board.createStandardBoard();
+        this.buffer = new byte[FenUtilities.MAX_FEN_LENGTH];
+    }
+
+    /**
+     * Create the board of a new game through the builder.
+     */
+    @Benchmark
+    public Board createStandardBoard() {
+        return Board.createStandardBoard();
+    }
+
+    /**
+     * Create every board of the corpus from its FEN string.
+     * @param blackhole consumes the results.
+     */
+    @Benchmark
+    public void createBoardsFromFen(final Blackhole blackhole) {
+        for (final String fen : this.fens) {
+            blackhole.consume(FenUtilities.createGameFromFEN(fen));
+        }
+    }
+
+    /**
+     * Load every FEN string of the corpus into the same board.
+     * @param blackhole consumes the results.
+     */
+    @Benchmark
+    public void parseFensIntoBoard(final Blackhole blackhole) {
+        for (final String fen : this.fens) {
+            FenUtilities.parseFen(fen, this.board);
+            blackhole.consume(this.board.getZobristKey());
+        }
+    }
+
+    /**
+     * Write the FEN of every board of the corpus to the same buffer.
+     * @param blackhole consumes the results.
+     */
+    @Benchmark
+    public void writeFens(final Blackhole blackhole) {
+        for (final Board corpusBoard : this.boards) {
+            blackhole.consume(FenUtilities.writeFen(corpusBoard, this.buffer, 0));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.chess.engine.benchmark;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.eval.StandardBoardEvaluator;
+import com.chess.engine.search.MaterialBoardEvaluator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The evaluation of the leaves: material only, and the standard evaluation reading the scores the board
+ * keeps up to date.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EvaluationBenchmark {
+
+    /**
+     * The boards of the corpus.
+     */
+    private Board[] boards;
+
+    /**
+     * The standard evaluation, with a pawn hash table of its own.
+     */
+    private StandardBoardEvaluator standardEvaluator;
+
+    /**
+     * Load the corpus and create the standard evaluation.
+     */
+    @Setup
+    public void setUp() {
+        this.boards = BenchmarkPositions.createBoards();
+        this.standardEvaluator = StandardBoardEvaluator.create();
+    }
+
+    /**
+     * Evaluate every board of the corpus by its material.
+     * @param blackhole consumes the results.
+     */
+    @Benchmark
+    public void evaluateMaterial(final Blackhole blackhole) {
+        for (final Board board : this.boards) {
+            blackhole.consume(MaterialBoardEvaluator.get().evaluate(board));
+        }
+    }
+
+    /**
+     * Evaluate every board of the corpus with the standard evaluation.
+     * @param blackhole consumes the results.
+     */
+    @Benchmark
+    public void evaluateStandard(final Blackhole blackhole) {
+        for (final Board board : this.boards) {
+            blackhole.consume(this.standardEvaluator.evaluate(board));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.chess.engine.benchmark;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.MoveList;
+import com.chess.engine.perft.Perft;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Move generation of whole positions over the corpus.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoveGenerationBenchmark {
+
+    /**
+     * The boards of the corpus.
+     */
+    private Board[] boards;
+
+    /**
+     * The move list reused by every operation.
+     */
+    private final MoveList moves = new MoveList();
+
+    /**
+     * The perft driver, its move lists are reused by every operation.
+     */
+    private final Perft perft = new Perft(2);
+
+    /**
+     * Load the corpus.
+     */
+    @Setup
+    public void setUp() {
+        this.boards = BenchmarkPositions.createBoards();
+    }
+
+    /**
+     * Generate the pseudo-legal moves of every position.
+     */
+    @Benchmark
+    public int generatePseudoLegalMoves() {
+        int count = 0;
+        for (final Board board : this.boards) {
+            this.moves.clear();
+            board.generatePseudoLegalMoves(this.moves);
+            count += this.moves.size();
+        }
+        return count;
+    }
+
+    /**
+     * Generate the legal moves of every position, with the check and pin masks.
+     */
+    @Benchmark
+    public int generateLegalMoves() {
+        int count = 0;
+        for (final Board board : this.boards) {
+            this.moves.clear();
+            board.generateLegalMoves(this.moves);
+            count += this.moves.size();
+        }
+        return count;
+    }
+
+    /**
+     * Perft to depth 2 from every position, which adds making and taking back the moves of the first ply.
+     */
+    @Benchmark
+    public long perftDepthTwo() {
+        long nodes = 0L;
+        for (final Board board : this.boards) {
+            nodes += this.perft.perft(board, 2);
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,100 @@
+package com.chess.engine.benchmark;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.MoveList;
+import com.chess.engine.pieces.Piece;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * calculateLegalMoves of each piece type, over every piece of that type in the corpus.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PieceMoveBenchmark {
+
+    /**
+     * The piece type to benchmark.
+     */
+    @Param({"PAWN", "KNIGHT", "BISHOP", "ROOK", "QUEEN", "KING"})
+    private Piece.PieceType pieceType;
+
+    /**
+     * The boards of the pieces, boards[i] holds pieces[i].
+     */
+    private Board[] boards;
+
+    /**
+     * The pieces of the benchmarked type.
+     */
+    private Piece[] pieces;
+
+    /**
+     * The move list reused by every operation.
+     */
+    private final MoveList moves = new MoveList();
+
+    /**
+     * Load the corpus.
+     */
+    @Setup
+    public void setUp() {
+        final List<Board> pieceBoards = new ArrayList<>();
+        final List<Piece> typePieces = new ArrayList<>();
+        for (final Board board : BenchmarkPositions.createBoards()) {
+            for (int i = 0; i < BoardUtils.NUM_TILES; i++) {
+                final Piece piece = board.getPiece(i);
+                if (piece != null && piece.getPieceType() == this.pieceType) {
+                    pieceBoards.add(board);
+                    typePieces.add(piece);
+                }
+            }
+        }
+        this.boards = pieceBoards.toArray(new Board[0]);
+        this.pieces = typePieces.toArray(new Piece[0]);
+    }
+
+    /**
+     * The Collection based API, which wraps every move into a Move object.
+     * @param blackhole consumes the results.
+     */
+    @Benchmark
+    public void calculateLegalMoves(final Blackhole blackhole) {
+        for (int i = 0; i < this.pieces.length; i++) {
+            blackhole.consume(this.pieces[i].calculateLegalMoves(this.boards[i]));
+        }
+    }
+
+    /**
+     * The MoveList based API, which should not allocate.
+     */
+    @Benchmark
+    public int calculateLegalMovesIntoMoveList() {
+        int count = 0;
+        for (int i = 0; i < this.pieces.length; i++) {
+            this.moves.clear();
+            this.pieces[i].calculateLegalMoves(this.boards[i], this.moves);
+            count += this.moves.size();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,100 @@
+package com.chess.engine.benchmark;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.Tile;
+import com.chess.engine.pieces.Knight;
+import com.chess.engine.pieces.Piece;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tile creation and tile lookup on a board, the compatibility path of the old tile based API.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TileBenchmark {
+
+    /**
+     * The boards of the corpus.
+     */
+    private Board[] boards;
+
+    /**
+     * The piece put on the occupied tiles.
+     */
+    private Piece piece;
+
+    /**
+     * Load the corpus.
+     */
+    @Setup
+    public void setUp() {
+        this.boards = BenchmarkPositions.createBoards();
+        this.piece = new Knight(36, Alliance.WHITE);
+    }
+
+    /**
+     * Create every empty tile, served from the cache.
+     * @param blackhole consumes the results.
+     */
+    @Benchmark
+    public void createEmptyTiles(final Blackhole blackhole) {
+        for (int i = 0; i < BoardUtils.NUM_TILES; i++) {
+            blackhole.consume(Tile.creatTile(i, null));
+        }
+    }
+
+    /**
+     * Create an occupied tile on every tile.
+     * @param blackhole consumes the results.
+     */
+    @Benchmark
+    public void createOccupiedTiles(final Blackhole blackhole) {
+        for (int i = 0; i < BoardUtils.NUM_TILES; i++) {
+            blackhole.consume(Tile.creatTile(i, this.piece));
+        }
+    }
+
+    /**
+     * Look up every tile of every board in the corpus.
+     * @param blackhole consumes the results.
+     */
+    @Benchmark
+    public void getTile(final Blackhole blackhole) {
+        for (final Board board : this.boards) {
+            for (int i = 0; i < BoardUtils.NUM_TILES; i++) {
+                blackhole.consume(board.getTile(i));
+            }
+        }
+    }
+
+    /**
+     * Read every tile of every board in the corpus through the piece codes, the path generators use.
+     * @param blackhole consumes the results.
+     */
+    @Benchmark
+    public void getPieceCode(final Blackhole blackhole) {
+        for (final Board board : this.boards) {
+            for (int i = 0; i < BoardUtils.NUM_TILES; i++) {
+                blackhole.consume(board.getPieceCode(i));
+            }
+        }
+    }
+}